@@ -0,0 +1,3 @@
+# The core library includes a JVM only HTTP transport built on java.net.http, which is not available on Android and is
+# never used by the Android SDK.
+-dontwarn java.net.http.**
@@ -35,6 +35,7 @@ import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.utils.isAnalyticsActive
 import com.rudderstack.sdk.kotlin.core.internals.utils.isSourceEnabled
 import com.rudderstack.sdk.kotlin.core.provideAnalyticsConfiguration
+import kotlinx.coroutines.Job
 import com.rudderstack.sdk.kotlin.android.models.reset.ResetEntries as AndroidResetEntry
 import com.rudderstack.sdk.kotlin.android.models.reset.ResetOptions as AndroidResetOption
 
@@ -72,7 +73,15 @@ class Analytics(
 ) : Platform, Analytics(
     configuration,
     analyticsConfiguration = provideAnalyticsConfiguration(configuration) { writeKey, logger ->
-        provideAndroidStorage(writeKey, configuration.application, PlatformType.Mobile, logger)
+        provideAndroidStorage(
+            writeKey,
+            configuration.application,
+            PlatformType.Mobile,
+            logger,
+            configuration.storageDurability,
+            configuration.compressBatchesOnDisk,
+            configuration.storageQuota,
+        )
     },
 ) {
 
@@ -165,6 +174,19 @@ class Analytics(
         integrationsManagementPlugin.flush()
     }
 
+    /**
+     * Flushes all pending events like [flush], and returns a [Job] which completes once the events made before this call
+     * are uploaded to the data plane. The device mode destinations are flushed as well, but the job doesn't wait for them.
+     */
+    override fun flushWithCompletion(): Job {
+        logger.debug("Analytics(android): flushWithCompletion() called")
+        val completion = super.flushWithCompletion()
+        if (isAnalyticsActive()) {
+            integrationsManagementPlugin.flush()
+        }
+        return completion
+    }
+
     /**
      * Tracks the destination changes for the given [NavController] and automatically sends screen events for it.
      *
@@ -273,13 +295,13 @@ class Analytics(
     private fun setup() {
         LoggerAnalytics.setPlatformLogger(logger = AndroidLogger())
         add(AndroidConnectivityObserverPlugin(connectivityState))
-        add(DeviceInfoPlugin())
-        add(AppInfoPlugin())
-        add(NetworkInfoPlugin())
-        add(LocaleInfoPlugin())
-        add(OSInfoPlugin())
-        add(ScreenInfoPlugin())
-        add(TimezoneInfoPlugin())
+        addContextPlugin(DeviceInfoPlugin())
+        addContextPlugin(AppInfoPlugin())
+        addContextPlugin(NetworkInfoPlugin())
+        addContextPlugin(LocaleInfoPlugin())
+        addContextPlugin(OSInfoPlugin())
+        addContextPlugin(ScreenInfoPlugin())
+        addContextPlugin(TimezoneInfoPlugin())
         add(sessionTrackingPlugin)
         add(integrationsManagementPlugin)
 
@@ -5,8 +5,14 @@ package com.rudderstack.sdk.kotlin.android
 import android.app.Application
 import com.rudderstack.sdk.kotlin.android.logger.AndroidLogger
 import com.rudderstack.sdk.kotlin.core.Configuration
+import com.rudderstack.sdk.kotlin.core.MetricsExporter
+import com.rudderstack.sdk.kotlin.core.OverflowStrategy
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration
+import com.rudderstack.sdk.kotlin.core.StorageDurability
+import com.rudderstack.sdk.kotlin.core.StorageQuota
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.logger.LoggerAnalytics
+import com.rudderstack.sdk.kotlin.core.internals.network.HttpTransport
 import com.rudderstack.sdk.kotlin.core.internals.policies.FlushPolicy
 
 internal const val DEFAULT_SESSION_TIMEOUT_IN_MILLIS = 300_000L
@@ -44,6 +50,15 @@ internal const val DEFAULT_SESSION_TIMEOUT_IN_MILLIS = 300_000L
  * @param gzipEnabled Flag to enable or disable GZIP compression for network requests. Defaults to `DEFAULT_GZIP_STATUS`.
  * @param logger An instance of `Logger` for logging SDK events and errors. Defaults to `DEFAULT_LOGGER`.
  * @param logLevel The log level for this configuration instance, determining the minimum severity of messages that will be logged. Defaults to `DEFAULT_LOG_LEVEL`.
+ * @param queueConfiguration The capacity and overflow strategy of the in-memory event queues. Defaults to `DEFAULT_QUEUE_CONFIGURATION`.
+ * @param uploadConcurrency The maximum number of batches uploaded at the same time. Defaults to `DEFAULT_UPLOAD_CONCURRENCY`.
+ * @param httpTransport The transport used to execute the network requests. Defaults to `DEFAULT_HTTP_TRANSPORT`, which reuses connections across requests.
+ * @param storageDurability When the stored events are written to the disk. Defaults to `DEFAULT_STORAGE_DURABILITY`, which writes every event as soon as it is stored.
+ * @param storageQuota The limits of the batches kept while they wait to be uploaded. Defaults to `DEFAULT_STORAGE_QUOTA`, which keeps every batch until it is uploaded.
+ * @param metricsExporter The exporter to which the SDK metrics are pushed periodically. Defaults to `DEFAULT_METRICS_EXPORTER`, which doesn't export them.
+ * @param compressBatchesOnDisk Whether every batch is compressed once when it is completed, so that it is uploaded as it is when `gzipEnabled` is set. Defaults to `DEFAULT_COMPRESS_BATCHES_ON_DISK`.
+ * Once enabled, the batch files can't be read by the SDK versions without this option, so downgrading the SDK loses the batches which weren't uploaded yet.
+ * @param deviceModeConfiguration How the events are delivered to the device mode destinations. Defaults to `DeviceModeConfiguration()`.
  *
  * ## Example
  * ```kotlin
@@ -73,6 +88,14 @@ data class Configuration @JvmOverloads constructor(
     override val gzipEnabled: Boolean = DEFAULT_GZIP_STATUS,
     override val logger: Logger = DEFAULT_LOGGER,
     override val logLevel: Logger.LogLevel = DEFAULT_LOG_LEVEL,
+    override val queueConfiguration: QueueConfiguration = DEFAULT_QUEUE_CONFIGURATION,
+    override val uploadConcurrency: Int = DEFAULT_UPLOAD_CONCURRENCY,
+    override val httpTransport: HttpTransport = DEFAULT_HTTP_TRANSPORT,
+    override val storageDurability: StorageDurability = DEFAULT_STORAGE_DURABILITY,
+    override val storageQuota: StorageQuota = DEFAULT_STORAGE_QUOTA,
+    override val metricsExporter: MetricsExporter? = DEFAULT_METRICS_EXPORTER,
+    override val compressBatchesOnDisk: Boolean = DEFAULT_COMPRESS_BATCHES_ON_DISK,
+    val deviceModeConfiguration: DeviceModeConfiguration = DeviceModeConfiguration(),
 ) : Configuration(
     writeKey = writeKey,
     dataPlaneUrl = dataPlaneUrl,
@@ -118,3 +141,54 @@ data class SessionConfiguration(
         internal const val DEFAULT_AUTOMATIC_SESSION_TRACKING = true
     }
 }
+
+/**
+ * Data class for configuring how the events are delivered to the device mode destinations.
+ *
+ * Each destination has its own queue and worker, so a destination which is slow to handle the events only delays its
+ * own events, and only its own events are dropped once its queue is full. The events of a destination are always
+ * delivered one after the other, in the order in which they were made.
+ *
+ * @param concurrency The maximum number of destinations handling an event at the same time. Values outside `1..16` are
+ * coerced into that range. Defaults to `4`.
+ * @param queueConfiguration The capacity and overflow strategy of the queue of each destination. Defaults to a capacity of
+ * `1000` events, dropping the oldest event once the queue is full. A blocking [OverflowStrategy] holds back the events of
+ * every destination while the queue of one of them is full.
+ * @param destinationQueueConfigurations The queue configuration of specific destinations, keyed by the destination key,
+ * e.g. `Firebase`, which takes precedence over the [queueConfiguration]. Defaults to none.
+ */
+data class DeviceModeConfiguration @JvmOverloads constructor(
+    val concurrency: Int = DEFAULT_DEVICE_MODE_CONCURRENCY,
+    val queueConfiguration: QueueConfiguration = DEFAULT_DESTINATION_QUEUE_CONFIGURATION,
+    val destinationQueueConfigurations: Map<String, QueueConfiguration> = emptyMap(),
+) {
+
+    /**
+     * Returns the queue configuration of the destination with the given [destinationKey].
+     */
+    fun queueConfigurationFor(destinationKey: String): QueueConfiguration {
+        return destinationQueueConfigurations[destinationKey] ?: queueConfiguration
+    }
+
+    companion object {
+
+        internal const val DEFAULT_DEVICE_MODE_CONCURRENCY = 4
+        internal const val MIN_DEVICE_MODE_CONCURRENCY = 1
+        internal const val MAX_DEVICE_MODE_CONCURRENCY = 16
+        private const val DEFAULT_DESTINATION_QUEUE_CAPACITY = 1000
+
+        internal val DEFAULT_DESTINATION_QUEUE_CONFIGURATION = QueueConfiguration(
+            capacity = DEFAULT_DESTINATION_QUEUE_CAPACITY,
+            overflowStrategy = OverflowStrategy.DropOldest,
+        )
+    }
+}
+
+/**
+ * The [DeviceModeConfiguration.concurrency] coerced into the supported range.
+ */
+internal val DeviceModeConfiguration.validatedConcurrency: Int
+    get() = concurrency.coerceIn(
+        DeviceModeConfiguration.MIN_DEVICE_MODE_CONCURRENCY,
+        DeviceModeConfiguration.MAX_DEVICE_MODE_CONCURRENCY,
+    )
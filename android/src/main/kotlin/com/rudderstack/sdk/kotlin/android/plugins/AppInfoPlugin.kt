@@ -1,5 +1,6 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import android.content.pm.PackageInfo
 import android.content.pm.PackageManager
 import android.os.Build
@@ -9,6 +10,7 @@ import com.rudderstack.sdk.kotlin.android.utils.putIfNotNull
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
@@ -26,7 +28,7 @@ private const val APP_VERSION_KEY = "version"
  *
  * **NOTE**: This plugin needs to be added early in the plugin chain to ensure that the app info is attached to all events
  */
-internal class AppInfoPlugin : Plugin {
+internal class AppInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -71,10 +73,12 @@ internal class AppInfoPlugin : Plugin {
             }
         }
 
+    override fun contextFragment(): JsonObject = appContext
+
     override suspend fun intercept(event: Event): Event = attachAppInfo(event)
 
     private fun attachAppInfo(event: Event): Event {
-        analytics.logger.verbose("AppInfoPlugin: Attaching app info to the event payload (messageId=${event.messageId})")
+        analytics.logger.verbose { "AppInfoPlugin: Attaching app info to the event payload (messageId=${event.messageId})" }
 
         event.context = event.context mergeWithHigherPriorityTo appContext
 
@@ -1,5 +1,6 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import android.app.Application
 import android.os.Build
 import androidx.annotation.VisibleForTesting
@@ -9,6 +10,7 @@ import com.rudderstack.sdk.kotlin.android.utils.mergeWithHigherPriorityTo
 import com.rudderstack.sdk.kotlin.android.utils.putIfNotNull
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
@@ -22,7 +24,7 @@ private const val NAME = "name"
 private const val TYPE = "type"
 private const val ANDROID = "Android"
 
-internal class DeviceInfoPlugin : Plugin {
+internal class DeviceInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -40,13 +42,15 @@ internal class DeviceInfoPlugin : Plugin {
         }
     }
 
+    override fun contextFragment(): JsonObject = deviceContext
+
     override suspend fun intercept(event: Event): Event = attachDeviceInfo(event)
 
     @VisibleForTesting
     internal fun attachDeviceInfo(message: Event): Event {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "DeviceInfoPlugin: Attaching device info to the event payload (messageId=${message.messageId})"
-        )
+        }
         message.context = message.context mergeWithHigherPriorityTo deviceContext
         return message
     }
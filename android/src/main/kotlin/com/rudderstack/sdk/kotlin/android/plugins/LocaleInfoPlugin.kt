@@ -1,9 +1,18 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
+import android.app.Application
+import android.content.BroadcastReceiver
+import android.content.Intent
+import com.rudderstack.sdk.kotlin.android.Configuration
 import com.rudderstack.sdk.kotlin.android.utils.mergeWithHigherPriorityTo
+import com.rudderstack.sdk.kotlin.android.utils.registerSystemBroadcastReceiver
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
+import com.rudderstack.sdk.kotlin.core.internals.utils.defaultExceptionHandler
+import com.rudderstack.sdk.kotlin.core.internals.utils.safelyExecute
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
 import kotlinx.serialization.json.put
@@ -14,18 +23,41 @@ private const val LOCALE_KEY = "locale"
 
 /**
  * Plugin to attach locale info to the event context payload
+ *
+ * The locale info is computed once, and computed again only when the locale of the device changes.
  */
-internal class LocaleInfoPlugin : Plugin {
+internal class LocaleInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
     override lateinit var analytics: Analytics
 
+    @Volatile
     private lateinit var localeContext: JsonObject
 
+    private var application: Application? = null
+    private var localeChangedReceiver: BroadcastReceiver? = null
+
     override fun setup(analytics: Analytics) {
         super.setup(analytics)
         localeContext = constructLocaleContext()
+        (analytics.configuration as? Configuration)?.let { config ->
+            application = config.application
+            safelyExecute(
+                block = {
+                    localeChangedReceiver = config.application.registerSystemBroadcastReceiver(Intent.ACTION_LOCALE_CHANGED) {
+                        localeContext = constructLocaleContext()
+                    }
+                },
+                onException = { exception ->
+                    defaultExceptionHandler(
+                        errorMsg = "LocaleInfoPlugin: Failed to observe locale changes. The locale info may become stale",
+                        exception = exception,
+                        logger = analytics.logger,
+                    )
+                },
+            )
+        }
     }
 
     @VisibleForTesting
@@ -33,15 +65,22 @@ internal class LocaleInfoPlugin : Plugin {
         put(LOCALE_KEY, Locale.getDefault().language + "-" + Locale.getDefault().country)
     }
 
+    override fun contextFragment(): JsonObject = localeContext
+
     override suspend fun intercept(event: Event): Event = attachLocaleInfo(event)
 
     private fun attachLocaleInfo(event: Event): Event {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "LocaleInfoPlugin: Attaching locale info to the event payload (messageId=${event.messageId})"
-        )
+        }
 
         event.context = event.context mergeWithHigherPriorityTo localeContext
 
         return event
     }
+
+    override fun teardown() {
+        localeChangedReceiver?.let { application?.unregisterReceiver(it) }
+        localeChangedReceiver = null
+    }
 }
@@ -1,5 +1,6 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import android.Manifest.permission
 import android.content.Context
 import com.rudderstack.sdk.kotlin.android.Configuration
@@ -10,11 +11,13 @@ import com.rudderstack.sdk.kotlin.android.utils.network.NetworkUtils
 import com.rudderstack.sdk.kotlin.android.utils.putIfNotNull
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
 import kotlinx.serialization.json.put
 import org.jetbrains.annotations.VisibleForTesting
+import java.util.concurrent.TimeUnit
 
 private const val NETWORK_KEY = "network"
 private const val NETWORK_CARRIER_KEY = "carrier"
@@ -22,6 +25,13 @@ private const val NETWORK_BLUETOOTH_KEY = "bluetooth"
 private const val NETWORK_CELLULAR_KEY = "cellular"
 private const val NETWORK_WIFI_KEY = "wifi"
 
+/**
+ * The maximum age of the network info, after which it is computed again even if no network change has been reported.
+ * It bounds how long the carrier, the mobile data setting, the bluetooth state and the permissions, which are not
+ * observed, can be stale.
+ */
+private val NETWORK_INFO_MAX_AGE_IN_NANOS = TimeUnit.SECONDS.toNanos(1)
+
 /**
  * A plugin that attaches network information to the event payload.
  *
@@ -31,31 +41,46 @@ private const val NETWORK_WIFI_KEY = "wifi"
  *   3. The `ACCESS_WIFI_STATE` permission to access the Wi-Fi state,
  *   in the default network util plugin [DefaultNetworkUtils.isWifiEnabled].
  *
+ * The network info is cached, and computed again as soon as a change of the cellular or wifi connection is reported,
+ * or at the latest once it is older than a second.
  */
 internal class NetworkInfoPlugin(
     private val networkUtils: NetworkUtils = NetworkUtils(),
-) : Plugin {
+    private val nanoTime: () -> Long = { System.nanoTime() },
+) : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
     override lateinit var analytics: Analytics
     private lateinit var context: Context
 
+    @Volatile
+    private var cachedNetworkInfo: CachedNetworkInfo? = null
+
     override fun setup(analytics: Analytics) {
         super.setup(analytics)
         (analytics.configuration as Configuration).let {
             context = it.application
+            networkUtils.onNetworkChange = { cachedNetworkInfo = null }
             networkUtils.setup(context = context, logger = analytics.logger)
         }
     }
 
+    override fun contextFragment(): JsonObject {
+        val now = nanoTime()
+        cachedNetworkInfo?.let {
+            if (now - it.computedAtInNanos < NETWORK_INFO_MAX_AGE_IN_NANOS) return it.networkInfo
+        }
+        return getNetworkInfo().also { cachedNetworkInfo = CachedNetworkInfo(networkInfo = it, computedAtInNanos = now) }
+    }
+
     override suspend fun intercept(event: Event): Event = attachNetworkInfo(event)
 
     private fun attachNetworkInfo(event: Event): Event {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "NetworkInfoPlugin: Attaching network info to the event payload (messageId=${event.messageId})"
-        )
+        }
 
-        event.context = event.context mergeWithHigherPriorityTo getNetworkInfo()
+        event.context = event.context mergeWithHigherPriorityTo contextFragment()
 
         return event
     }
@@ -84,4 +109,6 @@ internal class NetworkInfoPlugin(
     override fun teardown() {
         networkUtils.teardown()
     }
+
+    private class CachedNetworkInfo(val networkInfo: JsonObject, val computedAtInNanos: Long)
 }
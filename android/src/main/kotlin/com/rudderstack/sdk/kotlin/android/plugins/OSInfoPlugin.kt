@@ -1,9 +1,11 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import android.os.Build
 import com.rudderstack.sdk.kotlin.android.utils.mergeWithHigherPriorityTo
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
@@ -19,7 +21,7 @@ private const val OS_VALUE = "Android"
 /**
  * Plugin to attach OS info to the event context payload
  */
-internal class OSInfoPlugin : Plugin {
+internal class OSInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -43,10 +45,12 @@ internal class OSInfoPlugin : Plugin {
         )
     }
 
+    override fun contextFragment(): JsonObject = osContext
+
     override suspend fun intercept(event: Event): Event = attachOSInfo(event)
 
     private fun attachOSInfo(event: Event): Event {
-        analytics.logger.verbose("OSInfoPlugin: Attaching OS info to the event payload (messageId=${event.messageId})")
+        analytics.logger.verbose { "OSInfoPlugin: Attaching OS info to the event payload (messageId=${event.messageId})" }
 
         event.context = event.context mergeWithHigherPriorityTo osContext
 
@@ -1,10 +1,12 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import android.util.DisplayMetrics
 import com.rudderstack.sdk.kotlin.android.Configuration
 import com.rudderstack.sdk.kotlin.android.utils.mergeWithHigherPriorityTo
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
@@ -19,7 +21,7 @@ private const val SCREEN_WIDTH_KEY = "width"
 /**
  * Plugin to attach screen info to the event context payload
  */
-internal class ScreenInfoPlugin : Plugin {
+internal class ScreenInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -47,12 +49,14 @@ internal class ScreenInfoPlugin : Plugin {
         )
     }
 
+    override fun contextFragment(): JsonObject = screenContext
+
     override suspend fun intercept(event: Event): Event = attachScreenInfo(event)
 
     private fun attachScreenInfo(event: Event): Event {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "ScreenInfoPlugin: Attaching screen info to the event payload (messageId=${event.messageId})"
-        )
+        }
 
         event.context = event.context mergeWithHigherPriorityTo screenContext
 
@@ -1,9 +1,18 @@
 package com.rudderstack.sdk.kotlin.android.plugins
 
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
+import android.app.Application
+import android.content.BroadcastReceiver
+import android.content.Intent
+import com.rudderstack.sdk.kotlin.android.Configuration
 import com.rudderstack.sdk.kotlin.android.utils.mergeWithHigherPriorityTo
+import com.rudderstack.sdk.kotlin.android.utils.registerSystemBroadcastReceiver
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
+import com.rudderstack.sdk.kotlin.core.internals.utils.defaultExceptionHandler
+import com.rudderstack.sdk.kotlin.core.internals.utils.safelyExecute
 import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.json.buildJsonObject
 import kotlinx.serialization.json.put
@@ -14,18 +23,41 @@ private const val TIMEZONE_KEY = "timezone"
 
 /**
  * Plugin to attach timezone info to the event context payload
+ *
+ * The timezone info is computed once, and computed again only when the timezone of the device changes.
  */
-internal class TimezoneInfoPlugin : Plugin {
+internal class TimezoneInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
     override lateinit var analytics: Analytics
 
+    @Volatile
     private lateinit var timezoneContext: JsonObject
 
+    private var application: Application? = null
+    private var timezoneChangedReceiver: BroadcastReceiver? = null
+
     override fun setup(analytics: Analytics) {
         super.setup(analytics)
         timezoneContext = constructTimezoneContext()
+        (analytics.configuration as? Configuration)?.let { config ->
+            application = config.application
+            safelyExecute(
+                block = {
+                    timezoneChangedReceiver = config.application.registerSystemBroadcastReceiver(Intent.ACTION_TIMEZONE_CHANGED) {
+                        timezoneContext = constructTimezoneContext()
+                    }
+                },
+                onException = { exception ->
+                    defaultExceptionHandler(
+                        errorMsg = "TimezoneInfoPlugin: Failed to observe timezone changes. The timezone info may become stale",
+                        exception = exception,
+                        logger = analytics.logger,
+                    )
+                },
+            )
+        }
     }
 
     @VisibleForTesting
@@ -33,15 +65,22 @@ internal class TimezoneInfoPlugin : Plugin {
         put(TIMEZONE_KEY, TimeZone.getDefault().id)
     }
 
+    override fun contextFragment(): JsonObject = timezoneContext
+
     override suspend fun intercept(event: Event): Event = attachTimezoneInfo(event)
 
     private fun attachTimezoneInfo(event: Event): Event {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "TimezoneInfoPlugin: Attaching timezone info to the event payload (messageId=${event.messageId})"
-        )
+        }
 
         event.context = event.context mergeWithHigherPriorityTo timezoneContext
 
         return event
     }
+
+    override fun teardown() {
+        timezoneChangedReceiver?.let { application?.unregisterReceiver(it) }
+        timezoneChangedReceiver = null
+    }
 }
@@ -10,6 +10,7 @@ import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
 import com.rudderstack.sdk.kotlin.core.internals.plugins.EventPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.PluginChain
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ReadOnlyPlugin
 import com.rudderstack.sdk.kotlin.core.internals.utils.Result
 import com.rudderstack.sdk.kotlin.core.internals.utils.safelyExecute
 import kotlinx.serialization.json.JsonObject
@@ -20,9 +21,11 @@ import java.util.concurrent.CopyOnWriteArrayList
  *
  * An integration plugin is a plugin that is responsible for sending events directly
  * to a 3rd party destination without sending it to Rudder server first.
+ *
+ * It is a [ReadOnlyPlugin], since the destination always gets its own copy of the event.
  */
 @Suppress("TooManyFunctions")
-abstract class IntegrationPlugin : EventPlugin {
+abstract class IntegrationPlugin : EventPlugin, ReadOnlyPlugin {
 
     final override val pluginType: Plugin.PluginType = Plugin.PluginType.Terminal
 
@@ -80,7 +83,7 @@ abstract class IntegrationPlugin : EventPlugin {
     open fun reset() {}
 
     final override fun setup(analytics: Analytics) {
-        super.setup(analytics)
+        super<EventPlugin>.setup(analytics)
         isStandardIntegration = this is StandardIntegration
         pluginChain = PluginChain().also { it.analytics = analytics }
         isPluginSetup = true
@@ -123,10 +126,10 @@ abstract class IntegrationPlugin : EventPlugin {
 
     final override suspend fun intercept(event: Event): Event {
         if (isDestinationReady) {
-            event.copy<Event>()
-                .let { pluginChain.applyPlugins(Plugin.PluginType.PreProcess, it) }
+            pluginChain.applyPlugins(Plugin.PluginType.PreProcess, event)
                 ?.let { pluginChain.applyPlugins(Plugin.PluginType.OnProcess, it) }
-                ?.let { handleEvent(it) }
+                // The destination gets its own copy, unless one of its plugins which may modify the event already made one
+                ?.let { handleEvent(if (it === event) it.copy<Event>() else it) }
         }
 
         return event
@@ -0,0 +1,131 @@
+package com.rudderstack.sdk.kotlin.android.plugins.devicemode
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.MetricNames
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.queue.BoundedChannel
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.Semaphore
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.sync.withPermit
+
+private const val IDLE = -1L
+
+/**
+ * Delivers the events to a single device mode destination, through its own queue, so that a destination which is slow
+ * to handle the events doesn't delay the events of the other destinations.
+ *
+ * The events are delivered one after the other, in the order in which they are queued. The [withDestination] calls,
+ * which initialise, reset or flush the destination, never run while an event is being delivered.
+ *
+ * @param plugin The integration plugin of the destination.
+ * @param queueConfiguration The capacity and overflow strategy of the queue of the destination.
+ * @param deliveryPermits The permits shared by the workers of all the destinations, bounding how many of them deliver an event at the same time.
+ * @param analytics The analytics instance, whose scope and integrations dispatcher run the worker, so that the events are
+ * delivered on the same dispatcher as the one initialising, resetting and flushing the destinations.
+ * @param currentTimeMillis The source of the current time, used to measure the lag of the destination.
+ */
+internal class IntegrationWorker(
+    val plugin: IntegrationPlugin,
+    queueConfiguration: QueueConfiguration,
+    private val deliveryPermits: Semaphore,
+    private val analytics: Analytics,
+    private val currentTimeMillis: () -> Long = { System.currentTimeMillis() },
+) {
+
+    private val queue = BoundedChannel<QueuedEvent>(queueConfiguration)
+    private val destinationLock = Mutex()
+    private var job: Job? = null
+
+    /**
+     * The time at which the event being delivered was queued, or [IDLE] if no event is being delivered.
+     */
+    @Volatile
+    private var deliveringEventQueuedAt = IDLE
+
+    private val metricNames = listOf(
+        MetricNames.DESTINATION_QUEUE_DEPTH,
+        MetricNames.DESTINATION_EVENTS_DROPPED,
+        MetricNames.DESTINATION_LAG_IN_MILLIS,
+    ).map { MetricNames.forDestination(it, plugin.key) }
+
+    /**
+     * The time in milliseconds since the event being delivered was queued, or 0 if no event is being delivered.
+     */
+    val lagInMillis: Long
+        get() = deliveringEventQueuedAt.let { if (it == IDLE) 0 else currentTimeMillis() - it }
+
+    /**
+     * Starts delivering the queued events, and registers the metrics of the destination.
+     */
+    fun start() {
+        val (queueDepth, eventsDropped, lag) = metricNames
+        analytics.registerMetricGauge(queueDepth) { queue.size.toLong() }
+        analytics.registerMetricCounter(eventsDropped) { queue.droppedCount }
+        analytics.registerMetricGauge(lag) { lagInMillis }
+
+        job = analytics.analyticsScope.launch(analytics.integrationsDispatcher) {
+            for (queuedEvent in queue) {
+                deliveringEventQueuedAt = queuedEvent.queuedAt
+                deliveryPermits.withPermit {
+                    destinationLock.withLock { deliver(queuedEvent.event) }
+                }
+                if (queue.size == 0) {
+                    deliveringEventQueuedAt = IDLE
+                }
+            }
+        }
+    }
+
+    /**
+     * Queues the [event] for the destination, applying the overflow strategy of its queue if it is full.
+     *
+     * @return `true` if the event is queued, `false` if it was dropped.
+     */
+    suspend fun enqueue(event: Event): Boolean {
+        return queue.send(QueuedEvent(event, currentTimeMillis())).also { queued ->
+            if (!queued) {
+                analytics.logger.warn(
+                    "IntegrationWorker: Event queue of ${plugin.key} full — dropping event (messageId=${event.messageId})"
+                )
+            }
+        }
+    }
+
+    /**
+     * Runs the [block] on the destination once no event is being delivered to it.
+     */
+    suspend fun withDestination(block: (IntegrationPlugin) -> Unit) {
+        destinationLock.withLock { block(plugin) }
+    }
+
+    /**
+     * Stops delivering the events, dropping the queued ones, and unregisters the metrics of the destination.
+     */
+    fun stop() {
+        queue.close()
+        job?.cancel()
+        metricNames.forEach { analytics.unregisterMetric(it) }
+    }
+
+    // A misbehaving destination must not stop the delivery of the next events
+    @Suppress("TooGenericExceptionCaught")
+    private suspend fun deliver(event: Event) {
+        try {
+            plugin.intercept(event)
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            analytics.logger.error(
+                "IntegrationWorker: Error delivering event to ${plugin.key} (messageId=${event.messageId})",
+                e
+            )
+        }
+    }
+
+    private class QueuedEvent(val event: Event, val queuedAt: Long)
+}
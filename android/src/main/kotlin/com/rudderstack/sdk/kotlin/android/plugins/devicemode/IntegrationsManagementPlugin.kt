@@ -1,15 +1,22 @@
 package com.rudderstack.sdk.kotlin.android.plugins.devicemode
 
+import com.rudderstack.sdk.kotlin.android.Configuration
+import com.rudderstack.sdk.kotlin.android.DeviceModeConfiguration
+import com.rudderstack.sdk.kotlin.android.validatedConcurrency
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.models.SourceConfig
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.PluginChain
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ReadOnlyPlugin
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.dropInitialState
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.flow.collectIndexed
 import kotlinx.coroutines.flow.filter
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Semaphore
+import java.util.concurrent.CopyOnWriteArrayList
 
 internal const val MAX_QUEUE_SIZE = 1000
 internal const val FIRST_INDEX = 0
@@ -17,8 +24,11 @@ internal const val FIRST_INDEX = 0
 /*
  * This plugin will queue the events till the sourceConfig is fetched and
  * will host all the device mode integration plugins in its PluginChain instance.
+ * The events are only queued, so they are not copied: each integration plugin copies them for its destination.
+ * Once the sourceConfig is fetched, every event is handed to the IntegrationWorker of each destination, which delivers
+ * it through the queue of that destination, so that a slow destination doesn't hold up the others.
  */
-internal class IntegrationsManagementPlugin : Plugin {
+internal class IntegrationsManagementPlugin : ReadOnlyPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.Terminal
 
@@ -33,19 +43,26 @@ internal class IntegrationsManagementPlugin : Plugin {
 
     private var isSourceEnabledFetchedAtLeastOnce = false
 
+    private val workers = CopyOnWriteArrayList<IntegrationWorker>()
+
+    private lateinit var deviceModeConfiguration: DeviceModeConfiguration
+
+    private lateinit var deliveryPermits: Semaphore
+
     override fun setup(analytics: Analytics) {
         super.setup(analytics)
 
+        deviceModeConfiguration = (analytics.configuration as? Configuration)?.deviceModeConfiguration
+            ?: DeviceModeConfiguration()
+        deliveryPermits = Semaphore(deviceModeConfiguration.validatedConcurrency)
         integrationPluginChain.analytics = analytics
         analytics.withIntegrationsDispatcher {
             analytics.sourceConfigState
                 .dropInitialState()
                 .filter { it.source.isSourceEnabled }
                 .collectIndexed { index, sourceConfig ->
-                    integrationPluginChain.applyClosure { plugin ->
-                        if (plugin is IntegrationPlugin) {
-                            plugin.initDestination(sourceConfig)
-                        }
+                    workers.forEach { worker ->
+                        worker.withDestination { it.initDestination(sourceConfig) }
                     }
 
                     if (index == FIRST_INDEX) {
@@ -57,7 +74,7 @@ internal class IntegrationsManagementPlugin : Plugin {
     }
 
     override suspend fun intercept(event: Event): Event {
-        analytics.logger.debug("IntegrationsManagementPlugin: queueing event (messageId=${event.messageId})")
+        analytics.logger.debug { "IntegrationsManagementPlugin: queueing event (messageId=${event.messageId})" }
 
         runCatching {
             queuedEventsChannel.trySend(event).getOrThrow()
@@ -75,36 +92,51 @@ internal class IntegrationsManagementPlugin : Plugin {
     }
 
     override fun teardown() {
+        workers.forEach { it.stop() }
+        workers.clear()
         integrationPluginChain.removeAll()
         queuedEventsChannel.cancel()
     }
 
     internal fun addIntegration(plugin: IntegrationPlugin) {
         integrationPluginChain.add(plugin)
+        val worker = IntegrationWorker(
+            plugin = plugin,
+            queueConfiguration = deviceModeConfiguration.queueConfigurationFor(plugin.key),
+            deliveryPermits = deliveryPermits,
+            analytics = analytics,
+        ).also {
+            it.start()
+            workers.add(it)
+        }
         analytics.withIntegrationsDispatcher {
             // todo: recheck this logic
             // if the source config is already fetched once and enabled, then initialise the destination since it is added after fetching of source config.
             if (isSourceEnabledFetchedAtLeastOnce) {
-                plugin.initDestination(sourceConfig)
+                worker.withDestination { it.initDestination(sourceConfig) }
             }
         }
     }
 
     internal fun removeIntegration(plugin: IntegrationPlugin) {
+        workers.filter { it.plugin === plugin }.forEach { worker ->
+            worker.stop()
+            workers.remove(worker)
+        }
         integrationPluginChain.remove(plugin)
     }
 
     internal fun reset() {
         analytics.withIntegrationsDispatcher {
-            integrationPluginChain.applyClosure { plugin ->
-                if (plugin !is IntegrationPlugin) return@applyClosure
-
-                if (plugin.isDestinationReady) {
-                    plugin.reset()
-                } else {
-                    analytics.logger.debug(
-                        "IntegrationsManagementPlugin: Destination ${plugin.key} is not ready. Reset discarded."
-                    )
+            workers.forEach { worker ->
+                worker.withDestination { plugin ->
+                    if (plugin.isDestinationReady) {
+                        plugin.reset()
+                    } else {
+                        analytics.logger.debug(
+                            "IntegrationsManagementPlugin: Destination ${plugin.key} is not ready. Reset discarded."
+                        )
+                    }
                 }
             }
         }
@@ -112,15 +144,15 @@ internal class IntegrationsManagementPlugin : Plugin {
 
     internal fun flush() {
         analytics.withIntegrationsDispatcher {
-            integrationPluginChain.applyClosure { plugin ->
-                if (plugin !is IntegrationPlugin) return@applyClosure
-
-                if (plugin.isDestinationReady) {
-                    plugin.flush()
-                } else {
-                    analytics.logger.debug(
-                        "IntegrationsManagementPlugin: Destination ${plugin.key} is not ready. Flush discarded."
-                    )
+            workers.forEach { worker ->
+                worker.withDestination { plugin ->
+                    if (plugin.isDestinationReady) {
+                        plugin.flush()
+                    } else {
+                        analytics.logger.debug(
+                            "IntegrationsManagementPlugin: Destination ${plugin.key} is not ready. Flush discarded."
+                        )
+                    }
                 }
             }
         }
@@ -129,7 +161,7 @@ internal class IntegrationsManagementPlugin : Plugin {
     private fun processEvents() {
         analytics.withIntegrationsDispatcher {
             for (event in queuedEventsChannel) {
-                integrationPluginChain.process(event)
+                workers.forEach { it.enqueue(event) }
             }
         }
     }
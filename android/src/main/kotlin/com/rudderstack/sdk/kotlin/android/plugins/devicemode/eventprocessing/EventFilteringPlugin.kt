@@ -3,9 +3,11 @@ package com.rudderstack.sdk.kotlin.android.plugins.devicemode.eventprocessing
 import com.rudderstack.sdk.kotlin.android.utils.findDestination
 import com.rudderstack.sdk.kotlin.android.utils.getString
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.models.TrackEvent
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ReadOnlyPlugin
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.dropInitialState
 import com.rudderstack.sdk.kotlin.core.internals.utils.LenientJson
 import com.rudderstack.sdk.kotlin.core.internals.utils.empty
@@ -27,7 +29,7 @@ private const val EVENT_FILTERING_OPTION = "eventFilteringOption"
  * 1. Whitelist events: Only the events present in the whitelist will be allowed.
  * 2. Blacklist events: All the events except the ones present in the blacklist will be allowed.
  */
-internal class EventFilteringPlugin(private val key: String) : Plugin {
+internal class EventFilteringPlugin(private val key: String) : ReadOnlyPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -50,9 +52,9 @@ internal class EventFilteringPlugin(private val key: String) : Plugin {
         val eventName = event.event.trim()
         return when {
             shouldDropEvent(eventName) -> {
-                analytics.logger.debug(
+                analytics.logger.debug {
                     "EventFilteringPlugin: Dropped event '$eventName' for destination: $key (messageId=${event.messageId})"
-                )
+                }
                 null
             }
             else -> event
@@ -2,8 +2,10 @@ package com.rudderstack.sdk.kotlin.android.plugins.devicemode.eventprocessing
 
 import com.rudderstack.sdk.kotlin.android.utils.getBoolean
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ReadOnlyPlugin
 
 /**
  * A plugin to pass or drop events based on the integration options set for a destination in events.
@@ -28,7 +30,7 @@ import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
  */
 internal class IntegrationOptionsPlugin(
     private val key: String
-) : Plugin {
+) : ReadOnlyPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -61,8 +63,8 @@ internal class IntegrationOptionsPlugin(
     }
 
     private fun logDroppedEvent(event: Event) {
-        analytics.logger.debug(
+        analytics.logger.debug {
             "IntegrationOptionsPlugin: Dropped event (messageId=${event.messageId}) for destination: $key"
-        )
+        }
     }
 }
@@ -76,26 +76,33 @@ internal data class SessionInfo(
         }
     }
 
-    suspend fun storeSessionId(sessionId: Long, storage: Storage) {
-        storage.write(StorageKeys.SESSION_ID, sessionId)
-    }
-
-    suspend fun storeLastActivityTime(lastActivityTime: Long, storage: Storage) {
-        storage.write(StorageKeys.LAST_ACTIVITY_TIME, lastActivityTime)
-    }
-
-    suspend fun storeIsSessionManual(isSessionManual: Boolean, storage: Storage) {
-        storage.write(StorageKeys.IS_SESSION_MANUAL, isSessionManual)
+    /**
+     * Stores the session id and the flags of a session which has just been started, in a single edit of the storage.
+     */
+    suspend fun storeStartedSession(storage: Storage) {
+        storage.edit {
+            write(StorageKeys.SESSION_ID, sessionId)
+            write(StorageKeys.IS_SESSION_MANUAL, isSessionManual)
+            write(StorageKeys.IS_SESSION_START, isSessionStart)
+        }
     }
 
-    suspend fun storeIsSessionStart(isSessionStart: Boolean, storage: Storage) {
-        storage.write(StorageKeys.IS_SESSION_START, isSessionStart)
+    /**
+     * Stores the last activity time and the session start flag, which change on every event, in a single edit of the storage.
+     */
+    suspend fun storeSessionActivity(storage: Storage) {
+        storage.edit(commit = false) {
+            write(StorageKeys.LAST_ACTIVITY_TIME, lastActivityTime)
+            write(StorageKeys.IS_SESSION_START, isSessionStart)
+        }
     }
 
     suspend fun removeSessionData(storage: Storage) {
-        storage.remove(StorageKeys.SESSION_ID)
-        storage.remove(StorageKeys.LAST_ACTIVITY_TIME)
-        storage.remove(StorageKeys.IS_SESSION_MANUAL)
-        storage.remove(StorageKeys.IS_SESSION_START)
+        storage.edit {
+            remove(StorageKeys.SESSION_ID)
+            remove(StorageKeys.LAST_ACTIVITY_TIME)
+            remove(StorageKeys.IS_SESSION_MANUAL)
+            remove(StorageKeys.IS_SESSION_START)
+        }
     }
 }
@@ -11,13 +11,23 @@ import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import kotlinx.coroutines.CoroutineDispatcher
+import kotlinx.coroutines.CoroutineStart
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.NonCancellable
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
 import kotlin.properties.Delegates
 import com.rudderstack.sdk.kotlin.android.Analytics as AndroidAnalytics
 
+/**
+ * The interval at which the last activity time and the session start flag are persisted while events are being made.
+ */
+internal const val SESSION_ACTIVITY_PERSIST_INTERVAL_IN_MILLIS = 10_000L
+
 @Suppress("TooManyFunctions")
 @OptIn(ExperimentalCoroutinesApi::class)
 internal class SessionManager(
@@ -32,11 +42,12 @@ internal class SessionManager(
     private val sessionTrackingObserver = SessionTrackingObserver(this)
 
     private var sessionInfo: State<SessionInfo> = State(SessionInfo.initialState(storage))
+    private val isSessionActivityPersistScheduled = AtomicBoolean(false)
     internal var sessionTimeout by Delegates.notNull<Long>()
 
     internal val sessionId
         get() = sessionInfo.value.sessionId
-    private val lastActivityTime
+    internal val lastActivityTime
         get() = sessionInfo.value.lastActivityTime
     internal val isSessionManual
         get() = sessionInfo.value.isSessionManual
@@ -82,46 +93,66 @@ internal class SessionManager(
         isSessionManual: Boolean = false,
         shouldUpdateIsSessionManual: Boolean = true
     ) {
-        updateIsSessionStartIfChanged(true)
+        sessionInfo.dispatch(SessionInfo.UpdateIsSessionStartAction(true))
         if (shouldUpdateIsSessionManual) {
-            updateIsSessionManualIfChanged(isSessionManual)
+            sessionInfo.dispatch(SessionInfo.UpdateIsSessionManualAction(isSessionManual))
         }
         if (isSessionManual) {
             detachSessionTrackingObservers()
         }
-        updateSessionId(sessionId)
-    }
-
-    private fun updateSessionId(sessionId: Long) {
         sessionInfo.dispatch(SessionInfo.UpdateSessionIdAction(sessionId))
+        val startedSession = sessionInfo.value
         withSessionDispatcher {
-            sessionInfo.value.storeSessionId(sessionId, storage)
-        }
-    }
-
-    private fun updateIsSessionManualIfChanged(isSessionManual: Boolean) {
-        if (this.isSessionManual != isSessionManual) {
-            sessionInfo.dispatch(SessionInfo.UpdateIsSessionManualAction(isSessionManual))
-            withSessionDispatcher {
-                sessionInfo.value.storeIsSessionManual(isSessionManual, storage)
-            }
+            startedSession.storeStartedSession(storage)
         }
     }
 
     internal fun updateIsSessionStartIfChanged(isSessionStart: Boolean) {
         if (this.isSessionStart != isSessionStart) {
             sessionInfo.dispatch(SessionInfo.UpdateIsSessionStartAction(isSessionStart))
-            withSessionDispatcher {
-                sessionInfo.value.storeIsSessionStart(isSessionStart, storage)
-            }
+            scheduleSessionActivityPersist()
         }
     }
 
+    /**
+     * Updates the last activity time in memory. It is persisted at most once every
+     * [SESSION_ACTIVITY_PERSIST_INTERVAL_IN_MILLIS], or earlier when [persistSessionActivity] is called.
+     */
     internal fun updateLastActivityTime() {
         val lastActivityTime = DateTimeUtils.getSystemCurrentTime()
         sessionInfo.dispatch(SessionInfo.UpdateLastActivityTimeAction(lastActivityTime))
-        withSessionDispatcher {
-            sessionInfo.value.storeLastActivityTime(lastActivityTime, storage)
+        scheduleSessionActivityPersist()
+    }
+
+    /**
+     * Persists the last activity time and the session start flag right away, e.g. when the app goes to the background
+     * or the SDK is shut down.
+     *
+     * The write is started even if the analytics scope is being cancelled, so that it isn't lost on shutdown.
+     */
+    internal fun persistSessionActivity() {
+        isSessionActivityPersistScheduled.set(false)
+        analytics.analyticsScope.launch(sessionDispatcher, start = CoroutineStart.ATOMIC) {
+            withContext(NonCancellable) { storeSessionActivity() }
+        }
+    }
+
+    private fun scheduleSessionActivityPersist() {
+        if (isSessionActivityPersistScheduled.compareAndSet(false, true)) {
+            withSessionDispatcher {
+                delay(SESSION_ACTIVITY_PERSIST_INTERVAL_IN_MILLIS)
+                if (isSessionActivityPersistScheduled.compareAndSet(true, false)) {
+                    storeSessionActivity()
+                }
+            }
+        }
+    }
+
+    private suspend fun storeSessionActivity() {
+        val currentSession = sessionInfo.value
+        // The session may have been ended since the write was scheduled, in which case there is nothing to persist.
+        if (currentSession.sessionId != DEFAULT_SESSION_ID) {
+            currentSession.storeSessionActivity(storage)
         }
     }
 
@@ -163,6 +194,7 @@ internal class SessionManager(
 
     internal fun endSession() {
         detachSessionTrackingObservers()
+        isSessionActivityPersistScheduled.set(false)
         sessionInfo.dispatch(SessionInfo.EndSessionAction)
         withSessionDispatcher {
             sessionInfo.value.removeSessionData(storage)
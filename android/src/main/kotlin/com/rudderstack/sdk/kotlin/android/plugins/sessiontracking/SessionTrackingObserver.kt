@@ -26,6 +26,7 @@ internal class SessionTrackingObserver(
     override fun onStop(owner: LifecycleOwner) {
         isSessionAlreadyUpdated.set(false)
         sessionManager.updateLastActivityTime()
+        sessionManager.persistSessionActivity()
     }
 
     private fun updateSession() {
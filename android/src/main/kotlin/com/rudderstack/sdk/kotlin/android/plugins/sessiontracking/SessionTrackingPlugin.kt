@@ -3,6 +3,7 @@ package com.rudderstack.sdk.kotlin.android.plugins.sessiontracking
 import com.rudderstack.sdk.kotlin.android.SessionConfiguration
 import com.rudderstack.sdk.kotlin.android.utils.mergeWithHigherPriorityTo
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import kotlinx.serialization.json.buildJsonObject
@@ -30,14 +31,15 @@ internal class SessionTrackingPlugin : Plugin {
 
     override fun teardown() {
         sessionManager.detachSessionTrackingObservers()
+        sessionManager.persistSessionActivity()
     }
 
     override suspend fun intercept(event: Event): Event {
         if (sessionManager.sessionId != DEFAULT_SESSION_ID) {
-            analytics.logger.verbose(
+            analytics.logger.verbose {
                 "SessionTrackingPlugin: Attaching sessionId=${sessionManager.sessionId} to the event payload " +
                     "(messageId=${event.messageId})"
-            )
+            }
             addSessionIdToEvent(event)
             if (!sessionManager.isSessionManual) {
                 sessionManager.updateLastActivityTime()
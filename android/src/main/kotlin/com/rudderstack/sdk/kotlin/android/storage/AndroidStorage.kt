@@ -3,18 +3,27 @@ package com.rudderstack.sdk.kotlin.android.storage
 import android.content.Context
 import com.rudderstack.sdk.kotlin.BuildConfig
 import com.rudderstack.sdk.kotlin.android.storage.exceptions.QueuedPayloadTooLargeException
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageDurability
+import com.rudderstack.sdk.kotlin.core.StorageQuota
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchBacklog
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
 import com.rudderstack.sdk.kotlin.core.internals.storage.EventBatchFileManager
 import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueStorage
 import com.rudderstack.sdk.kotlin.core.internals.storage.LibraryVersion
 import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_PAYLOAD_SIZE
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
+import com.rudderstack.sdk.kotlin.core.internals.storage.StorageEditor
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
 import com.rudderstack.sdk.kotlin.core.internals.utils.appendWriteKey
+import com.rudderstack.sdk.kotlin.core.internals.utils.empty
 import com.rudderstack.sdk.kotlin.core.internals.utils.toAndroidPrefsKey
 import java.io.File
+import java.io.InputStream
 
 private const val RUDDER_PREFS = "rl_prefs"
 private const val DIRECTORY_NAME = "rudder-android-store"
@@ -25,6 +34,9 @@ internal class AndroidStorage(
     private val writeKey: String,
     platformType: PlatformType,
     private val logger: Logger,
+    durability: StorageDurability = StorageDurability.FlushPerEvent,
+    compressOnRollover: Boolean = false,
+    quota: StorageQuota = StorageQuota(),
     private val rudderPrefsRepo: KeyValueStorage = SharedPrefsStore(
         context = context,
         prefsName = RUDDER_PREFS.toAndroidPrefsKey(writeKey),
@@ -37,6 +49,9 @@ internal class AndroidStorage(
         keyValueStorage = rudderPrefsRepo,
         platformType = platformType,
         logger = logger,
+        durability = durability,
+        compressOnRollover = compressOnRollover,
+        quota = quota,
     ),
 ) : Storage {
 
@@ -48,16 +63,23 @@ internal class AndroidStorage(
 
     override suspend fun write(key: StorageKeys, value: String) {
         if (key == StorageKeys.EVENT) {
-            if (value.length < MAX_PAYLOAD_SIZE) {
-                eventBatchFile.storeEvent(value)
-            } else {
-                throw QueuedPayloadTooLargeException("queued payload is too large")
-            }
+            writeEvent(value, String.empty())
         } else {
             rudderPrefsRepo.save(key.key, value)
         }
     }
 
+    override suspend fun writeEvent(value: String, partitionKey: String): Int {
+        // The payload is encoded once, both to check its size and to write it to the batch
+        val encodedPayload = value.toByteArray()
+        if (encodedPayload.size < MAX_PAYLOAD_SIZE) {
+            eventBatchFile.storeEvent(value, partitionKey, encodedPayload)
+            return encodedPayload.size
+        } else {
+            throw QueuedPayloadTooLargeException("queued payload is too large")
+        }
+    }
+
     override suspend fun write(key: StorageKeys, value: Int) {
         if (key != StorageKeys.EVENT) {
             rudderPrefsRepo.save(key.key, value)
@@ -74,6 +96,10 @@ internal class AndroidStorage(
         rudderPrefsRepo.clear(key.key)
     }
 
+    override suspend fun edit(commit: Boolean, block: StorageEditor.() -> Unit) {
+        StorageEditor().apply(block).applyTo(rudderPrefsRepo, commit)
+    }
+
     override fun remove(filePath: String) {
         eventBatchFile.remove(filePath)
     }
@@ -111,10 +137,30 @@ internal class AndroidStorage(
         return eventBatchFile.read()
     }
 
+    override fun readBatchRefs(): List<BatchRef> {
+        return eventBatchFile.readBatchRefs()
+    }
+
     override fun readBatchContent(batchRef: String): String? {
         return eventBatchFile.readContent(batchRef)
     }
 
+    override fun readBatchStream(batchRef: String): InputStream? {
+        return eventBatchFile.readContentStream(batchRef)
+    }
+
+    override fun readCompressedBatchBody(batchRef: String, sentAt: String): RequestBody? {
+        return eventBatchFile.readCompressedBody(batchRef, sentAt)
+    }
+
+    override fun readEvictionCounters(): EvictionCounters {
+        return eventBatchFile.readEvictionCounters()
+    }
+
+    override fun readBacklog(): BatchBacklog {
+        return eventBatchFile.readBacklog()
+    }
+
     override fun getBatchId(batchRef: String): Int = File(batchRef).name.toIntOrNull() ?: 0
 
     override fun getLibraryVersion(): LibraryVersion {
@@ -142,18 +188,27 @@ internal class AndroidStorage(
  * @param writeKey The write key used to identify the storage location.
  * @param application The application context.
  * @param platformType The platform type used for event file ordering behaviour.
+ * @param durability When the stored events are written to the disk.
+ * @param compressOnRollover Whether to compress the batches when they are completed, so that they are uploaded with GZIP as they are.
+ * @param quota The limits of the backlog of completed batches.
  * @return An instance of [AndroidStorage].
  */
 internal fun provideAndroidStorage(
     writeKey: String,
     application: Context,
     platformType: PlatformType,
-    logger: Logger
+    logger: Logger,
+    durability: StorageDurability = StorageDurability.FlushPerEvent,
+    compressOnRollover: Boolean = false,
+    quota: StorageQuota = StorageQuota(),
 ): Storage {
     return AndroidStorage(
         context = application,
         writeKey = writeKey,
         platformType = platformType,
         logger = logger,
+        durability = durability,
+        compressOnRollover = compressOnRollover,
+        quota = quota,
     )
 }
@@ -5,6 +5,7 @@ import android.content.SharedPreferences
 import android.os.Build
 import androidx.core.content.edit
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueEditor
 import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueStorage
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
 import java.io.File
@@ -66,24 +67,41 @@ internal class SharedPrefsStore(
         }
     }
 
+    /**
+     * Applies all the changes made by the [block] in a single edit of the shared preferences, which is committed
+     * synchronously if [commit] is `true`, and applied asynchronously otherwise.
+     */
+    override fun edit(commit: Boolean, block: KeyValueEditor.() -> Unit) {
+        val editor = KeyValueEditor().apply(block)
+        preferences.edit(commit = commit) {
+            editor.forEachChange { key, value ->
+                if (value == null) remove(key) else putValue(key, value)
+            }
+        }
+    }
+
     private fun <T> put(key: String, value: T) {
         put(key, value, preferences)
     }
 
     private fun <T> put(key: String, value: T, prefs: SharedPreferences) {
         prefs.edit(commit = true) {
-            when (value) {
-                is Boolean -> putBoolean(key, value)
-                is Int -> putInt(key, value)
-                is Long -> putLong(key, value)
-                is String -> putString(key, value)
-
-                else -> {
-                    logger.warn(
-                        "SharedPrefsStore: Unsupported type " +
-                            "${(value as? Any)?.javaClass?.simpleName} for key '$key'"
-                    )
-                }
+            putValue(key, value)
+        }
+    }
+
+    private fun <T> SharedPreferences.Editor.putValue(key: String, value: T) {
+        when (value) {
+            is Boolean -> putBoolean(key, value)
+            is Int -> putInt(key, value)
+            is Long -> putLong(key, value)
+            is String -> putString(key, value)
+
+            else -> {
+                logger.warn(
+                    "SharedPrefsStore: Unsupported type " +
+                        "${(value as? Any)?.javaClass?.simpleName} for key '$key'"
+                )
             }
         }
     }
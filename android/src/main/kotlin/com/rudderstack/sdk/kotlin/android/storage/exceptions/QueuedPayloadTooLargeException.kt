@@ -1,6 +1,8 @@
 package com.rudderstack.sdk.kotlin.android.storage.exceptions
 
+import com.rudderstack.sdk.kotlin.core.internals.storage.exception.PayloadTooLargeException
+
 internal class QueuedPayloadTooLargeException(
     message: String,
     cause: Throwable? = null
-) : Exception(message, cause)
+) : PayloadTooLargeException(message, cause)
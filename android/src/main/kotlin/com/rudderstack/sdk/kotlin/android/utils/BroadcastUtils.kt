@@ -0,0 +1,25 @@
+package com.rudderstack.sdk.kotlin.android.utils
+
+import android.content.BroadcastReceiver
+import android.content.Context
+import android.content.Intent
+import android.content.IntentFilter
+
+/**
+ * Registers a [BroadcastReceiver] which calls [onBroadcast] whenever the system broadcast with the given [action] is sent,
+ * e.g. [Intent.ACTION_LOCALE_CHANGED].
+ *
+ * @param action The action of the system broadcast.
+ * @param onBroadcast The callback invoked on the main thread for every broadcast.
+ * @return The registered receiver, which has to be passed to [Context.unregisterReceiver] once it is no longer needed.
+ */
+@Throws(RuntimeException::class)
+internal fun Context.registerSystemBroadcastReceiver(action: String, onBroadcast: () -> Unit): BroadcastReceiver {
+    val receiver = object : BroadcastReceiver() {
+        override fun onReceive(context: Context, intent: Intent?) {
+            onBroadcast()
+        }
+    }
+    registerReceiver(receiver, IntentFilter(action))
+    return receiver
+}
@@ -10,8 +10,13 @@ import androidx.core.content.ContextCompat
 
 /**
  * Utility class to check the network status using [ConnectivityManager.registerNetworkCallback].
+ *
+ * @param onChange The callback invoked whenever the cellular or wifi connection state changes.
  */
-internal class NetworkCallbackUtils(private val context: Context) {
+internal class NetworkCallbackUtils(
+    private val context: Context,
+    private val onChange: () -> Unit = {},
+) {
 
     private lateinit var connectivityManager: ConnectivityManager
 
@@ -33,10 +38,12 @@ internal class NetworkCallbackUtils(private val context: Context) {
     private val cellularCallback = object : ConnectivityManager.NetworkCallback() {
         override fun onAvailable(network: Network) {
             isCellularConnected = true
+            onChange()
         }
 
         override fun onLost(network: Network) {
             isCellularConnected = false
+            onChange()
         }
     }
 
@@ -46,10 +53,12 @@ internal class NetworkCallbackUtils(private val context: Context) {
     private val wifiCallback = object : ConnectivityManager.NetworkCallback() {
         override fun onAvailable(network: Network) {
             isWifiEnabled = true
+            onChange()
         }
 
         override fun onLost(network: Network) {
             isWifiEnabled = false
+            onChange()
         }
     }
 
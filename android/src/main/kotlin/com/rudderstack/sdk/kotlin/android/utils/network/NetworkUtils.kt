@@ -17,13 +17,19 @@ internal class NetworkUtils(
     private var defaultNetworkUtils: DefaultNetworkUtils = DefaultNetworkUtils(),
 ) {
 
+    /**
+     * The callback invoked whenever the [NetworkCallbackUtils] reports a change of the cellular or wifi connection state.
+     * It has to be set before [setup] is called.
+     */
+    internal var onNetworkChange: () -> Unit = {}
+
     // Catching a generic exception since the exact exception is annotated with @hide and cannot be caught directly.
     @Suppress("TooGenericExceptionCaught")
     internal fun setup(context: Context, logger: Logger) {
         this.defaultNetworkUtils.setup(context)
 
         try {
-            this.networkCallbackUtils = NetworkCallbackUtils(context).apply { setup() }
+            this.networkCallbackUtils = NetworkCallbackUtils(context) { onNetworkChange() }.apply { setup() }
         } catch (e: RuntimeException) {
             logger.error(
                 "NetworkUtils: Error setting up NetworkCallbackUtils, " +
@@ -20,7 +20,6 @@ import com.rudderstack.sdk.kotlin.core.internals.models.reset.ResetEntries
 import com.rudderstack.sdk.kotlin.core.internals.models.reset.ResetOptions
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
-import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import com.rudderstack.sdk.kotlin.core.provideAnalyticsConfiguration
 import io.mockk.MockKAnnotations
@@ -334,9 +333,9 @@ class AnalyticsTest {
             testDispatcher.scheduler.runCurrent()
             disableSource()
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, withArg<String> { eventString ->
+                mockStorage.writeEvent(withArg<String> { eventString ->
                     assertTrue(eventString.contains(NEW_EVENT_NAME))
-                })
+                }, any())
             }
         }
 
@@ -351,9 +350,9 @@ class AnalyticsTest {
             testDispatcher.scheduler.runCurrent()
             disableSource()
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, withArg<String> { eventString ->
+                mockStorage.writeEvent(withArg<String> { eventString ->
                     assertTrue(eventString.contains(TRACK_EVENT_NAME))
-                })
+                }, any())
             }
         }
 
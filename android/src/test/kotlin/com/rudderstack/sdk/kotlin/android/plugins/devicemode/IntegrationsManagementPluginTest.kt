@@ -1,6 +1,7 @@
 package com.rudderstack.sdk.kotlin.android.plugins.devicemode
 
 import com.rudderstack.sdk.kotlin.android.Configuration
+import com.rudderstack.sdk.kotlin.android.DeviceModeConfiguration
 import com.rudderstack.sdk.kotlin.android.plugins.devicemode.utils.MockStandardIntegrationPlugin
 import com.rudderstack.sdk.kotlin.android.utils.mockAnalytics
 import com.rudderstack.sdk.kotlin.android.utils.readFileAsString
@@ -9,6 +10,7 @@ import com.rudderstack.sdk.kotlin.core.internals.models.TrackEvent
 import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
 import com.rudderstack.sdk.kotlin.core.internals.utils.LenientJson
+import io.mockk.coEvery
 import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
@@ -50,7 +52,9 @@ class IntegrationsManagementPluginTest {
     fun setUp() {
         Dispatchers.setMain(testDispatcher)
 
-        every { mockAnalytics.configuration } returns mockk<Configuration>(relaxed = true)
+        every { mockAnalytics.configuration } returns mockk<Configuration>(relaxed = true) {
+            every { deviceModeConfiguration } returns DeviceModeConfiguration()
+        }
         every { mockAnalytics.sourceConfigState } returns State(initialState = SourceConfig.initialState())
     }
 
@@ -237,6 +241,26 @@ class IntegrationsManagementPluginTest {
             }
         }
 
+    @Test
+    fun `given two integrations, when delivering the events to one of them fails, then the other still receives every event`() =
+        runTest {
+            val failingIntegrationPlugin = spyk(MockStandardIntegrationPlugin())
+            coEvery { failingIntegrationPlugin.intercept(any()) } throws IllegalStateException("Destination failure")
+            val events = List(3) { TrackEvent("test event $it", emptyJsonObject).also { applyBaseDataToEvent(it) } }
+
+            integrationsManagementPlugin.setup(mockAnalytics)
+            integrationsManagementPlugin.addIntegration(failingIntegrationPlugin)
+            integrationsManagementPlugin.addIntegration(integrationPlugin)
+            events.forEach { integrationsManagementPlugin.intercept(it) }
+            mockAnalytics.sourceConfigState.dispatch(SourceConfig.UpdateAction(sourceConfigWithCorrectApiKey))
+            advanceUntilIdle()
+
+            events.forEach {
+                coVerify(exactly = 1) { failingIntegrationPlugin.intercept(it) }
+                coVerify(exactly = 1) { integrationPlugin.intercept(it) }
+            }
+        }
+
     @Test
     fun `given an integration, when teardown is called, then that integration's teardown is also called`() = runTest {
         integrationsManagementPlugin.setup(mockAnalytics)
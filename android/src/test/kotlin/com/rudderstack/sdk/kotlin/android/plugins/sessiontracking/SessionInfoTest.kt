@@ -93,38 +93,23 @@ class SessionInfoTest {
     }
 
     @Test
-    fun `given a sessionId, when storeSessionId is called, then sessionId is written to storage`() = runTest {
-        val sessionInfo = SessionInfo(1L, 0L, isSessionManual = false, isSessionStart = false)
+    fun `given a started session, when storeStartedSession is called, then its id and flags are written to storage`() = runTest {
+        val sessionInfo = SessionInfo(12345L, 0L, isSessionManual = true, isSessionStart = true)
 
-        sessionInfo.storeSessionId(12345L, storage)
+        sessionInfo.storeStartedSession(storage)
 
         assertEquals(12345L, storage.readLong(StorageKeys.SESSION_ID, 0L))
-    }
-
-    @Test
-    fun `given a lastActivityTime, when storeLastActivityTime is called, then lastActivityTime is written to storage`() = runTest {
-        val sessionInfo = SessionInfo(1L, 0L, isSessionManual = false, isSessionStart = false)
-
-        sessionInfo.storeLastActivityTime(67890L, storage)
-
-        assertEquals(67890L, storage.readLong(StorageKeys.LAST_ACTIVITY_TIME, 0L))
-    }
-
-    @Test
-    fun `given a isSessionManual, when storeIsSessionManual is called, then isSessionManual is written to storage`() = runTest {
-        val sessionInfo = SessionInfo(1L, 0L, isSessionManual = false, isSessionStart = false)
-
-        sessionInfo.storeIsSessionManual(true, storage)
-
         assertEquals(true, storage.readBoolean(StorageKeys.IS_SESSION_MANUAL, false))
+        assertEquals(true, storage.readBoolean(StorageKeys.IS_SESSION_START, false))
     }
 
     @Test
-    fun `given isSessionStart value, when storeIsSessionStart is called, then isSessionStart is written to storage`() = runTest {
-        val sessionInfo = SessionInfo(1L, 0L, isSessionManual = false, isSessionStart = false)
+    fun `given a session activity, when storeSessionActivity is called, then lastActivityTime and isSessionStart are written to storage`() = runTest {
+        val sessionInfo = SessionInfo(1L, 67890L, isSessionManual = false, isSessionStart = true)
 
-        sessionInfo.storeIsSessionStart(true, storage)
+        sessionInfo.storeSessionActivity(storage)
 
+        assertEquals(67890L, storage.readLong(StorageKeys.LAST_ACTIVITY_TIME, 0L))
         assertEquals(true, storage.readBoolean(StorageKeys.IS_SESSION_START, false))
     }
 
@@ -9,6 +9,7 @@ import io.mockk.mockk
 import io.mockk.spyk
 import io.mockk.unmockkAll
 import io.mockk.verify
+import io.mockk.verifyOrder
 import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
@@ -78,6 +79,16 @@ class SessionTrackingObserverTest {
         verify { mockSessionManager.updateLastActivityTime() }
     }
 
+    @Test
+    fun `when onStop is called, then the session activity is persisted after the last activity time is updated`() {
+        sessionTrackingObserver.onStop(mockk<LifecycleOwner>())
+
+        verifyOrder {
+            mockSessionManager.updateLastActivityTime()
+            mockSessionManager.persistSessionActivity()
+        }
+    }
+
     @Test
     fun `given session is already updated, when updateSession is called, then checkAndStartSessionOnForeground is not invoked`() {
         sessionTrackingObserver.isSessionAlreadyUpdated.set(true)
@@ -121,6 +121,49 @@ class SessionTrackingPluginTest {
         assertEquals(sessionId * 1000, mockStorage.readLong(StorageKeys.LAST_ACTIVITY_TIME, 0L))
     }
 
+    @Test
+    fun `given an automatic session is ongoing, when events are made, then session activity is persisted once per interval`() =
+        runTest(testDispatcher) {
+            val sessionId = 1234567890L
+            val previousActivityTime = sessionId * 1000 - 600_000L
+            mockSystemCurrentTime(sessionId * 1000)
+            mockStorage.write(StorageKeys.SESSION_ID, sessionId)
+            mockStorage.write(StorageKeys.IS_SESSION_MANUAL, false)
+            mockStorage.write(StorageKeys.IS_SESSION_START, true)
+            mockStorage.write(StorageKeys.LAST_ACTIVITY_TIME, previousActivityTime)
+            pluginSetup(automaticSessionTracking = true)
+
+            sessionTrackingPlugin.intercept(TrackEvent("test", emptyJsonObject))
+            sessionTrackingPlugin.intercept(TrackEvent("test", emptyJsonObject))
+            testDispatcher.scheduler.advanceTimeBy(SESSION_ACTIVITY_PERSIST_INTERVAL_IN_MILLIS - 1)
+
+            assertEquals(sessionId * 1000, sessionManager.lastActivityTime)
+            assertEquals(previousActivityTime, mockStorage.readLong(StorageKeys.LAST_ACTIVITY_TIME, 0L))
+            assertEquals(true, mockStorage.readBoolean(StorageKeys.IS_SESSION_START, false))
+
+            testDispatcher.scheduler.advanceTimeBy(2)
+
+            assertEquals(sessionId * 1000, mockStorage.readLong(StorageKeys.LAST_ACTIVITY_TIME, 0L))
+            assertEquals(false, mockStorage.readBoolean(StorageKeys.IS_SESSION_START, true))
+        }
+
+    @Test
+    fun `given an automatic session is ongoing, when teardown is called, then session activity is persisted right away`() =
+        runTest(testDispatcher) {
+            val sessionId = 1234567890L
+            mockSystemCurrentTime(sessionId * 1000)
+            mockStorage.write(StorageKeys.SESSION_ID, sessionId)
+            mockStorage.write(StorageKeys.IS_SESSION_MANUAL, false)
+            mockStorage.write(StorageKeys.LAST_ACTIVITY_TIME, sessionId * 1000 - 600_000L)
+            pluginSetup(automaticSessionTracking = true)
+
+            sessionTrackingPlugin.intercept(TrackEvent("test", emptyJsonObject))
+            sessionTrackingPlugin.teardown()
+            testDispatcher.scheduler.runCurrent()
+
+            assertEquals(sessionId * 1000, mockStorage.readLong(StorageKeys.LAST_ACTIVITY_TIME, 0L))
+        }
+
     @Test
     fun `when teardown is called, then session tracking observer is detached`() = runTest {
         pluginSetup()
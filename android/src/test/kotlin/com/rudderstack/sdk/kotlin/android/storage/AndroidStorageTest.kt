@@ -3,6 +3,7 @@ package com.rudderstack.sdk.kotlin.android.storage
 import android.content.Context
 import com.rudderstack.sdk.kotlin.android.storage.exceptions.QueuedPayloadTooLargeException
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
 import com.rudderstack.sdk.kotlin.core.internals.storage.EventBatchFileManager
 import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueStorage
 import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_PAYLOAD_SIZE
@@ -136,7 +137,7 @@ class AndroidStorageTest {
 
             storage.write(EVENT, payload)
 
-            coVerify { mockEventBatchFile.storeEvent(payload) }
+            coVerify { mockEventBatchFile.storeEvent(payload, any(), payload.toByteArray()) }
         }
 
         @Test
@@ -144,7 +145,7 @@ class AndroidStorageTest {
             val oversizedPayload = "x".repeat(MAX_PAYLOAD_SIZE + 1)
 
             assertThrows<QueuedPayloadTooLargeException> { storage.write(EVENT, oversizedPayload) }
-            coVerify(exactly = 0) { mockEventBatchFile.storeEvent(any()) }
+            coVerify(exactly = 0) { mockEventBatchFile.storeEvent(any(), any(), any()) }
         }
     }
 
@@ -206,6 +207,16 @@ class AndroidStorageTest {
     @Nested
     inner class FileOperationsTest {
 
+        @Test
+        fun `given eventBatchFile returns batch refs, when readBatchRefs is called, then the refs from eventBatchFile are returned`() {
+            val batchRefs = listOf(BatchRef(ref = "file1", id = 1))
+            every { mockEventBatchFile.readBatchRefs() } returns batchRefs
+
+            val actual = storage.readBatchRefs()
+
+            assertEquals(batchRefs, actual)
+        }
+
         @Test
         fun `given eventBatchFile returns file list, when readFileList is called, then the list from eventBatchFile is returned`() {
             val fileList = listOf("file1")
@@ -227,6 +238,17 @@ class AndroidStorageTest {
             assertEquals(batchContent, actual)
         }
 
+        @Test
+        fun `given eventBatchFile returns a stream, when readBatchStream is called, then the stream is returned`() {
+            val batchRef = "file1"
+            val batchStream = "batch-content".byteInputStream()
+            every { mockEventBatchFile.readContentStream(batchRef) } returns batchStream
+
+            val actual = storage.readBatchStream(batchRef)
+
+            assertEquals(batchStream, actual)
+        }
+
         @Test
         fun `given a batch file path with numeric name, when getBatchId is called, then the numeric id is returned`() {
             val batchFilePath = "/some/path/42"
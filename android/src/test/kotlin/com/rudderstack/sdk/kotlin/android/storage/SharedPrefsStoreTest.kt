@@ -139,4 +139,32 @@ class SharedPrefsStoreTest {
 
         verify { mockContext.deleteSharedPreferences(prefsName) }
     }
+
+    @Test
+    fun `given several changes, when edit is called, then they are committed together`() {
+        sharedPrefsStore.edit {
+            put("key1", 42)
+            put("key2", "value")
+            remove("key3")
+        }
+
+        verify(exactly = 1) { mockSharedPreferences.edit() }
+        verify(exactly = 1) { mockEditor.commit() }
+        verify {
+            mockEditor.putInt("key1", 42)
+            mockEditor.putString("key2", "value")
+            mockEditor.remove("key3")
+        }
+    }
+
+    @Test
+    fun `given commit is false, when edit is called, then the changes are applied asynchronously`() {
+        sharedPrefsStore.edit(commit = false) {
+            put("key", true)
+        }
+
+        verify { mockEditor.putBoolean("key", true) }
+        verify { mockEditor.apply() }
+        verify(exactly = 0) { mockEditor.commit() }
+    }
 }
@@ -0,0 +1,32 @@
+import org.jetbrains.kotlin.gradle.tasks.KotlinJvmCompile
+
+plugins {
+    alias(libs.plugins.kotlin.jvm)
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = RudderStackBuildConfig.Build.JAVA_VERSION
+    targetCompatibility = RudderStackBuildConfig.Build.JAVA_VERSION
+}
+kotlin {
+    jvmToolchain(RudderStackBuildConfig.Build.JVM_TOOLCHAIN)
+}
+
+tasks.withType<KotlinJvmCompile>().configureEach {
+    compilerOptions.freeCompilerArgs.add("-opt-in=com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi")
+}
+
+// Run with `./gradlew :benchmarks:jmh`, or pass `-PjmhIncludes=<regex>` to run only the matching benchmarks.
+// The results are written to build/results/jmh/results.json, so that they can be compared between releases.
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    findProperty("jmhIncludes")?.let { includes.add(it.toString()) }
+    // Reports the allocation rate and the GC activity next to the throughput of every benchmark
+    profilers.add("gc")
+    resultFormat.set("JSON")
+}
+
+dependencies {
+    jmh(project(":core"))
+}
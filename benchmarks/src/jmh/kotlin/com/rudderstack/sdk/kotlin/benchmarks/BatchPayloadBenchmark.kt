@@ -0,0 +1,70 @@
+@file:Suppress("INVISIBLE_MEMBER", "INVISIBLE_REFERENCE")
+
+package com.rudderstack.sdk.kotlin.benchmarks
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.queue.EventUpload
+import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
+import com.rudderstack.sdk.kotlin.core.internals.utils.JsonSentAtUpdater
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import java.io.OutputStream
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures the work done on a batch payload before every upload attempt: setting its `sentAt` while it is streamed
+ * into the request body, and extracting the anonymous id sent as a header.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class BatchPayloadBenchmark {
+
+    @Param("10", "100")
+    var eventCount = 0
+
+    private lateinit var analytics: Analytics
+    private lateinit var eventUpload: EventUpload
+    private lateinit var batchPayload: String
+    private lateinit var batchPayloadBytes: ByteArray
+
+    @Setup
+    fun setup() {
+        analytics = provideAnalytics()
+        eventUpload = EventUpload(analytics = analytics)
+        batchPayload = provideBatchPayload(eventCount)
+        batchPayloadBytes = batchPayload.toByteArray()
+    }
+
+    @TearDown
+    fun tearDown() {
+        analytics.shutdown()
+    }
+
+    @Benchmark
+    fun writeWithUpdatedSentAt() {
+        JsonSentAtUpdater.writeWithUpdatedSentAt(
+            input = batchPayloadBytes.inputStream(),
+            output = OutputStream.nullOutputStream(),
+            sentAt = DateTimeUtils.now(),
+        )
+    }
+
+    @Benchmark
+    fun getAnonymousIdFromBatch(): String {
+        return eventUpload.getAnonymousIdFromBatch(batchPayload)
+    }
+}
@@ -0,0 +1,87 @@
+@file:Suppress("INVISIBLE_MEMBER", "INVISIBLE_REFERENCE")
+
+package com.rudderstack.sdk.kotlin.benchmarks
+
+import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
+import com.rudderstack.sdk.kotlin.core.internals.storage.EventBatchFileManager
+import com.rudderstack.sdk.kotlin.core.internals.storage.inmemory.InMemoryBatchManager
+import com.rudderstack.sdk.kotlin.core.internals.storage.inmemory.InMemoryPrefsStore
+import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToString
+import kotlinx.coroutines.runBlocking
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OperationsPerInvocation
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import java.io.File
+import java.nio.file.Files
+import java.util.concurrent.TimeUnit
+
+private const val EVENTS_PER_BATCH = 100
+
+/**
+ * Measures storing events in batches of [EVENTS_PER_BATCH] and completing the batch, on disk and in memory.
+ * The completed batches are removed right away, as if they had been uploaded, so that the storage doesn't grow.
+ *
+ * The score is per event, the rollover being amortised over the events of its batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class BatchStorageBenchmark {
+
+    private lateinit var directory: File
+    private lateinit var fileManager: EventBatchFileManager
+    private lateinit var inMemoryBatchManager: InMemoryBatchManager
+    private lateinit var eventPayload: String
+
+    @Setup
+    fun setup() {
+        directory = Files.createTempDirectory("rudderstack-benchmark").toFile()
+        fileManager = EventBatchFileManager(
+            directory = directory,
+            writeKey = BENCHMARK_WRITE_KEY,
+            keyValueStorage = InMemoryPrefsStore(NoOpLogger),
+            platformType = PlatformType.Server,
+            logger = NoOpLogger,
+        )
+        inMemoryBatchManager = InMemoryBatchManager(
+            writeKey = BENCHMARK_WRITE_KEY,
+            keyValueStorage = InMemoryPrefsStore(NoOpLogger),
+            logger = NoOpLogger,
+        )
+        eventPayload = provideTrackEvent().encodeToString()
+    }
+
+    @TearDown
+    fun tearDown() {
+        fileManager.closeAndReset()
+        directory.deleteRecursively()
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_BATCH)
+    fun eventBatchFileManager() = runBlocking {
+        repeat(EVENTS_PER_BATCH) { fileManager.storeEvent(eventPayload) }
+        fileManager.rollover()
+        fileManager.readBatchRefs().forEach { fileManager.remove(it.ref) }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS_PER_BATCH)
+    fun inMemoryBatchManager() = runBlocking {
+        repeat(EVENTS_PER_BATCH) { inMemoryBatchManager.storeEvent(eventPayload) }
+        inMemoryBatchManager.rollover()
+        inMemoryBatchManager.readBatchRefs().forEach { inMemoryBatchManager.remove(it.ref) }
+    }
+}
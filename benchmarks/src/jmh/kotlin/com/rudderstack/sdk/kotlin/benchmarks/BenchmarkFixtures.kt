@@ -0,0 +1,93 @@
+@file:Suppress("INVISIBLE_MEMBER", "INVISIBLE_REFERENCE")
+
+package com.rudderstack.sdk.kotlin.benchmarks
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.Configuration
+import com.rudderstack.sdk.kotlin.core.StorageQuota
+import com.rudderstack.sdk.kotlin.core.StorageType
+import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.models.RudderOption
+import com.rudderstack.sdk.kotlin.core.internals.models.TrackEvent
+import com.rudderstack.sdk.kotlin.core.internals.models.useridentity.UserIdentity
+import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
+import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToString
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+import kotlinx.serialization.json.putJsonObject
+
+internal const val BENCHMARK_WRITE_KEY = "benchmark-write-key"
+
+// Nothing listens on this port, and with no flush policy nothing is ever uploaded to it.
+private const val BENCHMARK_DATA_PLANE_URL = "http://localhost:1"
+
+// Bounds the memory taken up by the batches stored during a run, as they are never uploaded.
+private const val BENCHMARK_MAX_BATCHES = 16
+
+/**
+ * A logger which discards every message, so that the benchmarks measure the SDK rather than the console.
+ */
+internal object NoOpLogger : Logger {
+
+    override fun verbose(log: String) = Unit
+
+    override fun debug(log: String) = Unit
+
+    override fun info(log: String) = Unit
+
+    override fun warn(log: String) = Unit
+
+    override fun error(log: String, throwable: Throwable?) = Unit
+}
+
+/**
+ * Returns a server-side [Analytics] which stores the events in memory and never uploads them.
+ */
+internal fun provideAnalytics(): Analytics = Analytics(
+    Configuration(
+        writeKey = BENCHMARK_WRITE_KEY,
+        dataPlaneUrl = BENCHMARK_DATA_PLANE_URL,
+        flushPolicies = emptyList(),
+        storageType = StorageType.IN_MEMORY,
+        logger = NoOpLogger,
+        storageQuota = StorageQuota(maxBatches = BENCHMARK_MAX_BATCHES),
+    )
+)
+
+/**
+ * Returns a track event with a typical number of properties and custom context, ready to be processed by the plugins.
+ */
+internal fun provideTrackEvent(): Event = TrackEvent(
+    event = "Order Completed",
+    properties = buildJsonObject {
+        put("orderId", "order-1234")
+        put("revenue", 42.5)
+        put("currency", "USD")
+        put("coupon", "WELCOME10")
+        putJsonObject("product") {
+            put("sku", "sku-5678")
+            put("name", "Benchmark Product")
+            put("quantity", 2)
+        }
+    },
+    options = RudderOption(
+        customContext = buildJsonObject {
+            putJsonObject("app") { put("build", "1.0.0") }
+        }
+    ),
+    userIdentityState = UserIdentity(
+        anonymousId = "2d0b5c48-92f2-4b31-a2b5-0f0c0e6f7a11",
+        userId = "user-1234",
+        traits = buildJsonObject { put("plan", "enterprise") },
+    ),
+).also { it.updateData(platform = PlatformType.Server) }
+
+/**
+ * Returns a batch payload of [eventCount] events, as it is read from the storage before it is uploaded.
+ */
+internal fun provideBatchPayload(eventCount: Int): String {
+    val events = List(eventCount) { provideTrackEvent().encodeToString() }
+    return """{"batch":[${events.joinToString(",")}],"sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}"""
+}
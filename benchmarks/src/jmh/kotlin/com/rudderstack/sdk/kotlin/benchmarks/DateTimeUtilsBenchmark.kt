@@ -0,0 +1,61 @@
+package com.rudderstack.sdk.kotlin.benchmarks
+
+import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Threads
+import org.openjdk.jmh.annotations.Warmup
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+import java.util.TimeZone
+import java.util.concurrent.TimeUnit
+
+/**
+ * Compares [DateTimeUtils] with the `SimpleDateFormat` based implementation it replaced, which formatted every
+ * timestamp from scratch and then replaced `UTC` with `Z`.
+ *
+ * The `now` benchmarks format the current time, as done for the `originalTimestamp` of every event, so most calls
+ * hit the per-millisecond cache. The `distinctMillis` benchmarks format a different millisecond on every call, which is
+ * the worst case for the cache. The state is per thread, so that the `SimpleDateFormat` baseline is free of data races.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+open class DateTimeUtilsBenchmark {
+
+    private val simpleDateFormat = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'.'SSSzzz", Locale.ROOT).apply {
+        timeZone = TimeZone.getTimeZone("UTC")
+    }
+    private var timeInMillis = System.currentTimeMillis()
+
+    @Benchmark
+    fun nowWithSimpleDateFormat(): String {
+        return simpleDateFormat.format(Date()).replace("UTC", "Z")
+    }
+
+    @Benchmark
+    fun now(): String {
+        return DateTimeUtils.now()
+    }
+
+    @Benchmark
+    fun distinctMillisWithSimpleDateFormat(): String {
+        return simpleDateFormat.format(Date(timeInMillis++)).replace("UTC", "Z")
+    }
+
+    @Benchmark
+    fun distinctMillis(): String {
+        return DateTimeUtils.from(timeInMillis++)
+    }
+}
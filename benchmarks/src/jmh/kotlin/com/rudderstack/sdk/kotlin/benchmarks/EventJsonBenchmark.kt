@@ -0,0 +1,59 @@
+@file:Suppress("INVISIBLE_MEMBER", "INVISIBLE_REFERENCE")
+
+package com.rudderstack.sdk.kotlin.benchmarks
+
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToString
+import com.rudderstack.sdk.kotlin.core.internals.utils.mergeWithHigherPriorityTo
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+import kotlinx.serialization.json.putJsonObject
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures the JSON work done for every event: serialising it before it is stored, and merging the context added by
+ * the plugins into it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class EventJsonBenchmark {
+
+    private lateinit var event: Event
+    private lateinit var libraryContext: JsonObject
+
+    @Setup
+    fun setup() {
+        event = provideTrackEvent()
+        libraryContext = buildJsonObject {
+            putJsonObject("library") {
+                put("name", "com.rudderstack.sdk.kotlin.core")
+                put("version", "1.0.0")
+            }
+        }
+    }
+
+    @Benchmark
+    fun encodeToString(): String {
+        return event.encodeToString()
+    }
+
+    @Benchmark
+    fun mergeWithHigherPriorityTo(): JsonObject {
+        return event.context mergeWithHigherPriorityTo libraryContext
+    }
+}
@@ -0,0 +1,62 @@
+@file:Suppress("INVISIBLE_MEMBER", "INVISIBLE_REFERENCE")
+
+package com.rudderstack.sdk.kotlin.benchmarks
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextSnapshotPlugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.PluginChain
+import com.rudderstack.sdk.kotlin.core.plugins.LibraryInfoPlugin
+import com.rudderstack.sdk.kotlin.core.plugins.RudderStackDataplanePlugin
+import kotlinx.coroutines.runBlocking
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.TearDown
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Measures an event going through the default plugins of the SDK, up to being queued for storage.
+ *
+ * The events are serialised and stored in memory by the queue of the dataplane plugin, which blocks once its channel is
+ * full, so the throughput reported is that of the whole pipeline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class PluginChainBenchmark {
+
+    private lateinit var analytics: Analytics
+    private lateinit var pluginChain: PluginChain
+    private lateinit var event: Event
+
+    @Setup
+    fun setup() {
+        analytics = provideAnalytics()
+        pluginChain = PluginChain().also { it.analytics = analytics }
+        pluginChain.add(ContextSnapshotPlugin().apply { add(LibraryInfoPlugin()) })
+        pluginChain.add(RudderStackDataplanePlugin())
+        event = provideTrackEvent()
+    }
+
+    @TearDown
+    fun tearDown() {
+        pluginChain.removeAll()
+        analytics.shutdown()
+    }
+
+    @Benchmark
+    fun process() = runBlocking {
+        pluginChain.process(event)
+    }
+}
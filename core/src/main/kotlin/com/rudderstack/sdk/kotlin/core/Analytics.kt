@@ -4,6 +4,8 @@ package com.rudderstack.sdk.kotlin.core
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.KotlinLogger
 import com.rudderstack.sdk.kotlin.core.internals.logger.LoggerAnalytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
+import com.rudderstack.sdk.kotlin.core.internals.metrics.SdkMetrics
 import com.rudderstack.sdk.kotlin.core.internals.models.AliasEvent
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.models.GroupEvent
@@ -26,8 +28,11 @@ import com.rudderstack.sdk.kotlin.core.internals.models.useridentity.storeUserId
 import com.rudderstack.sdk.kotlin.core.internals.models.useridentity.storeUserIdAndTraits
 import com.rudderstack.sdk.kotlin.core.internals.platform.Platform
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextSnapshotPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.PluginChain
+import com.rudderstack.sdk.kotlin.core.internals.queue.BoundedChannel
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
 import com.rudderstack.sdk.kotlin.core.internals.storage.inmemory.provideInMemoryStorage
 import com.rudderstack.sdk.kotlin.core.internals.storage.provideBasicStorage
@@ -40,9 +45,18 @@ import com.rudderstack.sdk.kotlin.core.internals.utils.isSourceEnabledWithLoggin
 import com.rudderstack.sdk.kotlin.core.internals.utils.resolvePreferredPreviousId
 import com.rudderstack.sdk.kotlin.core.plugins.LibraryInfoPlugin
 import com.rudderstack.sdk.kotlin.core.plugins.RudderStackDataplanePlugin
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableJob
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.cancel
 import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.SendChannel
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.collectLatest
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.joinAll
 import kotlinx.coroutines.launch
 import org.jetbrains.annotations.VisibleForTesting
 
@@ -74,22 +88,44 @@ open class Analytics protected constructor(
 
     private val pluginChain: PluginChain = PluginChain().also { it.analytics = this }
 
+    private val contextSnapshotPlugin = ContextSnapshotPlugin()
+
     /**
      * The `sourceConfigState` is a [State] that manages the source configuration for the analytics instance.
      */
     @InternalRudderApi
     val sourceConfigState = State(initialState = SourceConfig.initialState())
 
-    private val processEventChannel: Channel<Event> = Channel(Channel.UNLIMITED)
+    private val processEventChannel = BoundedChannel<ProcessMessage>(configuration.queueConfiguration) { message ->
+        // A dropped flush barrier can't tell when the events queued before it are uploaded anymore
+        (message as? ProcessMessage.FlushBarrier)?.completion?.cancel()
+    }
     private var processEventJob: Job? = null
 
     @Volatile
     internal var isAnalyticsShutdown = false
         private set
 
+    /**
+     * The number of events which are queued, but not yet picked up for processing.
+     */
+    val queuedEventCount: Int
+        get() = processEventChannel.size
+
+    /**
+     * The number of events dropped because the event queue was full.
+     *
+     * Events are dropped only when [Configuration.queueConfiguration] is bounded and its [OverflowStrategy] drops events.
+     */
+    val droppedEventCount: Long
+        get() = processEventChannel.droppedCount
+
+    internal val sdkMetrics = SdkMetrics()
+
     init {
         logger.info("Analytics(core): Initialized with configuration: $configuration")
         runForBaseTypeOnly()
+        registerMetrics()
         processEvents()
         setup()
         storeAnonymousId()
@@ -123,12 +159,54 @@ open class Analytics protected constructor(
         configuration = configuration,
         analyticsConfiguration = provideAnalyticsConfiguration(configuration) { writeKey, logger ->
             when (configuration.storageType) {
-                StorageType.IN_MEMORY -> provideInMemoryStorage(writeKey, logger)
-                StorageType.FILE -> provideBasicStorage(writeKey, PlatformType.Server, logger)
+                StorageType.IN_MEMORY -> provideInMemoryStorage(
+                    writeKey,
+                    logger,
+                    configuration.storageQuota,
+                    configuration.batchPartitioning.maxOpenBatches,
+                )
+
+                StorageType.FILE -> provideBasicStorage(
+                    writeKey,
+                    PlatformType.Server,
+                    logger,
+                    configuration.storageDurability,
+                    configuration.compressBatchesOnDisk,
+                    configuration.storageQuota,
+                    configuration.batchPartitioning.maxOpenBatches,
+                )
             }
         },
     )
 
+    /**
+     * Returns a snapshot of the metrics collected by the SDK: the events accepted, dropped and persisted, the batches
+     * uploaded, rejected and evicted, the depth of the event queues, the backlog of batches and the upload latency and size.
+     *
+     * The metrics are collected in memory and are cheap to read, so this can be polled at any interval.
+     *
+     * @return The [MetricsSnapshot] of the SDK, keyed by the names defined in [MetricNames].
+     */
+    fun metrics(): MetricsSnapshot = sdkMetrics.snapshot()
+
+    /**
+     * Registers a counter kept by a plugin, which is included in the [metrics] under the given [name].
+     */
+    @InternalRudderApi
+    fun registerMetricCounter(name: String, supplier: () -> Long) = sdkMetrics.registerCounter(name, supplier)
+
+    /**
+     * Registers a gauge of a plugin, which is included in the [metrics] under the given [name].
+     */
+    @InternalRudderApi
+    fun registerMetricGauge(name: String, supplier: () -> Long) = sdkMetrics.registerGauge(name, supplier)
+
+    /**
+     * Unregisters the counter or gauge registered with the given [name], so that it is no longer included in the [metrics].
+     */
+    @InternalRudderApi
+    fun unregisterMetric(name: String) = sdkMetrics.unregister(name)
+
     /**
      * Tracks a custom event with the specified name, properties, and options.
      * This function constructs a `TrackEvent` event and processes it through the plugin chain.
@@ -139,7 +217,7 @@ open class Analytics protected constructor(
      */
     @JvmOverloads
     fun track(name: String, properties: Properties = emptyJsonObject, options: RudderOption = RudderOption()) {
-        logger.debug("Analytics(core): track() called with event='$name', properties=$properties, options=$options")
+        logger.debug { "Analytics(core): track() called with event='$name', properties=$properties, options=$options" }
         if (!isAnalyticsActive() || !isSourceEnabledWithLogging()) return
 
         val event = TrackEvent(
@@ -149,9 +227,7 @@ open class Analytics protected constructor(
             userIdentityState = userIdentityState.value,
         )
 
-        processEventChannel.trySend(event).apply {
-            if (isFailure) logger.warn("Analytics(core): Failed to enqueue track event — channel closed or full")
-        }
+        enqueue(event)
     }
 
     /**
@@ -170,10 +246,10 @@ open class Analytics protected constructor(
         properties: Properties = emptyJsonObject,
         options: RudderOption = RudderOption()
     ) {
-        logger.debug(
+        logger.debug {
             "Analytics(core): screen() called with " +
                 "screenName='$screenName', category='$category', properties=$properties, options=$options"
-        )
+        }
         if (!isAnalyticsActive() || !isSourceEnabledWithLogging()) return
 
         val updatedProperties = addNameAndCategoryToProperties(screenName, category, properties)
@@ -185,9 +261,7 @@ open class Analytics protected constructor(
             userIdentityState = userIdentityState.value,
         )
 
-        processEventChannel.trySend(event).apply {
-            if (isFailure) logger.warn("Analytics(core): Failed to enqueue screen event — channel closed or full")
-        }
+        enqueue(event)
     }
 
     /**
@@ -200,7 +274,7 @@ open class Analytics protected constructor(
      */
     @JvmOverloads
     fun group(groupId: String, traits: Traits = emptyJsonObject, options: RudderOption = RudderOption()) {
-        logger.debug("Analytics(core): group() called with groupId='$groupId', traits=$traits, options=$options")
+        logger.debug { "Analytics(core): group() called with groupId='$groupId', traits=$traits, options=$options" }
         if (!isAnalyticsActive() || !isSourceEnabledWithLogging()) return
 
         val event = GroupEvent(
@@ -210,9 +284,7 @@ open class Analytics protected constructor(
             userIdentityState = userIdentityState.value,
         )
 
-        processEventChannel.trySend(event).apply {
-            if (isFailure) logger.warn("Analytics(core): Failed to enqueue group event — channel closed or full")
-        }
+        enqueue(event)
     }
 
     /**
@@ -225,7 +297,7 @@ open class Analytics protected constructor(
      */
     @JvmOverloads
     fun identify(userId: String = String.empty(), traits: Traits = emptyJsonObject, options: RudderOption = RudderOption()) {
-        logger.debug("Analytics(core): identify() called with userId='$userId', traits=$traits, options=$options")
+        logger.debug { "Analytics(core): identify() called with userId='$userId', traits=$traits, options=$options" }
         if (!isAnalyticsActive()) return
 
         if (!this.userId.isNullOrEmpty() && this.userId != userId) {
@@ -252,9 +324,7 @@ open class Analytics protected constructor(
             userIdentityState = userIdentityState.value,
         )
 
-        processEventChannel.trySend(event).apply {
-            if (isFailure) logger.warn("Analytics(core): Failed to enqueue identify event — channel closed or full")
-        }
+        enqueue(event)
     }
 
     /**
@@ -270,7 +340,7 @@ open class Analytics protected constructor(
      */
     @JvmOverloads
     fun alias(newId: String, previousId: String = String.empty(), options: RudderOption = RudderOption()) {
-        logger.debug("Analytics(core): alias() called with newId='$newId', previousId='$previousId', options=$options")
+        logger.debug { "Analytics(core): alias() called with newId='$newId', previousId='$previousId', options=$options" }
         if (!isAnalyticsActive()) return
 
         val updatedPreviousId = userIdentityState.value.resolvePreferredPreviousId(previousId)
@@ -289,23 +359,54 @@ open class Analytics protected constructor(
             userIdentityState = userIdentityState.value,
         )
 
-        processEventChannel.trySend(event).apply {
-            if (isFailure) logger.warn("Analytics(core): Failed to enqueue alias event — channel closed or full")
-        }
+        enqueue(event)
     }
 
     /**
      * Flushes all pending events that are currently queued in the plugin chain.
      * This method specifically targets the `RudderStackDataPlanePlugin` to initiate the flush operation.
+     *
+     * The flush is requested in the background, so that the calling thread never waits for space in the event queue.
      */
     open fun flush() {
         logger.debug("Analytics(core): flush() called")
         if (!isAnalyticsActive() || !isSourceEnabledWithLogging()) return
 
-        this.pluginChain.applyClosure {
-            if (it is RudderStackDataplanePlugin) {
-                it.flush()
-            }
+        analyticsScope.launch(analyticsDispatcher) { flushDataplane(completion = null) }
+    }
+
+    /**
+     * Flushes all pending events like [flush], and returns a [Job] to find out when they are uploaded.
+     *
+     * Unlike [flush], the flush is queued behind the events made before this call, so that it only starts once they have
+     * been processed by the plugins and stored. The job completes once the upload which includes all these events is
+     * done, whether or not the data plane accepted every batch, and is cancelled if the events can't be uploaded, e.g.
+     * because the SDK is shut down or the source is disabled. The flushes requested while an upload is pending are
+     * coalesced into it, so calling this method often doesn't trigger more uploads.
+     *
+     * ```kotlin
+     * analytics.flushWithCompletion().invokeOnCompletion { cause ->
+     *     if (cause == null) println("Events uploaded")
+     * }
+     * ```
+     */
+    open fun flushWithCompletion(): Job {
+        logger.debug("Analytics(core): flushWithCompletion() called")
+        val completion = Job()
+        if (!isAnalyticsActive() || !isSourceEnabledWithLogging()) {
+            completion.cancel()
+            return completion
+        }
+
+        if (!processEventChannel.offer(ProcessMessage.FlushBarrier(completion), analyticsScope)) {
+            completion.cancel()
+        }
+        return completion
+    }
+
+    private suspend fun flushDataplane(completion: CompletableJob?) {
+        pluginChain.findAll(Plugin.PluginType.Terminal, RudderStackDataplanePlugin::class).forEach {
+            it.flush(completion)
         }
     }
 
@@ -354,10 +455,25 @@ open class Analytics protected constructor(
      * and `RudderStackDataPlanePlugin`. This function is called during initialization.
      */
     private fun setup() {
-        add(LibraryInfoPlugin())
+        addContextPlugin(LibraryInfoPlugin())
+        add(contextSnapshotPlugin)
         add(RudderStackDataplanePlugin())
     }
 
+    /**
+     * Adds a context plugin, whose context fragment is combined with the fragments of the other context plugins into a
+     * snapshot, which is merged into every event in a single step.
+     *
+     * @param plugin The context plugin to be added after the context plugins added before it.
+     */
+    @InternalRudderApi
+    fun addContextPlugin(plugin: ContextPlugin) {
+        logger.debug("Analytics(core): addContextPlugin() called with plugin=${plugin::class.simpleName}")
+        if (!isAnalyticsActive()) return
+
+        this.contextSnapshotPlugin.add(plugin)
+    }
+
     /**
      * Adds a plugin to the plugin chain. Plugins can modify, enrich, or process events before they are sent to the server.
      *
@@ -412,18 +528,119 @@ open class Analytics protected constructor(
     }
 
     /**
-     * Processes each event sequentially through the plugin chain and applies base data to the event.
+     * Processes each event through the plugin chain and applies base data to the event.
      * All operations are executed within the `analyticsDispatcher` coroutine context.
      *
+     * The events are processed one after the other, unless [Configuration.processingConcurrency] is greater than 1, in
+     * which case they are distributed among as many workers by anonymousId. The base data is still applied in the order
+     * in which the events were made, so that each event gets the user identity at the time it was made.
+     *
+     * A flush barrier queued by [flushWithCompletion] flushes the data plane once all the events queued before it are
+     * processed, i.e. once every worker has processed the events it was given before the barrier.
+     *
      * **NOTE**: This method can be called either before or after the initialization of all plugins (plugin setup occurs in the `init` method).
      * Events sent before this function is invoked will be queued and processed once this function is called, ensuring no events are lost.
      */
     private fun processEvents() {
+        val processingConcurrency = configuration.validatedProcessingConcurrency
+        pluginChain.isConcurrent = processingConcurrency > 1
         processEventJob = analyticsScope.launch(analyticsDispatcher) {
-            for (event in processEventChannel) {
-                event.updateData(platform = getPlatformType())
-                pluginChain.process(event)
+            if (processingConcurrency == 1) {
+                for (message in processEventChannel) {
+                    when (message) {
+                        is ProcessMessage.EventMessage -> {
+                            message.event.updateData(platform = getPlatformType())
+                            pluginChain.process(message.event)
+                        }
+
+                        is ProcessMessage.FlushBarrier -> flushDataplane(message.completion)
+                    }
+                }
+            } else {
+                val workers = List(processingConcurrency) { launchProcessingWorker() }
+                for (message in processEventChannel) {
+                    when (message) {
+                        is ProcessMessage.EventMessage -> {
+                            message.event.updateData(platform = getPlatformType())
+                            workers[message.event.anonymousId.hashCode().mod(processingConcurrency)].send(message)
+                        }
+
+                        is ProcessMessage.FlushBarrier -> flushOnceProcessed(workers, message.completion)
+                    }
+                }
+                workers.forEach { it.close() }
+            }
+        }
+    }
+
+    private fun CoroutineScope.launchProcessingWorker(): SendChannel<ProcessMessage> {
+        // A bounded buffer lets the other workers go on while one is busy, and still holds back the event queue when all are
+        val worker = Channel<ProcessMessage>(Channel.BUFFERED)
+        launch {
+            for (message in worker) {
+                when (message) {
+                    is ProcessMessage.EventMessage -> pluginChain.process(message.event)
+                    is ProcessMessage.FlushBarrier -> message.completion.complete()
+                }
+            }
+        }
+        return worker
+    }
+
+    /**
+     * Flushes the data plane once every worker has processed the events it was given so far, without holding up the
+     * distribution of the next events meanwhile.
+     */
+    private suspend fun CoroutineScope.flushOnceProcessed(workers: List<SendChannel<ProcessMessage>>, completion: CompletableJob) {
+        val processed = workers.map { worker -> Job().also { worker.send(ProcessMessage.FlushBarrier(it)) } }
+        launch {
+            try {
+                processed.joinAll()
+            } catch (e: CancellationException) {
+                completion.cancel()
+                throw e
             }
+            flushDataplane(completion)
+        }
+    }
+
+    private fun enqueue(event: Event) {
+        if (processEventChannel.offer(ProcessMessage.EventMessage(event), analyticsScope)) {
+            sdkMetrics.eventsAccepted.increment()
+        } else {
+            logger.warn("Analytics(core): Failed to enqueue ${event.type.name.lowercase()} event — channel closed or full")
+        }
+    }
+
+    private fun registerMetrics() {
+        sdkMetrics.registerCounter(MetricNames.EVENTS_DROPPED_QUEUE_FULL) { processEventChannel.droppedCount }
+        sdkMetrics.registerCounter(MetricNames.BATCHES_EVICTED) { storage.readEvictionCounters().evictedBatches }
+        sdkMetrics.registerGauge(MetricNames.PROCESS_QUEUE_DEPTH) { processEventChannel.size.toLong() }
+        sdkMetrics.registerGauge(MetricNames.BATCH_COUNT) { storage.readBacklog().batchCount.toLong() }
+        sdkMetrics.registerGauge(MetricNames.BATCH_BYTES) { storage.readBacklog().bytes }
+        configuration.metricsExporter?.let { scheduleMetricsExport(it) }
+    }
+
+    /**
+     * Exports the metrics to the [exporter] at its interval, for as long as the source configuration enables metrics
+     * collection. The server-side platforms don't fetch the source configuration, so they always export them.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private fun scheduleMetricsExport(exporter: MetricsExporter) {
+        analyticsScope.launch(analyticsDispatcher) {
+            sourceConfigState
+                .map { getPlatformType() == PlatformType.Server || it.source.metricConfig.statsCollection.metrics.enabled }
+                .distinctUntilChanged()
+                .collectLatest { isEnabled ->
+                    while (isEnabled) {
+                        delay(exporter.exportIntervalInMillis)
+                        try {
+                            exporter.export(metrics())
+                        } catch (e: Exception) {
+                            logger.error("Analytics(core): Failed to export the metrics", e)
+                        }
+                    }
+                }
         }
     }
 
@@ -494,6 +711,22 @@ open class Analytics protected constructor(
     }
 }
 
+/**
+ * A message of the event processing queue.
+ */
+private sealed interface ProcessMessage {
+
+    /**
+     * An event to process through the plugin chain.
+     */
+    class EventMessage(val event: Event) : ProcessMessage
+
+    /**
+     * A barrier which flushes the data plane, or is completed by a worker, once the events queued before it are processed.
+     */
+    class FlushBarrier(val completion: CompletableJob) : ProcessMessage
+}
+
 @VisibleForTesting
 internal fun provideSourceConfigManager(analytics: Analytics, sourceConfigState: State<SourceConfig>) = SourceConfigManager(
     analytics = analytics,
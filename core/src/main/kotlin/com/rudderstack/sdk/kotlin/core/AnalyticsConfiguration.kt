@@ -90,6 +90,7 @@ interface AnalyticsConfiguration {
 private class AnalyticsConfigurationImpl(
     override val storage: Storage,
     override val logger: Logger,
+    uploadConcurrency: Int,
 ) : AnalyticsConfiguration {
 
     private val handler = CoroutineExceptionHandler { _, exception ->
@@ -102,7 +103,8 @@ private class AnalyticsConfigurationImpl(
     override val analyticsDispatcher: CoroutineDispatcher = Dispatchers.IO
     override val fileStorageDispatcher: CoroutineDispatcher = Dispatchers.IO.limitedParallelism(1)
     override val keyValueStorageDispatcher: CoroutineDispatcher = Dispatchers.IO.limitedParallelism(1)
-    override val networkDispatcher: CoroutineDispatcher = Dispatchers.IO.limitedParallelism(1)
+    // Each batch upload blocks a thread for the whole request, so one thread is needed per concurrent upload
+    override val networkDispatcher: CoroutineDispatcher = Dispatchers.IO.limitedParallelism(uploadConcurrency)
     override val integrationsDispatcher: CoroutineDispatcher = Dispatchers.IO.limitedParallelism(1)
 
     override val connectivityState: State<Boolean> = State(initialState = ConnectivityState.INITIAL_STATE)
@@ -125,5 +127,5 @@ fun provideAnalyticsConfiguration(
 ): AnalyticsConfiguration {
     val analyticsLogger = provideAnalyticsLogger(logger = configuration.logger, logLevel = configuration.logLevel)
     val storage = storageProvider(configuration.writeKey, analyticsLogger)
-    return AnalyticsConfigurationImpl(storage, analyticsLogger)
+    return AnalyticsConfigurationImpl(storage, analyticsLogger, configuration.validatedUploadConcurrency)
 }
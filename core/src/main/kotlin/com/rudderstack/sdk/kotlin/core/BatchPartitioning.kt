@@ -0,0 +1,52 @@
+package com.rudderstack.sdk.kotlin.core
+
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_MAX_OPEN_BATCHES
+
+/**
+ * `BatchPartitioning` defines how the stored events are grouped into batches, which is a trade-off between the size of
+ * the batches and the identity with which they are uploaded, when a single instance receives the events of many users.
+ */
+sealed interface BatchPartitioning {
+
+    /**
+     * Keeps a batch per anonymousId, so that every batch is uploaded with the identity of its events. Up to
+     * [maxOpenBatches] batches are filled at the same time; once the limit is reached, the least recently written batch
+     * is completed to make room for the next anonymousId.
+     *
+     * This suits a few users at a time, e.g. a mobile app. With many more interleaved users than [maxOpenBatches], most
+     * batches are completed with few events, in which case [Mixed] fills the batches instead.
+     *
+     * @param maxOpenBatches The maximum number of batches filled at the same time. Values below 1 are coerced to 1.
+     */
+    class ByAnonymousId @JvmOverloads constructor(
+        maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
+    ) : BatchPartitioning {
+
+        /**
+         * The maximum number of batches filled at the same time.
+         */
+        val maxOpenBatches: Int = maxOpenBatches.coerceAtLeast(1)
+
+        override fun toString(): String {
+            return "ByAnonymousId(maxOpenBatches=$maxOpenBatches)"
+        }
+    }
+
+    /**
+     * Stores the events of all the users in the same batch, so that the batches fill up however many users are
+     * interleaved. Every event keeps its own anonymousId, and the batch is uploaded with the anonymousId of its first event.
+     *
+     * As a batch holds the events of many users, the batches are uploaded one after the other whatever the
+     * [Configuration.uploadConcurrency], which keeps the events of every user in order.
+     */
+    data object Mixed : BatchPartitioning
+}
+
+/**
+ * The maximum number of batches filled at the same time with this partitioning.
+ */
+internal val BatchPartitioning.maxOpenBatches: Int
+    get() = when (this) {
+        is BatchPartitioning.ByAnonymousId -> maxOpenBatches
+        BatchPartitioning.Mixed -> 1
+    }
@@ -2,18 +2,34 @@
 
 package com.rudderstack.sdk.kotlin.core
 
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_BATCH_PARTITIONING
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_COMPRESS_BATCHES_ON_DISK
 import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_CONTROL_PLANE_URL
 import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_FLUSH_POLICIES
 import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_GZIP_STATUS
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_HTTP_TRANSPORT
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_METRICS_EXPORTER
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_PROCESSING_CONCURRENCY
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_QUEUE_CONFIGURATION
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_STORAGE_DURABILITY
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_STORAGE_QUOTA
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_UPLOAD_CONCURRENCY
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.MAX_PROCESSING_CONCURRENCY
+import com.rudderstack.sdk.kotlin.core.Configuration.Companion.MAX_UPLOAD_CONCURRENCY
 import com.rudderstack.sdk.kotlin.core.internals.logger.KotlinLogger
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.logger.LoggerAnalytics
+import com.rudderstack.sdk.kotlin.core.internals.network.HttpTransport
+import com.rudderstack.sdk.kotlin.core.internals.network.HttpURLConnectionTransport
 import com.rudderstack.sdk.kotlin.core.internals.policies.CountFlushPolicy
 import com.rudderstack.sdk.kotlin.core.internals.policies.FlushPolicy
 import com.rudderstack.sdk.kotlin.core.internals.policies.FrequencyFlushPolicy
 import com.rudderstack.sdk.kotlin.core.internals.policies.StartupFlushPolicy
 import org.jetbrains.annotations.VisibleForTesting
 
+private const val MIN_UPLOAD_CONCURRENCY = 1
+private const val MIN_PROCESSING_CONCURRENCY = 1
+
 /**
  * The `Configuration` class is used to configure the SDK's settings for network communication, logging, data storage, and more.
  * This class provides customizable options such as API keys, URLs for data and control planes, logging levels, and storage preferences.
@@ -26,6 +42,31 @@ import org.jetbrains.annotations.VisibleForTesting
  * @property storageType The storage type for analytics data persistence. Defaults to [DEFAULT_STORAGE_TYPE].
  * @property logger The logger instance used for logging SDK events and errors. Defaults to [DEFAULT_LOGGER].
  * @property logLevel The log level for this configuration instance, determining the minimum severity of messages that will be logged. Defaults to [DEFAULT_LOG_LEVEL].
+ * @property queueConfiguration The capacity and overflow strategy of the in-memory event queues. Defaults to [DEFAULT_QUEUE_CONFIGURATION].
+ * @property uploadConcurrency The maximum number of batches uploaded to the data plane at the same time. Batches of the same
+ * anonymousId are always uploaded one after the other. Values outside `1..`[MAX_UPLOAD_CONCURRENCY] are coerced into that range.
+ * Defaults to [DEFAULT_UPLOAD_CONCURRENCY].
+ * @property httpTransport The transport used to execute the requests to the data plane and the control plane.
+ * A custom transport can be provided, e.g. [com.rudderstack.sdk.kotlin.core.internals.network.JavaNetHttpTransport]
+ * on the JVM for HTTP/2 support. Defaults to [DEFAULT_HTTP_TRANSPORT].
+ * @property storageDurability When the stored events are written to the disk, which bounds how many events a crash can lose.
+ * Only applies to [StorageType.FILE]. Defaults to [DEFAULT_STORAGE_DURABILITY].
+ * @property storageQuota The limits of the batches kept while they wait to be uploaded, and which batches are evicted
+ * once they are exceeded. Defaults to [DEFAULT_STORAGE_QUOTA].
+ * @property metricsExporter The exporter to which the SDK metrics are pushed periodically, in addition to being available
+ * through [Analytics.metrics]. Defaults to [DEFAULT_METRICS_EXPORTER], which doesn't export them.
+ * @property processingConcurrency The number of workers running the plugin chain at the same time. The events are
+ * distributed among the workers by anonymousId, so the events of the same anonymousId are always processed one after the
+ * other, in order. The plugins which are not a [com.rudderstack.sdk.kotlin.core.internals.plugins.ConcurrentPlugin] still
+ * intercept one event at a time. Values outside `1..`[MAX_PROCESSING_CONCURRENCY] are coerced into that range.
+ * Defaults to [DEFAULT_PROCESSING_CONCURRENCY].
+ * @property batchPartitioning How the stored events are grouped into batches. [BatchPartitioning.Mixed] fills the batches
+ * when many users are interleaved, e.g. on a server. Defaults to [DEFAULT_BATCH_PARTITIONING].
+ * @property compressBatchesOnDisk Whether every batch is compressed once when it is completed. Only applies to
+ * [StorageType.FILE]. Together with [gzipEnabled], the compressed batches are uploaded as they are, without being
+ * compressed again on every attempt. Defaults to [DEFAULT_COMPRESS_BATCHES_ON_DISK].
+ * **NOTE**: This changes the format of the batch files, which the SDK versions without this option can't read: once
+ * enabled, downgrading the SDK loses the batches which weren't uploaded yet.
  */
 open class Configuration @JvmOverloads constructor(
     open val writeKey: String,
@@ -35,7 +76,16 @@ open class Configuration @JvmOverloads constructor(
     open val flushPolicies: List<FlushPolicy> = DEFAULT_FLUSH_POLICIES,
     val storageType: StorageType = DEFAULT_STORAGE_TYPE,
     open val logger: Logger = DEFAULT_LOGGER,
-    open val logLevel: Logger.LogLevel = DEFAULT_LOG_LEVEL
+    open val logLevel: Logger.LogLevel = DEFAULT_LOG_LEVEL,
+    open val queueConfiguration: QueueConfiguration = DEFAULT_QUEUE_CONFIGURATION,
+    open val uploadConcurrency: Int = DEFAULT_UPLOAD_CONCURRENCY,
+    open val httpTransport: HttpTransport = DEFAULT_HTTP_TRANSPORT,
+    open val storageDurability: StorageDurability = DEFAULT_STORAGE_DURABILITY,
+    open val storageQuota: StorageQuota = DEFAULT_STORAGE_QUOTA,
+    open val metricsExporter: MetricsExporter? = DEFAULT_METRICS_EXPORTER,
+    open val processingConcurrency: Int = DEFAULT_PROCESSING_CONCURRENCY,
+    open val batchPartitioning: BatchPartitioning = DEFAULT_BATCH_PARTITIONING,
+    open val compressBatchesOnDisk: Boolean = DEFAULT_COMPRESS_BATCHES_ON_DISK,
 ) {
 
     override fun toString(): String {
@@ -46,7 +96,16 @@ open class Configuration @JvmOverloads constructor(
             "gzipEnabled=$gzipEnabled, " +
             "flushPolicies=$flushPolicies, " +
             "storageType=$storageType, " +
-            "logLevel=$logLevel" +
+            "logLevel=$logLevel, " +
+            "queueConfiguration=$queueConfiguration, " +
+            "uploadConcurrency=$uploadConcurrency, " +
+            "httpTransport=$httpTransport, " +
+            "storageDurability=$storageDurability, " +
+            "storageQuota=$storageQuota, " +
+            "metricsExporter=$metricsExporter, " +
+            "processingConcurrency=$processingConcurrency, " +
+            "batchPartitioning=$batchPartitioning, " +
+            "compressBatchesOnDisk=$compressBatchesOnDisk" +
             ")"
     }
 
@@ -89,9 +148,79 @@ open class Configuration @JvmOverloads constructor(
          */
         val DEFAULT_LOG_LEVEL: Logger.LogLevel
             get() = LoggerAnalytics.logLevel
+
+        /**
+         * The default queue configuration, which keeps the event queues unbounded.
+         */
+        val DEFAULT_QUEUE_CONFIGURATION: QueueConfiguration
+            get() = QueueConfiguration()
+
+        /**
+         * The default number of batches uploaded at the same time, which uploads the batches one after the other.
+         */
+        const val DEFAULT_UPLOAD_CONCURRENCY: Int = 1
+
+        /**
+         * The maximum number of batches which can be uploaded at the same time.
+         */
+        const val MAX_UPLOAD_CONCURRENCY: Int = 8
+
+        /**
+         * The default transport, which uses `HttpURLConnection` and keeps the connections alive to reuse them across requests.
+         */
+        val DEFAULT_HTTP_TRANSPORT: HttpTransport
+            get() = HttpURLConnectionTransport()
+
+        /**
+         * The default storage durability, which writes every event to the disk as soon as it is stored.
+         */
+        val DEFAULT_STORAGE_DURABILITY: StorageDurability = StorageDurability.FlushPerEvent
+
+        /**
+         * The default storage quota, which keeps every batch until it is uploaded.
+         */
+        val DEFAULT_STORAGE_QUOTA: StorageQuota = StorageQuota()
+
+        /**
+         * The default metrics exporter, which is none: the metrics are only available through [Analytics.metrics].
+         */
+        val DEFAULT_METRICS_EXPORTER: MetricsExporter? = null
+
+        /**
+         * The default number of processing workers, which processes the events one after the other.
+         */
+        const val DEFAULT_PROCESSING_CONCURRENCY: Int = 1
+
+        /**
+         * The maximum number of processing workers.
+         */
+        const val MAX_PROCESSING_CONCURRENCY: Int = 64
+
+        /**
+         * The default batch partitioning, which keeps a batch per anonymousId.
+         */
+        val DEFAULT_BATCH_PARTITIONING: BatchPartitioning
+            get() = BatchPartitioning.ByAnonymousId()
+
+        /**
+         * The default status of the compression of the batches on disk, which keeps them in the plain JSON format.
+         */
+        const val DEFAULT_COMPRESS_BATCHES_ON_DISK: Boolean = false
     }
 }
 
+/**
+ * The [Configuration.uploadConcurrency] coerced into the supported range.
+ */
+internal val Configuration.validatedUploadConcurrency: Int
+    get() = uploadConcurrency.coerceIn(MIN_UPLOAD_CONCURRENCY, MAX_UPLOAD_CONCURRENCY)
+
+/**
+ * The [Configuration.processingConcurrency] coerced into the supported range.
+ */
+internal val Configuration.validatedProcessingConcurrency: Int
+    get() = processingConcurrency.coerceIn(MIN_PROCESSING_CONCURRENCY, MAX_PROCESSING_CONCURRENCY)
+
 /**
  * Provides a list of default flush policies used for sending events to the data plane.
  *
@@ -0,0 +1,202 @@
+package com.rudderstack.sdk.kotlin.core
+
+/**
+ * `MetricsSnapshot` holds the values of the metrics collected by the SDK at the time it was taken, keyed by the names
+ * defined in [MetricNames]. It is returned by [Analytics.metrics] and passed to the [MetricsExporter].
+ *
+ * @property counters The number of times something happened since the SDK was initialised, e.g. [MetricNames.EVENTS_ACCEPTED].
+ * @property gauges The current value of something which goes up and down, e.g. [MetricNames.PROCESS_QUEUE_DEPTH].
+ * @property histograms The distribution of the values recorded since the SDK was initialised, e.g. [MetricNames.UPLOAD_LATENCY_IN_MILLIS].
+ */
+data class MetricsSnapshot(
+    val counters: Map<String, Long>,
+    val gauges: Map<String, Long>,
+    val histograms: Map<String, HistogramSnapshot>,
+)
+
+/**
+ * `HistogramSnapshot` holds the distribution of the values recorded by a histogram, counted in fixed buckets.
+ *
+ * @property count The number of values recorded.
+ * @property sum The sum of the values recorded.
+ * @property max The largest value recorded, or `0` if none was recorded.
+ * @property bucketUpperBounds The inclusive upper bounds of the buckets. The last bound is [Long.MAX_VALUE].
+ * @property bucketCounts The number of values recorded in each bucket.
+ */
+data class HistogramSnapshot(
+    val count: Long,
+    val sum: Long,
+    val max: Long,
+    val bucketUpperBounds: List<Long>,
+    val bucketCounts: List<Long>,
+) {
+
+    /**
+     * The mean of the values recorded, or `0` if none was recorded.
+     */
+    val mean: Double
+        get() = if (count == 0L) 0.0 else sum.toDouble() / count
+
+    /**
+     * Returns an upper bound of the [percentile] of the values recorded, i.e. the upper bound of the bucket in which
+     * it falls, or [max] if it is lower. Returns `0` if no value was recorded.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     */
+    fun percentile(percentile: Double): Long {
+        if (count == 0L) return 0
+        val rank = Math.ceil(count * percentile.coerceIn(0.0, PERCENT) / PERCENT).toLong().coerceAtLeast(1)
+        var seen = 0L
+        bucketCounts.forEachIndexed { index, bucketCount ->
+            seen += bucketCount
+            if (seen >= rank) return minOf(bucketUpperBounds[index], max)
+        }
+        return max
+    }
+
+    private companion object {
+
+        const val PERCENT = 100.0
+    }
+}
+
+/**
+ * `MetricsExporter` receives a [MetricsSnapshot] of the SDK metrics at a regular interval, e.g. to send them to a
+ * monitoring system. It is set with [Configuration.metricsExporter].
+ *
+ * The snapshots are exported while the source configuration enables metrics collection, and always on server-side
+ * platforms, where the source configuration isn't fetched.
+ */
+interface MetricsExporter {
+
+    /**
+     * The interval in milliseconds at which the metrics are exported.
+     */
+    val exportIntervalInMillis: Long
+        get() = DEFAULT_EXPORT_INTERVAL_IN_MILLIS
+
+    /**
+     * Exports the [snapshot]. It is called on a background thread, and should return quickly.
+     *
+     * @param snapshot The metrics of the SDK at the time of the export.
+     */
+    fun export(snapshot: MetricsSnapshot)
+
+    companion object {
+
+        /**
+         * The default value of [exportIntervalInMillis].
+         */
+        const val DEFAULT_EXPORT_INTERVAL_IN_MILLIS: Long = 60_000L
+    }
+}
+
+/**
+ * The names of the metrics collected by the SDK.
+ */
+object MetricNames {
+
+    /**
+     * Counter of the events accepted by the event queue of [Analytics].
+     */
+    const val EVENTS_ACCEPTED = "events_accepted"
+
+    /**
+     * Counter of the events dropped because the event queue was full, see [Configuration.queueConfiguration].
+     */
+    const val EVENTS_DROPPED_QUEUE_FULL = "events_dropped_queue_full"
+
+    /**
+     * Counter of the events dropped by a plugin.
+     */
+    const val EVENTS_DROPPED_BY_PLUGINS = "events_dropped_by_plugins"
+
+    /**
+     * Counter of the events dropped because their payload exceeded the maximum size of an event.
+     */
+    const val EVENTS_DROPPED_TOO_LARGE = "events_dropped_too_large"
+
+    /**
+     * Counter of the events written to the storage.
+     */
+    const val EVENTS_PERSISTED = "events_persisted"
+
+    /**
+     * Counter of the batches uploaded successfully.
+     */
+    const val BATCHES_UPLOADED = "batches_uploaded"
+
+    /**
+     * Counter of the batches rejected by the data plane with a non-retryable error.
+     */
+    const val BATCHES_REJECTED = "batches_rejected"
+
+    /**
+     * Counter of the batches evicted to keep the backlog within its [StorageQuota].
+     */
+    const val BATCHES_EVICTED = "batches_evicted"
+
+    /**
+     * Counter of the upload attempts which failed with a retryable error and were retried.
+     */
+    const val UPLOAD_RETRIES = "upload_retries"
+
+    /**
+     * Gauge of the events waiting to be processed by the plugins.
+     */
+    const val PROCESS_QUEUE_DEPTH = "process_queue_depth"
+
+    /**
+     * Gauge of the events waiting to be written to the storage.
+     */
+    const val WRITE_QUEUE_DEPTH = "write_queue_depth"
+
+    /**
+     * Gauge of the flush requests waiting to be handled by the uploader.
+     */
+    const val UPLOAD_QUEUE_DEPTH = "upload_queue_depth"
+
+    /**
+     * Gauge of the completed batches waiting to be uploaded.
+     */
+    const val BATCH_COUNT = "batch_count"
+
+    /**
+     * Gauge of the bytes taken up by the completed batches waiting to be uploaded.
+     */
+    const val BATCH_BYTES = "batch_bytes"
+
+    /**
+     * Histogram of the time in milliseconds taken by the upload requests.
+     */
+    const val UPLOAD_LATENCY_IN_MILLIS = "upload_latency_ms"
+
+    /**
+     * Histogram of the size in bytes of the uploaded batches: as sent on the wire for the batches compressed on disk,
+     * and before compression otherwise.
+     */
+    const val UPLOAD_PAYLOAD_BYTES = "upload_payload_bytes"
+
+    /**
+     * Gauge of the events waiting to be delivered to a device mode destination, named with [forDestination].
+     */
+    const val DESTINATION_QUEUE_DEPTH = "destination_queue_depth"
+
+    /**
+     * Counter of the events dropped because the queue of a device mode destination was full, named with [forDestination].
+     */
+    const val DESTINATION_EVENTS_DROPPED = "destination_events_dropped"
+
+    /**
+     * Gauge of the time in milliseconds since the event being delivered to a device mode destination was queued, or 0
+     * if the destination is idle, named with [forDestination]. It keeps growing while the destination is stuck on an event.
+     */
+    const val DESTINATION_LAG_IN_MILLIS = "destination_lag_ms"
+
+    /**
+     * Returns the name of the metric [name] of the device mode destination with the given [destinationKey],
+     * e.g. `destination_queue_depth.Firebase`.
+     */
+    @JvmStatic
+    fun forDestination(name: String, destinationKey: String): String = "$name.$destinationKey"
+}
@@ -0,0 +1,80 @@
+package com.rudderstack.sdk.kotlin.core
+
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration.Companion.DEFAULT_OVERFLOW_STRATEGY
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration.Companion.UNBOUNDED_QUEUE_CAPACITY
+import kotlinx.coroutines.channels.Channel
+
+/**
+ * `QueueConfiguration` defines how many events the SDK holds in memory before they are written to storage,
+ * and what happens when a burst of events arrives faster than they can be stored.
+ *
+ * With a bounded [capacity] the memory used by queued events has a known upper bound under sustained overload.
+ *
+ * @param capacity The maximum number of events held in each in-memory queue. Defaults to [UNBOUNDED_QUEUE_CAPACITY],
+ * which is also used if a non-positive value is provided.
+ * @property overflowStrategy The strategy applied when a bounded queue is full. Defaults to [DEFAULT_OVERFLOW_STRATEGY].
+ */
+class QueueConfiguration @JvmOverloads constructor(
+    capacity: Int = UNBOUNDED_QUEUE_CAPACITY,
+    val overflowStrategy: OverflowStrategy = DEFAULT_OVERFLOW_STRATEGY,
+) {
+
+    /**
+     * The maximum number of events held in each in-memory queue.
+     */
+    val capacity: Int = if (capacity > 0) capacity else UNBOUNDED_QUEUE_CAPACITY
+
+    /**
+     * Returns `true` if the queue has no upper bound, in which case the [overflowStrategy] is never applied.
+     */
+    val isUnbounded: Boolean
+        get() = capacity == UNBOUNDED_QUEUE_CAPACITY
+
+    override fun toString(): String {
+        return "QueueConfiguration(capacity=$capacity, overflowStrategy=$overflowStrategy)"
+    }
+
+    companion object {
+
+        /**
+         * The capacity representing a queue without an upper bound.
+         */
+        const val UNBOUNDED_QUEUE_CAPACITY = Channel.UNLIMITED
+
+        /**
+         * The default overflow strategy, which waits until there is space in the queue.
+         */
+        val DEFAULT_OVERFLOW_STRATEGY: OverflowStrategy = OverflowStrategy.Block
+    }
+}
+
+/**
+ * `OverflowStrategy` defines what happens to an event which is sent while the bounded event queue is full.
+ */
+sealed interface OverflowStrategy {
+
+    /**
+     * Waits until there is space in the queue, so no event is dropped.
+     *
+     * The calling thread of the public API is never blocked: while the queue is full, the events are held in order until
+     * there is space, so the memory they use isn't bounded by the capacity. The SDK's own coroutines suspend instead.
+     */
+    data object Block : OverflowStrategy
+
+    /**
+     * Blocks the calling thread for at most [timeoutInMillis] waiting for space in the queue, after which the event is dropped.
+     *
+     * @property timeoutInMillis The maximum time in milliseconds to wait for space in the queue.
+     */
+    data class BlockWithTimeout(val timeoutInMillis: Long) : OverflowStrategy
+
+    /**
+     * Drops the event being sent, keeping the events already in the queue.
+     */
+    data object DropNewest : OverflowStrategy
+
+    /**
+     * Drops the oldest event in the queue to make space for the event being sent.
+     */
+    data object DropOldest : OverflowStrategy
+}
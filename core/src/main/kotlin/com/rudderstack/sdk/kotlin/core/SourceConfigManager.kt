@@ -158,6 +158,7 @@ private fun Analytics.createGetHttpClientFactory(): HttpClient {
         endPoint = SOURCE_CONFIG_ENDPOINT,
         authHeaderString = authHeaderString,
         query = query,
+        transport = configuration.httpTransport,
         logger = logger,
     )
 }
@@ -0,0 +1,70 @@
+package com.rudderstack.sdk.kotlin.core
+
+private const val DEFAULT_GROUP_COMMIT_MAX_EVENTS = 50
+private const val DEFAULT_GROUP_COMMIT_MAX_BYTES = 64 * 1024 // 64 KB
+private const val DEFAULT_GROUP_COMMIT_MAX_DELAY_IN_MILLIS = 1_000L
+
+/**
+ * `StorageDurability` defines when the events stored in a batch file are written to the disk, which is a trade-off
+ * between the number of events a crash can lose and the sustained write throughput of the file storage.
+ *
+ * It only applies to file-based storage. Events held in memory, e.g. with [StorageType.IN_MEMORY], are always lost on a crash.
+ */
+sealed interface StorageDurability {
+
+    /**
+     * Writes every event to the batch file as soon as it is stored, with one write per event.
+     *
+     * A crash of the process doesn't lose any stored event. This is the default.
+     */
+    data object FlushPerEvent : StorageDurability
+
+    /**
+     * Buffers the stored events in memory and writes them to the batch files together, as soon as [maxEvents] events or
+     * [maxBytes] bytes are pending, or [maxDelayInMillis] milliseconds have passed since the oldest pending event was stored.
+     *
+     * A crash of the process loses at most the pending events, i.e. fewer than [maxEvents] events stored within the last
+     * [maxDelayInMillis] milliseconds. Batches are always written completely before they are uploaded.
+     *
+     * @param maxEvents The maximum number of events pending to be written. Values below 1 are coerced to 1.
+     * @param maxBytes The maximum number of bytes pending to be written. Values below 1 are coerced to 1.
+     * @param maxDelayInMillis The maximum time in milliseconds an event is pending to be written. Values below 1 are coerced to 1.
+     */
+    class GroupCommit @JvmOverloads constructor(
+        maxEvents: Int = DEFAULT_GROUP_COMMIT_MAX_EVENTS,
+        maxBytes: Int = DEFAULT_GROUP_COMMIT_MAX_BYTES,
+        maxDelayInMillis: Long = DEFAULT_GROUP_COMMIT_MAX_DELAY_IN_MILLIS,
+    ) : StorageDurability {
+
+        /**
+         * The maximum number of events pending to be written.
+         */
+        val maxEvents: Int = maxEvents.coerceAtLeast(1)
+
+        /**
+         * The maximum number of bytes pending to be written.
+         */
+        val maxBytes: Int = maxBytes.coerceAtLeast(1)
+
+        /**
+         * The maximum time in milliseconds an event is pending to be written.
+         */
+        val maxDelayInMillis: Long = maxDelayInMillis.coerceAtLeast(1)
+
+        override fun toString(): String {
+            return "GroupCommit(maxEvents=$maxEvents, maxBytes=$maxBytes, maxDelayInMillis=$maxDelayInMillis)"
+        }
+    }
+
+    /**
+     * Writes the stored events the same way as [GroupCommit], and additionally forces every completed batch file to the
+     * storage device before it is made available for upload.
+     *
+     * Completed batches survive a power loss or an OS crash as well, at the cost of one `fsync` per batch.
+     *
+     * @property groupCommit The thresholds after which the pending events are written. Defaults to [GroupCommit] with its defaults.
+     */
+    data class SyncOnRollover @JvmOverloads constructor(
+        val groupCommit: GroupCommit = GroupCommit(),
+    ) : StorageDurability
+}
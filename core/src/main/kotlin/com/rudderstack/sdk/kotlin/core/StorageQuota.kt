@@ -0,0 +1,109 @@
+package com.rudderstack.sdk.kotlin.core
+
+import com.rudderstack.sdk.kotlin.core.internals.models.EventType
+
+/**
+ * `StorageQuota` limits the backlog of completed batches kept by the storage while they wait to be uploaded, so that
+ * the disk and memory used by the SDK stay bounded however long the data plane is unreachable.
+ *
+ * Batches older than [maxAgeInMillis] are always evicted. Once there are more than [maxBatches] batches or they take up
+ * more than [maxBytes] bytes, batches are evicted as decided by the [evictionPolicy] until the backlog is within the quota.
+ * The batches which are still being filled are not part of the backlog, and are never evicted.
+ *
+ * By default the backlog is unbounded and no batch is ever evicted.
+ *
+ * @param maxBytes The maximum number of bytes taken up by the completed batches. Values below 1 are coerced to 1.
+ * @param maxBatches The maximum number of completed batches. Values below 1 are coerced to 1.
+ * @param maxAgeInMillis The maximum time in milliseconds a batch is kept since its first event was stored. Values below 1 are coerced to 1.
+ * @property evictionPolicy Which batches are evicted when there are too many batches or bytes. Defaults to [EvictionPolicy.DropOldest].
+ */
+class StorageQuota @JvmOverloads constructor(
+    maxBytes: Long = UNLIMITED,
+    maxBatches: Int = Int.MAX_VALUE,
+    maxAgeInMillis: Long = UNLIMITED,
+    val evictionPolicy: EvictionPolicy = EvictionPolicy.DropOldest,
+) {
+
+    /**
+     * The maximum number of bytes taken up by the completed batches.
+     */
+    val maxBytes: Long = maxBytes.coerceAtLeast(1)
+
+    /**
+     * The maximum number of completed batches.
+     */
+    val maxBatches: Int = maxBatches.coerceAtLeast(1)
+
+    /**
+     * The maximum time in milliseconds a batch is kept since its first event was stored.
+     */
+    val maxAgeInMillis: Long = maxAgeInMillis.coerceAtLeast(1)
+
+    /**
+     * Returns `true` if none of the limits is set, in which case no batch is ever evicted.
+     */
+    val isUnlimited: Boolean
+        get() = this.maxBytes == UNLIMITED && this.maxBatches == Int.MAX_VALUE && this.maxAgeInMillis == UNLIMITED
+
+    override fun toString(): String {
+        return "StorageQuota(maxBytes=$maxBytes, maxBatches=$maxBatches, maxAgeInMillis=$maxAgeInMillis, " +
+            "evictionPolicy=$evictionPolicy)"
+    }
+
+    companion object {
+
+        /**
+         * The value of [maxBytes] and [maxAgeInMillis] representing no limit.
+         */
+        const val UNLIMITED = Long.MAX_VALUE
+    }
+}
+
+/**
+ * `EvictionPolicy` defines which completed batches are evicted when the backlog exceeds its [StorageQuota].
+ */
+sealed interface EvictionPolicy {
+
+    /**
+     * Evicts the oldest batches, keeping the most recent events.
+     */
+    data object DropOldest : EvictionPolicy
+
+    /**
+     * Evicts the most recently completed batches, keeping the oldest events.
+     */
+    data object DropNewest : EvictionPolicy
+
+    /**
+     * Evicts the oldest batches which contain no event of the [priorityEventTypes], and only evicts the batches which
+     * contain such events once no other batch is left. By default the events which identify the user are kept the longest.
+     *
+     * @property priorityEventTypes The types of the events whose batches are evicted last.
+     */
+    data class PriorityAware @JvmOverloads constructor(
+        val priorityEventTypes: Set<EventType> = setOf(EventType.Identify, EventType.Alias, EventType.Group),
+    ) : EvictionPolicy
+}
+
+/**
+ * `EvictionCounters` counts the completed batches evicted to keep the backlog within its [StorageQuota],
+ * since the storage was created.
+ *
+ * @property expiredBatches The number of batches evicted because they were older than [StorageQuota.maxAgeInMillis].
+ * @property overQuotaBatches The number of batches evicted because there were too many batches or bytes.
+ * @property priorityBatches The number of evicted batches which contained priority events, see [EvictionPolicy.PriorityAware].
+ * @property evictedBytes The total number of bytes of the evicted batches.
+ */
+data class EvictionCounters(
+    val expiredBatches: Long = 0,
+    val overQuotaBatches: Long = 0,
+    val priorityBatches: Long = 0,
+    val evictedBytes: Long = 0,
+) {
+
+    /**
+     * The total number of evicted batches.
+     */
+    val evictedBatches: Long
+        get() = expiredBatches + overQuotaBatches
+}
@@ -32,6 +32,9 @@ package com.rudderstack.sdk.kotlin.core.internals.logger
  * analytics.logger.error("This is an error message", throwable)
  * ```
  *
+ * The lambda-based variants, e.g. `analytics.logger.verbose { "Storing event: $payload" }`, check the log level before
+ * building the message, so they should be preferred for the messages logged on every event.
+ *
  * The methods ensure that messages are logged according to the configured log level, providing flexibility
  * and clarity for debugging and tracking events across SDK modules on a per-instance basis.
  */
@@ -40,32 +43,37 @@ internal class AnalyticsLogger(
     private val logLevel: Logger.LogLevel
 ) : Logger {
 
+    /**
+     * Returns `true` if the messages of the given [level] are logged.
+     */
+    fun isLoggable(level: Logger.LogLevel): Boolean = level >= logLevel
+
     override fun verbose(log: String) {
-        if (Logger.LogLevel.VERBOSE >= logLevel) {
+        if (isLoggable(Logger.LogLevel.VERBOSE)) {
             logger.verbose(log)
         }
     }
 
     override fun debug(log: String) {
-        if (Logger.LogLevel.DEBUG >= logLevel) {
+        if (isLoggable(Logger.LogLevel.DEBUG)) {
             logger.debug(log)
         }
     }
 
     override fun info(log: String) {
-        if (Logger.LogLevel.INFO >= logLevel) {
+        if (isLoggable(Logger.LogLevel.INFO)) {
             logger.info(log)
         }
     }
 
     override fun warn(log: String) {
-        if (Logger.LogLevel.WARN >= logLevel) {
+        if (isLoggable(Logger.LogLevel.WARN)) {
             logger.warn(log)
         }
     }
 
     override fun error(log: String, throwable: Throwable?) {
-        if (Logger.LogLevel.ERROR >= logLevel) {
+        if (isLoggable(Logger.LogLevel.ERROR)) {
             logger.error(log, throwable)
         }
     }
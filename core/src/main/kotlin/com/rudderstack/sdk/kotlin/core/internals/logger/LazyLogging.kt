@@ -0,0 +1,70 @@
+@file:OptIn(ExperimentalContracts::class)
+
+package com.rudderstack.sdk.kotlin.core.internals.logger
+
+import kotlin.contracts.ExperimentalContracts
+import kotlin.contracts.InvocationKind
+import kotlin.contracts.contract
+
+/*
+ * Lambda-based counterparts of the `Logger` methods, whose message is only built if it is going to be logged.
+ *
+ * They are meant for the messages logged on every event or batch, e.g. the ones interpolating an event or its payload:
+ *
+ * ```kotlin
+ * logger.verbose { "EventQueue: Storing event (messageId=${event.messageId}): $payload" }
+ * ```
+ *
+ * When the logger is the one of an `Analytics` instance, the level is checked before the `log` lambda is called, so
+ * logging a message below the configured log level costs no more than the check. Any other logger always builds the
+ * message and leaves the filtering to its string-based method.
+ *
+ * The `log` lambda is called in place, at most once, so it can read the local variables smart cast around it.
+ */
+
+/**
+ * Logs a verbose message, built by [log] only if verbose messages are logged.
+ */
+inline fun Logger.verbose(log: () -> String) {
+    contract { callsInPlace(log, InvocationKind.AT_MOST_ONCE) }
+    if (isLoggable(Logger.LogLevel.VERBOSE)) verbose(log())
+}
+
+/**
+ * Logs a debug message, built by [log] only if debug messages are logged.
+ */
+inline fun Logger.debug(log: () -> String) {
+    contract { callsInPlace(log, InvocationKind.AT_MOST_ONCE) }
+    if (isLoggable(Logger.LogLevel.DEBUG)) debug(log())
+}
+
+/**
+ * Logs an informational message, built by [log] only if informational messages are logged.
+ */
+inline fun Logger.info(log: () -> String) {
+    contract { callsInPlace(log, InvocationKind.AT_MOST_ONCE) }
+    if (isLoggable(Logger.LogLevel.INFO)) info(log())
+}
+
+/**
+ * Logs a warning message, built by [log] only if warning messages are logged.
+ */
+inline fun Logger.warn(log: () -> String) {
+    contract { callsInPlace(log, InvocationKind.AT_MOST_ONCE) }
+    if (isLoggable(Logger.LogLevel.WARN)) warn(log())
+}
+
+/**
+ * Logs an error message, built by [log] only if error messages are logged.
+ *
+ * @param throwable An optional throwable associated with the error being logged.
+ */
+inline fun Logger.error(throwable: Throwable? = null, log: () -> String) {
+    contract { callsInPlace(log, InvocationKind.AT_MOST_ONCE) }
+    if (isLoggable(Logger.LogLevel.ERROR)) error(log(), throwable)
+}
+
+@PublishedApi
+internal fun Logger.isLoggable(level: Logger.LogLevel): Boolean {
+    return (this as? AnalyticsLogger)?.isLoggable(level) ?: true
+}
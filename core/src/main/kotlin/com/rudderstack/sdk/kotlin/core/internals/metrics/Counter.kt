@@ -0,0 +1,33 @@
+package com.rudderstack.sdk.kotlin.core.internals.metrics
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A lock-free counter, which only ever goes up.
+ *
+ * It is backed by an [AtomicLong] rather than a `LongAdder`, which is only available from Android API 24.
+ */
+internal class Counter {
+
+    private val value = AtomicLong(0)
+
+    /**
+     * The current value of the counter.
+     */
+    val count: Long
+        get() = value.get()
+
+    /**
+     * Adds one to the counter.
+     */
+    fun increment() {
+        value.incrementAndGet()
+    }
+
+    /**
+     * Adds [delta] to the counter.
+     */
+    fun add(delta: Long) {
+        value.addAndGet(delta)
+    }
+}
@@ -0,0 +1,62 @@
+package com.rudderstack.sdk.kotlin.core.internals.metrics
+
+import com.rudderstack.sdk.kotlin.core.HistogramSnapshot
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+
+/**
+ * A lock-free histogram of non-negative values, counted in fixed buckets.
+ *
+ * Recording a value is a binary search over the bucket bounds followed by a few atomic updates, and takes no lock and
+ * allocates nothing, so it can stay on in production.
+ *
+ * @param bucketUpperBounds The inclusive upper bounds of the buckets, in increasing order. Values above the last bound
+ * are counted in an extra overflow bucket.
+ */
+internal class Histogram(bucketUpperBounds: List<Long>) {
+
+    private val bounds = bucketUpperBounds.toLongArray()
+    private val bucketCounts = AtomicLongArray(bounds.size + 1)
+    private val sum = AtomicLong(0)
+    private val max = AtomicLong(0)
+
+    init {
+        require(bounds.asList().zipWithNext().all { (lower, upper) -> lower < upper }) {
+            "Histogram: the bucket bounds must be in increasing order"
+        }
+    }
+
+    /**
+     * Records the [value], coerced to be non-negative.
+     */
+    fun record(value: Long) {
+        val recorded = value.coerceAtLeast(0)
+        val searchIndex = bounds.binarySearch(recorded)
+        bucketCounts.incrementAndGet(if (searchIndex >= 0) searchIndex else -searchIndex - 1)
+        sum.addAndGet(recorded)
+        updateMax(recorded)
+    }
+
+    /**
+     * Returns the values recorded so far. The snapshot is not atomic as a whole, so a value recorded concurrently may
+     * be part of some of its fields only.
+     */
+    fun snapshot(): HistogramSnapshot {
+        val counts = List(bucketCounts.length()) { bucketCounts[it] }
+        return HistogramSnapshot(
+            count = counts.sum(),
+            sum = sum.get(),
+            max = max.get(),
+            bucketUpperBounds = bounds.asList() + Long.MAX_VALUE,
+            bucketCounts = counts,
+        )
+    }
+
+    // AtomicLong.accumulateAndGet is only available from Android API 24
+    private fun updateMax(value: Long) {
+        var currentMax = max.get()
+        while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+            currentMax = max.get()
+        }
+    }
+}
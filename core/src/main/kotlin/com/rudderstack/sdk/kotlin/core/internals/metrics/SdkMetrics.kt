@@ -0,0 +1,81 @@
+package com.rudderstack.sdk.kotlin.core.internals.metrics
+
+import com.rudderstack.sdk.kotlin.core.MetricNames
+import com.rudderstack.sdk.kotlin.core.MetricsSnapshot
+import java.util.concurrent.ConcurrentHashMap
+
+@Suppress("MagicNumber")
+private val UPLOAD_LATENCY_BUCKETS_IN_MILLIS = listOf(10L, 25L, 50L, 100L, 250L, 500L, 1_000L, 2_500L, 5_000L, 10_000L, 30_000L)
+@Suppress("MagicNumber")
+private val UPLOAD_PAYLOAD_BUCKETS_IN_BYTES = listOf(1_024L, 4_096L, 16_384L, 65_536L, 262_144L, 524_288L, 1_048_576L)
+
+/**
+ * The metrics collected by the SDK.
+ *
+ * The counters and histograms are updated by the components of the event pipeline as things happen, without locking.
+ * The gauges, and the counters kept by other components, are registered as suppliers which are only read when a
+ * [snapshot] is taken, so they cost nothing on the event path.
+ */
+internal class SdkMetrics {
+
+    val eventsAccepted = Counter()
+    val eventsDroppedByPlugins = Counter()
+    val eventsDroppedTooLarge = Counter()
+    val eventsPersisted = Counter()
+    val batchesUploaded = Counter()
+    val batchesRejected = Counter()
+    val uploadRetries = Counter()
+
+    val uploadLatencyInMillis = Histogram(UPLOAD_LATENCY_BUCKETS_IN_MILLIS)
+    val uploadPayloadBytes = Histogram(UPLOAD_PAYLOAD_BUCKETS_IN_BYTES)
+
+    private val observedCounters = ConcurrentHashMap<String, () -> Long>()
+    private val gauges = ConcurrentHashMap<String, () -> Long>()
+
+    /**
+     * Registers a counter kept by another component, which is read from [supplier] when a snapshot is taken.
+     * A counter registered again with the same [name] replaces the previous one.
+     */
+    fun registerCounter(name: String, supplier: () -> Long) {
+        observedCounters[name] = supplier
+    }
+
+    /**
+     * Registers a gauge, which is read from [supplier] when a snapshot is taken.
+     * A gauge registered again with the same [name] replaces the previous one.
+     */
+    fun registerGauge(name: String, supplier: () -> Long) {
+        gauges[name] = supplier
+    }
+
+    /**
+     * Unregisters the counter or gauge registered with the given [name], e.g. when the component keeping it is removed.
+     */
+    fun unregister(name: String) {
+        observedCounters.remove(name)
+        gauges.remove(name)
+    }
+
+    /**
+     * Returns the current value of every metric.
+     */
+    fun snapshot(): MetricsSnapshot {
+        val counters = mapOf(
+            MetricNames.EVENTS_ACCEPTED to eventsAccepted.count,
+            MetricNames.EVENTS_DROPPED_BY_PLUGINS to eventsDroppedByPlugins.count,
+            MetricNames.EVENTS_DROPPED_TOO_LARGE to eventsDroppedTooLarge.count,
+            MetricNames.EVENTS_PERSISTED to eventsPersisted.count,
+            MetricNames.BATCHES_UPLOADED to batchesUploaded.count,
+            MetricNames.BATCHES_REJECTED to batchesRejected.count,
+            MetricNames.UPLOAD_RETRIES to uploadRetries.count,
+        )
+        return MetricsSnapshot(
+            counters = counters + observedCounters.mapValues { (_, supplier) -> supplier() },
+            gauges = gauges.mapValues { (_, supplier) -> supplier() },
+            histograms = mapOf(
+                MetricNames.UPLOAD_LATENCY_IN_MILLIS to uploadLatencyInMillis.snapshot(),
+                MetricNames.UPLOAD_PAYLOAD_BYTES to uploadPayloadBytes.snapshot(),
+            ),
+        )
+    }
+}
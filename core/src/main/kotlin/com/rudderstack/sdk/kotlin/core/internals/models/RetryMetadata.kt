@@ -5,11 +5,14 @@ import com.rudderstack.sdk.kotlin.core.internals.utils.LenientJson
 import kotlinx.serialization.Serializable
 import kotlinx.serialization.SerializationException
 import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.decodeFromJsonElement
 
 /**
  * Models persisted retry state for batch upload retry headers.
  *
  * Used by `RetryHeadersProvider` to track retry attempts across the upload loop and app restarts.
+ * One entry is kept for every batch being retried, so that batches uploaded concurrently do not overwrite each other's state.
  *
  * @property batchId Unique integer identifier used to detect stale metadata when batches are evicted
  * @property attempt Current retry attempt number (1 = first retry)
@@ -38,6 +41,24 @@ internal data class RetryMetadata(
             logger.warn("Failed to parse retry metadata: ${e.message}")
             null
         }
+
+        /**
+         * Parses JSON string to the list of RetryMetadata of all the batches being retried.
+         *
+         * A single JSON object, as persisted by earlier versions, is parsed as a list with one entry.
+         *
+         * @param jsonString The JSON string to parse
+         * @return Parsed metadata or an empty list if parsing fails
+         */
+        fun listFromJson(jsonString: String, logger: Logger): List<RetryMetadata> = try {
+            when (val element = LenientJson.parseToJsonElement(jsonString)) {
+                is JsonArray -> LenientJson.decodeFromJsonElement<List<RetryMetadata>>(element)
+                else -> listOf(LenientJson.decodeFromJsonElement<RetryMetadata>(element))
+            }
+        } catch (e: SerializationException) {
+            logger.warn("Failed to parse retry metadata: ${e.message}")
+            emptyList()
+        }
     }
 
     /**
@@ -47,3 +68,10 @@ internal data class RetryMetadata(
      */
     fun toJson(): String = LenientJson.encodeToString(this)
 }
+
+/**
+ * Serialises the list of metadata to a JSON string.
+ *
+ * @return JSON array representation
+ */
+internal fun List<RetryMetadata>.toJson(): String = LenientJson.encodeToString(this)
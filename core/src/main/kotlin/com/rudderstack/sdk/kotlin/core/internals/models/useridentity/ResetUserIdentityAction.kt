@@ -30,7 +30,7 @@ internal class ResetUserIdentityAction(private val entries: ResetEntries) : User
 }
 
 internal suspend fun UserIdentity.resetUserIdentity(storage: Storage, entries: ResetEntries) {
-    storage.apply {
+    storage.edit {
         if (entries.anonymousId) {
             write(StorageKeys.ANONYMOUS_ID, this@resetUserIdentity.anonymousId)
         }
@@ -1,6 +1,7 @@
 package com.rudderstack.sdk.kotlin.core.internals.models.useridentity
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.Traits
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
@@ -22,7 +23,7 @@ internal class SetUserIdAndTraitsAction(
             isUserIdChanged = isUserIdChanged(currentState = currentState)
         )
 
-        logger.verbose("UserId changed from ${currentState.userId} to $newUserId. Updated traits: $updatedTraits")
+        logger.verbose { "UserId changed from ${currentState.userId} to $newUserId. Updated traits: $updatedTraits" }
 
         return currentState.copy(userId = newUserId, traits = updatedTraits)
     }
@@ -42,6 +43,9 @@ private inline fun <T> getUpdatedValues(
 ): T = if (isUserIdChanged) newValue else previousValue.mergeWithPriority(newValue)
 
 internal suspend fun UserIdentity.storeUserIdAndTraits(storage: Storage) {
-    storage.write(StorageKeys.USER_ID, userId)
-    storage.write(StorageKeys.TRAITS, LenientJson.encodeToString(traits))
+    val encodedTraits = LenientJson.encodeToString(traits)
+    storage.edit {
+        write(StorageKeys.USER_ID, userId)
+        write(StorageKeys.TRAITS, encodedTraits)
+    }
 }
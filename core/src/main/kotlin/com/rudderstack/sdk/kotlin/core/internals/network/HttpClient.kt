@@ -41,9 +41,9 @@ interface HttpClient {
     val customHeaders: Map<String, String>
 
     /**
-     * A factory for creating [HttpURLConnection] instances for HTTP requests.
+     * The transport used to execute the HTTP requests.
      */
-    val connectionFactory: HttpURLConnectionFactory
+    val transport: HttpTransport
 
     /**
      * Updates the anonymous ID header string for HTTP requests.
@@ -62,11 +62,11 @@ interface HttpClient {
     /**
      * Sends data to the server using a POST request.
      *
-     * @param body The body of the POST request as a [String].
+     * @param body The body of the POST request, which is written directly to the connection.
      * @param additionalHeaders Additional headers to include in the request (e.g., retry headers). Defaults to empty.
      * @return A [Result] containing the response data as a [String], or an error message if the request fails.
      */
-    fun sendData(body: String, additionalHeaders: Map<String, String> = emptyMap()): NetworkResult
+    fun sendData(body: RequestBody, additionalHeaders: Map<String, String> = emptyMap()): NetworkResult
 }
 
 /**
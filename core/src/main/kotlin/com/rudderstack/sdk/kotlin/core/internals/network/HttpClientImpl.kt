@@ -1,12 +1,13 @@
 package com.rudderstack.sdk.kotlin.core.internals.network
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
 import com.rudderstack.sdk.kotlin.core.internals.network.NetworkErrorStatus.Companion.toErrorStatus
 import com.rudderstack.sdk.kotlin.core.internals.utils.Result
 import com.rudderstack.sdk.kotlin.core.internals.utils.validatedBaseUrl
 import java.io.IOException
+import java.io.OutputStream
 import java.net.ConnectException
-import java.net.HttpURLConnection
 import java.net.NoRouteToHostException
 import java.net.SocketTimeoutException
 import java.net.URL
@@ -19,16 +20,10 @@ private const val CONTENT_TYPE = "Content-Type"
 private const val APPLICATION_JSON = "application/json"
 private const val AUTHORIZATION = "Authorization"
 private const val BASIC = "Basic"
-private const val ANONYMOUS_ID_HEADER = "AnonymousId"
+internal const val ANONYMOUS_ID_HEADER = "AnonymousId"
 private const val CONTENT_ENCODING = "Content-Encoding"
 private const val GZIP = "gzip"
 
-private const val OK_RESPONSE_CODE = 200
-private const val SUCCESSFUL_TRANSACTION_CODE = 299
-
-private const val DEFAULT_CONNECTION_TIMEOUT: Int = 10_000
-private const val DEFAULT_READ_TIMEOUT: Int = 20_000
-
 /**
  * `HttpClientImpl` is a concrete implementation of the `HttpClient` interface that manages
  * HTTP connections for sending and retrieving data. This class is designed to handle both
@@ -42,7 +37,7 @@ private const val DEFAULT_READ_TIMEOUT: Int = 20_000
  * @property postConfig Configuration options specific to POST requests, including GZIP
  * compression and a custom identifier header.
  * @property customHeaders Additional HTTP headers to include in the request.
- * @property connectionFactory A factory responsible for creating instances of `HttpURLConnection`.
+ * @property transport The transport responsible for executing the requests, which may reuse connections across requests.
  */
 internal class HttpClientImpl private constructor(
     override val baseUrl: String,
@@ -51,7 +46,7 @@ internal class HttpClientImpl private constructor(
     override val getConfig: GetConfig,
     override var postConfig: PostConfig,
     override val customHeaders: Map<String, String>,
-    override val connectionFactory: HttpURLConnectionFactory,
+    override val transport: HttpTransport,
     private val logger: Logger,
 ) : HttpClient {
 
@@ -68,7 +63,7 @@ internal class HttpClientImpl private constructor(
          * @param authHeaderString The authorization header string, typically for Basic Auth.
          * @param query The query parameters appended to the URL. Defaults to an empty map.
          * @param customHeaders Additional HTTP headers for the request. Defaults to an empty map.
-         * @param connectionFactory A factory for creating `HttpURLConnection` instances. Defaults to `DefaultHttpURLConnectionFactory()`.
+         * @param transport The transport used to execute the requests. Defaults to `HttpURLConnectionTransport()`.
          * @return A configured `HttpClientImpl` instance for GET requests.
          */
         internal fun createGetHttpClient(
@@ -77,7 +72,7 @@ internal class HttpClientImpl private constructor(
             authHeaderString: String,
             query: Map<String, String> = emptyMap(),
             customHeaders: Map<String, String> = emptyMap(),
-            connectionFactory: HttpURLConnectionFactory = DefaultHttpURLConnectionFactory(),
+            transport: HttpTransport = HttpURLConnectionTransport(),
             logger: Logger,
         ) = HttpClientImpl(
             baseUrl = baseUrl,
@@ -86,7 +81,7 @@ internal class HttpClientImpl private constructor(
             getConfig = createGetConfig(query),
             postConfig = createPostConfig(isGZIPEnabled = false),
             customHeaders = customHeaders,
-            connectionFactory = connectionFactory,
+            transport = transport,
             logger = logger,
         )
 
@@ -101,7 +96,7 @@ internal class HttpClientImpl private constructor(
          * @param authHeaderString The authorization header string, typically for Basic Auth.
          * @param postConfig Configuration options specific to POST requests, including GZIP compression and a custom identifier header.
          * @param customHeaders Additional HTTP headers for the request. Defaults to an empty map.
-         * @param connectionFactory A factory for creating `HttpURLConnection` instances. Defaults to `DefaultHttpURLConnectionFactory()`.
+         * @param transport The transport used to execute the requests. Defaults to `HttpURLConnectionTransport()`.
          * @return A configured `HttpClientImpl` instance for POST requests.
          */
         internal fun createPostHttpClient(
@@ -110,7 +105,7 @@ internal class HttpClientImpl private constructor(
             authHeaderString: String,
             postConfig: PostConfig,
             customHeaders: Map<String, String> = emptyMap(),
-            connectionFactory: HttpURLConnectionFactory = DefaultHttpURLConnectionFactory(),
+            transport: HttpTransport = HttpURLConnectionTransport(),
             logger: Logger,
         ) = HttpClientImpl(
             baseUrl = baseUrl,
@@ -119,7 +114,7 @@ internal class HttpClientImpl private constructor(
             getConfig = createGetConfig(),
             postConfig = postConfig,
             customHeaders = customHeaders,
-            connectionFactory = connectionFactory,
+            transport = transport,
             logger = logger,
         )
     }
@@ -153,8 +148,7 @@ internal class HttpClientImpl private constructor(
      */
     override fun getData(): NetworkResult {
         val url: URL = createURL(baseUrl, endPoint, getConfig.query)
-        return connectionFactory.createConnection(url, headers)
-            .useConnection()
+        return execute(HttpRequest(url = url, method = HttpMethod.GET, headers = headers))
     }
 
     /**
@@ -162,17 +156,22 @@ internal class HttpClientImpl private constructor(
      * This method constructs a connection using the base URL, endpoint, query parameters,
      * headers, and the provided request body, and then reads the response.
      *
-     * @param body The body of the POST request to be sent.
+     * @param body The body of the POST request to be sent, which is compressed with GZIP if enabled and not encoded already.
      * @param additionalHeaders Additional headers to be included in the request alongside the base headers.
      * @return `Result<String>` containing the response data or an error.
      */
-    override fun sendData(body: String, additionalHeaders: Map<String, String>): NetworkResult {
-        logger.debug("HttpClient: Sending POST to $baseUrl$endPoint")
+    override fun sendData(body: RequestBody, additionalHeaders: Map<String, String>): NetworkResult {
+        logger.debug { "HttpClient: Sending POST to $baseUrl$endPoint" }
         val url = createURL(baseUrl, endPoint)
-        return connectionFactory.createConnection(url, headers)
-            .useConnection {
-                setupPostConnection(body, additionalHeaders)
-            }
+        val requestBody = if (postConfig.isGZIPEnabled && body.contentEncoding == null) GzipRequestBody(body) else body
+        return execute(
+            HttpRequest(
+                url = url,
+                method = HttpMethod.POST,
+                headers = createPostHeaders(additionalHeaders, requestBody.contentEncoding),
+                body = requestBody,
+            )
+        )
     }
 
     private fun createURL(baseUrl: String, endPoint: String, query: Map<String, String> = emptyMap()): URL {
@@ -191,11 +190,9 @@ internal class HttpClientImpl private constructor(
     }
 
     @Suppress("TooGenericExceptionCaught")
-    private fun HttpURLConnection.useConnection(setup: HttpURLConnection.() -> Unit = {}): NetworkResult {
+    private fun execute(request: HttpRequest): NetworkResult {
         return try {
-            this.apply(setup)
-            connect()
-            constructResponse()
+            transport.execute(request).toNetworkResult()
         } catch (e: Exception) {
             logger.error("HttpClient: Network error while calling $baseUrl$endPoint: ${e.message}", e)
             when (e) {
@@ -218,56 +215,42 @@ internal class HttpClientImpl private constructor(
                     Result.Failure(error = NetworkErrorStatus.ErrorUnknown)
                 }
             }
-        } finally {
-            disconnect()
         }
     }
 
-    private fun HttpURLConnection.setupPostConnection(body: String, additionalHeaders: Map<String, String> = emptyMap()) =
-        apply {
-            doOutput = true
-            setChunkedStreamingMode(0)
-            additionalHeaders.forEach { (key, value) ->
-                setRequestProperty(key, value)
-            }
-            setRequestProperty(CONTENT_TYPE, APPLICATION_JSON)
-            setRequestProperty(ANONYMOUS_ID_HEADER, postConfig.anonymousIdHeaderString)
-            if (postConfig.isGZIPEnabled) {
-                setRequestProperty(CONTENT_ENCODING, GZIP)
-                GZIPOutputStream(outputStream).writeBodyToStream(body)
-            } else {
-                outputStream.writeBodyToStream(body)
-            }
-        }
+    private fun createPostHeaders(additionalHeaders: Map<String, String>, contentEncoding: String?): Map<String, String> = buildMap {
+        putAll(headers)
+        put(ANONYMOUS_ID_HEADER, postConfig.anonymousIdHeaderString)
+        // additional headers are set after the default anonymousId header, so that a request can override it
+        putAll(additionalHeaders)
+        put(CONTENT_TYPE, APPLICATION_JSON)
+        contentEncoding?.let { put(CONTENT_ENCODING, it) }
+    }
 
-    private fun HttpURLConnection.constructResponse(): NetworkResult {
-        logger.debug("HttpClient: Response received — status=$responseCode")
-        return when (responseCode) {
-            in OK_RESPONSE_CODE..SUCCESSFUL_TRANSACTION_CODE -> Result.Success(
-                response = getSuccessResponse()
+    private fun HttpResponse.toNetworkResult(): NetworkResult {
+        logger.debug { "HttpClient: Response received — status=$statusCode" }
+        return when {
+            isSuccessful -> Result.Success(
+                response = body
             )
 
             else -> Result.Failure(
-                error = toErrorStatus(responseCode),
+                error = toErrorStatus(statusCode),
             )
         }
     }
 }
 
 /**
- * Default implementation of the `HttpURLConnectionFactory` that creates `HttpURLConnection` objects.
- * Provides default settings such as connection timeout and read timeout.
+ * [RequestBody] which compresses the given [body] with GZIP while it is written.
  */
-internal class DefaultHttpURLConnectionFactory : HttpURLConnectionFactory {
+private class GzipRequestBody(private val body: RequestBody) : RequestBody {
 
-    override fun createConnection(url: URL, headers: Map<String, String>): HttpURLConnection {
-        val connection = url.openConnection() as HttpURLConnection
-        return connection.apply {
-            connectTimeout = DEFAULT_CONNECTION_TIMEOUT
-            readTimeout = DEFAULT_READ_TIMEOUT
-            headers.forEach { (k, v) ->
-                setRequestProperty(k, v)
-            }
-        }
+    override val contentEncoding: String = GZIP
+
+    override fun writeTo(outputStream: OutputStream) {
+        val gzipOutputStream = GZIPOutputStream(outputStream)
+        body.writeTo(gzipOutputStream)
+        gzipOutputStream.finish()
     }
 }
@@ -0,0 +1,137 @@
+package com.rudderstack.sdk.kotlin.core.internals.network
+
+import java.io.ByteArrayOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.net.URL
+
+private const val OK_RESPONSE_CODE = 200
+private const val SUCCESSFUL_TRANSACTION_CODE = 299
+
+/**
+ * `HttpTransport` performs the HTTP requests made by the SDK, e.g. uploading batches to the data plane
+ * and fetching the source config from the control plane.
+ *
+ * A single transport instance is shared by all the requests of an `Analytics` instance, which lets an implementation
+ * keep connections alive and reuse them across requests instead of paying the TCP and TLS handshakes for every batch.
+ *
+ * Implementations must be thread-safe, as requests can be executed concurrently.
+ */
+interface HttpTransport {
+
+    /**
+     * Executes the [request] and returns the response received from the server, whatever its status code is.
+     *
+     * @param request The request to execute.
+     * @return The [HttpResponse] received from the server.
+     * @throws IOException If the request could not be executed, e.g. because the network is unavailable or it timed out.
+     */
+    @Throws(IOException::class)
+    fun execute(request: HttpRequest): HttpResponse
+}
+
+/**
+ * The HTTP methods used by the SDK.
+ */
+enum class HttpMethod {
+
+    /**
+     * The HTTP GET method.
+     */
+    GET,
+
+    /**
+     * The HTTP POST method.
+     */
+    POST,
+}
+
+/**
+ * Represents an HTTP request to be executed by an [HttpTransport].
+ *
+ * @property url The URL to which the request is sent.
+ * @property method The HTTP method of the request.
+ * @property headers The headers to include in the request.
+ * @property body The body of the request, or `null` if the request has no body.
+ */
+class HttpRequest(
+    val url: URL,
+    val method: HttpMethod,
+    val headers: Map<String, String>,
+    val body: RequestBody? = null,
+)
+
+/**
+ * Represents the body of an [HttpRequest], which is written directly to the connection
+ * so that it doesn't need to be held in memory as a whole.
+ */
+interface RequestBody {
+
+    /**
+     * The number of bytes written by [writeTo], or `-1` if it is not known in advance,
+     * in which case the body is sent using chunked transfer encoding.
+     */
+    val contentLength: Long
+        get() = -1
+
+    /**
+     * The encoding the body is written with, e.g. `gzip`, which is sent as the `Content-Encoding` header,
+     * or `null` if the body is written as is.
+     */
+    val contentEncoding: String?
+        get() = null
+
+    /**
+     * Writes the body to the [outputStream]. The stream is closed by the transport once the body is written.
+     *
+     * @param outputStream The stream to which the body is written.
+     */
+    @Throws(IOException::class)
+    fun writeTo(outputStream: OutputStream)
+
+    /**
+     * Opens a stream over the body, for transports which read the body rather than have it written to them.
+     * By default, the body written by [writeTo] is buffered in memory.
+     *
+     * @return The stream over the body, which is closed by the transport once it is read.
+     */
+    @Throws(IOException::class)
+    fun open(): InputStream = ByteArrayOutputStream().also { writeTo(it) }.toByteArray().inputStream()
+}
+
+/**
+ * Creates a [RequestBody] which writes this string encoded as UTF-8.
+ */
+fun String.toRequestBody(): RequestBody = object : RequestBody {
+    private val bytes = this@toRequestBody.toByteArray()
+
+    override val contentLength: Long
+        get() = bytes.size.toLong()
+
+    override fun writeTo(outputStream: OutputStream) {
+        outputStream.write(bytes)
+    }
+
+    override fun open(): InputStream = bytes.inputStream()
+}
+
+/**
+ * Represents the response received for an [HttpRequest].
+ *
+ * @property statusCode The HTTP status code of the response.
+ * @property body The body of the response, or an empty string if the response has no body.
+ */
+class HttpResponse(
+    val statusCode: Int,
+    val body: String,
+) {
+
+    /**
+     * Returns `true` if the [statusCode] is in the `2xx` range.
+     */
+    val isSuccessful: Boolean
+        get() = isSuccessfulStatusCode(statusCode)
+}
+
+internal fun isSuccessfulStatusCode(statusCode: Int): Boolean = statusCode in OK_RESPONSE_CODE..SUCCESSFUL_TRANSACTION_CODE
@@ -0,0 +1,80 @@
+package com.rudderstack.sdk.kotlin.core.internals.network
+
+import com.rudderstack.sdk.kotlin.core.internals.utils.empty
+import java.net.HttpURLConnection
+import java.net.URL
+
+internal const val DEFAULT_CONNECTION_TIMEOUT: Int = 10_000
+internal const val DEFAULT_READ_TIMEOUT: Int = 20_000
+
+/**
+ * `HttpURLConnectionTransport` is the default [HttpTransport], which executes requests using [HttpURLConnection].
+ * It is available both on the JVM and on Android.
+ *
+ * Connections are never disconnected after a completed request. Instead, the response is read till the end and the
+ * streams are closed, which returns the underlying socket to the keep-alive pool of the platform, so that the next
+ * request to the same host reuses it without a new TCP and TLS handshake. A connection is only disconnected if the
+ * request fails midway, as its state is unknown at that point.
+ *
+ * @param connectionFactory A factory for creating the `HttpURLConnection` instances. Defaults to a factory which sets
+ * the default connection and read timeouts.
+ */
+class HttpURLConnectionTransport @JvmOverloads constructor(
+    private val connectionFactory: HttpURLConnectionFactory = DefaultHttpURLConnectionFactory(),
+) : HttpTransport {
+
+    @Suppress("TooGenericExceptionCaught")
+    override fun execute(request: HttpRequest): HttpResponse {
+        val connection = connectionFactory.createConnection(request.url, request.headers)
+        return try {
+            connection.requestMethod = request.method.name
+            request.body?.let { connection.writeBody(it) }
+            connection.connect()
+            val statusCode = connection.responseCode
+            HttpResponse(
+                statusCode = statusCode,
+                body = connection.readResponseBody(statusCode),
+            )
+        } catch (e: Exception) {
+            connection.disconnect()
+            throw e
+        }
+    }
+}
+
+private fun HttpURLConnection.writeBody(body: RequestBody) {
+    doOutput = true
+    if (body.contentLength >= 0) {
+        setFixedLengthStreamingMode(body.contentLength)
+    } else {
+        setChunkedStreamingMode(0)
+    }
+    outputStream.use { body.writeTo(it) }
+}
+
+// The body is always read till the end, as otherwise the connection can't be reused
+private fun HttpURLConnection.readResponseBody(statusCode: Int): String {
+    return when {
+        isSuccessfulStatusCode(statusCode) -> getSuccessResponse()
+        errorStream != null -> getErrorResponse()
+        else -> String.empty()
+    }
+}
+
+/**
+ * Default implementation of the `HttpURLConnectionFactory` that creates `HttpURLConnection` objects.
+ * Provides default settings such as connection timeout and read timeout.
+ */
+internal class DefaultHttpURLConnectionFactory : HttpURLConnectionFactory {
+
+    override fun createConnection(url: URL, headers: Map<String, String>): HttpURLConnection {
+        val connection = url.openConnection() as HttpURLConnection
+        return connection.apply {
+            connectTimeout = DEFAULT_CONNECTION_TIMEOUT
+            readTimeout = DEFAULT_READ_TIMEOUT
+            headers.forEach { (k, v) ->
+                setRequestProperty(k, v)
+            }
+        }
+    }
+}
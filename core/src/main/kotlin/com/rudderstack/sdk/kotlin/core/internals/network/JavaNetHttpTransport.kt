@@ -0,0 +1,62 @@
+package com.rudderstack.sdk.kotlin.core.internals.network
+
+import java.io.InterruptedIOException
+import java.net.SocketTimeoutException
+import java.net.http.HttpClient as JavaHttpClient
+import java.net.http.HttpRequest as JavaHttpRequest
+import java.net.http.HttpResponse as JavaHttpResponse
+import java.net.http.HttpTimeoutException
+import java.time.Duration
+
+/**
+ * `JavaNetHttpTransport` is an [HttpTransport] backed by the `java.net.http.HttpClient` of the JDK.
+ *
+ * The client keeps a pool of connections which are reused across requests, and negotiates HTTP/2 with servers
+ * supporting it, in which case concurrent batch uploads are multiplexed over a single connection.
+ *
+ * The request body is read by the client from the stream opened by [RequestBody.open], without any extra thread. A
+ * body which can only be written, e.g. one compressed while it is written, is buffered in memory once compressed.
+ *
+ * **NOTE**: `java.net.http` is not available on Android, so this transport can only be used on the JVM.
+ *
+ * @param httpClient The client used to execute the requests. Defaults to a client preferring HTTP/2, with the same
+ * connection timeout as the default transport.
+ */
+class JavaNetHttpTransport @JvmOverloads constructor(
+    private val httpClient: JavaHttpClient = JavaHttpClient.newBuilder()
+        .version(JavaHttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofMillis(DEFAULT_CONNECTION_TIMEOUT.toLong()))
+        .build(),
+) : HttpTransport {
+
+    override fun execute(request: HttpRequest): HttpResponse {
+        val javaHttpRequest = JavaHttpRequest.newBuilder(request.url.toURI())
+            .timeout(Duration.ofMillis(DEFAULT_READ_TIMEOUT.toLong()))
+            .method(request.method.name, request.body.toBodyPublisher())
+            .apply { request.headers.forEach { (key, value) -> header(key, value) } }
+            .build()
+
+        val javaHttpResponse = try {
+            httpClient.send(javaHttpRequest, JavaHttpResponse.BodyHandlers.ofString())
+        } catch (e: HttpTimeoutException) {
+            // Reported as a socket timeout, so that it is handled the same way as with the default transport
+            throw SocketTimeoutException(e.message).apply { initCause(e) }
+        } catch (e: InterruptedException) {
+            Thread.currentThread().interrupt()
+            throw InterruptedIOException(e.message).apply { initCause(e) }
+        }
+
+        return HttpResponse(
+            statusCode = javaHttpResponse.statusCode(),
+            body = javaHttpResponse.body(),
+        )
+    }
+}
+
+// The body is read from the stream opened by the request body when the client sends it, on the thread of the client.
+// The content length is passed on when it is known, so that the client rejects a body of a different length.
+private fun RequestBody?.toBodyPublisher(): JavaHttpRequest.BodyPublisher {
+    if (this == null) return JavaHttpRequest.BodyPublishers.noBody()
+    val publisher = JavaHttpRequest.BodyPublishers.ofInputStream { open() }
+    return if (contentLength >= 0) JavaHttpRequest.BodyPublishers.fromPublisher(publisher, contentLength) else publisher
+}
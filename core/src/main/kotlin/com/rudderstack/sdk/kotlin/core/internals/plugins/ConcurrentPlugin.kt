@@ -0,0 +1,28 @@
+package com.rudderstack.sdk.kotlin.core.internals.plugins
+
+/**
+ * A [Plugin] which can intercept several events at the same time.
+ *
+ * When [com.rudderstack.sdk.kotlin.core.Configuration.processingConcurrency] is greater than 1, the events are processed
+ * by several workers in parallel. A plugin which isn't concurrent is still called for one event at a time, as each such
+ * plugin is guarded by its own lock, so it doesn't need to be thread-safe. A concurrent plugin is called without any lock,
+ * so it must be thread-safe, but it doesn't hold up the workers processing the events of other users.
+ *
+ * Either way, the events of the same anonymousId are intercepted one after the other, in the order in which they were made.
+ *
+ * ### Usage
+ * ```kotlin
+ * class EventCounterPlugin : ConcurrentPlugin {
+ *     override val pluginType = Plugin.PluginType.OnProcess
+ *     override lateinit var analytics: Analytics
+ *
+ *     private val counter = AtomicLong()
+ *
+ *     override suspend fun intercept(event: Event): Event? {
+ *         counter.incrementAndGet()
+ *         return event
+ *     }
+ * }
+ * ```
+ */
+interface ConcurrentPlugin : Plugin
@@ -0,0 +1,24 @@
+package com.rudderstack.sdk.kotlin.core.internals.plugins
+
+import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+import kotlinx.serialization.json.JsonObject
+
+/**
+ * A [Plugin] which attaches a fragment of the context, e.g. the library or the device info, to every event.
+ *
+ * It can be added to the plugin chain like any other plugin, in which case it merges its fragment into every event it
+ * intercepts. When it is added to the [ContextSnapshotPlugin] instead, its fragment is combined with the fragments of
+ * the other context plugins into a single snapshot, which is merged into every event in one step.
+ */
+@InternalRudderApi
+interface ContextPlugin : Plugin {
+
+    /**
+     * Returns the fragment of the context attached by this plugin.
+     *
+     * It is called for every event, so it should be cheap, and it should return the same instance for as long as the
+     * fragment doesn't change: the snapshot is only rebuilt when one of the fragments is a new instance. It may be called
+     * from several threads at the same time.
+     */
+    fun contextFragment(): JsonObject
+}
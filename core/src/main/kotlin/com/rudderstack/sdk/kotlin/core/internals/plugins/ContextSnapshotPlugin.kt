@@ -0,0 +1,109 @@
+package com.rudderstack.sdk.kotlin.core.internals.plugins
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
+import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+import com.rudderstack.sdk.kotlin.core.internals.utils.mergeWithHigherPriorityTo
+import kotlinx.serialization.json.JsonObject
+
+/**
+ * Plugin to attach the context fragments of all the [ContextPlugin]s to the event context payload in a single step.
+ *
+ * The fragments are combined into a snapshot in the order in which the context plugins are added, so that the result
+ * is the same as if each context plugin merged its fragment into the event in turn. The snapshot is reused for as long
+ * as every context plugin returns the same fragment, and is rebuilt as soon as one of them returns a new one.
+ *
+ * It is a [ConcurrentPlugin], so the context plugins must return their fragment safely from any thread.
+ */
+@InternalRudderApi
+class ContextSnapshotPlugin : ConcurrentPlugin {
+
+    override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
+
+    override lateinit var analytics: Analytics
+
+    /**
+     * The context plugins, in the order in which they are added. The list is replaced as a whole on every change, so
+     * that the snapshot can tell whether it was built from the current context plugins by comparing references.
+     */
+    @Volatile
+    private var contextPlugins: List<ContextPlugin> = emptyList()
+
+    @Volatile
+    private var snapshot = Snapshot(contextPlugins = emptyList(), fragments = emptyList(), context = emptyJsonObject)
+
+    override fun setup(analytics: Analytics) {
+        synchronized(this) {
+            super.setup(analytics)
+            contextPlugins.forEach { it.setup(analytics) }
+        }
+    }
+
+    /**
+     * Adds a context plugin, whose fragment is merged into the events after the fragments of the context plugins
+     * added before it.
+     */
+    fun add(plugin: ContextPlugin) {
+        synchronized(this) {
+            if (this::analytics.isInitialized) {
+                plugin.setup(analytics)
+            }
+            contextPlugins = contextPlugins + plugin
+        }
+    }
+
+    /**
+     * Removes a context plugin, so that its fragment is no longer merged into the events.
+     */
+    fun remove(plugin: ContextPlugin) {
+        synchronized(this) {
+            if (plugin !in contextPlugins) return
+            contextPlugins = contextPlugins - plugin
+        }
+        plugin.teardown()
+    }
+
+    override suspend fun intercept(event: Event): Event {
+        analytics.logger.verbose {
+            "ContextSnapshotPlugin: Attaching context snapshot to the event payload (messageId=${event.messageId})"
+        }
+
+        event.context = event.context mergeWithHigherPriorityTo snapshot()
+
+        return event
+    }
+
+    /**
+     * Returns the combined fragments of all the context plugins, rebuilding it only if one of the fragments changed.
+     */
+    internal fun snapshot(): JsonObject {
+        val current = snapshot
+        if (current.isUpToDate(contextPlugins)) {
+            return current.context
+        }
+
+        val plugins = contextPlugins
+        val fragments = plugins.map { it.contextFragment() }
+        val context = fragments.fold(emptyJsonObject) { combined, fragment -> combined mergeWithHigherPriorityTo fragment }
+        snapshot = Snapshot(plugins, fragments, context)
+        return context
+    }
+
+    override fun teardown() {
+        contextPlugins.forEach { it.teardown() }
+    }
+
+    private class Snapshot(
+        val contextPlugins: List<ContextPlugin>,
+        val fragments: List<JsonObject>,
+        val context: JsonObject,
+    ) {
+
+        fun isUpToDate(currentPlugins: List<ContextPlugin>): Boolean {
+            return contextPlugins === currentPlugins &&
+                contextPlugins.indices.all { contextPlugins[it].contextFragment() === fragments[it] }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.rudderstack.sdk.kotlin.core.internals.plugins
 
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
 import kotlin.reflect.KClass
@@ -23,15 +25,28 @@ class PluginChain(
      */
     lateinit var analytics: Analytics
 
+    /**
+     * Whether [process] can be called for several events at the same time, see [ConcurrentPlugin].
+     */
+    var isConcurrent: Boolean = false
+        set(value) {
+            field = value
+            pluginList.values.forEach { it.isConcurrent = value }
+        }
+
     /**
      * Processes an event through the plugin chain.
      */
     suspend fun process(event: Event) {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "PluginChain: Processing ${event.type} event through plugin chain (messageId=${event.messageId})"
-        )
+        }
         val preProcessResult = applyPlugins(Plugin.PluginType.PreProcess, event)
         val onProcessResult = applyPlugins(Plugin.PluginType.OnProcess, preProcessResult)
+        if (onProcessResult == null) {
+            analytics.sdkMetrics.eventsDroppedByPlugins.increment()
+            return
+        }
         applyPlugins(Plugin.PluginType.Terminal, onProcessResult)
     }
 
@@ -97,9 +112,9 @@ class PluginChain(
         val mediator = pluginList[pluginType]
         result = applyPlugins(mediator, result)
         if (event != null && result == null) {
-            analytics.logger.debug(
+            analytics.logger.debug {
                 "PluginChain: Event dropped by plugin at $pluginType stage (messageId=${event.messageId})"
-            )
+            }
         }
         return result
     }
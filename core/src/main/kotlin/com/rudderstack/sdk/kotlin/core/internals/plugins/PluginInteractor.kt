@@ -2,6 +2,9 @@ package com.rudderstack.sdk.kotlin.core.internals.plugins
 
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.CopyOnWriteArrayList
 import kotlin.reflect.KClass
 
@@ -11,6 +14,15 @@ import kotlin.reflect.KClass
 @InternalRudderApi
 class PluginInteractor(private var pluginList: CopyOnWriteArrayList<Plugin> = CopyOnWriteArrayList()) {
 
+    /**
+     * Whether [execute] can be called for several events at the same time. If so, every plugin which isn't a
+     * [ConcurrentPlugin] is guarded by its own lock, so that it still intercepts one event at a time.
+     */
+    @Volatile
+    var isConcurrent: Boolean = false
+
+    private val pluginLocks = ConcurrentHashMap<Plugin, Mutex>()
+
     /**
      * Adds a plugin to the list of plugins.
      */
@@ -22,6 +34,7 @@ class PluginInteractor(private var pluginList: CopyOnWriteArrayList<Plugin> = Co
      * Removes a plugin from the list of plugins.
      */
     fun remove(plugin: Plugin) = synchronized(pluginList) {
+        pluginLocks.remove(plugin)
         pluginList.removeAll { it === plugin }
     }
 
@@ -29,25 +42,34 @@ class PluginInteractor(private var pluginList: CopyOnWriteArrayList<Plugin> = Co
      * Removes all plugins from the list.
      */
     fun removeAll() = synchronized(pluginList) {
+        pluginLocks.clear()
         pluginList.clear()
     }
 
     /**
      * Executes all plugins in the list.
+     *
+     * The event is copied only before it is handed to a plugin which may modify it, see [ReadOnlyPlugin].
      */
     suspend fun execute(event: Event): Event? {
         var result: Event? = event
 
         pluginList.forEach { plugin ->
             result?.let { message ->
-                val copy = message.copy<Event>()
-                result = plugin.intercept(copy)
+                result = intercept(plugin, if (plugin is ReadOnlyPlugin) message else message.copy<Event>())
             }
         }
 
         return result
     }
 
+    private suspend fun intercept(plugin: Plugin, event: Event): Event? {
+        if (!isConcurrent || plugin is ConcurrentPlugin) {
+            return plugin.intercept(event)
+        }
+        return pluginLocks.getOrPut(plugin) { Mutex() }.withLock { plugin.intercept(event) }
+    }
+
     /**
      * Applies a closure on all registered plugins.
      */
@@ -0,0 +1,23 @@
+package com.rudderstack.sdk.kotlin.core.internals.plugins
+
+/**
+ * A [Plugin] which only reads the events it intercepts, and never modifies them.
+ *
+ * A plugin which isn't read-only receives its own copy of every event, so that no other plugin sees the changes it
+ * makes. A read-only plugin receives the event as it is, without it being copied: it can keep a reference to the event,
+ * since the event is copied again before it is handed to a plugin which may modify it.
+ *
+ * ### Usage
+ * ```kotlin
+ * class EventCounterPlugin : ReadOnlyPlugin {
+ *     override val pluginType = Plugin.PluginType.OnProcess
+ *     override lateinit var analytics: Analytics
+ *
+ *     override suspend fun intercept(event: Event): Event? {
+ *         counter.increment(event.type)
+ *         return event
+ *     }
+ * }
+ * ```
+ */
+interface ReadOnlyPlugin : Plugin
@@ -23,15 +23,15 @@ class CountFlushPolicy(private var flushAt: Int = DEFAULT_FLUSH_AT) : FlushPolic
         }
     }
 
-    internal fun shouldFlush(): Boolean {
-        return count >= flushAt
+    override fun onEventStored(sizeInBytes: Int) {
+        count++
     }
 
-    internal fun updateState() {
-        count++
+    override fun shouldFlush(): Boolean {
+        return count >= flushAt
     }
 
-    internal fun reset() {
+    override fun onFlushed() {
         count = 0
     }
 }
@@ -2,6 +2,7 @@ package com.rudderstack.sdk.kotlin.core.internals.policies
 
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 
 /**
  * FlushPoliciesFacade manages a collection of different flush policies
@@ -19,47 +20,27 @@ internal class FlushPoliciesFacade(
 
     internal fun shouldFlush(): Boolean {
         return flushPolicies.any { policy ->
-            val shouldFlush = when (policy) {
-                is CountFlushPolicy -> policy.shouldFlush()
-                is StartupFlushPolicy -> policy.shouldFlush()
-                else -> false
+            policy.shouldFlush().also { shouldFlush ->
+                if (shouldFlush) {
+                    logger.verbose { "FlushPoliciesFacade: Flush triggered by ${policy::class.simpleName}" }
+                }
             }
-            if (shouldFlush) {
-                logger.verbose("FlushPoliciesFacade: Flush triggered by ${policy::class.simpleName}")
-            }
-            shouldFlush
         }
     }
 
-    internal fun updateState() {
-        flushPolicies.forEach {
-            if (it is CountFlushPolicy) {
-                it.updateState()
-            }
-        }
+    internal fun updateState(sizeInBytes: Int) {
+        flushPolicies.forEach { it.onEventStored(sizeInBytes) }
     }
 
     internal fun reset() {
-        flushPolicies.forEach {
-            if (it is CountFlushPolicy) {
-                it.reset()
-            }
-        }
+        flushPolicies.forEach { it.onFlushed() }
     }
 
     internal fun schedule(analytics: Analytics) {
-        flushPolicies.forEach {
-            if (it is FrequencyFlushPolicy) {
-                it.schedule(analytics)
-            }
-        }
+        flushPolicies.forEach { it.schedule(analytics) }
     }
 
     internal fun cancelSchedule() {
-        flushPolicies.forEach {
-            if (it is FrequencyFlushPolicy) {
-                it.cancelSchedule()
-            }
-        }
+        flushPolicies.forEach { it.cancelSchedule() }
     }
 }
@@ -1,7 +1,73 @@
 package com.rudderstack.sdk.kotlin.core.internals.policies
 
+import com.rudderstack.sdk.kotlin.core.Analytics
+
 /**
  * FlushPolicy is an interface that defines the behavior of a flush policy.
  * A flush policy is a set of rules that determine when a flush action should be triggered.
+ *
+ * Besides the built-in policies, e.g. [CountFlushPolicy] or [SizeFlushPolicy], custom policies can be passed to the
+ * `flushPolicies` of the `Configuration`. Every hook has a default implementation which does nothing, so a policy only
+ * overrides the ones it needs:
+ * - [onEventStored], [shouldFlush] and [onFlushed] are called one after the other, for every stored event, on the
+ *   coroutine which stores the events, so a policy relying only on them doesn't need to be thread-safe.
+ * - [schedule] and [cancelSchedule] are called when the source is enabled or disabled, for the policies which trigger
+ *   a flush on their own, e.g. on a timer, by calling `analytics.flush()`.
+ *
+ * ### Usage
+ * ```kotlin
+ * class EveryEventFlushPolicy : FlushPolicy {
+ *     private var hasStoredEvent = false
+ *
+ *     override fun onEventStored(sizeInBytes: Int) {
+ *         hasStoredEvent = true
+ *     }
+ *
+ *     override fun shouldFlush(): Boolean = hasStoredEvent
+ *
+ *     override fun onFlushed() {
+ *         hasStoredEvent = false
+ *     }
+ * }
+ * ```
  */
-sealed interface FlushPolicy
+interface FlushPolicy {
+
+    /**
+     * Called when the policy should start triggering the flushes on its own, e.g. on a timer.
+     *
+     * @param analytics The analytics instance to flush.
+     */
+    fun schedule(analytics: Analytics) {
+        // Nothing to schedule by default
+    }
+
+    /**
+     * Called when the policy should stop triggering the flushes on its own.
+     */
+    fun cancelSchedule() {
+        // Nothing to cancel by default
+    }
+
+    /**
+     * Called after an event is stored.
+     *
+     * @param sizeInBytes The size in bytes of the stored event payload.
+     */
+    fun onEventStored(sizeInBytes: Int) {
+        // Nothing to track by default
+    }
+
+    /**
+     * Returns `true` if the stored events should be flushed now. It is called after every stored event.
+     */
+    fun shouldFlush(): Boolean = false
+
+    /**
+     * Called after the stored events are flushed, whichever policy triggered the flush, so that the policy can reset
+     * its state.
+     */
+    fun onFlushed() {
+        // Nothing to reset by default
+    }
+}
@@ -2,36 +2,62 @@ package com.rudderstack.sdk.kotlin.core.internals.policies
 
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import kotlinx.coroutines.Job
+import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.delay
 import kotlinx.coroutines.isActive
 import kotlinx.coroutines.launch
+import kotlin.random.Random
 
 internal const val DEFAULT_FLUSH_INTERVAL_IN_MILLIS = 10_000L
 internal const val DEFAULT_MIN_SLEEP_TIMEOUT_IN_MILLIS = 1000L
+internal const val DEFAULT_FLUSH_JITTER_IN_MILLIS = 0L
 
 /**
  * FrequencyFlushPolicy is a concrete implementation of the FlushPolicy interface
  * that automatically triggers a flush action at a specified interval, once scheduled.
  *
+ * A flush is only triggered if an event was stored since the last flush, whichever policy triggered it. While no event
+ * is stored, the policy sleeps until the next one is, and then flushes it after the interval, so an idle client doesn't
+ * wake up the CPU and the disk on every interval. The first flush after scheduling is always triggered, so that the
+ * events stored before are uploaded.
+ *
  * @property flushIntervalInMillis The interval in milliseconds between each flush.
  *                                 If set below [DEFAULT_MIN_SLEEP_TIMEOUT_IN_MILLIS], it defaults
  *                                 to [DEFAULT_FLUSH_INTERVAL_IN_MILLIS].
+ * @property jitterInMillis The maximum random delay in milliseconds added to each interval, so that many clients
+ *                          started at the same time don't flush in lockstep. It is capped at the [flushIntervalInMillis],
+ *                          and defaults to [DEFAULT_FLUSH_JITTER_IN_MILLIS], which adds no delay.
  */
-class FrequencyFlushPolicy(private var flushIntervalInMillis: Long = DEFAULT_FLUSH_INTERVAL_IN_MILLIS) : FlushPolicy {
+class FrequencyFlushPolicy @JvmOverloads constructor(
+    private var flushIntervalInMillis: Long = DEFAULT_FLUSH_INTERVAL_IN_MILLIS,
+    private var jitterInMillis: Long = DEFAULT_FLUSH_JITTER_IN_MILLIS,
+) : FlushPolicy {
 
     private var flushJob: Job? = null
     private var jobStarted: Boolean = false
     private var logger: Logger? = null
 
+    /**
+     * Whether an event was stored since the last flush. It is set on the coroutine storing the events and read on the
+     * one scheduling the flushes.
+     */
+    @Volatile
+    private var hasEventsToFlush: Boolean = true
+
+    // Wakes up the scheduled flushes when an event is stored while there was none to flush
+    private val eventStoredSignal = Channel<Unit>(Channel.CONFLATED)
+
     init {
         flushIntervalInMillis = when {
             flushIntervalInMillis >= DEFAULT_MIN_SLEEP_TIMEOUT_IN_MILLIS -> flushIntervalInMillis
             else -> DEFAULT_FLUSH_INTERVAL_IN_MILLIS
         }
+        jitterInMillis = jitterInMillis.coerceIn(0, flushIntervalInMillis)
     }
 
-    internal fun schedule(analytics: Analytics) {
+    override fun schedule(analytics: Analytics) {
         if (!jobStarted) {
             jobStarted = true
             logger = analytics.logger
@@ -40,20 +66,43 @@ class FrequencyFlushPolicy(private var flushIntervalInMillis: Long = DEFAULT_FLU
             flushJob = analytics.analyticsScope.launch(analytics.analyticsDispatcher) {
                 if (flushIntervalInMillis > 0) {
                     do {
-                        delay(flushIntervalInMillis)
-                        analytics.logger.verbose("FrequencyFlushPolicy: Flush triggered after ${flushIntervalInMillis}ms")
-                        analytics.flush()
+                        delay(flushIntervalInMillis + nextJitterInMillis())
+                        if (hasEventsToFlush) {
+                            analytics.logger.verbose { "FrequencyFlushPolicy: Flush triggered after ${flushIntervalInMillis}ms" }
+                            analytics.flush()
+                        } else {
+                            analytics.logger.verbose { "FrequencyFlushPolicy: No event to flush, waiting for the next one" }
+                            eventStoredSignal.receive()
+                        }
                     } while (isActive)
                 }
             }
         }
     }
 
-    internal fun cancelSchedule() {
+    override fun cancelSchedule() {
         if (jobStarted) {
             logger?.debug("FrequencyFlushPolicy: Flush schedule cancelled")
             jobStarted = false
             flushJob?.cancel()
         }
     }
+
+    override fun onEventStored(sizeInBytes: Int) {
+        if (!hasEventsToFlush) {
+            hasEventsToFlush = true
+            eventStoredSignal.trySend(Unit)
+        }
+    }
+
+    override fun onFlushed() {
+        hasEventsToFlush = false
+        // Drop the signal of an event stored while the scheduled flushes were not waiting for one, since that event is
+        // flushed now, so that it doesn't wake them up for an interval without any event to flush
+        eventStoredSignal.tryReceive()
+    }
+
+    private fun nextJitterInMillis(): Long {
+        return if (jitterInMillis > 0) Random.nextLong(jitterInMillis + 1) else 0
+    }
 }
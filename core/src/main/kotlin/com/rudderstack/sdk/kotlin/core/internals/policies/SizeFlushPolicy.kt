@@ -0,0 +1,46 @@
+package com.rudderstack.sdk.kotlin.core.internals.policies
+
+import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_BATCH_SIZE
+import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_PAYLOAD_SIZE
+
+/**
+ * The default size at which a flush is triggered, leaving room for one more event of the maximum size below
+ * [MAX_BATCH_SIZE], so that the batch is flushed before the next event makes it roll over.
+ */
+internal const val DEFAULT_FLUSH_AT_BYTES = MAX_BATCH_SIZE - MAX_PAYLOAD_SIZE
+private const val MIN_FLUSH_AT_BYTES = 1
+
+/**
+ * SizeFlushPolicy is a concrete implementation of the FlushPolicy interface
+ * that indicates if flush action should be triggered once the stored events reach a size threshold.
+ *
+ * It sizes the uploads by their payload rather than by their number of events, so that each upload carries close to
+ * the maximum batch size. To do so, it should replace the [CountFlushPolicy], which flushes after at most 100 events.
+ *
+ * @property flushAtBytes The size in bytes of the stored event payloads at which a flush should be triggered.
+ *                        It defaults to [DEFAULT_FLUSH_AT_BYTES] if not specified or if
+ *                        it is not in the range from 1 to [MAX_BATCH_SIZE].
+ */
+class SizeFlushPolicy(private var flushAtBytes: Int = DEFAULT_FLUSH_AT_BYTES) : FlushPolicy {
+
+    private var storedBytes: Long = 0
+
+    init {
+        flushAtBytes = when {
+            flushAtBytes in MIN_FLUSH_AT_BYTES..MAX_BATCH_SIZE -> flushAtBytes
+            else -> DEFAULT_FLUSH_AT_BYTES
+        }
+    }
+
+    override fun onEventStored(sizeInBytes: Int) {
+        storedBytes += sizeInBytes
+    }
+
+    override fun shouldFlush(): Boolean {
+        return storedBytes >= flushAtBytes
+    }
+
+    override fun onFlushed() {
+        storedBytes = 0
+    }
+}
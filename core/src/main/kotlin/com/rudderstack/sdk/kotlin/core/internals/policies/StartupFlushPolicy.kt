@@ -9,7 +9,7 @@ class StartupFlushPolicy : FlushPolicy {
 
     private var flushedAtStartup = false
 
-    internal fun shouldFlush(): Boolean = if (flushedAtStartup) {
+    override fun shouldFlush(): Boolean = if (flushedAtStartup) {
         false
     } else {
         flushedAtStartup = true
@@ -0,0 +1,180 @@
+package com.rudderstack.sdk.kotlin.core.internals.queue
+
+import com.rudderstack.sdk.kotlin.core.OverflowStrategy
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration
+import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.DelicateCoroutinesApi
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.ChannelIterator
+import kotlinx.coroutines.channels.ClosedSendChannelException
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.withTimeoutOrNull
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * A channel whose capacity and overflow behaviour are defined by a [QueueConfiguration], which also keeps track of
+ * the number of elements waiting to be received and the number of elements dropped because the channel was full.
+ *
+ * Elements are received by iterating over the channel, e.g. `for (element in boundedChannel) { ... }`.
+ *
+ * @param queueConfiguration The capacity and overflow strategy of the channel.
+ * @param onDropped Called with every element dropped because the channel was full, or handed off by [offer] and then not
+ * delivered because the channel was closed.
+ */
+@InternalRudderApi
+@OptIn(DelicateCoroutinesApi::class)
+class BoundedChannel<T : Any>(
+    private val queueConfiguration: QueueConfiguration,
+    private val onDropped: (T) -> Unit = {},
+) {
+
+    private val channel: Channel<T> = Channel(queueConfiguration.capacity)
+    private val depth = AtomicInteger(0)
+    private val dropped = AtomicLong(0)
+
+    /**
+     * The elements handed off by [offer] while the channel was full, which are sent in order by a single coroutine.
+     */
+    private val handOffQueue = Channel<T>(Channel.UNLIMITED)
+    private val handedOff = AtomicInteger(0)
+    private val isHandOffStarted = AtomicBoolean(false)
+
+    /**
+     * The number of elements sent to the channel which are not yet received, including the ones handed off by [offer].
+     */
+    val size: Int
+        get() = depth.get() + handedOff.get()
+
+    /**
+     * The number of elements dropped because the channel was full.
+     */
+    val droppedCount: Long
+        get() = dropped.get()
+
+    val isClosedForSend: Boolean
+        get() = channel.isClosedForSend
+
+    /**
+     * Sends the [element] to the channel, applying the configured [OverflowStrategy] if the channel is full.
+     *
+     * With [OverflowStrategy.Block] and [OverflowStrategy.BlockWithTimeout], this suspends until there is space.
+     *
+     * @return `true` if the element is in the channel, `false` if it was dropped or the channel is closed.
+     */
+    suspend fun send(element: T): Boolean {
+        if (trySend(element)) return true
+        if (channel.isClosedForSend) return false
+
+        return when (val overflowStrategy = queueConfiguration.overflowStrategy) {
+            OverflowStrategy.Block -> sendSuspending(element)
+            is OverflowStrategy.BlockWithTimeout ->
+                withTimeoutOrNull(overflowStrategy.timeoutInMillis) { sendSuspending(element) } ?: drop(element)
+
+            OverflowStrategy.DropNewest -> drop(element)
+            OverflowStrategy.DropOldest -> sendDroppingOldest(element)
+        }
+    }
+
+    /**
+     * Sends the [element] to the channel without suspending, for callers which are not running a coroutine, e.g. the
+     * public API called from the Android main thread. The calling thread is never blocked indefinitely.
+     *
+     * If the channel is full, the configured [OverflowStrategy] is applied, except that [OverflowStrategy.Block] doesn't
+     * block the calling thread: the element is handed off to a coroutine launched in the [handOffScope], which sends it as
+     * soon as there is space. The elements offered while some are handed off are handed off as well, so that they stay in
+     * order. With [OverflowStrategy.BlockWithTimeout] the calling thread waits for space for at most the timeout.
+     *
+     * Coroutines should call [send] instead.
+     *
+     * @return `true` if the element is in the channel or handed off, `false` if it was dropped or the channel is closed.
+     */
+    fun offer(element: T, handOffScope: CoroutineScope): Boolean {
+        if (handedOff.get() == 0 && trySend(element)) return true
+        if (channel.isClosedForSend) return false
+
+        return when (val overflowStrategy = queueConfiguration.overflowStrategy) {
+            OverflowStrategy.Block -> handOff(element, handOffScope)
+            is OverflowStrategy.BlockWithTimeout ->
+                runBlocking { withTimeoutOrNull(overflowStrategy.timeoutInMillis) { sendSuspending(element) } } ?: drop(element)
+
+            OverflowStrategy.DropNewest -> drop(element)
+            OverflowStrategy.DropOldest -> sendDroppingOldest(element)
+        }
+    }
+
+    fun close() {
+        channel.close()
+        handOffQueue.close()
+    }
+
+    operator fun iterator(): ChannelIterator<T> = object : ChannelIterator<T> {
+        private val iterator = channel.iterator()
+
+        override suspend fun hasNext(): Boolean = iterator.hasNext()
+
+        override fun next(): T = iterator.next().also { depth.decrementAndGet() }
+    }
+
+    // depth is incremented before sending, so that it never goes negative when the element is received right away
+    private fun trySend(element: T): Boolean {
+        depth.incrementAndGet()
+        return channel.trySend(element).isSuccess.also { sent ->
+            if (!sent) depth.decrementAndGet()
+        }
+    }
+
+    @Suppress("SwallowedException")
+    private suspend fun sendSuspending(element: T): Boolean {
+        var sent = false
+        depth.incrementAndGet()
+        try {
+            channel.send(element)
+            sent = true
+        } catch (e: ClosedSendChannelException) {
+            // the channel was closed while waiting for space, e.g. because of shutdown
+        } finally {
+            // also covers the cancellation of the send when the timeout of BlockWithTimeout elapses
+            if (!sent) depth.decrementAndGet()
+        }
+        return sent
+    }
+
+    // handedOff is decremented only once the element is sent, so that the elements offered meanwhile are handed off too
+    private fun handOff(element: T, handOffScope: CoroutineScope): Boolean {
+        handedOff.incrementAndGet()
+        if (handOffQueue.trySend(element).isFailure) {
+            handedOff.decrementAndGet()
+            return false
+        }
+        if (isHandOffStarted.compareAndSet(false, true)) {
+            handOffScope.launch {
+                for (pending in handOffQueue) {
+                    if (!sendSuspending(pending)) onDropped(pending)
+                    handedOff.decrementAndGet()
+                }
+            }
+        }
+        return true
+    }
+
+    private fun sendDroppingOldest(element: T): Boolean {
+        while (!trySend(element)) {
+            if (channel.isClosedForSend) return false
+            channel.tryReceive().getOrNull()?.let { oldest ->
+                depth.decrementAndGet()
+                drop(oldest)
+            }
+        }
+        return true
+    }
+
+    private fun drop(element: T): Boolean {
+        dropped.incrementAndGet()
+        onDropped(element)
+        return false
+    }
+}
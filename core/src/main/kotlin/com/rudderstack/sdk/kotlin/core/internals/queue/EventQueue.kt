@@ -1,21 +1,23 @@
 package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.BatchPartitioning
+import com.rudderstack.sdk.kotlin.core.MetricNames
+import com.rudderstack.sdk.kotlin.core.OverflowStrategy
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.policies.FlushPoliciesFacade
-import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
-import com.rudderstack.sdk.kotlin.core.internals.utils.empty
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_PARTITION_KEY
+import com.rudderstack.sdk.kotlin.core.internals.storage.exception.PayloadTooLargeException
 import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToString
 import com.rudderstack.sdk.kotlin.core.internals.utils.isSourceEnabled
-import kotlinx.coroutines.DelicateCoroutinesApi
-import kotlinx.coroutines.channels.Channel
-import kotlinx.coroutines.channels.Channel.Factory.UNLIMITED
+import kotlinx.coroutines.CompletableJob
+import kotlinx.coroutines.Job
 import kotlinx.coroutines.flow.distinctUntilChanged
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.launch
-import kotlinx.coroutines.withContext
 
-@OptIn(DelicateCoroutinesApi::class)
 internal class EventQueue(
     private val analytics: Analytics,
     private var flushPoliciesFacade: FlushPoliciesFacade =
@@ -29,31 +31,28 @@ internal class EventQueue(
 ) {
 
     private var running: Boolean
-    private var writeChannel: Channel<QueueMessage>
+    private var writeChannel: BoundedChannel<QueueMessage>
     private val storage
         get() = analytics.storage
     private val flushSignal = QueueMessage(QueueMessage.QueueMessageType.FLUSH_SIGNAL)
-    private var lastEventAnonymousId = storage.readString(
-        StorageKeys.LAST_EVENT_ANONYMOUS_ID,
-        analytics.anonymousId ?: String.empty()
-    )
 
     init {
         running = false
-        writeChannel = Channel(UNLIMITED)
+        writeChannel = createWriteChannel()
+        analytics.sdkMetrics.registerGauge(MetricNames.WRITE_QUEUE_DEPTH) { writeChannel.size.toLong() }
     }
 
-    internal fun put(event: Event) {
-        analytics.logger.verbose("EventQueue: Event queued for writing (messageId=${event.messageId})")
-        writeChannel.trySend(QueueMessage(QueueMessage.QueueMessageType.MESSAGE, event))
+    internal suspend fun put(event: Event) {
+        analytics.logger.verbose { "EventQueue: Event queued for writing (messageId=${event.messageId})" }
+        writeChannel.send(QueueMessage(QueueMessage.QueueMessageType.MESSAGE, event))
     }
 
     internal fun start() {
         if (running) return
         running = true
 
-        if (writeChannel.isClosedForSend || writeChannel.isClosedForReceive) {
-            writeChannel = Channel(UNLIMITED)
+        if (writeChannel.isClosedForSend) {
+            writeChannel = createWriteChannel()
         }
         eventUpload.start()
 
@@ -80,8 +79,16 @@ internal class EventQueue(
         }
     }
 
-    internal fun flush() {
-        writeChannel.trySend(flushSignal)
+    /**
+     * Sends a flush signal after the events queued so far.
+     *
+     * @param completion The job to complete once the events queued so far are uploaded, or to cancel if they can't be.
+     */
+    internal suspend fun flush(completion: CompletableJob? = null) {
+        val message = completion?.let { QueueMessage(QueueMessage.QueueMessageType.FLUSH_SIGNAL, flushCompletion = it) }
+        if (!writeChannel.send(message ?: flushSignal)) {
+            completion?.cancel()
+        }
     }
 
     internal fun stop() {
@@ -94,6 +101,20 @@ internal class EventQueue(
         flushPoliciesFacade.cancelSchedule()
     }
 
+    // The write channel always blocks when full, so that a slow storage pushes back on the ingest queue of Analytics,
+    // where the configured overflow strategy is applied.
+    private fun createWriteChannel(): BoundedChannel<QueueMessage> = BoundedChannel(
+        QueueConfiguration(
+            capacity = analytics.configuration.queueConfiguration.capacity,
+            overflowStrategy = OverflowStrategy.Block,
+        )
+    )
+
+    // Unless the batches are mixed, they are partitioned by anonymousId, so that each batch is uploaded with a single identity
+    private fun partitionKeyOf(event: Event): String {
+        return if (analytics.configuration.batchPartitioning == BatchPartitioning.Mixed) DEFAULT_PARTITION_KEY else event.anonymousId
+    }
+
     internal fun stringifyBaseEvent(payload: Event): String {
         return payload.encodeToString()
     }
@@ -104,15 +125,21 @@ internal class EventQueue(
             val isFlushSignal = (queueMessage.type == QueueMessage.QueueMessageType.FLUSH_SIGNAL)
 
             if (!isFlushSignal) {
-                updateAnonymousIdAndRolloverIfNeeded(queueMessage)
                 try {
                     queueMessage.event?.let {
                         stringifyBaseEvent(it).also { stringValue ->
-                            analytics.logger.verbose("EventQueue: Storing event (messageId=${it.messageId}): $stringValue")
-                            storage.write(StorageKeys.EVENT, stringValue)
+                            analytics.logger.verbose { "EventQueue: Storing event (messageId=${it.messageId}): $stringValue" }
+                            val payloadSize = storage.writeEvent(stringValue, partitionKeyOf(it))
+                            analytics.sdkMetrics.eventsPersisted.increment()
+                            flushPoliciesFacade.updateState(payloadSize)
                         }
-                        flushPoliciesFacade.updateState()
                     }
+                } catch (e: PayloadTooLargeException) {
+                    analytics.sdkMetrics.eventsDroppedTooLarge.increment()
+                    analytics.logger.error(
+                        "EventQueue: Dropped payload exceeding the maximum event size (messageId=${queueMessage.event?.messageId})",
+                        e
+                    )
                 } catch (e: Exception) {
                     analytics.logger.error(
                         "EventQueue: Error adding payload (messageId=${queueMessage.event?.messageId}): $queueMessage",
@@ -122,22 +149,12 @@ internal class EventQueue(
             }
 
             if ((isFlushSignal || flushPoliciesFacade.shouldFlush()) && analytics.isSourceEnabled()) {
-                eventUpload.flush()
+                val uploadPass = eventUpload.flush()
+                queueMessage.flushCompletion?.let { completion -> uploadPass.propagateTo(completion) }
                 analytics.logger.debug("EventQueue: Flush signal sent to upload channel")
                 flushPoliciesFacade.reset()
-            }
-        }
-    }
-
-    private suspend fun updateAnonymousIdAndRolloverIfNeeded(queueMessage: QueueMessage) {
-        val currentEventAnonymousId = queueMessage.event?.anonymousId ?: String.empty()
-        if (currentEventAnonymousId != lastEventAnonymousId) {
-            analytics.logger.debug("EventQueue: AnonymousId changed, triggering file rollover")
-            withContext(analytics.keyValueStorageDispatcher) {
-                // rollover when last and current anonymousId are different
-                storage.rollover()
-                lastEventAnonymousId = currentEventAnonymousId
-                storage.write(StorageKeys.LAST_EVENT_ANONYMOUS_ID, lastEventAnonymousId)
+            } else {
+                queueMessage.flushCompletion?.cancel()
             }
         }
     }
@@ -146,6 +163,7 @@ internal class EventQueue(
 private data class QueueMessage(
     val type: QueueMessageType,
     val event: Event? = null,
+    val flushCompletion: CompletableJob? = null,
 ) {
 
     enum class QueueMessageType {
@@ -153,3 +171,10 @@ private data class QueueMessage(
         FLUSH_SIGNAL,
     }
 }
+
+// Completes the completion along with this job, or cancels it if this job fails or is cancelled
+private fun Job.propagateTo(completion: CompletableJob) {
+    invokeOnCompletion { cause ->
+        if (cause == null) completion.complete() else completion.cancel()
+    }
+}
@@ -1,17 +1,24 @@
 package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.BatchPartitioning
+import com.rudderstack.sdk.kotlin.core.MetricNames
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
+import com.rudderstack.sdk.kotlin.core.internals.network.ANONYMOUS_ID_HEADER
 import com.rudderstack.sdk.kotlin.core.internals.network.EventUploadResult
 import com.rudderstack.sdk.kotlin.core.internals.network.HttpClient
 import com.rudderstack.sdk.kotlin.core.internals.network.HttpClientImpl
 import com.rudderstack.sdk.kotlin.core.internals.network.NonRetryAbleEventUploadError
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
 import com.rudderstack.sdk.kotlin.core.internals.network.RetryAbleEventUploadError
 import com.rudderstack.sdk.kotlin.core.internals.network.Success
 import com.rudderstack.sdk.kotlin.core.internals.network.createPostConfig
 import com.rudderstack.sdk.kotlin.core.internals.network.formatStatusCodeMessage
 import com.rudderstack.sdk.kotlin.core.internals.network.toEventUploadResult
 import com.rudderstack.sdk.kotlin.core.internals.policies.backoff.MaxAttemptsWithBackoff
-import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
+import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_PAYLOAD_SIZE
 import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import com.rudderstack.sdk.kotlin.core.internals.utils.JsonSentAtUpdater
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
@@ -23,21 +30,31 @@ import com.rudderstack.sdk.kotlin.core.internals.utils.empty
 import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToBase64
 import com.rudderstack.sdk.kotlin.core.internals.utils.generateUUID
 import com.rudderstack.sdk.kotlin.core.internals.utils.handleInvalidWriteKey
-import com.rudderstack.sdk.kotlin.core.internals.utils.parseFilePaths
+import com.rudderstack.sdk.kotlin.core.validatedUploadConcurrency
 import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableJob
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.channels.SendChannel
 import kotlinx.coroutines.channels.consumeEach
+import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.ensureActive
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.withContext
 import org.jetbrains.annotations.VisibleForTesting
-import kotlin.coroutines.coroutineContext
+import java.io.FileNotFoundException
+import java.io.InputStream
+import java.io.OutputStream
+import java.util.concurrent.atomic.AtomicReference
 
 private const val BATCH_ENDPOINT = "/v1/batch"
 private val ANONYMOUS_ID_REGEX = """"anonymousId"\s*:\s*"([^"]+)"""".toRegex()
 private const val UPLOAD_SIG = "#!upload"
 
+// No event is larger than MAX_PAYLOAD_SIZE, so the anonymousId of the first event of a batch is always within this prefix
+private const val ANONYMOUS_ID_LOOKUP_SIZE = 2 * MAX_PAYLOAD_SIZE
+
 /**
  * EventUpload is responsible for uploading events to the RudderStack data plane.
  */
@@ -53,35 +70,74 @@ internal class EventUpload(
                 isGZIPEnabled = gzipEnabled,
                 anonymousIdHeaderString = analytics.anonymousId ?: String.empty(),
             ),
+            transport = httpTransport,
             logger = analytics.logger,
         )
     },
-    private val maxAttemptsWithBackoff: MaxAttemptsWithBackoff = MaxAttemptsWithBackoff(logger = analytics.logger),
+    private val maxAttemptsWithBackoffProvider: () -> MaxAttemptsWithBackoff = {
+        MaxAttemptsWithBackoff(logger = analytics.logger)
+    },
     private val retryHeadersProvider: RetryHeadersProvider = RetryHeadersProviderImpl(analytics.storage, analytics.logger),
+    private val uploadConcurrency: Int = analytics.configuration.validatedUploadConcurrency,
 ) {
 
-    private var lastBatchAnonymousId = String.empty()
     private val storage get() = analytics.storage
 
     // This job is required to mainly stop the upload process when the source is disabled.
     // The type is null to clear the job reference when the source is disabled.
     private var uploadJob: Job? = null
 
+    // The upload pass requested since the last one started, shared by all the flushes requested in the meantime.
+    // A flush signal is only sent along with a new pending pass, so there is at most one pass pending and one running.
+    private val pendingUploadPass = AtomicReference<CompletableJob?>(null)
+
+    init {
+        analytics.sdkMetrics.registerGauge(MetricNames.UPLOAD_QUEUE_DEPTH) {
+            if (pendingUploadPass.get() != null) 1 else 0
+        }
+    }
+
     internal fun start() {
         uploadChannel = uploadChannel.createNewIfClosed()
         uploadJob = uploadJob.createIfInactive(newJob = ::upload)
     }
 
-    internal fun flush() {
-        uploadChannel.trySend(UPLOAD_SIG)
+    /**
+     * Requests an upload pass over all the stored batches. The flushes requested before the pending pass starts are
+     * coalesced into it, so a burst of flushes results in at most one pass besides the one already running.
+     *
+     * @return A job which completes once the pass uploading the events stored before this call is done, or is cancelled
+     * if the upload is stopped before.
+     */
+    internal fun flush(): Job {
+        while (true) {
+            pendingUploadPass.get()?.let { return it }
+
+            val uploadPass = Job()
+            if (pendingUploadPass.compareAndSet(null, uploadPass)) {
+                if (uploadChannel.trySend(UPLOAD_SIG).isFailure) {
+                    pendingUploadPass.compareAndSet(uploadPass, null)
+                    uploadPass.cancel()
+                }
+                return uploadPass
+            }
+        }
     }
 
     @Suppress("TooGenericExceptionCaught")
     private fun upload() = analytics.analyticsScope.launch(analytics.networkDispatcher) {
         uploadChannel.consumeEach {
-            analytics.logger.debug("EventUpload: Performing flush")
-            prepareForUpload()
-            processAndUploadEvent()
+            // The pass is taken before the upload starts, so that the flushes requested during the upload wait for the next one
+            val uploadPass = pendingUploadPass.getAndSet(null) ?: return@consumeEach
+            try {
+                analytics.logger.debug("EventUpload: Performing flush")
+                prepareForUpload()
+                processAndUploadEvent()
+                uploadPass.complete()
+            } finally {
+                // Only takes effect if the pass didn't complete, e.g. because the upload was cancelled
+                uploadPass.cancel()
+            }
         }
     }
 
@@ -92,34 +148,85 @@ internal class EventUpload(
         }
     }
 
-    @Suppress("TooGenericExceptionCaught")
+    /**
+     * Uploads the batch files through [uploadConcurrency] lanes, each uploading its batches one after the other.
+     * All the batches of an anonymousId go through the same lane, so they are uploaded in the order they were created.
+     * Mixed batches hold the events of many anonymousIds, so they all go through a single lane.
+     * The lane is chosen by the partition key recorded with the batch, so that the batch is only read to be uploaded.
+     */
     private suspend fun processAndUploadEvent() {
-        val fileUrlList = storage.readString(StorageKeys.EVENT, String.empty()).parseFilePaths()
-        analytics.logger.debug("EventUpload: Processing ${fileUrlList.size} batch file(s) for upload")
-        for (filePath in fileUrlList) {
-            // ensureActive will help in cancelling the coroutine
-            coroutineContext.ensureActive()
+        val batchRefs = storage.readBatchRefs()
+        val laneCount = if (analytics.configuration.batchPartitioning == BatchPartitioning.Mixed) 1 else uploadConcurrency
+        analytics.logger.debug {
+            "EventUpload: Processing ${batchRefs.size} batch file(s) for upload with concurrency $laneCount"
+        }
+        coroutineScope {
+            val lanes = List(laneCount) { launchUploadLane() }
+            for (batchRef in batchRefs) {
+                // ensureActive will help in cancelling the coroutine
+                ensureActive()
 
-            try {
-                storage.readBatchContent(filePath)?.let { batch ->
-                    updateAnonymousIdHeaderIfChanged(batch)
-                    uploadEvents(batch, filePath)
-                } ?: analytics.logger.warn("EventUpload: Batch file returned null content, skipping")
-            } catch (e: CancellationException) {
-                analytics.logger.error("EventUpload: Job was cancelled. Stopping the upload process.", e)
-                throw e
-            } catch (e: Exception) {
-                analytics.logger.error("EventUpload: Error when processing batch payload. Deleting the file.", e)
+                routeBatch(batchRef, laneCount)?.let { batch ->
+                    lanes[(batch.anonymousId?.hashCode() ?: 0).mod(laneCount)].send(batch)
+                }
+            }
+            lanes.forEach { it.close() }
+        }
+    }
+
+    private fun CoroutineScope.launchUploadLane(): SendChannel<Batch> {
+        // A rendezvous channel keeps at most one batch per lane in memory besides the one being uploaded
+        val lane = Channel<Batch>()
+        launch {
+            for (batch in lane) {
+                uploadBatch(batch)
+            }
+        }
+        return lane
+    }
+
+    /**
+     * Returns the [Batch] of the [batchRef] to be sent to an upload lane, or null if it can't be uploaded.
+     * The batch is only read here if there are many lanes and the partition of the batch wasn't recorded, e.g. for a
+     * batch left over by a previous process, as the lane is then chosen by the anonymousId of its first event.
+     */
+    private fun routeBatch(batchRef: BatchRef, laneCount: Int): Batch? {
+        val anonymousId = when {
+            batchRef.partitionKey != null -> batchRef.partitionKey
+            laneCount == 1 -> null
+            else -> readAnonymousId(batchRef.ref) ?: return null
+        }
+        return Batch(filePath = batchRef.ref, batchId = batchRef.id, anonymousId = anonymousId)
+    }
+
+    @Suppress("TooGenericExceptionCaught")
+    private fun readAnonymousId(filePath: String): String? {
+        return try {
+            storage.readBatchStream(filePath)?.use { stream ->
+                getAnonymousIdFromBatch(stream.readPrefix(ANONYMOUS_ID_LOOKUP_SIZE))
+            } ?: run {
+                // The reference is removed as well, so that a batch deleted outside the storage is not listed again
+                analytics.logger.warn("EventUpload: Batch file not found, skipping")
                 cleanup(filePath)
+                null
             }
+        } catch (e: Exception) {
+            analytics.logger.error("EventUpload: Error when reading batch payload. Deleting the file.", e)
+            cleanup(filePath)
+            null
         }
     }
 
-    private fun updateAnonymousIdHeaderIfChanged(batchPayload: String) {
-        val currentBatchAnonymousId = getAnonymousIdFromBatch(batchPayload)
-        if (lastBatchAnonymousId != currentBatchAnonymousId) {
-            httpClientFactory.updateAnonymousIdHeaderString(currentBatchAnonymousId.encodeToBase64())
-            lastBatchAnonymousId = currentBatchAnonymousId
+    @Suppress("TooGenericExceptionCaught")
+    private suspend fun uploadBatch(batch: Batch) {
+        try {
+            uploadEvents(batch)
+        } catch (e: CancellationException) {
+            analytics.logger.error("EventUpload: Job was cancelled. Stopping the upload process.", e)
+            throw e
+        } catch (e: Exception) {
+            analytics.logger.error("EventUpload: Error when processing batch payload. Deleting the file.", e)
+            cleanup(batch.filePath)
         }
     }
 
@@ -131,38 +238,79 @@ internal class EventUpload(
         }
     }
 
-    private suspend fun uploadEvents(batchPayload: String, filePath: String) {
-        val batchId = storage.getBatchId(filePath)
+    private suspend fun uploadEvents(batch: Batch) {
+        val batchId = batch.batchId
+        // The retry state is tracked per batch, so that concurrent uploads back off independently
+        val maxAttemptsWithBackoff = maxAttemptsWithBackoffProvider()
+        // The anonymousId of a mixed batch is read once, rather than on every attempt
+        val anonymousId = batch.anonymousId ?: readAnonymousId(batch.filePath) ?: return
+        val anonymousIdHeader = mapOf(ANONYMOUS_ID_HEADER to anonymousId.encodeToBase64())
         var result: EventUploadResult
         do {
-            val updatedPayload = JsonSentAtUpdater.updateSentAt(batchPayload, analytics.logger)
-            analytics.logger.verbose("EventUpload: Uploading batch payload of size: ${updatedPayload.length} bytes")
+            // The batch is read from the storage on every attempt, with the sentAt of the attempt spliced in
+            val body = createRequestBody(batch, sentAt = DateTimeUtils.now())
+            analytics.logger.verbose { "EventUpload: Uploading batch with id: $batchId" }
             val currentTimestampInMillis = DateTimeUtils.getSystemCurrentTime()
             val retryHeaders = retryHeadersProvider.getHeaders(batchId, currentTimestampInMillis)
-            result = httpClientFactory.sendData(updatedPayload, retryHeaders).toEventUploadResult()
+            result = httpClientFactory.sendData(body, retryHeaders + anonymousIdHeader).toEventUploadResult()
+            if ((body as? BatchRequestBody)?.isBatchMissing == true) {
+                analytics.logger.warn("EventUpload: Batch file was removed during the upload, skipping")
+                resetRetryState(batchId, maxAttemptsWithBackoff)
+                cleanup(batch.filePath)
+                return
+            }
+            recordUploadMetrics(body, DateTimeUtils.getSystemCurrentTime() - currentTimestampInMillis)
 
             when (result) {
                 is Success -> {
-                    analytics.logger.debug("EventUpload: Event uploaded successfully. Server response: ${result.response}")
-                    resetRetryState()
-                    cleanup(filePath)
+                    analytics.logger.debug { "EventUpload: Event uploaded successfully. Server response: ${result.response}" }
+                    analytics.sdkMetrics.batchesUploaded.increment()
+                    resetRetryState(batchId, maxAttemptsWithBackoff)
+                    cleanup(batch.filePath)
                 }
 
                 is RetryAbleEventUploadError -> {
-                    analytics.logger.debug("EventUpload: ${result.formatStatusCodeMessage()}. Retry able error occurred.")
+                    analytics.logger.debug { "EventUpload: ${result.formatStatusCodeMessage()}. Retry able error occurred." }
+                    analytics.sdkMetrics.uploadRetries.increment()
                     retryHeadersProvider.recordFailure(batchId, currentTimestampInMillis, result)
                     analytics.logger.debug("EventUpload: Retry attempt recorded. Backing off before next attempt")
                     maxAttemptsWithBackoff.delayWithBackoff()
                 }
 
                 is NonRetryAbleEventUploadError -> {
-                    resetRetryState()
-                    handleNonRetryAbleError(result, filePath)
+                    analytics.sdkMetrics.batchesRejected.increment()
+                    resetRetryState(batchId, maxAttemptsWithBackoff)
+                    handleNonRetryAbleError(result, batch.filePath)
                 }
             }
         } while (result is RetryAbleEventUploadError)
     }
 
+    /**
+     * Records the latency of an upload attempt, and the size of its [body]: the compressed size for a batch compressed
+     * on disk, and the size before compression for a batch streamed from the storage.
+     */
+    private fun recordUploadMetrics(body: RequestBody, latencyInMillis: Long) {
+        analytics.sdkMetrics.uploadLatencyInMillis.record(latencyInMillis)
+        val payloadBytes = (body as? BatchRequestBody)?.bytesWritten ?: body.contentLength
+        if (payloadBytes >= 0) {
+            analytics.sdkMetrics.uploadPayloadBytes.record(payloadBytes)
+        }
+    }
+
+    /**
+     * Creates the body of an upload attempt of the [batch]. With GZIP enabled, a batch which was compressed when it was
+     * completed is uploaded as it is, otherwise the batch is streamed from the storage and compressed by the HTTP client.
+     */
+    private fun createRequestBody(batch: Batch, sentAt: String): RequestBody {
+        val compressedBody = if (analytics.configuration.gzipEnabled) {
+            storage.readCompressedBatchBody(batch.filePath, sentAt)
+        } else {
+            null
+        }
+        return compressedBody ?: BatchRequestBody(sentAt) { storage.readBatchStream(batch.filePath) }
+    }
+
     @OptIn(UseWithCaution::class)
     private fun handleNonRetryAbleError(status: NonRetryAbleEventUploadError, filePath: String) {
         when (status) {
@@ -202,8 +350,8 @@ internal class EventUpload(
         }
     }
 
-    private suspend fun resetRetryState() {
-        retryHeadersProvider.clear()
+    private suspend fun resetRetryState(batchId: Int, maxAttemptsWithBackoff: MaxAttemptsWithBackoff) {
+        retryHeadersProvider.clear(batchId)
         maxAttemptsWithBackoff.reset()
     }
 
@@ -220,5 +368,85 @@ internal class EventUpload(
             uploadJob = null
         }
         uploadChannel.cancel()
+        pendingUploadPass.getAndSet(null)?.cancel()
+    }
+}
+
+/**
+ * A batch file in the storage, along with the anonymousId of its events, or null if it has to be read from the batch.
+ */
+private class Batch(
+    val filePath: String,
+    val batchId: Int,
+    val anonymousId: String?,
+)
+
+/**
+ * [RequestBody] which copies the batch opened by [openBatch] to the connection, replacing its default sentAt timestamp
+ * with [sentAt], so that the batch is never loaded in memory as a whole.
+ */
+private class BatchRequestBody(
+    private val sentAt: String,
+    private val openBatch: () -> InputStream?,
+) : RequestBody {
+
+    /**
+     * Whether the batch didn't exist anymore when the body was written.
+     */
+    var isBatchMissing: Boolean = false
+        private set
+
+    /**
+     * The number of bytes written by the last call to [writeTo], before they are compressed by the HTTP client.
+     */
+    var bytesWritten: Long = 0
+        private set
+
+    override fun writeTo(outputStream: OutputStream) {
+        val batchStream = openBatch() ?: run {
+            isBatchMissing = true
+            throw FileNotFoundException("Batch not found")
+        }
+        val countingStream = CountingOutputStream(outputStream)
+        batchStream.use { JsonSentAtUpdater.writeWithUpdatedSentAt(it, countingStream, sentAt) }
+        bytesWritten = countingStream.count
+    }
+}
+
+/**
+ * [OutputStream] which counts the bytes written to the [delegate].
+ */
+private class CountingOutputStream(private val delegate: OutputStream) : OutputStream() {
+
+    var count: Long = 0
+        private set
+
+    override fun write(b: Int) {
+        delegate.write(b)
+        count++
+    }
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        delegate.write(b, off, len)
+        count += len
+    }
+
+    override fun flush() {
+        delegate.flush()
+    }
+
+    override fun close() {
+        delegate.close()
+    }
+}
+
+private fun InputStream.readPrefix(maxBytes: Int): String {
+    val buffer = ByteArray(maxBytes)
+    var length = 0
+    while (length < maxBytes) {
+        val read = read(buffer, length, maxBytes - length)
+        if (read < 0) break
+        length += read
     }
+    return String(buffer, 0, length, Charsets.UTF_8)
 }
@@ -17,8 +17,8 @@ internal interface RetryHeadersProvider {
      *
      * Behaviour:
      * - If no metadata exists → returns empty map (first attempt)
-     * - If stored batchId does not match current batchId → returns empty map (stale metadata)
-     * - If stored batchId matches → returns populated headers
+     * - If no metadata is stored for the current batchId → returns empty map
+     * - If metadata is stored for the current batchId → returns populated headers
      *
      * @param batchId Unique batch identifier (e.g., 0, 1)
      * @param currentTimestampInMillis Current time in milliseconds since epoch
@@ -30,8 +30,8 @@ internal interface RetryHeadersProvider {
      * Records a failed upload attempt for retry tracking.
      *
      * Behaviour:
-     * - If batchId matches stored metadata → increments attempt count
-     * - If batchId differs (or no metadata) → creates new metadata with attempt=1
+     * - If metadata is stored for the batchId → increments attempt count
+     * - If no metadata is stored for the batchId → creates new metadata with attempt=1, keeping the other batches' metadata
      *
      * @param batchId Unique integer identifier of the batch that failed
      * @param timestampInMillis Timestamp of the failed attempt in milliseconds since epoch
@@ -40,11 +40,13 @@ internal interface RetryHeadersProvider {
     suspend fun recordFailure(batchId: Int, timestampInMillis: Long, error: RetryAbleEventUploadError)
 
     /**
-     * Clears all retry metadata.
+     * Clears the retry metadata of the given batch.
      *
      * Call this when:
      * - Batch upload succeeds
      * - Non-retryable error occurs (400, 401, 404, 413)
+     *
+     * @param batchId Unique integer identifier of the batch whose metadata is cleared
      */
-    suspend fun clear()
+    suspend fun clear(batchId: Int)
 }
@@ -1,12 +1,16 @@
 package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.RetryMetadata
+import com.rudderstack.sdk.kotlin.core.internals.models.toJson
 import com.rudderstack.sdk.kotlin.core.internals.network.RetryAbleEventUploadError
 import com.rudderstack.sdk.kotlin.core.internals.network.toRetryReason
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.empty
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
 
 private const val RSA_RETRY_ATTEMPT = "Rsa-Retry-Attempt"
 private const val RSA_SINCE_LAST_ATTEMPT = "Rsa-Since-Last-Attempt"
@@ -28,9 +32,20 @@ private const val MIN_SINCE_LAST_ATTEMPT_IN_MILLIS = 0L
  */
 private const val FIRST_ATTEMPT = 1
 
+/**
+ * Maximum number of batches whose retry metadata is persisted.
+ *
+ * Entries are normally removed once their batch is uploaded or dropped, this only bounds the metadata of batches
+ * which were removed without going through the upload loop.
+ */
+private const val MAX_TRACKED_BATCHES = 32
+
 /**
  * Default implementation of [RetryHeadersProvider] using the existing Storage abstraction.
  *
+ * The metadata of every batch being retried is kept as a separate entry, so that batches uploaded concurrently
+ * each keep their own attempt count.
+ *
  * @param storage Persists metadata across process restarts
  */
 internal class RetryHeadersProviderImpl(
@@ -38,16 +53,19 @@ internal class RetryHeadersProviderImpl(
     private val logger: Logger,
 ) : RetryHeadersProvider {
 
+    // Serialises the read-modify-write of the persisted metadata between concurrent uploads
+    private val mutex = Mutex()
+
     override fun getHeaders(batchId: Int, currentTimestampInMillis: Long): Map<String, String> {
         val metadata = getMetadataForBatch(batchId) ?: return emptyMap()
 
         val elapsedSinceLastAttemptInMillis = currentTimestampInMillis - metadata.lastAttemptTimestampInMillis
         val sinceLastAttemptInMillis = maxOf(MIN_SINCE_LAST_ATTEMPT_IN_MILLIS, elapsedSinceLastAttemptInMillis)
 
-        logger.verbose(
-            "RetryHeadersProvider: Adding retry headers: attempt=${metadata.attempt}, " +
+        logger.verbose {
+            "RetryHeadersProvider: Adding retry headers: batchId=$batchId, attempt=${metadata.attempt}, " +
                 "sinceLastAttempt=${sinceLastAttemptInMillis}ms, reason=${metadata.reason}"
-        )
+        }
 
         return mapOf(
             RSA_RETRY_ATTEMPT to metadata.attempt.toString(),
@@ -57,44 +75,53 @@ internal class RetryHeadersProviderImpl(
     }
 
     override suspend fun recordFailure(batchId: Int, timestampInMillis: Long, error: RetryAbleEventUploadError) {
-        val newAttempt = getMetadataForBatch(batchId)
-            ?.let { it.attempt + 1 }
-            ?: FIRST_ATTEMPT
-
-        val reason = error.toRetryReason()
-
-        val newMetadata = RetryMetadata(
-            batchId = batchId,
-            attempt = newAttempt,
-            lastAttemptTimestampInMillis = timestampInMillis,
-            reason = reason,
-        )
-
-        storage.write(StorageKeys.RETRY_METADATA, newMetadata.toJson())
+        mutex.withLock {
+            val allMetadata = readAllMetadata()
+            val newAttempt = allMetadata.firstOrNull { it.batchId == batchId }
+                ?.let { it.attempt + 1 }
+                ?: FIRST_ATTEMPT
+
+            val newMetadata = RetryMetadata(
+                batchId = batchId,
+                attempt = newAttempt,
+                lastAttemptTimestampInMillis = timestampInMillis,
+                reason = error.toRetryReason(),
+            )
+
+            val updatedMetadata = allMetadata.filterNot { it.batchId == batchId } + newMetadata
+            storage.write(StorageKeys.RETRY_METADATA, updatedMetadata.takeLast(MAX_TRACKED_BATCHES).toJson())
+        }
     }
 
-    override suspend fun clear() {
-        logger.verbose("RetryHeadersProvider: Clearing retry metadata from storage")
-        storage.remove(StorageKeys.RETRY_METADATA)
+    override suspend fun clear(batchId: Int) {
+        mutex.withLock {
+            val allMetadata = readAllMetadata()
+            val remainingMetadata = allMetadata.filterNot { it.batchId == batchId }
+            when {
+                remainingMetadata.isEmpty() -> {
+                    logger.verbose("RetryHeadersProvider: Clearing retry metadata from storage")
+                    storage.remove(StorageKeys.RETRY_METADATA)
+                }
+
+                remainingMetadata.size != allMetadata.size -> {
+                    logger.verbose("RetryHeadersProvider: Clearing retry metadata of batchId=$batchId")
+                    storage.write(StorageKeys.RETRY_METADATA, remainingMetadata.toJson())
+                }
+            }
+        }
     }
 
     private fun getMetadataForBatch(batchId: Int): RetryMetadata? {
-        val metadata = storage.readString(StorageKeys.RETRY_METADATA, String.empty())
-            .takeIf { it.isNotEmpty() }
-            ?.toRetryMetadata(logger)
-            ?: return null
-
-        return if (metadata.batchId == batchId) {
-            metadata
-        } else {
-            logger.verbose("RetryHeadersProvider: Discarding stale retry metadata: batchId mismatch")
+        return readAllMetadata().firstOrNull { it.batchId == batchId } ?: run {
+            logger.verbose("RetryHeadersProvider: No retry metadata found for batchId=$batchId")
             null
         }
     }
-}
 
-/**
- * Extension function to convert JSON string to [RetryMetadata].
- * Improves readability in transformation chains.
- */
-private fun String.toRetryMetadata(logger: Logger): RetryMetadata? = RetryMetadata.fromJson(this, logger)
+    private fun readAllMetadata(): List<RetryMetadata> {
+        return storage.readString(StorageKeys.RETRY_METADATA, String.empty())
+            .takeIf { it.isNotEmpty() }
+            ?.let { RetryMetadata.listFromJson(it, logger) }
+            ?: emptyList()
+    }
+}
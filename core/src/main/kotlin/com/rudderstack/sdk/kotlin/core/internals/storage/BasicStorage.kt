@@ -1,12 +1,17 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage
 
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageDurability
+import com.rudderstack.sdk.kotlin.core.StorageQuota
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
 import com.rudderstack.sdk.kotlin.core.internals.storage.exception.PayloadTooLargeException
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
 import com.rudderstack.sdk.kotlin.core.internals.utils.appendWriteKey
 import source.version.VersionConstants
 import java.io.File
+import java.io.InputStream
 
 /**
  * The directory where the event files are stored.
@@ -22,6 +27,11 @@ private const val FILE_NAME = "events"
  *
  * @param writeKey The key used to create a unique storage directory.
  * @param platformType The platform type used for event file ordering behaviour.
+ * @param durability When the stored events are written to the disk. Unless every event is written as soon as it is stored,
+ * the properties are written behind as well, within the same time window as the events.
+ * @param compressOnRollover Whether to compress the batches when they are completed, so that they are uploaded with GZIP as they are.
+ * @param quota The limits of the backlog of completed batches.
+ * @param maxOpenBatches The maximum number of batches filled at the same time, one per partition.
  * @param storageDirectory The directory where the storage files are kept, determined by the provided `writeKey`.
  * @param eventStorageDirectory The subdirectory within [storageDirectory] where event files are stored.
  * @param propertiesFile The key-value storage implementation.
@@ -32,9 +42,18 @@ internal class BasicStorage(
     writeKey: String,
     platformType: PlatformType,
     private val logger: Logger,
+    durability: StorageDurability = StorageDurability.FlushPerEvent,
+    compressOnRollover: Boolean = false,
+    quota: StorageQuota = StorageQuota(),
+    maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
     private val storageDirectory: File = File(FILE_DIRECTORY.appendWriteKey(writeKey)),
     eventStorageDirectory: File = File(storageDirectory, FILE_NAME),
-    private val propertiesFile: KeyValueStorage = PropertiesFile(storageDirectory, writeKey, logger)
+    private val propertiesFile: KeyValueStorage = PropertiesFile(
+        storageDirectory,
+        writeKey,
+        logger,
+        writeBehindDelayInMillis = durability.writeBehindDelayInMillis,
+    )
         .also {
             // Load properties from the properties file
             it.load()
@@ -45,6 +64,10 @@ internal class BasicStorage(
         keyValueStorage = propertiesFile,
         platformType = platformType,
         logger = logger,
+        maxOpenBatches = maxOpenBatches,
+        durability = durability,
+        compressOnRollover = compressOnRollover,
+        quota = quota,
     ),
 ) : Storage {
 
@@ -56,17 +79,24 @@ internal class BasicStorage(
 
     override suspend fun write(key: StorageKeys, value: String) {
         if (key == StorageKeys.EVENT) {
-            if (value.length < MAX_PAYLOAD_SIZE) {
-                eventsFile.storeEvent(value)
-            } else {
-                logger.warn("BasicStorage: Event payload exceeds MAX_PAYLOAD_SIZE, dropping event")
-                throw PayloadTooLargeException()
-            }
+            writeEvent(value, DEFAULT_PARTITION_KEY)
         } else {
             propertiesFile.save(key.key, value)
         }
     }
 
+    override suspend fun writeEvent(value: String, partitionKey: String): Int {
+        // The payload is encoded once, both to check its size and to write it to the batch
+        val encodedPayload = value.toByteArray()
+        if (encodedPayload.size < MAX_PAYLOAD_SIZE) {
+            eventsFile.storeEvent(value, partitionKey, encodedPayload)
+            return encodedPayload.size
+        } else {
+            logger.warn("BasicStorage: Event payload exceeds MAX_PAYLOAD_SIZE, dropping event")
+            throw PayloadTooLargeException()
+        }
+    }
+
     override suspend fun write(key: StorageKeys, value: Int) {
         if (key != StorageKeys.EVENT) {
             propertiesFile.save(key.key, value)
@@ -83,6 +113,10 @@ internal class BasicStorage(
         propertiesFile.clear(key.key)
     }
 
+    override suspend fun edit(commit: Boolean, block: StorageEditor.() -> Unit) {
+        StorageEditor().apply(block).applyTo(propertiesFile, commit)
+    }
+
     override fun remove(filePath: String) {
         eventsFile.remove(filePath)
     }
@@ -93,6 +127,7 @@ internal class BasicStorage(
 
     override fun close() {
         eventsFile.closeAndReset()
+        propertiesFile.close()
         logger.debug("BasicStorage: Storage closed")
     }
 
@@ -120,10 +155,30 @@ internal class BasicStorage(
         return eventsFile.read()
     }
 
+    override fun readBatchRefs(): List<BatchRef> {
+        return eventsFile.readBatchRefs()
+    }
+
     override fun readBatchContent(batchRef: String): String? {
         return eventsFile.readContent(batchRef)
     }
 
+    override fun readBatchStream(batchRef: String): InputStream? {
+        return eventsFile.readContentStream(batchRef)
+    }
+
+    override fun readCompressedBatchBody(batchRef: String, sentAt: String): RequestBody? {
+        return eventsFile.readCompressedBody(batchRef, sentAt)
+    }
+
+    override fun readEvictionCounters(): EvictionCounters {
+        return eventsFile.readEvictionCounters()
+    }
+
+    override fun readBacklog(): BatchBacklog {
+        return eventsFile.readBacklog()
+    }
+
     override fun getBatchId(batchRef: String): Int = File(batchRef).name.toIntOrNull() ?: 0
 
     override fun getLibraryVersion(): LibraryVersion {
@@ -148,8 +203,38 @@ internal class BasicStorage(
  *
  * @param writeKey The key used to create a unique storage directory.
  * @param platformType The platform type used for event file ordering behaviour.
+ * @param durability When the stored events are written to the disk.
+ * @param compressOnRollover Whether to compress the batches when they are completed, so that they are uploaded with GZIP as they are.
+ * @param quota The limits of the backlog of completed batches.
+ * @param maxOpenBatches The maximum number of batches filled at the same time, one per partition.
  * @return An instance of [BasicStorage] with the provided [writeKey] and [platformType].
  */
-internal fun provideBasicStorage(writeKey: String, platformType: PlatformType, logger: Logger): Storage {
-    return BasicStorage(writeKey = writeKey, platformType = platformType, logger = logger)
+internal fun provideBasicStorage(
+    writeKey: String,
+    platformType: PlatformType,
+    logger: Logger,
+    durability: StorageDurability = StorageDurability.FlushPerEvent,
+    compressOnRollover: Boolean = false,
+    quota: StorageQuota = StorageQuota(),
+    maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
+): Storage {
+    return BasicStorage(
+        writeKey = writeKey,
+        platformType = platformType,
+        logger = logger,
+        maxOpenBatches = maxOpenBatches,
+        durability = durability,
+        compressOnRollover = compressOnRollover,
+        quota = quota,
+    )
 }
+
+/**
+ * The time window within which the changes of the properties are persisted, matching the one of the events.
+ */
+private val StorageDurability.writeBehindDelayInMillis: Long
+    get() = when (this) {
+        is StorageDurability.FlushPerEvent -> 0
+        is StorageDurability.GroupCommit -> maxDelayInMillis
+        is StorageDurability.SyncOnRollover -> groupCommit.maxDelayInMillis
+    }
@@ -0,0 +1,121 @@
+package com.rudderstack.sdk.kotlin.core.internals.storage
+
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.EvictionPolicy
+import com.rudderstack.sdk.kotlin.core.StorageQuota
+import com.rudderstack.sdk.kotlin.core.internals.models.EventType
+import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
+import com.rudderstack.sdk.kotlin.core.internals.utils.LenientJson
+
+/**
+ * A completed batch, along with what is needed to decide whether it has to be evicted.
+ *
+ * @property ref The reference of the batch.
+ * @property size The size of the batch in bytes.
+ * @property createdAt The time in milliseconds at which the first event of the batch was stored.
+ * @property hasPriorityEvents Whether the batch contains events of the priority types of [EvictionPolicy.PriorityAware].
+ */
+internal class CompletedBatch(
+    val ref: BatchRef,
+    val size: Long,
+    val createdAt: Long,
+    val hasPriorityEvents: Boolean = false,
+)
+
+/**
+ * Decides which completed batches have to be evicted to keep the backlog within the [quota], and counts them.
+ *
+ * @property quota The limits of the backlog.
+ * @property currentTimeMillis The source of the current time, used to find the expired batches.
+ */
+internal class BatchEvictor(
+    private val quota: StorageQuota,
+    private val currentTimeMillis: () -> Long = { DateTimeUtils.getSystemCurrentTime() },
+) {
+
+    /**
+     * The `"type":"<type>"` patterns of the priority event types, or empty if the policy doesn't prioritise events.
+     */
+    private val priorityPatterns: List<String> = (quota.evictionPolicy as? EvictionPolicy.PriorityAware)
+        ?.priorityEventTypes
+        ?.map { "\"type\":${LenientJson.encodeToString(EventType.serializer(), it)}" }
+        .orEmpty()
+
+    private var counters = EvictionCounters()
+
+    /**
+     * Returns `true` if no batch can ever be evicted, so that the backlog doesn't need to be checked.
+     */
+    val isUnlimited: Boolean
+        get() = quota.isUnlimited
+
+    /**
+     * The batches evicted so far.
+     */
+    val evictionCounters: EvictionCounters
+        get() = synchronized(this) { counters }
+
+    /**
+     * Returns `true` if the serialised [eventPayload] is of one of the priority event types.
+     * Always `false` if the eviction policy doesn't prioritise events.
+     */
+    fun isPriorityEvent(eventPayload: String): Boolean {
+        return priorityPatterns.any { eventPayload.contains(it) }
+    }
+
+    /**
+     * Selects the batches to evict from the [batches], which are in upload order, and counts them as evicted.
+     *
+     * The batches which aren't [evictable], e.g. because they are being uploaded, still count towards the quota, but
+     * are never selected.
+     *
+     * @param batches The completed batches, oldest first.
+     * @param evictable Whether the batch can be evicted. Defaults to every batch.
+     * @return The batches to evict, which the caller is responsible for removing.
+     */
+    fun selectEvictions(
+        batches: Collection<CompletedBatch>,
+        evictable: (CompletedBatch) -> Boolean = { true },
+    ): List<CompletedBatch> {
+        if (isUnlimited) return emptyList()
+
+        val now = currentTimeMillis()
+        val (expired, retained) = batches.partition { now - it.createdAt > quota.maxAgeInMillis && evictable(it) }
+        val candidates = ArrayDeque(retained.filter(evictable))
+        var remainingBatches = retained.size
+        var remainingBytes = retained.sumOf { it.size }
+        val overQuota = mutableListOf<CompletedBatch>()
+        while (candidates.isNotEmpty() && (remainingBatches > quota.maxBatches || remainingBytes > quota.maxBytes)) {
+            val batch = selectOverQuota(candidates)
+            candidates.remove(batch)
+            remainingBatches--
+            remainingBytes -= batch.size
+            overQuota += batch
+        }
+
+        if (expired.isNotEmpty() || overQuota.isNotEmpty()) {
+            count(expired, overQuota)
+        }
+        return expired + overQuota
+    }
+
+    private fun selectOverQuota(remaining: ArrayDeque<CompletedBatch>): CompletedBatch {
+        return when (quota.evictionPolicy) {
+            is EvictionPolicy.DropOldest -> remaining.first()
+            is EvictionPolicy.DropNewest -> remaining.last()
+            is EvictionPolicy.PriorityAware -> remaining.firstOrNull { !it.hasPriorityEvents } ?: remaining.first()
+        }
+    }
+
+    private fun count(expired: List<CompletedBatch>, overQuota: List<CompletedBatch>) {
+        val evicted = expired + overQuota
+        synchronized(this) {
+            counters = counters.copy(
+                expiredBatches = counters.expiredBatches + expired.size,
+                overQuotaBatches = counters.overQuotaBatches + overQuota.size,
+                priorityBatches = counters.priorityBatches + evicted.count { it.hasPriorityEvents },
+                evictedBytes = counters.evictedBytes + evicted.sumOf { it.size },
+            )
+        }
+    }
+}
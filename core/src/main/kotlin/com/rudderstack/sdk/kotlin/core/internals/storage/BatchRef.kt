@@ -0,0 +1,30 @@
+package com.rudderstack.sdk.kotlin.core.internals.storage
+
+import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+
+/**
+ * A reference to a completed batch, which is ready to be uploaded.
+ *
+ * @property ref The reference (path/key) of the batch, used to read and remove it from the [Storage].
+ * @property id The ID of the batch, which increases with every batch created by the storage.
+ * @property partitionKey The key of the partition the events of the batch belong to, i.e. their anonymousId, or null if
+ * the batch is shared by all the partitions or its partition is unknown, e.g. for a batch left over by a previous process.
+ */
+@InternalRudderApi
+data class BatchRef(
+    val ref: String,
+    val id: Int,
+    val partitionKey: String? = null,
+)
+
+/**
+ * The backlog of completed batches, which are waiting to be uploaded.
+ *
+ * @property batchCount The number of completed batches.
+ * @property bytes The number of bytes taken up by the completed batches.
+ */
+@InternalRudderApi
+data class BatchBacklog(
+    val batchCount: Int = 0,
+    val bytes: Long = 0,
+)
@@ -0,0 +1,433 @@
+package com.rudderstack.sdk.kotlin.core.internals.storage
+
+import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
+import com.rudderstack.sdk.kotlin.core.internals.utils.JsonSentAtUpdater
+import java.io.ByteArrayInputStream
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.FileInputStream
+import java.io.FileOutputStream
+import java.io.FilterInputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
+import java.io.RandomAccessFile
+import java.util.zip.CRC32
+import java.util.zip.Deflater
+import java.util.zip.Inflater
+import java.util.zip.InflaterInputStream
+
+/**
+ * The suffix of a compressed batch file which is still being written.
+ */
+internal const val COMPRESSED_TMP_SUFFIX = ".gz.tmp"
+
+/**
+ * The first bytes of a compressed batch file. A raw batch file always starts with `{`, so the two can't be confused.
+ */
+private val COMPRESSED_BATCH_MAGIC = byteArrayOf(0x00, 'R'.code.toByte(), 'S'.code.toByte(), 'Z'.code.toByte())
+
+/**
+ * The byte compressed in place of every character of a sentAt placeholder. It can't appear anywhere else in a batch,
+ * as JSON escapes control characters, so the compressed data never refers back to a placeholder.
+ */
+private const val FILLER_BYTE: Byte = 0x01
+private val PLACEHOLDER_BYTES = DEFAULT_SENT_AT_TIMESTAMP.toByteArray()
+private val FILLER_BYTES = ByteArray(PLACEHOLDER_BYTES.size) { FILLER_BYTE }
+
+private const val GZIP_ENCODING = "gzip"
+// A GZIP member header without a file name, modification time or extra fields, as written by GZIPOutputStream
+@Suppress("MagicNumber")
+private val GZIP_HEADER = byteArrayOf(0x1f, 0x8b.toByte(), 0x08, 0, 0, 0, 0, 0, 0, 0xff.toByte())
+private const val GZIP_TRAILER_SIZE = 8
+private const val STORED_BLOCK_HEADER_SIZE = 5
+private const val BYTE_MASK = 0xff
+private const val UNSIGNED_INT_MASK = 0xffffffffL
+private const val BUFFER_SIZE = 8 * 1024
+
+private const val CRC32_POLYNOMIAL = 0xedb88320L
+private const val CRC32_BITS = 32
+
+/**
+ * Compresses the raw batch [source] into [target], so that it can be uploaded with GZIP on every attempt without being
+ * compressed again.
+ *
+ * The batch is compressed as a raw deflate stream, which is flushed to a byte boundary around every sentAt placeholder.
+ * The position of every placeholder in the compressed data is recorded, along with the checksum of the content between
+ * the placeholders, so that the actual sentAt can be spliced in as a stored block when the batch is uploaded.
+ *
+ * The compressed batch file is laid out as
+ * `[magic][deflate stream][slot count][slot start, slot end]*[segment crc, segment length]*[trailer offset]`,
+ * where the slot offsets are relative to the start of the deflate stream.
+ *
+ * @param source The raw batch file to compress.
+ * @param target The file to write the compressed batch to.
+ * @param sync Whether to force the compressed batch to the storage device once it is written.
+ * @throws IOException If the batch can't be read or written.
+ * @throws IllegalArgumentException If the batch contains a byte reserved for the placeholders.
+ */
+internal fun compressBatch(source: File, target: File, sync: Boolean) {
+    FileOutputStream(target).use { fileOutputStream ->
+        val output = DataOutputStream(fileOutputStream.buffered(BUFFER_SIZE))
+        output.write(COMPRESSED_BATCH_MAGIC)
+
+        val deflater = SlotDeflater(output)
+        FileInputStream(source).use { input ->
+            val bufferedDeflater = deflater.buffered(BUFFER_SIZE)
+            JsonSentAtUpdater.copyWithSentAtSlots(input, bufferedDeflater, BUFFER_SIZE) {
+                bufferedDeflater.flush()
+                deflater.writeSlot()
+            }
+            bufferedDeflater.flush()
+        }
+        deflater.finish()
+
+        output.writeInt(deflater.slots.size)
+        deflater.slots.forEach { slot ->
+            output.writeLong(slot.start)
+            output.writeLong(slot.end)
+        }
+        deflater.segments.forEach { segment ->
+            output.writeInt(segment.crc.toInt())
+            output.writeLong(segment.length)
+        }
+        output.writeLong(COMPRESSED_BATCH_MAGIC.size + deflater.compressedSize)
+        output.flush()
+        if (sync) fileOutputStream.fd.sync()
+    }
+}
+
+/**
+ * Returns `true` if this file is a batch compressed with [compressBatch], `false` if it's a raw batch or doesn't exist.
+ */
+@Suppress("SwallowedException")
+internal fun File.isCompressedBatch(): Boolean {
+    return try {
+        DataInputStream(FileInputStream(this)).use { input ->
+            val magic = ByteArray(COMPRESSED_BATCH_MAGIC.size)
+            input.readFully(magic)
+            magic.contentEquals(COMPRESSED_BATCH_MAGIC)
+        }
+    } catch (e: IOException) {
+        false
+    }
+}
+
+/**
+ * A batch compressed with [compressBatch], which can be read back as its raw content or uploaded with GZIP.
+ */
+internal class CompressedBatch private constructor(
+    private val file: File,
+    private val compressedSize: Long,
+    private val slots: List<Slot>,
+    private val segments: List<Segment>,
+) {
+
+    companion object {
+
+        /**
+         * Opens the compressed batch [file] by reading the positions of its placeholders.
+         *
+         * @throws IOException If the file doesn't exist or isn't a complete compressed batch.
+         */
+        fun open(file: File): CompressedBatch {
+            RandomAccessFile(file, "r").use { randomAccessFile ->
+                val trailerEnd = randomAccessFile.length() - Long.SIZE_BYTES
+                randomAccessFile.seek(trailerEnd)
+                val trailerOffset = randomAccessFile.readLong()
+                if (trailerOffset !in COMPRESSED_BATCH_MAGIC.size..trailerEnd) {
+                    throw IOException("Invalid compressed batch: ${file.name}")
+                }
+                val trailer = ByteArray((trailerEnd - trailerOffset).toInt())
+                randomAccessFile.seek(trailerOffset)
+                randomAccessFile.readFully(trailer)
+
+                val input = DataInputStream(ByteArrayInputStream(trailer))
+                val slotCount = input.readInt()
+                val slots = List(slotCount) { Slot(start = input.readLong(), end = input.readLong()) }
+                val segments = List(slotCount + 1) {
+                    Segment(crc = input.readInt().toLong() and UNSIGNED_INT_MASK, length = input.readLong())
+                }
+                return CompressedBatch(file, trailerOffset - COMPRESSED_BATCH_MAGIC.size, slots, segments)
+            }
+        }
+    }
+
+    /**
+     * Opens a stream over the raw content of the batch, with the default sentAt placeholders in place.
+     */
+    fun openContentStream(): InputStream {
+        val input = FileInputStream(file).buffered(BUFFER_SIZE)
+        input.transferExactly(null, COMPRESSED_BATCH_MAGIC.size.toLong())
+        return PlaceholderRestoringInputStream(
+            object : InflaterInputStream(input, Inflater(true), BUFFER_SIZE) {
+                override fun close() {
+                    super.close()
+                    inf.end()
+                }
+            }
+        )
+    }
+
+    /**
+     * Creates a GZIP encoded [RequestBody] of the batch, with [sentAt] spliced in place of the placeholders.
+     *
+     * @return The request body, or `null` if [sentAt] doesn't have the length of a placeholder.
+     */
+    fun toRequestBody(sentAt: String): RequestBody? {
+        val sentAtBytes = sentAt.toByteArray()
+        if (sentAtBytes.size != PLACEHOLDER_BYTES.size) return null
+
+        return object : RequestBody {
+            override val contentLength: Long =
+                GZIP_HEADER.size + compressedSize - slots.sumOf { it.end - it.start } +
+                    slots.size * (STORED_BLOCK_HEADER_SIZE + sentAtBytes.size) + GZIP_TRAILER_SIZE
+
+            override val contentEncoding: String = GZIP_ENCODING
+
+            override fun writeTo(outputStream: OutputStream) {
+                writeGzip(outputStream, sentAtBytes)
+            }
+        }
+    }
+
+    private fun writeGzip(output: OutputStream, sentAt: ByteArray) {
+        FileInputStream(file).buffered(BUFFER_SIZE).use { input ->
+            input.transferExactly(null, COMPRESSED_BATCH_MAGIC.size.toLong())
+            output.write(GZIP_HEADER)
+            var position = 0L
+            slots.forEach { slot ->
+                input.transferExactly(output, slot.start - position)
+                input.transferExactly(null, slot.end - slot.start)
+                output.write(storedBlockHeader(sentAt.size))
+                output.write(sentAt)
+                position = slot.end
+            }
+            input.transferExactly(output, compressedSize - position)
+        }
+        output.writeIntLittleEndian(crc32With(sentAt))
+        output.writeIntLittleEndian(segments.sumOf { it.length } + slots.size * sentAt.size)
+        output.flush()
+    }
+
+    /**
+     * Computes the CRC32 of the raw content with [sentAt] in place of the placeholders, from the CRC32 of the segments.
+     */
+    private fun crc32With(sentAt: ByteArray): Long {
+        val sentAtCrc = CRC32().apply { update(sentAt) }.value
+        return segments.drop(1).fold(segments.first().crc) { crc, segment ->
+            crc32Combine(crc32Combine(crc, sentAtCrc, sentAt.size.toLong()), segment.crc, segment.length)
+        }
+    }
+}
+
+/**
+ * The range of the compressed data in which a placeholder is compressed, relative to the start of the deflate stream.
+ */
+private class Slot(val start: Long, val end: Long)
+
+/**
+ * The CRC32 and length of the raw content before, between or after the placeholders.
+ */
+private class Segment(val crc: Long, val length: Long)
+
+/**
+ * An [OutputStream] which compresses the raw content of a batch into [output] as a raw deflate stream,
+ * keeping track of the [slots] and [segments] of the placeholders.
+ */
+private class SlotDeflater(private val output: OutputStream) : OutputStream() {
+
+    private val deflater = Deflater(Deflater.DEFAULT_COMPRESSION, true)
+    private val buffer = ByteArray(BUFFER_SIZE)
+    private val segmentCrc = CRC32()
+    private var segmentLength = 0L
+
+    val slots = mutableListOf<Slot>()
+    val segments = mutableListOf<Segment>()
+
+    /**
+     * The number of compressed bytes written to [output] so far.
+     */
+    var compressedSize = 0L
+        private set
+
+    override fun write(b: Int) {
+        write(byteArrayOf(b.toByte()), 0, 1)
+    }
+
+    override fun write(b: ByteArray, off: Int, len: Int) {
+        for (index in off until off + len) {
+            require(b[index] != FILLER_BYTE) { "Batch contains a byte reserved for the sentAt placeholders" }
+        }
+        segmentCrc.update(b, off, len)
+        segmentLength += len
+        deflate(b, off, len)
+    }
+
+    /**
+     * Compresses a placeholder into its own byte-aligned range of the compressed data.
+     */
+    fun writeSlot() {
+        endSegment()
+        drain(Deflater.SYNC_FLUSH)
+        val start = compressedSize
+        deflate(FILLER_BYTES, 0, FILLER_BYTES.size)
+        drain(Deflater.SYNC_FLUSH)
+        slots += Slot(start = start, end = compressedSize)
+    }
+
+    /**
+     * Completes the deflate stream. The [output] is neither flushed nor closed.
+     */
+    fun finish() {
+        endSegment()
+        deflater.finish()
+        while (!deflater.finished()) {
+            writeCompressed(deflater.deflate(buffer))
+        }
+        deflater.end()
+    }
+
+    private fun endSegment() {
+        segments += Segment(crc = segmentCrc.value, length = segmentLength)
+        segmentCrc.reset()
+        segmentLength = 0
+    }
+
+    private fun deflate(b: ByteArray, off: Int, len: Int) {
+        deflater.setInput(b, off, len)
+        while (!deflater.needsInput()) {
+            writeCompressed(deflater.deflate(buffer, 0, buffer.size, Deflater.NO_FLUSH))
+        }
+    }
+
+    private fun drain(flush: Int) {
+        do {
+            val count = deflater.deflate(buffer, 0, buffer.size, flush)
+            writeCompressed(count)
+        } while (count == buffer.size)
+    }
+
+    private fun writeCompressed(count: Int) {
+        output.write(buffer, 0, count)
+        compressedSize += count
+    }
+}
+
+/**
+ * An [InputStream] which restores the sentAt placeholders in the inflated content of a compressed batch.
+ */
+private class PlaceholderRestoringInputStream(input: InputStream) : FilterInputStream(input) {
+
+    private var placeholderIndex = 0
+
+    override fun read(): Int {
+        val byte = super.read()
+        return if (byte == -1) byte else restore(byte.toByte()).toInt() and BYTE_MASK
+    }
+
+    override fun read(b: ByteArray, off: Int, len: Int): Int {
+        val count = super.read(b, off, len)
+        for (index in off until off + count) {
+            b[index] = restore(b[index])
+        }
+        return count
+    }
+
+    private fun restore(byte: Byte): Byte {
+        if (byte != FILLER_BYTE) {
+            placeholderIndex = 0
+            return byte
+        }
+        return PLACEHOLDER_BYTES[placeholderIndex].also {
+            placeholderIndex = (placeholderIndex + 1) % PLACEHOLDER_BYTES.size
+        }
+    }
+}
+
+/**
+ * Returns the header of a non-final stored deflate block of [length] bytes, starting at a byte boundary.
+ */
+private fun storedBlockHeader(length: Int): ByteArray = byteArrayOf(
+    0x00,
+    (length and BYTE_MASK).toByte(),
+    (length shr Byte.SIZE_BITS and BYTE_MASK).toByte(),
+    (length.inv() and BYTE_MASK).toByte(),
+    (length.inv() shr Byte.SIZE_BITS and BYTE_MASK).toByte(),
+)
+
+/**
+ * Copies exactly [count] bytes from this stream to [output], or skips them if [output] is `null`.
+ */
+private fun InputStream.transferExactly(output: OutputStream?, count: Long) {
+    val buffer = ByteArray(BUFFER_SIZE)
+    var remaining = count
+    while (remaining > 0) {
+        val read = read(buffer, 0, minOf(remaining, buffer.size.toLong()).toInt())
+        if (read == -1) throw EOFException("Compressed batch ended unexpectedly")
+        output?.write(buffer, 0, read)
+        remaining -= read
+    }
+}
+
+private fun OutputStream.writeIntLittleEndian(value: Long) {
+    repeat(Int.SIZE_BYTES) { write((value shr (it * Byte.SIZE_BITS)).toInt() and BYTE_MASK) }
+}
+
+/**
+ * Combines the CRC32 [crc1] of a first block of data with the CRC32 [crc2] of a second block of [length2] bytes
+ * into the CRC32 of both blocks, as done by zlib's `crc32_combine`.
+ */
+internal fun crc32Combine(crc1: Long, crc2: Long, length2: Long): Long {
+    if (length2 <= 0) return crc1
+
+    val even = LongArray(CRC32_BITS)
+    // The operator for one zero bit
+    val odd = LongArray(CRC32_BITS)
+    odd[0] = CRC32_POLYNOMIAL
+    var row = 1L
+    for (n in 1 until CRC32_BITS) {
+        odd[n] = row
+        row = row shl 1
+    }
+    // The operators for two and four zero bits
+    even.gf2MatrixSquare(odd)
+    odd.gf2MatrixSquare(even)
+
+    // Apply length2 zero bytes to crc1, squaring the operator for every bit of length2
+    var crc = crc1
+    var length = length2
+    do {
+        even.gf2MatrixSquare(odd)
+        if ((length and 1L) != 0L) crc = even.gf2MatrixTimes(crc)
+        length = length shr 1
+        if (length == 0L) break
+
+        odd.gf2MatrixSquare(even)
+        if ((length and 1L) != 0L) crc = odd.gf2MatrixTimes(crc)
+        length = length shr 1
+    } while (length != 0L)
+
+    return crc xor crc2
+}
+
+private fun LongArray.gf2MatrixTimes(vector: Long): Long {
+    var sum = 0L
+    var remaining = vector
+    var index = 0
+    while (remaining != 0L) {
+        if ((remaining and 1L) != 0L) sum = sum xor this[index]
+        remaining = remaining ushr 1
+        index++
+    }
+    return sum
+}
+
+private fun LongArray.gf2MatrixSquare(matrix: LongArray) {
+    for (n in 0 until CRC32_BITS) {
+        this[n] = matrix.gf2MatrixTimes(matrix[n])
+    }
+}
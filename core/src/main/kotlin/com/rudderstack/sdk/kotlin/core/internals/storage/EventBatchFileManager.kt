@@ -1,19 +1,46 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage
 
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageDurability
+import com.rudderstack.sdk.kotlin.core.StorageQuota
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.debug
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
+import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+import com.rudderstack.sdk.kotlin.core.internals.utils.empty
 import com.rudderstack.sdk.kotlin.core.internals.utils.toFileDirectory
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancelChildren
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.sync.Semaphore
 import org.jetbrains.annotations.VisibleForTesting
+import java.io.BufferedOutputStream
 import java.io.File
+import java.io.FileInputStream
+import java.io.FileNotFoundException
 import java.io.FileOutputStream
+import java.io.IOException
+import java.io.InputStream
+import java.io.OutputStream
 
 internal const val FILE_INDEX = "rudderstack.event.file.index."
+internal const val BATCH_METADATA = "rudderstack.event.batch.metadata."
 private const val BATCH_PREFIX = "{\"batch\":["
+private val EVENT_SEPARATOR = ",".toByteArray()
 internal const val BATCH_SENT_AT_SUFFIX = "],\"sentAt\":\""
 internal const val TMP_SUFFIX = ".tmp"
+private const val LOAD_FACTOR = 0.75f
+
+// The number of batch file indexes reserved each time the file index is persisted
+private const val FILE_INDEX_RESERVATION_SIZE = 64
 
 /**
  * Manages the creation, storage, and management of event batch files within a specified directory.
@@ -21,12 +48,39 @@ internal const val TMP_SUFFIX = ".tmp"
  * The [EventBatchFileManager] handles batching events into files, ensuring that individual files do not exceed
  * a predefined size. It supports operations such as storing events, reading batch files, and rolling over to new files.
  *
+ * Events are partitioned by a key (typically the event's anonymousId), and up to [maxOpenBatches] batch files are kept
+ * open at the same time, one per partition. This lets interleaved events of different users fill their own batches
+ * instead of forcing a rollover every time the partition key changes. When the limit is reached, the least recently
+ * written batch is finalised to make room for the new partition.
+ *
+ * The completed batches are tracked in an in-memory index, which is built from the directory on initialisation and
+ * kept up to date on rollover and removal, so that listing them never needs to scan the directory.
+ *
+ * The completed batches are kept within the [quota]: whenever a batch is completed or the batches are listed for upload,
+ * the expired batches and the batches exceeding the quota are evicted, as decided by its eviction policy. The batches
+ * listed for upload are never evicted while they are being uploaded. Unless the quota is unlimited, the time at which
+ * every batch was started and whether it holds priority events are kept in the [keyValueStorage], so that they survive
+ * a restart.
+ *
+ * How often the stored events are written to the disk depends on the [durability]. With
+ * [StorageDurability.GroupCommit] the events are buffered and written together once a threshold is reached,
+ * which bounds the number of events a crash can lose while making a single write out of many events.
+ *
+ * With [compressOnRollover] every batch is compressed once when it is completed, so that it is uploaded with GZIP
+ * without being compressed again on every attempt. The compressed batches are read back as raw content transparently.
+ *
  * @property directory The directory where batch files are stored.
  * @property writeKey A unique key used to name and identify batch files.
- * @property keyValueStorage A [KeyValueStorage] instance for storing and retrieving file index information.
- * @property platformType The platform type (Mobile/Server) used to determine file ordering behaviour. Server-side
- * environments require sorting by numeric index as file system ordering is not guaranteed, whilst Android's native
- * file storage preserves order.
+ * @property keyValueStorage A [KeyValueStorage] instance for storing and retrieving file index and batch information.
+ * @property platformType The platform type (Mobile/Server) used to determine the order of the batch files found on
+ * initialisation. Server-side environments require sorting by numeric index as file system ordering is not guaranteed,
+ * whilst Android's native file storage preserves order.
+ * @property maxOpenBatches The maximum number of partitions that can have an open batch file at the same time.
+ * @property durability When the stored events are written to the disk. Defaults to [StorageDurability.FlushPerEvent].
+ * @property compressOnRollover Whether to compress the batches when they are completed. Defaults to `false`.
+ * @property quota The limits of the completed batches kept in the directory. Defaults to no limit.
+ * @property commitScope The scope in which the pending events are written once the time window of a group commit expires.
+ * Only the jobs launched by this manager are cancelled on [closeAndReset], so the scope can be shared.
  */
 @Suppress("Detekt.TooManyFunctions")
 @InternalRudderApi
@@ -36,97 +90,180 @@ class EventBatchFileManager(
     private val keyValueStorage: KeyValueStorage,
     private val platformType: PlatformType,
     private val logger: Logger,
+    private val maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
+    private val durability: StorageDurability = StorageDurability.FlushPerEvent,
+    private val compressOnRollover: Boolean = false,
+    quota: StorageQuota = StorageQuota(),
+    private val commitScope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
 ) {
 
     /**
-     * The key used to store the index of the current batch file.
+     * The key used to store the index of the next batch file.
      */
     private val fileIndexKey = writeKey.toFileDirectory(FILE_INDEX)
 
     /**
-     * The current file output stream used for writing to the active batch file.
+     * The prefix of the keys used to store the [BatchMetadata] of every batch, which are followed by the batch index.
+     */
+    private val batchMetadataKeyPrefix = writeKey.toFileDirectory(BATCH_METADATA)
+
+    /**
+     * The index of the next batch file, and the index up to which the indexes are reserved in the [keyValueStorage].
+     * The indexes are reserved in blocks, so that the file index isn't persisted every time a batch is opened.
+     */
+    private var nextFileIndex = 0
+    private var reservedFileIndexLimit = 0
+
+    /**
+     * The batch files currently being written to, keyed by partition, in least recently written order.
+     */
+    private val openBatches = LinkedHashMap<String, OpenBatchFile>(maxOpenBatches, LOAD_FACTOR, true)
+
+    /**
+     * The index of the completed batches, keyed by their path, in the order they have to be uploaded.
+     * Access is synchronized on the map itself, as batches are completed and removed from different threads.
      */
-    private var os: FileOutputStream? = null
+    private val completedBatches = LinkedHashMap<String, CompletedBatch>()
 
     /**
-     * The current batch file being written to.
+     * The paths of the completed batches handed to the uploader by the latest [readBatchRefs], which aren't removed yet.
+     * They are never evicted, as they may be uploading. Access is synchronized on the [completedBatches].
      */
-    private var curFile: File? = null
+    private val handedOutBatches = HashSet<String>()
+
+    /**
+     * Decides which completed batches have to be evicted to keep them within the quota.
+     */
+    private val evictor = BatchEvictor(quota)
 
     /**
      * A semaphore to control concurrent access to file operations.
      */
     private val semaphore = Semaphore(1)
 
+    /**
+     * The thresholds of the group commit, or null if every event is written as soon as it is stored.
+     */
+    private val groupCommit: StorageDurability.GroupCommit? = when (durability) {
+        is StorageDurability.FlushPerEvent -> null
+        is StorageDurability.GroupCommit -> durability
+        is StorageDurability.SyncOnRollover -> durability.groupCommit
+    }
+
+    /**
+     * The number of events and bytes buffered since the last group commit.
+     */
+    private var pendingEvents = 0
+    private var pendingBytes = 0L
+
+    /**
+     * The job which commits the pending events once the time window of the group commit expires.
+     */
+    private var commitJob: Job? = null
+
+    /**
+     * The parent of the jobs committing the pending events in the background, which are cancelled on [closeAndReset].
+     */
+    private val commitJobs = SupervisorJob(commitScope.coroutineContext[Job])
+
     init {
-        // Create the directory if it does not exist and register a shutdown hook to close the file output stream.
+        // Create the directory if it does not exist, finalise the batch files left open by a previous process and
+        // index all the completed batch files.
         createDirectory(directory)
+        recoverOpenBatchFiles()
+        buildIndex()
     }
 
     /**
-     * Stores an event payload in the current batch file. If the current file exceeds the maximum batch size,
-     * a new file is created.
+     * Stores an event payload in the open batch file of the given partition. If the batch file exceeds the maximum
+     * batch size, it is finalised and a new file is created for the partition.
      *
      * @param eventPayload The event payload to be stored.
+     * @param partitionKey The key of the partition the event belongs to. Defaults to a single shared partition.
+     * @param encodedPayload The event payload encoded as UTF-8, if the caller already encoded it.
      * @throws Exception If there is an issue with file operations.
      */
-    suspend fun storeEvent(eventPayload: String) = withLock {
-        var newFile = false
-        var file = currentFile()
+    suspend fun storeEvent(
+        eventPayload: String,
+        partitionKey: String = DEFAULT_PARTITION_KEY,
+        encodedPayload: ByteArray = eventPayload.toByteArray(),
+    ) = withLock {
+        var batch = openBatches[partitionKey] ?: openBatch(partitionKey)
 
-        if (!file.exists()) {
-            file.createNewFile()
-            start(file)
-            newFile = true
-            logger.debug("EventBatchFileManager: Created new batch file: ${file.name}")
-        }
-
-        if (file.length() > MAX_BATCH_SIZE) {
+        if (batch.size > MAX_BATCH_SIZE) {
             logger.debug("EventBatchFileManager: Batch file size exceeded threshold, rolling over")
-            finish()
-            file = currentFile()
-            file.createNewFile()
-            start(file)
-            newFile = true
-            logger.debug("EventBatchFileManager: Created new batch file: ${file.name}")
+            finish(partitionKey)
+            batch = openBatch(partitionKey)
         }
 
-        val contents = if (newFile) eventPayload else ",$eventPayload"
-        writeToFile(contents.toByteArray(), file)
+        val contents = if (batch.isEmpty) encodedPayload else EVENT_SEPARATOR + encodedPayload
+        batch.isEmpty = false
+        if (!evictor.isUnlimited && !batch.hasPriorityEvents && evictor.isPriorityEvent(eventPayload)) {
+            batch.hasPriorityEvents = true
+            saveMetadata(batch)
+        }
+        writeToFile(contents, batch)
+        groupCommit?.let { commitIfNeeded(it, contents.size) }
     }
 
     /**
-     * Reads the list of batch files in the directory that are associated with the given write key.
-     * For [PlatformType.Server], files are sorted by their numeric batch index to ensure correct upload order.
-     * For [PlatformType.Mobile], files are returned in file system order as Android preserves order.
+     * Reads the list of completed batch files, in the order they have to be uploaded.
      *
      * @return A list of file paths for the batch files.
      */
     fun read(): List<String> {
-        val files = directory.listFiles { _, name ->
-            !name.endsWith(TMP_SUFFIX)
-        } ?: emptyArray()
+        return synchronized(completedBatches) {
+            evictIfNeeded()
+            completedBatches.keys.toList()
+        }
+    }
 
-        val orderedFiles = when (platformType) {
-            PlatformType.Server ->
-                files
-                    .map { file -> file to (file.nameWithoutExtension.toIntOrNull() ?: Int.MAX_VALUE) }
-                    .sortedBy { (_, index) -> index }
-                    .map { (file, _) -> file }
+    /**
+     * Reads the references of the completed batch files from the in-memory index, in the order they have to be uploaded.
+     * The batch files found on initialisation come first, followed by the batch files in the order they were completed.
+     * The batch files which have expired are evicted first.
+     *
+     * The listed batch files are handed to the uploader: they aren't evicted until they are removed, or until the
+     * next call lists the batch files for the next upload pass.
+     *
+     * @return A list of [BatchRef] of the completed batch files.
+     */
+    fun readBatchRefs(): List<BatchRef> {
+        return synchronized(completedBatches) {
+            evictIfNeeded()
+            handedOutBatches.clear()
+            completedBatches.values.map { it.ref }.onEach { handedOutBatches.add(it.ref) }
+        }
+    }
 
-            PlatformType.Mobile -> files.toList()
+    /**
+     * Returns the number of completed batch files evicted so far to keep them within the quota.
+     */
+    fun readEvictionCounters(): EvictionCounters = evictor.evictionCounters
+
+    /**
+     * Returns the number of completed batch files and the bytes they take up, without evicting any of them.
+     */
+    fun readBacklog(): BatchBacklog {
+        return synchronized(completedBatches) {
+            BatchBacklog(batchCount = completedBatches.size, bytes = completedBatches.values.sumOf { it.size })
         }
-        return orderedFiles.map { it.absolutePath }
     }
 
     /**
-     * Removes a specific batch file from the directory.
+     * Removes a specific batch file from the directory and from the index.
      *
      * @param filePath The path of the file to be removed.
      * @return `true` if the file was successfully deleted, `false` otherwise.
      */
     fun remove(filePath: String): Boolean {
-        return File(filePath).delete()
+        synchronized(completedBatches) {
+            completedBatches.remove(filePath)
+            handedOutBatches.remove(filePath)
+        }
+        val file = File(filePath)
+        clearMetadata(file)
+        return file.delete()
     }
 
     /**
@@ -136,104 +273,382 @@ class EventBatchFileManager(
      * @return The batch content as a String, or null if the file does not exist.
      */
     fun readContent(filePath: String): String? {
-        return File(filePath).takeIf {
-            it.exists()
-        }?.readText()
+        return readContentStream(filePath)?.use { it.reader().readText() }
+    }
+
+    /**
+     * Opens a stream to read the content of a batch file, decompressing it if it was compressed on rollover.
+     *
+     * @param filePath The path of the batch file to read.
+     * @return An [InputStream] over the batch content, or null if the file does not exist.
+     */
+    @Suppress("SwallowedException")
+    fun readContentStream(filePath: String): InputStream? {
+        val file = File(filePath)
+        return try {
+            if (file.isCompressedBatch()) CompressedBatch.open(file).openContentStream() else FileInputStream(file)
+        } catch (e: FileNotFoundException) {
+            null
+        }
+    }
+
+    /**
+     * Reads a batch file which was compressed on rollover as a GZIP encoded [RequestBody], with [sentAt] in place of the
+     * default sentAt timestamps.
+     *
+     * @param filePath The path of the batch file to read.
+     * @param sentAt The sentAt timestamp of the upload attempt.
+     * @return The GZIP encoded body of the batch, or null if the file does not exist or wasn't compressed.
+     */
+    fun readCompressedBody(filePath: String, sentAt: String): RequestBody? {
+        val file = File(filePath)
+        if (!file.isCompressedBatch()) return null
+        return try {
+            CompressedBatch.open(file).toRequestBody(sentAt)
+        } catch (e: IOException) {
+            logger.warn("EventBatchFileManager: Failed to read compressed batch file: ${file.name}: ${e.message}")
+            null
+        }
     }
 
     /**
-     * Completes the current batch file and prepares for the next batch. Renames the file and increments the file index.
+     * Completes all the open batch files and prepares for the next batches. Renames the files so that they can be uploaded.
      */
     suspend fun rollover() = withLock {
         finish()
     }
 
     /**
-     * Increments the index used to name batch files.
+     * Takes the index for a new batch file. Once the reserved indexes run out, the next [FILE_INDEX_RESERVATION_SIZE]
+     * indexes are reserved by persisting the index following them, so that they are never reused by the next process.
+     *
+     * @return The index of the new batch file.
      */
-    private fun incrementFileIndex() {
-        val index = keyValueStorage.getInt(fileIndexKey, 0)
-        keyValueStorage.save(fileIndexKey, index + 1)
+    private fun reserveFileIndex(): Int {
+        if (nextFileIndex >= reservedFileIndexLimit) {
+            nextFileIndex = maxOf(nextFileIndex, keyValueStorage.getInt(fileIndexKey, 0))
+            reservedFileIndexLimit = nextFileIndex + FILE_INDEX_RESERVATION_SIZE
+            keyValueStorage.save(fileIndexKey, reservedFileIndexLimit)
+        }
+        return nextFileIndex++
+    }
+
+    /**
+     * Opens a batch file for the given partition, finalising the least recently written batch if the limit of open
+     * batches has been reached.
+     *
+     * If a temporary file already exists for the reserved index, it is resumed instead of being started again.
+     *
+     * @param partitionKey The key of the partition to open the batch for.
+     * @return The opened batch file.
+     */
+    private fun openBatch(partitionKey: String): OpenBatchFile {
+        if (openBatches.size >= maxOpenBatches) {
+            openBatches.keys.first().let { leastRecentPartition ->
+                logger.debug("EventBatchFileManager: Maximum open batches reached, finalising least recent batch")
+                finish(leastRecentPartition)
+            }
+        }
+
+        val file = File(directory, "${reserveFileIndex()}$TMP_SUFFIX")
+        val bufferSize = groupCommit?.let { bufferSizeOf(it) }
+        val batch = if (!file.exists()) {
+            file.createNewFile()
+            OpenBatchFile(
+                file,
+                bufferSize,
+                createdAt = DateTimeUtils.getSystemCurrentTime(),
+                partitionKey = partitionKey.takeUnless { it == DEFAULT_PARTITION_KEY },
+            ).also { batch ->
+                start(batch)
+                if (!evictor.isUnlimited) saveMetadata(batch)
+                logger.debug { "EventBatchFileManager: Created new batch file: ${file.name}" }
+            }
+        } else {
+            // The events already in the file may belong to another partition, so the partition of the batch is unknown
+            resume(file, bufferSize).apply { isEmpty = false }
+        }
+        openBatches[partitionKey] = batch
+        return batch
     }
 
     /**
      * Starts a new batch file with the batch prefix.
      *
-     * @param file The file to start writing to.
+     * @param batch The batch file to start writing to.
      */
-    @VisibleForTesting
-    fun start(file: File) {
-        writeToFile(BATCH_PREFIX.toByteArray(), file)
+    private fun start(batch: OpenBatchFile) {
+        writeToFile(BATCH_PREFIX.toByteArray(), batch)
     }
 
     /**
-     * Completes the current batch file with a timestamp and renames it.
+     * Completes all the open batch files with a timestamp and renames them.
      */
     @VisibleForTesting
     fun finish() {
-        val file = currentFile()
-        if (!file.exists()) return
+        openBatches.keys.toList().forEach { finish(it) }
+        resetPendingEvents()
+    }
+
+    /**
+     * Completes the open batch file of the given partition with a timestamp and renames it.
+     *
+     * @param partitionKey The key of the partition whose batch has to be finalised.
+     */
+    private fun finish(partitionKey: String) {
+        val batch = openBatches.remove(partitionKey) ?: return
+        finalise(batch)
+    }
+
+    private fun finalise(batch: OpenBatchFile) {
+        val file = batch.file
+        if (!file.exists()) {
+            batch.close()
+            return
+        }
         val contents = "$BATCH_SENT_AT_SUFFIX$DEFAULT_SENT_AT_TIMESTAMP\"}"
-        writeToFile(contents.toByteArray(), file)
-        val renamed = file.renameTo(File(directory, file.nameWithoutExtension))
-        if (renamed) {
-            logger.debug("EventBatchFileManager: Batch file finalized: ${file.name}")
+        writeToFile(contents.toByteArray(), batch)
+        if (durability is StorageDurability.SyncOnRollover) {
+            sync(batch)
+        }
+        batch.close()
+        val completedFile = File(directory, file.nameWithoutExtension)
+        if ((compressOnRollover && compress(file, completedFile)) || file.renameTo(completedFile)) {
+            index(completedFile, batch.createdAt, batch.hasPriorityEvents, batch.partitionKey)
+            synchronized(completedBatches) { evictIfNeeded() }
+            logger.debug { "EventBatchFileManager: Batch file finalized: ${file.name}" }
         } else {
             logger.warn("EventBatchFileManager: Failed to rename batch file: ${file.name}")
         }
-        os?.close()
-        incrementFileIndex()
-        reset()
     }
 
     /**
-     * Returns the current batch file, creating it if necessary.
+     * Compresses the finalised batch [file] into [completedFile] and deletes it. The batch is compressed into a temporary
+     * file first, so that a crash never leaves a partially compressed batch behind.
+     *
+     * @param file The finalised batch file.
+     * @param completedFile The file to which the batch is completed.
+     * @return `true` if the batch was compressed, `false` if it has to be completed without compression.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private fun compress(file: File, completedFile: File): Boolean {
+        val compressedFile = File(directory, "${completedFile.name}$COMPRESSED_TMP_SUFFIX")
+        try {
+            compressBatch(file, compressedFile, sync = durability is StorageDurability.SyncOnRollover)
+        } catch (e: Exception) {
+            logger.warn("EventBatchFileManager: Failed to compress batch file: ${file.name}: ${e.message}")
+            compressedFile.delete()
+            return false
+        }
+        if (!compressedFile.renameTo(completedFile)) {
+            compressedFile.delete()
+            return false
+        }
+        file.delete()
+        return true
+    }
+
+    /**
+     * Finalises the temporary batch files which were left open by a previous process, and moves the file index past all
+     * the batch files so that their names are never reused, even if the latest index was lost along with the process.
+     */
+    private fun recoverOpenBatchFiles() {
+        // Partially compressed batches are dropped, as the batch files they were compressed from are still there
+        directory.listFiles { _, name -> name.endsWith(COMPRESSED_TMP_SUFFIX) }?.forEach { it.delete() }
+        val openFiles = directory.listFiles { _, name -> name.endsWith(TMP_SUFFIX) }.orEmpty()
+
+        openFiles.forEach { file ->
+            // A batch file which was compressed, but not deleted yet, has been completed already
+            if (File(directory, file.nameWithoutExtension).exists()) {
+                file.delete()
+            } else {
+                finalise(resume(file, bufferSize = null))
+            }
+        }
+        val nextIndex = (directory.listFiles()?.maxOfOrNull { it.name.substringBefore('.').toIntOrNull() ?: -1 } ?: -1) + 1
+        if (nextIndex > keyValueStorage.getInt(fileIndexKey, 0)) {
+            keyValueStorage.save(fileIndexKey, nextIndex)
+        }
+        if (openFiles.isNotEmpty()) {
+            logger.debug("EventBatchFileManager: Recovered ${openFiles.size} open batch file(s)")
+        }
+    }
+
+    /**
+     * Builds the index of the completed batch files from the directory.
+     * For [PlatformType.Server], files are sorted by their numeric batch index to ensure correct upload order.
+     * For [PlatformType.Mobile], files are kept in file system order as Android preserves order.
+     */
+    private fun buildIndex() {
+        val files = directory.listFiles { _, name -> !name.endsWith(TMP_SUFFIX) } ?: emptyArray()
+
+        val orderedFiles = when (platformType) {
+            PlatformType.Server -> files.sortedBy { it.nameWithoutExtension.toIntOrNull() ?: Int.MAX_VALUE }
+            PlatformType.Mobile -> files.toList()
+        }
+        synchronized(completedBatches) {
+            completedBatches.clear()
+            orderedFiles.forEach { file ->
+                val metadata = readMetadata(file)
+                index(file, metadata.createdAt, metadata.hasPriorityEvents)
+            }
+            evictIfNeeded()
+        }
+    }
+
+    /**
+     * Returns the batch file started by a previous process, with the [BatchMetadata] it was stored with.
+     *
+     * @param file The temporary batch file.
+     * @param bufferSize The size of the write buffer, or null if every write goes straight to the file.
+     */
+    private fun resume(file: File, bufferSize: Int?): OpenBatchFile {
+        val metadata = readMetadata(file)
+        return OpenBatchFile(file, bufferSize, metadata.createdAt, metadata.hasPriorityEvents)
+    }
+
+    /**
+     * Reads the [BatchMetadata] of the batch file. If it wasn't stored, e.g. because the batch file was written by an
+     * older version, the batch is taken to be started when the file was last modified, without priority events.
+     */
+    private fun readMetadata(file: File): BatchMetadata {
+        return BatchMetadata.decode(keyValueStorage.getString(metadataKeyOf(file), String.empty()))
+            ?: BatchMetadata(createdAt = file.lastModified(), hasPriorityEvents = false)
+    }
+
+    private fun saveMetadata(batch: OpenBatchFile) {
+        keyValueStorage.save(metadataKeyOf(batch.file), BatchMetadata(batch.createdAt, batch.hasPriorityEvents).encode())
+    }
+
+    // Nothing is stored while the quota is unlimited, unless it was bounded when the batch was started
+    private fun clearMetadata(file: File) {
+        val key = metadataKeyOf(file)
+        if (keyValueStorage.getString(key, String.empty()).isNotEmpty()) keyValueStorage.clear(key)
+    }
+
+    // The temporary and the completed batch files share the key, as they are both named after the batch index
+    private fun metadataKeyOf(file: File): String = "$batchMetadataKeyPrefix.${file.name.substringBefore('.')}"
+
+    /**
+     * Adds the completed batch file to the end of the index.
      *
-     * @return The current batch file.
+     * @param file The completed batch file.
+     * @param createdAt The time in milliseconds at which the first event of the batch was stored.
+     * @param hasPriorityEvents Whether the batch contains events of the priority types of the eviction policy.
+     * @param partitionKey The key of the partition the events of the batch belong to, or null if it is unknown.
+     */
+    private fun index(file: File, createdAt: Long, hasPriorityEvents: Boolean = false, partitionKey: String? = null) {
+        val batchRef = BatchRef(ref = file.absolutePath, id = file.name.toIntOrNull() ?: 0, partitionKey = partitionKey)
+        val batch = CompletedBatch(batchRef, size = file.length(), createdAt = createdAt, hasPriorityEvents = hasPriorityEvents)
+        synchronized(completedBatches) { completedBatches[batchRef.ref] = batch }
+    }
+
+    /**
+     * Evicts the completed batch files which have expired or exceed the quota, except the ones handed to the uploader.
+     * Must be called while holding the lock of the [completedBatches].
      */
-    private fun currentFile(): File {
-        if (curFile == null) {
-            val index = keyValueStorage.getInt(fileIndexKey, 0)
-            curFile = File(directory, "$index$TMP_SUFFIX")
+    private fun evictIfNeeded() {
+        if (evictor.isUnlimited) return
+        val evicted = evictor.selectEvictions(completedBatches.values) { it.ref.ref !in handedOutBatches }
+        if (evicted.isEmpty()) return
+
+        evicted.forEach { batch ->
+            completedBatches.remove(batch.ref.ref)
+            File(batch.ref.ref).let { file ->
+                clearMetadata(file)
+                file.delete()
+            }
         }
-        return curFile!!
+        logger.warn(
+            "EventBatchFileManager: Evicted ${evicted.size} batch file(s) of ${evicted.sumOf { it.size }} bytes " +
+                "to stay within the storage quota"
+        )
     }
 
     /**
-     * Writes the given content to the specified file, appending to the existing content if the file is already open.
+     * Writes the given content to the specified batch file, appending to the existing content if the file is already open.
+     * With a group commit the content is buffered until the pending events are committed.
      *
      * @param content The content to write.
-     * @param file The file to write to.
+     * @param batch The batch file to write to.
      */
     @Suppress("TooGenericExceptionCaught")
-    private fun writeToFile(content: ByteArray, file: File) {
+    private fun writeToFile(content: ByteArray, batch: OpenBatchFile) {
         try {
-            if (os == null) {
-                os = FileOutputStream(file, true)
-            }
-            os?.apply {
-                write(content)
-                flush()
-            }
+            batch.outputStream().write(content)
+            batch.size += content.size
         } catch (e: Exception) {
-            logger.error("EventBatchFileManager: Failed to write to batch file: ${file.name}: ${e.message}", e)
+            logger.error("EventBatchFileManager: Failed to write to batch file: ${batch.file.name}: ${e.message}", e)
         }
     }
 
     /**
-     * Resets the state of the file output stream and the current file reference.
+     * Forces the content of the batch file to the storage device.
+     *
+     * @param batch The batch file to sync.
      */
-    private fun reset() {
-        os = null
-        curFile = null
+    @Suppress("TooGenericExceptionCaught")
+    private fun sync(batch: OpenBatchFile) {
+        try {
+            batch.sync()
+        } catch (e: Exception) {
+            logger.error("EventBatchFileManager: Failed to sync batch file: ${batch.file.name}: ${e.message}", e)
+        }
+    }
+
+    /**
+     * Commits the pending events if one of the thresholds of the [groupCommit] is reached, otherwise makes sure they are
+     * committed once its time window expires.
+     *
+     * @param groupCommit The thresholds of the group commit.
+     * @param eventSize The size in bytes of the event which has just been stored.
+     */
+    private fun commitIfNeeded(groupCommit: StorageDurability.GroupCommit, eventSize: Int) {
+        pendingEvents++
+        pendingBytes += eventSize
+        if (pendingEvents >= groupCommit.maxEvents || pendingBytes >= groupCommit.maxBytes) {
+            commit()
+        } else if (commitJob == null) {
+            commitJob = commitScope.launch(commitJobs) {
+                delay(groupCommit.maxDelayInMillis)
+                withLock { commit() }
+            }
+        }
+    }
+
+    /**
+     * Writes the events buffered in all the open batch files to the disk.
+     */
+    @Suppress("TooGenericExceptionCaught")
+    private fun commit() {
+        openBatches.values.forEach { batch ->
+            try {
+                batch.flush()
+            } catch (e: Exception) {
+                logger.error("EventBatchFileManager: Failed to commit batch file: ${batch.file.name}: ${e.message}", e)
+            }
+        }
+        logger.verbose { "EventBatchFileManager: Committed $pendingEvents pending event(s)" }
+        resetPendingEvents()
+    }
+
+    private fun resetPendingEvents() {
+        pendingEvents = 0
+        pendingBytes = 0
+        commitJob?.cancel()
+        commitJob = null
     }
 
     /**
-     * Closes the current file output stream and resets the state of the file output stream and the current file reference.
+     * Closes the output streams of the open batch files, which writes their pending events, and forgets them.
+     * The jobs committing the pending events in the background are cancelled, as nothing is left to commit.
+     * The files are finalised on the next initialisation.
      */
     fun closeAndReset() {
-        os?.close()
-        reset()
+        openBatches.values.forEach { it.close() }
+        openBatches.clear()
+        resetPendingEvents()
+        commitJobs.cancelChildren()
     }
 
     /**
@@ -261,3 +676,87 @@ class EventBatchFileManager(
         }
     }
 }
+
+/**
+ * Returns the size of the write buffer of each open batch file for the given group commit. The buffer never needs to
+ * hold more than a batch, so it is capped to keep the memory used by [DEFAULT_MAX_OPEN_BATCHES] open batches bounded.
+ */
+private fun bufferSizeOf(groupCommit: StorageDurability.GroupCommit): Int =
+    groupCommit.maxBytes.coerceAtMost(MAX_BATCH_SIZE)
+
+/**
+ * What is needed to decide whether a batch has to be evicted, besides its size, which is kept along with the batch.
+ *
+ * @property createdAt The time in milliseconds at which the first event of the batch was stored.
+ * @property hasPriorityEvents Whether the batch contains events of the priority types of the eviction policy.
+ */
+private class BatchMetadata(val createdAt: Long, val hasPriorityEvents: Boolean) {
+
+    fun encode(): String = "$createdAt,$hasPriorityEvents"
+
+    companion object {
+
+        /**
+         * Decodes the [BatchMetadata] encoded by [encode], or returns null if [value] isn't one.
+         */
+        fun decode(value: String): BatchMetadata? {
+            val createdAt = value.substringBefore(',').toLongOrNull() ?: return null
+            val hasPriorityEvents = value.substringAfter(',').toBooleanStrictOrNull() ?: return null
+            return BatchMetadata(createdAt, hasPriorityEvents)
+        }
+    }
+}
+
+/**
+ * A batch file which is currently being written to, along with its output stream.
+ *
+ * @property file The temporary batch file.
+ * @property bufferSize The size of the write buffer, or null if every write goes straight to the file.
+ * @property createdAt The time in milliseconds at which the first event of the batch was stored.
+ * @property hasPriorityEvents Whether the batch contains events of the priority types of the eviction policy.
+ * @property partitionKey The key of the partition the events of the batch belong to, or null if it is unknown or shared.
+ */
+private class OpenBatchFile(
+    val file: File,
+    private val bufferSize: Int?,
+    val createdAt: Long,
+    var hasPriorityEvents: Boolean = false,
+    val partitionKey: String? = null,
+) {
+
+    /**
+     * Whether no event has been written to the batch yet.
+     */
+    var isEmpty: Boolean = true
+
+    /**
+     * The size in bytes of the batch, including the content which is still buffered.
+     */
+    var size: Long = file.length()
+
+    private var fileOutputStream: FileOutputStream? = null
+    private var os: OutputStream? = null
+
+    fun outputStream(): OutputStream = os ?: FileOutputStream(file, true).let { stream ->
+        fileOutputStream = stream
+        (bufferSize?.let { BufferedOutputStream(stream, it) } ?: stream).also { os = it }
+    }
+
+    fun flush() {
+        os?.flush()
+    }
+
+    /**
+     * Writes the buffered content and forces the file to the storage device.
+     */
+    fun sync() {
+        flush()
+        fileOutputStream?.fd?.sync()
+    }
+
+    fun close() {
+        os?.close()
+        os = null
+        fileOutputStream = null
+    }
+}
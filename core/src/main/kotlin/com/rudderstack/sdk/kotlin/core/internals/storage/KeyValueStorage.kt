@@ -107,6 +107,45 @@ interface KeyValueStorage {
      */
     fun clear(key: String)
 
+    /**
+     * Applies all the changes made by the [block] together, e.g. with a single write of the underlying file, instead of
+     * persisting every value on its own. The values are readable as soon as this method returns.
+     *
+     * By default the changes are applied one by one with [save] and [clear].
+     *
+     * ```kotlin
+     * keyValueStorage.edit {
+     *     put("session_id", sessionId)
+     *     remove("is_session_manual")
+     * }
+     * ```
+     *
+     * @param commit `true` to persist the changes before returning, `false` to allow them to be persisted asynchronously
+     * if the implementation supports it.
+     * @param block The changes to apply, see [KeyValueEditor].
+     */
+    fun edit(commit: Boolean = true, block: KeyValueEditor.() -> Unit) {
+        KeyValueEditor().apply(block).applyTo(this)
+    }
+
+    /**
+     * Persists the changes which have been made but not persisted yet, for the implementations which persist them lazily.
+     *
+     * The values are always readable as soon as they are saved, whether they have been persisted or not.
+     * Does nothing by default.
+     */
+    fun flush() {}
+
+    /**
+     * Persists the pending changes like [flush], and stops persisting the changes in the background, as the storage is
+     * no longer used, e.g. on shutdown. The changes made afterwards are persisted as soon as they are made.
+     *
+     * Only flushes by default.
+     */
+    fun close() {
+        flush()
+    }
+
     /**
      * This method deletes the shared preferences file entirely to ensure a clean state.
      *
@@ -115,3 +154,79 @@ interface KeyValueStorage {
     @UseWithCaution
     fun delete()
 }
+
+/**
+ * Collects the changes applied together by [KeyValueStorage.edit].
+ *
+ * Only the latest change of every key is applied, and the keys are changed in the order in which they were first changed.
+ */
+@InternalRudderApi
+class KeyValueEditor {
+
+    // The latest value of every changed key, or null if it was removed
+    private val changes = LinkedHashMap<String, Any?>()
+
+    /**
+     * Sets the integer [value] of the [key].
+     */
+    fun put(key: String, value: Int) {
+        changes[key] = value
+    }
+
+    /**
+     * Sets the boolean [value] of the [key].
+     */
+    fun put(key: String, value: Boolean) {
+        changes[key] = value
+    }
+
+    /**
+     * Sets the string [value] of the [key].
+     */
+    fun put(key: String, value: String) {
+        changes[key] = value
+    }
+
+    /**
+     * Sets the long [value] of the [key].
+     */
+    fun put(key: String, value: Long) {
+        changes[key] = value
+    }
+
+    /**
+     * Removes the value of the [key].
+     */
+    fun remove(key: String) {
+        changes[key] = null
+    }
+
+    /**
+     * Sets the [value] of the [key], which is one of the supported types, or removes it if [value] is `null`.
+     */
+    internal fun set(key: String, value: Any?) {
+        changes[key] = value
+    }
+
+    /**
+     * Calls the [action] for every changed key with its latest value, which is `null` if the key was removed.
+     */
+    fun forEachChange(action: (key: String, value: Any?) -> Unit) {
+        changes.forEach { (key, value) -> action(key, value) }
+    }
+
+    /**
+     * Applies the changes to the [storage] one by one.
+     */
+    internal fun applyTo(storage: KeyValueStorage) {
+        forEachChange { key, value ->
+            when (value) {
+                null -> storage.clear(key)
+                is Int -> storage.save(key, value)
+                is Boolean -> storage.save(key, value)
+                is String -> storage.save(key, value)
+                is Long -> storage.save(key, value)
+            }
+        }
+    }
+}
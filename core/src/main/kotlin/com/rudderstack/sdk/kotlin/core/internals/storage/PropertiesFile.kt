@@ -1,30 +1,83 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
 import com.rudderstack.sdk.kotlin.core.internals.utils.toPropertiesFileName
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
 import java.io.File
 import java.io.FileInputStream
 import java.io.FileOutputStream
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
 import java.util.Properties
 
 private const val PROPERTIES_PREFIX = "rudder"
 private const val PROPERTIES_SUFFIX = ".properties"
 
+/**
+ * A [KeyValueStorage] backed by a `java.util.Properties` file.
+ *
+ * The properties held in memory are always authoritative, and every change is persisted by writing a snapshot of all the
+ * properties to a temporary file which then atomically replaces the properties file, so that a crash never leaves it half
+ * written.
+ *
+ * By default every change is persisted as soon as it is made. With a positive [writeBehindDelayInMillis], the changes
+ * are persisted in the background instead, together with all the changes made in the meantime, at most
+ * [writeBehindDelayInMillis] milliseconds after the first of them, or when [flush] or [close] is called. A crash of the
+ * process loses the changes which weren't persisted yet.
+ *
+ * @property logger The logger used to report the failures to load or persist the properties.
+ * @property writeBehindDelayInMillis The maximum time in milliseconds a change is kept in memory only, or `0` to persist
+ * every change as soon as it is made.
+ * @property persistScope The scope in which the changes are persisted once the write-behind delay expires. Only the jobs
+ * launched by this file are cancelled on [close], so the scope can be shared.
+ */
+@Suppress("Detekt.TooManyFunctions")
 internal class PropertiesFile(
     directory: File,
     writeKey: String,
     private val logger: Logger,
+    private val writeBehindDelayInMillis: Long = 0,
+    private val persistScope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
 ) : KeyValueStorage {
 
     private var properties: Properties = Properties()
     private val propsFile = File(directory, writeKey.toPropertiesFileName(PROPERTIES_PREFIX, PROPERTIES_SUFFIX))
+    private val tmpFile = File(directory, "${propsFile.name}$TMP_SUFFIX")
+
+    /**
+     * Whether some changes weren't persisted yet, which is only tracked in write-behind mode.
+     * Guarded by the lock of this object, along with [persistJob].
+     */
+    private var hasPendingChanges = false
+    private var persistJob: Job? = null
+
+    /**
+     * The parent of the jobs persisting the changes in the background, which are cancelled on [close].
+     */
+    private val persistJobs = SupervisorJob(persistScope.coroutineContext[Job])
+
+    @Volatile
+    private var isClosed = false
+
+    /**
+     * Serialises the writes of the properties file.
+     */
+    private val persistLock = Any()
 
     /**
      * Loads properties from the file. If the file does not exist or fails to load, it creates a new file.
      */
     @Suppress("TooGenericExceptionCaught")
     internal fun load() {
+        // A snapshot left over by a crash while it was being written is incomplete, the properties file is still intact
+        tmpFile.delete()
         if (propsFile.exists()) {
             try {
                 FileInputStream(propsFile).use {
@@ -41,16 +94,81 @@ internal class PropertiesFile(
     }
 
     /**
-     * Saves the current properties to the file.
+     * Persists the changes, either right away or, in write-behind mode, once the write-behind delay expires.
+     * Once closed, the changes are always persisted right away.
+     *
+     * @param commit `false` to persist the changes in the background, even when not in write-behind mode.
+     */
+    private fun persistChanges(commit: Boolean = true) {
+        if (isClosed || (writeBehindDelayInMillis <= 0 && commit)) {
+            persist()
+            return
+        }
+        if (writeBehindDelayInMillis <= 0) {
+            persistScope.launch(persistJobs) { persist() }
+            return
+        }
+        synchronized(this) {
+            hasPendingChanges = true
+            if (persistJob == null) {
+                persistJob = persistScope.launch(persistJobs) {
+                    delay(writeBehindDelayInMillis)
+                    flush()
+                }
+            }
+        }
+    }
+
+    /**
+     * Persists the changes which are pending in write-behind mode. Does nothing if there are none.
+     */
+    override fun flush() {
+        if (!synchronized(this) { takePendingChanges() }) return
+
+        persist()
+        logger.verbose { "PropertiesFile: Persisted the pending changes" }
+    }
+
+    /**
+     * Persists the pending changes, and cancels the jobs persisting the changes in the background.
+     */
+    override fun close() {
+        isClosed = true
+        flush()
+        persistJobs.cancel()
+    }
+
+    /**
+     * Returns whether some changes weren't persisted yet, and forgets them along with the scheduled persist.
+     * Must be called while holding the lock of this object.
+     */
+    private fun takePendingChanges(): Boolean {
+        persistJob?.cancel()
+        persistJob = null
+        return hasPendingChanges.also { hasPendingChanges = false }
+    }
+
+    /**
+     * Writes a snapshot of the current properties to a temporary file, and atomically replaces the properties file with it.
      */
     @Suppress("TooGenericExceptionCaught")
-    private fun save() {
-        try {
-            FileOutputStream(propsFile).use {
-                properties.store(it, null)
+    private fun persist() {
+        synchronized(persistLock) {
+            try {
+                val snapshot = properties.clone() as Properties
+                FileOutputStream(tmpFile).use {
+                    snapshot.store(it, null)
+                }
+                Files.move(
+                    tmpFile.toPath(),
+                    propsFile.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING,
+                )
+            } catch (e: Exception) {
+                tmpFile.delete()
+                logger.error("PropertiesFile: Failed to save properties to ${propsFile.absolutePath}", e)
             }
-        } catch (e: Exception) {
-            logger.error("PropertiesFile: Failed to save properties to ${propsFile.absolutePath}", e)
         }
     }
 
@@ -84,31 +202,44 @@ internal class PropertiesFile(
 
     override fun save(key: String, value: Int) {
         properties.setProperty(key, value.toString())
-        save()
+        persistChanges()
     }
 
     override fun save(key: String, value: Boolean) {
         properties.setProperty(key, value.toString())
-        save()
+        persistChanges()
     }
 
     override fun save(key: String, value: String) {
         properties.setProperty(key, value)
-        save()
+        persistChanges()
     }
 
     override fun save(key: String, value: Long) {
         properties.setProperty(key, value.toString())
-        save()
+        persistChanges()
     }
 
     override fun clear(key: String) {
         properties.remove(key)
-        save()
+        persistChanges()
+    }
+
+    /**
+     * Applies all the changes made by the [block] to the properties, and persists them with a single write of the file.
+     */
+    override fun edit(commit: Boolean, block: KeyValueEditor.() -> Unit) {
+        var hasChanges = false
+        KeyValueEditor().apply(block).forEachChange { key, value ->
+            if (value == null) properties.remove(key) else properties.setProperty(key, value.toString())
+            hasChanges = true
+        }
+        if (hasChanges) persistChanges(commit = commit)
     }
 
     @UseWithCaution
     override fun delete() {
+        synchronized(this) { takePendingChanges() }
         propsFile.deleteRecursively().let { isDeleted ->
             logger.debug("PropertiesFile: Properties file deleted: $isDeleted")
         }
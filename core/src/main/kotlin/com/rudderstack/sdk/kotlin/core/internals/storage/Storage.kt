@@ -1,8 +1,12 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage
 
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageQuota
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
 import com.rudderstack.sdk.kotlin.core.internals.utils.empty
+import java.io.InputStream
 
 /**
  * MAX_PAYLOAD_SIZE represents the maximum size in bytes for a single event payload.
@@ -14,6 +18,17 @@ const val MAX_PAYLOAD_SIZE = 32 * 1024 // 32 KB
  */
 const val MAX_BATCH_SIZE = 500 * 1024 // 500 KB
 
+/**
+ * DEFAULT_MAX_OPEN_BATCHES represents the default number of partitions which can have an open batch at the same time,
+ * see [com.rudderstack.sdk.kotlin.core.BatchPartitioning.ByAnonymousId].
+ */
+const val DEFAULT_MAX_OPEN_BATCHES = 32
+
+/**
+ * DEFAULT_PARTITION_KEY is the partition used for events which are stored without a partition key.
+ */
+internal const val DEFAULT_PARTITION_KEY = ""
+
 /**
  * Interface representing a generic storage system for reading and writing data.
  *
@@ -59,6 +74,18 @@ interface Storage {
      */
     suspend fun write(key: StorageKeys, value: String)
 
+    /**
+     * Writes an event payload to the open batch of the given partition.
+     *
+     * Events with different partition keys never share a batch, so each batch can be uploaded
+     * with the identity of its partition. Batches of different partitions are filled independently.
+     *
+     * @param value The serialized event payload to write.
+     * @param partitionKey The key the batches are partitioned by, typically the anonymousId of the event.
+     * @return The size in bytes of the payload once encoded as UTF-8, as it is written to the batch.
+     */
+    suspend fun writeEvent(value: String, partitionKey: String): Int
+
     /**
      * Removes the value associated with the given key from the storage.
      *
@@ -66,6 +93,20 @@ interface Storage {
      */
     suspend fun remove(key: StorageKeys)
 
+    /**
+     * Writes and removes all the values changed by the [block] together, instead of persisting every value on its own.
+     * Events can't be written this way, [StorageKeys.EVENT] is ignored.
+     *
+     * By default the changes are applied one by one with [write] and [remove].
+     *
+     * @param commit `true` to persist the changes before returning, `false` to allow them to be persisted asynchronously.
+     * The values are readable as soon as this method returns either way.
+     * @param block The changes to apply, see [StorageEditor].
+     */
+    suspend fun edit(commit: Boolean = true, block: StorageEditor.() -> Unit) {
+        StorageEditor().apply(block).applyTo(this)
+    }
+
     /**
      * Optionally performs a rollover operation. This method can be used to handle
      * any necessary actions when the storage needs to be rolled over, such as archiving
@@ -129,6 +170,19 @@ interface Storage {
      */
     fun readFileList(): List<String>
 
+    /**
+     * Reads the references of the completed batches, in the order they have to be uploaded.
+     *
+     * Implementations keep the references in memory, so this is cheap to call on every flush
+     * even with a large backlog of batches.
+     *
+     * The listed batches are handed to the uploader, so they are not evicted to stay within the quota until they are
+     * removed, or until the next call lists the batches for the next upload pass.
+     *
+     * @return A list of [BatchRef] of the completed batches.
+     */
+    fun readBatchRefs(): List<BatchRef>
+
     /**
      * Reads the content of a batch.
      *
@@ -137,6 +191,39 @@ interface Storage {
      */
     fun readBatchContent(batchRef: String): String?
 
+    /**
+     * Opens a stream to read the content of a batch, so that it can be uploaded without loading it in memory as a whole.
+     * The caller is responsible for closing the stream.
+     *
+     * @param batchRef The reference (path/key) of the batch to read.
+     * @return An [InputStream] over the batch content, or null if the batch does not exist.
+     */
+    fun readBatchStream(batchRef: String): InputStream?
+
+    /**
+     * Reads a batch which was compressed when it was completed as a GZIP encoded [RequestBody], with the given [sentAt]
+     * in place of the default sentAt timestamps, so that it can be uploaded without being compressed again.
+     *
+     * @param batchRef The reference (path/key) of the batch to read.
+     * @param sentAt The sentAt timestamp of the upload attempt.
+     * @return The GZIP encoded body of the batch, or null if the batch does not exist or wasn't compressed.
+     */
+    fun readCompressedBatchBody(batchRef: String, sentAt: String): RequestBody? = null
+
+    /**
+     * Returns the number of completed batches evicted so far to keep the backlog within its [StorageQuota].
+     *
+     * @return The [EvictionCounters] of the storage, all zero if the storage never evicts batches.
+     */
+    fun readEvictionCounters(): EvictionCounters = EvictionCounters()
+
+    /**
+     * Returns the backlog of completed batches waiting to be uploaded, which is sampled to report the SDK metrics.
+     *
+     * @return The [BatchBacklog] of the storage. The bytes are zero if the storage doesn't track the size of its batches.
+     */
+    fun readBacklog(): BatchBacklog = BatchBacklog(batchCount = readBatchRefs().size)
+
     /**
      * Extracts the batch ID from a batch file reference.
      *
@@ -165,6 +252,73 @@ interface Storage {
     fun delete()
 }
 
+/**
+ * Collects the changes applied together by [Storage.edit].
+ *
+ * Only the latest change of every key is applied, and the keys are changed in the order in which they were first changed.
+ */
+@InternalRudderApi
+class StorageEditor {
+
+    // The latest value of every changed key, or null if it was removed
+    private val edits = LinkedHashMap<StorageKeys, Any?>()
+
+    /**
+     * Writes the Boolean [value] of the [key].
+     */
+    fun write(key: StorageKeys, value: Boolean) = change(key, value)
+
+    /**
+     * Writes the Int [value] of the [key].
+     */
+    fun write(key: StorageKeys, value: Int) = change(key, value)
+
+    /**
+     * Writes the Long [value] of the [key].
+     */
+    fun write(key: StorageKeys, value: Long) = change(key, value)
+
+    /**
+     * Writes the String [value] of the [key].
+     */
+    fun write(key: StorageKeys, value: String) = change(key, value)
+
+    /**
+     * Removes the value of the [key].
+     */
+    fun remove(key: StorageKeys) = change(key, null)
+
+    private fun change(key: StorageKeys, value: Any?) {
+        if (key != StorageKeys.EVENT) {
+            edits[key] = value
+        }
+    }
+
+    /**
+     * Applies the changes to the [keyValueStorage] with a single [KeyValueStorage.edit].
+     */
+    fun applyTo(keyValueStorage: KeyValueStorage, commit: Boolean) {
+        keyValueStorage.edit(commit) {
+            edits.forEach { (key, value) -> set(key.key, value) }
+        }
+    }
+
+    /**
+     * Applies the changes to the [storage] one by one.
+     */
+    suspend fun applyTo(storage: Storage) {
+        edits.forEach { (key, value) ->
+            when (value) {
+                null -> storage.remove(key)
+                is Boolean -> storage.write(key, value)
+                is Int -> storage.write(key, value)
+                is Long -> storage.write(key, value)
+                is String -> storage.write(key, value)
+            }
+        }
+    }
+}
+
 /**
  * Enum representing the available storage keys.
  *
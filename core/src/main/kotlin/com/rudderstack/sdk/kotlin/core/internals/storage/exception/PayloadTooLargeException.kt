@@ -1,6 +1,13 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage.exception
 
-internal class PayloadTooLargeException(
+import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
+
+/**
+ * Thrown by a [com.rudderstack.sdk.kotlin.core.internals.storage.Storage] when an event is larger than the maximum size
+ * of an event, so that it is dropped.
+ */
+@InternalRudderApi
+open class PayloadTooLargeException(
     message: String = "Enqueued payload is too large",
     cause: Throwable? = null
 ) : Exception(message, cause)
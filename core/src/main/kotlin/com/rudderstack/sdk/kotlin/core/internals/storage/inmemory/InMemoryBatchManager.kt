@@ -1,17 +1,29 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage.inmemory
 
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageQuota
+import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
 import com.rudderstack.sdk.kotlin.core.internals.storage.BATCH_SENT_AT_SUFFIX
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchBacklog
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchEvictor
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
+import com.rudderstack.sdk.kotlin.core.internals.storage.CompletedBatch
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_MAX_OPEN_BATCHES
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_PARTITION_KEY
 import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueStorage
 import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_BATCH_SIZE
 import com.rudderstack.sdk.kotlin.core.internals.storage.TMP_SUFFIX
+import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
 import com.rudderstack.sdk.kotlin.core.internals.utils.toFileDirectory
 import kotlinx.coroutines.sync.Semaphore
 import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.ConcurrentSkipListMap
 
 internal const val BATCH_INDEX = "rudderstack.event.batch.index."
 private const val BATCH_PREFIX = "{\"batch\":["
+private const val LOAD_FACTOR = 0.75f
 
 /**
  * Manages event batches in memory, providing a similar interface to [com.rudderstack.sdk.kotlin.core.internals.storage.EventBatchFileManager]
@@ -20,17 +32,30 @@ private const val BATCH_PREFIX = "{\"batch\":["
  * This class is useful for in-memory storage implementations where events need to be
  * batched and managed without persisting to disk.
  *
+ * Like the file based manager, events are partitioned by a key and up to [maxOpenBatches] batches are kept open at
+ * the same time, one per partition. When the limit is reached, the least recently written batch is finalised.
+ *
+ * The completed batches are kept within the [quota], so that the heap used by the backlog stays bounded while the
+ * batches can't be uploaded. The size of a batch is counted in characters. The batches listed for upload are never
+ * evicted while they are being uploaded.
+ *
  * @property writeKey A unique key used to name and identify batches.
  * @property keyValueStorage A [KeyValueStorage] instance for storing and retrieving batch index information.
+ * @property logger The logger used to report the evicted batches.
+ * @property maxOpenBatches The maximum number of partitions that can have an open batch at the same time.
+ * @property quota The limits of the completed batches kept in memory. Defaults to no limit.
  */
 @InternalRudderApi
 internal class InMemoryBatchManager(
     private val writeKey: String,
-    private val keyValueStorage: KeyValueStorage
+    private val keyValueStorage: KeyValueStorage,
+    private val logger: Logger,
+    private val maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
+    quota: StorageQuota = StorageQuota(),
 ) {
 
     /**
-     * The key used to store the index of the current batch file.
+     * The key used to store the index of the next batch file.
      */
     private val fileIndexKey = writeKey.toFileDirectory(BATCH_INDEX)
 
@@ -40,9 +65,25 @@ internal class InMemoryBatchManager(
     private val files = ConcurrentHashMap<String, InMemoryFile>()
 
     /**
-     * The current batch file being written to.
+     * The index of the completed batches, keyed and ordered by their batch index.
      */
-    private var curFile: InMemoryFile? = null
+    private val completedBatches = ConcurrentSkipListMap<Int, CompletedBatch>()
+
+    /**
+     * The indexes of the completed batches handed to the uploader by the latest [readBatchRefs], which aren't removed yet.
+     * They are never evicted, as they may be uploading. Access is synchronized on the [completedBatches].
+     */
+    private val handedOutBatches = HashSet<Int>()
+
+    /**
+     * The batch files currently being written to, keyed by partition, in least recently written order.
+     */
+    private val openBatches = LinkedHashMap<String, OpenBatch>(maxOpenBatches, LOAD_FACTOR, true)
+
+    /**
+     * Decides which completed batches have to be evicted to keep them within the quota.
+     */
+    private val evictor = BatchEvictor(quota)
 
     /**
      * A semaphore to control concurrent access to batch operations.
@@ -50,31 +91,30 @@ internal class InMemoryBatchManager(
     private val semaphore = Semaphore(1)
 
     /**
-     * Stores an event payload in the current batch file. If the current file exceeds the maximum
-     * batch size, it is finalized and a new file is started.
+     * Stores an event payload in the open batch of the given partition. If the batch exceeds the maximum
+     * batch size, it is finalized and a new batch is started for the partition.
      *
      * @param eventPayload The event payload to be stored.
+     * @param partitionKey The key of the partition the event belongs to. Defaults to a single shared partition.
      */
-    internal suspend fun storeEvent(eventPayload: String) = withLock {
+    internal suspend fun storeEvent(eventPayload: String, partitionKey: String = DEFAULT_PARTITION_KEY) = withLock {
         var newFile = false
-        var file = currentFile()
+        var batch = openBatches[partitionKey]
 
-        if (!file.exists()) {
-            file.createNewFile()
-            start(file)
+        if (batch == null) {
+            batch = openBatch(partitionKey)
             newFile = true
         }
 
-        if (file.length > MAX_BATCH_SIZE) {
-            finish()
-            file = currentFile()
-            file.createNewFile()
-            start(file)
+        if (batch.file.length > MAX_BATCH_SIZE) {
+            finish(partitionKey)
+            batch = openBatch(partitionKey)
             newFile = true
         }
 
         val contents = if (newFile) eventPayload else ",$eventPayload"
-        writeToFile(contents, file)
+        writeToFile(contents, batch.file)
+        if (!evictor.isUnlimited && !batch.hasPriorityEvents) batch.hasPriorityEvents = evictor.isPriorityEvent(eventPayload)
     }
 
     /**
@@ -84,10 +124,38 @@ internal class InMemoryBatchManager(
      * @return A list of file names for completed batches, sorted by batch index.
      */
     internal fun read(): List<String> {
-        return files.keys()
-            .toList()
-            .filter { !it.endsWith(TMP_SUFFIX) }
-            .sortedBy { it.toIntOrNull() ?: Int.MAX_VALUE }
+        evictIfNeeded()
+        return completedBatches.values.map { it.ref.ref }
+    }
+
+    /**
+     * Reads the references of the completed batches from the index, sorted by their batch index.
+     * The batches which have expired are evicted first.
+     *
+     * The listed batches are handed to the uploader: they aren't evicted until they are removed, or until the next call
+     * lists the batches for the next upload pass.
+     *
+     * @return A list of [BatchRef] of the completed batches.
+     */
+    internal fun readBatchRefs(): List<BatchRef> {
+        evictIfNeeded()
+        return synchronized(completedBatches) {
+            handedOutBatches.clear()
+            completedBatches.values.map { it.ref }.onEach { handedOutBatches.add(it.id) }
+        }
+    }
+
+    /**
+     * Returns the number of completed batches evicted so far to keep them within the quota.
+     */
+    internal fun readEvictionCounters(): EvictionCounters = evictor.evictionCounters
+
+    /**
+     * Returns the number of completed batches and the bytes they take up, without evicting any of them.
+     */
+    internal fun readBacklog(): BatchBacklog {
+        val batches = completedBatches.values.toList()
+        return BatchBacklog(batchCount = batches.size, bytes = batches.sumOf { it.size })
     }
 
     /**
@@ -97,6 +165,12 @@ internal class InMemoryBatchManager(
      * @return `true` if the file existed and was removed, `false` otherwise.
      */
     internal fun remove(filePath: String): Boolean {
+        filePath.toIntOrNull()?.let { id ->
+            synchronized(completedBatches) {
+                completedBatches.remove(id)
+                handedOutBatches.remove(id)
+            }
+        }
         return files.remove(filePath) != null
     }
 
@@ -111,19 +185,43 @@ internal class InMemoryBatchManager(
     }
 
     /**
-     * Completes the current batch file and prepares for the next batch.
-     * Appends the closing suffix with sentAt timestamp and renames the file.
+     * Completes all the open batch files and prepares for the next batches.
+     * Appends the closing suffix with sentAt timestamp and renames the files.
      */
     internal suspend fun rollover() = withLock {
-        finish()
+        openBatches.keys.toList().forEach { finish(it) }
     }
 
     /**
-     * Increments the index used to name batch files.
+     * Reserves the index for a new batch file by incrementing the persisted index.
+     *
+     * @return The reserved index.
      */
-    private fun incrementFileIndex() {
+    private fun reserveFileIndex(): Int {
         val index = keyValueStorage.getInt(fileIndexKey, 0)
         keyValueStorage.save(fileIndexKey, index + 1)
+        return index
+    }
+
+    /**
+     * Opens a new batch for the given partition, finalising the least recently written batch
+     * if the limit of open batches has been reached.
+     *
+     * @param partitionKey The key of the partition to open the batch for.
+     * @return The opened batch file.
+     */
+    private fun openBatch(partitionKey: String): OpenBatch {
+        if (openBatches.size >= maxOpenBatches) {
+            finish(openBatches.keys.first())
+        }
+        val file = InMemoryFile("${reserveFileIndex()}$TMP_SUFFIX").also {
+            it.createNewFile()
+            start(it)
+        }
+        val batchPartitionKey = partitionKey.takeUnless { it == DEFAULT_PARTITION_KEY }
+        return OpenBatch(file, createdAt = DateTimeUtils.getSystemCurrentTime(), partitionKey = batchPartitionKey).also {
+            openBatches[partitionKey] = it
+        }
     }
 
     /**
@@ -137,28 +235,45 @@ internal class InMemoryBatchManager(
     }
 
     /**
-     * Completes the current batch file with a timestamp and renames it.
+     * Completes the open batch file of the given partition with a timestamp and renames it.
+     *
+     * @param partitionKey The key of the partition whose batch has to be finalised.
      */
-    private fun finish() {
-        val file = currentFile()
+    private fun finish(partitionKey: String) {
+        val batch = openBatches.remove(partitionKey) ?: return
+        val file = batch.file
         if (!file.exists()) return
         val contents = "$BATCH_SENT_AT_SUFFIX$DEFAULT_SENT_AT_TIMESTAMP\"}"
         writeToFile(contents, file)
         files.remove(file.name)
         files[file.nameWithoutExtension] = file
-        incrementFileIndex()
-        reset()
+        file.nameWithoutExtension.toIntOrNull()?.let { id ->
+            completedBatches[id] = CompletedBatch(
+                ref = BatchRef(ref = file.nameWithoutExtension, id = id, partitionKey = batch.partitionKey),
+                size = file.length.toLong(),
+                createdAt = batch.createdAt,
+                hasPriorityEvents = batch.hasPriorityEvents,
+            )
+        }
+        evictIfNeeded()
     }
 
     /**
-     * Returns the current batch file, creating it if necessary.
-     *
-     * @return The current batch file.
+     * Evicts the completed batches which have expired or exceed the quota, except the ones handed to the uploader.
      */
-    private fun currentFile(): InMemoryFile {
-        return curFile ?: run {
-            val index = keyValueStorage.getInt(fileIndexKey, 0)
-            InMemoryFile("$index$TMP_SUFFIX").also { curFile = it }
+    private fun evictIfNeeded() {
+        if (evictor.isUnlimited) return
+        val evicted = synchronized(completedBatches) {
+            evictor.selectEvictions(completedBatches.values) { it.ref.id !in handedOutBatches }.onEach { batch ->
+                completedBatches.remove(batch.ref.id)
+                files.remove(batch.ref.ref)
+            }
+        }
+        if (evicted.isNotEmpty()) {
+            logger.warn(
+                "InMemoryBatchManager: Evicted ${evicted.size} batch(es) of ${evicted.sumOf { it.size }} characters " +
+                    "to stay within the storage quota"
+            )
         }
     }
 
@@ -173,24 +288,25 @@ internal class InMemoryBatchManager(
     }
 
     /**
-     * Resets the current file reference.
+     * Resets the open batch references.
      */
     private fun reset() {
-        curFile = null
+        openBatches.clear()
     }
 
     /**
-     * Closes the current file reference without finalizing it.
+     * Closes the open batch references without finalizing them.
      */
     internal fun closeAndReset() {
         reset()
     }
 
     /**
-     * Deletes all batch files and resets the current file reference.
+     * Deletes all batch files and resets the open batch references.
      */
     internal fun delete() {
         files.clear()
+        completedBatches.clear()
         reset()
     }
 
@@ -208,3 +324,18 @@ internal class InMemoryBatchManager(
         }
     }
 }
+
+/**
+ * A batch which is currently being written to.
+ *
+ * @property file The in-memory file of the batch.
+ * @property createdAt The time in milliseconds at which the batch was opened.
+ * @property partitionKey The key of the partition the events of the batch belong to, or null if it is shared.
+ */
+private class OpenBatch(val file: InMemoryFile, val createdAt: Long, val partitionKey: String?) {
+
+    /**
+     * Whether the batch contains events of the priority types of the eviction policy.
+     */
+    var hasPriorityEvents: Boolean = false
+}
@@ -1,6 +1,7 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage.inmemory
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueEditor
 import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueStorage
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
@@ -57,6 +58,12 @@ internal class InMemoryPrefsStore(
         storage.remove(key)
     }
 
+    override fun edit(commit: Boolean, block: KeyValueEditor.() -> Unit) {
+        KeyValueEditor().apply(block).forEachChange { key, value ->
+            if (value == null) storage.remove(key) else storage[key] = value
+        }
+    }
+
     @UseWithCaution
     override fun delete() {
         storage.clear()
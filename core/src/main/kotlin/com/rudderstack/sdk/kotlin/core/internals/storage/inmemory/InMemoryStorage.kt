@@ -1,15 +1,24 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage.inmemory
 
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageQuota
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchBacklog
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_MAX_OPEN_BATCHES
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_PARTITION_KEY
 import com.rudderstack.sdk.kotlin.core.internals.storage.KeyValueStorage
 import com.rudderstack.sdk.kotlin.core.internals.storage.LibraryVersion
 import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_PAYLOAD_SIZE
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
+import com.rudderstack.sdk.kotlin.core.internals.storage.StorageEditor
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.storage.exception.PayloadTooLargeException
 import com.rudderstack.sdk.kotlin.core.internals.utils.InternalRudderApi
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
+import com.rudderstack.sdk.kotlin.core.internals.utils.utf8Size
 import source.version.VersionConstants
+import java.io.InputStream
 
 /**
  * Implementation of the [com.rudderstack.sdk.kotlin.core.internals.storage.Storage] interface that provides an in-memory storage mechanism.
@@ -21,6 +30,8 @@ import source.version.VersionConstants
  * This storage is ideal for server-side SDK deployments where persistence is not required.
  *
  * @param writeKey The key used to identify this storage instance.
+ * @param quota The limits of the backlog of completed batches.
+ * @param maxOpenBatches The maximum number of batches filled at the same time, one per partition.
  * @param prefsStore The key-value storage for non-event data.
  */
 @Suppress("Detekt.TooManyFunctions")
@@ -28,10 +39,12 @@ import source.version.VersionConstants
 internal class InMemoryStorage(
     writeKey: String,
     private val logger: Logger,
+    quota: StorageQuota = StorageQuota(),
+    maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
     private val prefsStore: KeyValueStorage = InMemoryPrefsStore(logger)
 ) : Storage {
 
-    private val eventBatchFile = InMemoryBatchManager(writeKey, prefsStore)
+    private val eventBatchFile = InMemoryBatchManager(writeKey, prefsStore, logger, maxOpenBatches, quota)
 
     override suspend fun write(key: StorageKeys, value: Boolean) {
         if (key != StorageKeys.EVENT) {
@@ -41,16 +54,22 @@ internal class InMemoryStorage(
 
     override suspend fun write(key: StorageKeys, value: String) {
         if (key == StorageKeys.EVENT) {
-            if (value.length < MAX_PAYLOAD_SIZE) {
-                eventBatchFile.storeEvent(value)
-            } else {
-                throw PayloadTooLargeException()
-            }
+            writeEvent(value, DEFAULT_PARTITION_KEY)
         } else {
             prefsStore.save(key.key, value)
         }
     }
 
+    override suspend fun writeEvent(value: String, partitionKey: String): Int {
+        val payloadSize = value.utf8Size()
+        if (payloadSize < MAX_PAYLOAD_SIZE) {
+            eventBatchFile.storeEvent(value, partitionKey)
+            return payloadSize
+        } else {
+            throw PayloadTooLargeException()
+        }
+    }
+
     override suspend fun write(key: StorageKeys, value: Int) {
         if (key != StorageKeys.EVENT) {
             prefsStore.save(key.key, value)
@@ -67,6 +86,10 @@ internal class InMemoryStorage(
         prefsStore.clear(key.key)
     }
 
+    override suspend fun edit(commit: Boolean, block: StorageEditor.() -> Unit) {
+        StorageEditor().apply(block).applyTo(prefsStore, commit)
+    }
+
     override fun remove(filePath: String) {
         eventBatchFile.remove(filePath)
     }
@@ -104,10 +127,26 @@ internal class InMemoryStorage(
         return eventBatchFile.read()
     }
 
+    override fun readBatchRefs(): List<BatchRef> {
+        return eventBatchFile.readBatchRefs()
+    }
+
     override fun readBatchContent(batchRef: String): String? {
         return eventBatchFile.readContent(batchRef)
     }
 
+    override fun readBatchStream(batchRef: String): InputStream? {
+        return eventBatchFile.readContent(batchRef)?.byteInputStream()
+    }
+
+    override fun readEvictionCounters(): EvictionCounters {
+        return eventBatchFile.readEvictionCounters()
+    }
+
+    override fun readBacklog(): BatchBacklog {
+        return eventBatchFile.readBacklog()
+    }
+
     override fun getBatchId(batchRef: String): Int = batchRef.toIntOrNull() ?: 0
 
     override fun getLibraryVersion(): LibraryVersion {
@@ -130,8 +169,15 @@ internal class InMemoryStorage(
  * Provides an instance of [InMemoryStorage] with the given [writeKey].
  *
  * @param writeKey The key used to identify the storage instance.
+ * @param quota The limits of the backlog of completed batches.
+ * @param maxOpenBatches The maximum number of batches filled at the same time, one per partition.
  * @return An instance of [InMemoryStorage] with the provided [writeKey].
  */
-internal fun provideInMemoryStorage(writeKey: String, logger: Logger): Storage {
-    return InMemoryStorage(writeKey = writeKey, logger = logger)
+internal fun provideInMemoryStorage(
+    writeKey: String,
+    logger: Logger,
+    quota: StorageQuota = StorageQuota(),
+    maxOpenBatches: Int = DEFAULT_MAX_OPEN_BATCHES,
+): Storage {
+    return InMemoryStorage(writeKey = writeKey, logger = logger, quota = quota, maxOpenBatches = maxOpenBatches)
 }
@@ -1,10 +1,7 @@
 package com.rudderstack.sdk.kotlin.core.internals.utils
 
 import org.jetbrains.annotations.VisibleForTesting
-import java.text.SimpleDateFormat
 import java.util.Date
-import java.util.Locale
-import java.util.TimeZone
 
 /**
  * `DateTimeUtils` is a utility object for handling date and time operations,
@@ -12,7 +9,7 @@ import java.util.TimeZone
  *
  * This utility is designed to provide consistent and thread-safe date-time formatting
  * in ISO 8601 format with millisecond precision and "Z" notation for UTC timezone.
- * It uses `ThreadLocal<SimpleDateFormat>` to ensure thread safety when formatting dates.
+ * It uses the lock-free [TimestampFormatter], which reuses the formatted string for the calls made within the same millisecond.
  *
  * The format used by this utility is: `yyyy-MM-dd'T'HH:mm:ss.SSS'Z'`
  */
@@ -20,35 +17,32 @@ import java.util.TimeZone
 object DateTimeUtils {
 
     /**
-     * A `ThreadLocal` instance that provides thread-safe `SimpleDateFormat` objects.
+     * Returns the current date and time formatted as an ISO 8601 string.
+     *
+     * The formatted string follows the pattern: `yyyy-MM-dd'T'HH:mm:ss.SSS'Z'`.
+     * It can be called concurrently from any thread.
      *
-     * The `SimpleDateFormat` is initialized with the pattern `yyyy-MM-dd'T'HH:mm:ss'.'SSSzzz`
-     * to represent dates in ISO 8601 format with millisecond precision. The default
-     * timezone for the formatter is set to UTC, and any occurrence of "UTC" in the
-     * formatted string is replaced with "Z" to conform to the ISO 8601 standard.
+     * @return A `String` representing the current date and time in ISO 8601 format.
      */
-    private val formatter = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'.'SSSzzz", Locale.ROOT).apply {
-        timeZone = TimeZone.getTimeZone("UTC")
+    fun now(): String {
+        return from(System.currentTimeMillis())
     }
 
     /**
-     * Returns the current date and time formatted as an ISO 8601 string.
+     * Formats the provided time in milliseconds since the Unix epoch into an ISO 8601 formatted string.
      *
-     * This function retrieves the current date and time using the `Date()` object and
-     * formats it to a string using the `ThreadLocal<SimpleDateFormat>` formatter.
      * The formatted string follows the pattern: `yyyy-MM-dd'T'HH:mm:ss.SSS'Z'`.
      *
-     * @return A `String` representing the current date and time in ISO 8601 format.
+     * @param timeInMillis The time in milliseconds since the Unix epoch.
+     * @return A `String` representing the provided time in ISO 8601 format.
      */
-    fun now(): String {
-        return from(Date())
+    fun from(timeInMillis: Long): String {
+        return TimestampFormatter.format(timeInMillis)
     }
 
     /**
      * Formats the provided `Date` object into an ISO 8601 formatted string.
      *
-     * This private function takes a `Date` object and uses the thread-safe
-     * `SimpleDateFormat` formatter to convert it into a string representation.
      * The formatted string follows the pattern: `yyyy-MM-dd'T'HH:mm:ss.SSS'Z'`.
      *
      * @param date The `Date` object to format.
@@ -56,7 +50,7 @@ object DateTimeUtils {
      */
     @VisibleForTesting
     internal fun from(date: Date): String {
-        return formatter.format(date).replace("UTC", "Z")
+        return from(date.time)
     }
 
     /**
@@ -0,0 +1,78 @@
+package com.rudderstack.sdk.kotlin.core.internals.utils
+
+import com.rudderstack.sdk.kotlin.core.internals.models.AliasEvent
+import com.rudderstack.sdk.kotlin.core.internals.models.BaseEventSerializer
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.models.GroupEvent
+import com.rudderstack.sdk.kotlin.core.internals.models.IdentifyEvent
+import com.rudderstack.sdk.kotlin.core.internals.models.ScreenEvent
+import com.rudderstack.sdk.kotlin.core.internals.models.TrackEvent
+import kotlinx.serialization.ExperimentalSerializationApi
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.SerializationStrategy
+import kotlinx.serialization.descriptors.SerialDescriptor
+import kotlinx.serialization.encoding.CompositeEncoder
+import kotlinx.serialization.encoding.Encoder
+import kotlinx.serialization.json.JsonEncoder
+import kotlinx.serialization.json.JsonObject
+
+private const val USER_ID = "userId"
+private val OMITTED_WHEN_EMPTY_OBJECTS = setOf("properties", "traits")
+
+/**
+ * Serializer which encodes an [Event] in a single pass, leaving out the `properties` and `traits` objects when they
+ * are empty and the `userId` when it is an empty string.
+ *
+ * It wraps the generated serializer of the concrete event type, so the output is identical (including field order)
+ * to encoding the event, parsing it back and filtering out the empty fields, without building any intermediate tree.
+ *
+ * This serializer can only be used with the [kotlinx.serialization.json.Json] format.
+ */
+internal object EventWithoutEmptyFieldsSerializer : SerializationStrategy<Event> {
+
+    override val descriptor: SerialDescriptor = BaseEventSerializer.descriptor
+
+    override fun serialize(encoder: Encoder, value: Event) {
+        val jsonEncoder = encoder as? JsonEncoder
+            ?: throw SerializationException("EventWithoutEmptyFieldsSerializer can only be used with Json format")
+        value.concreteSerializer().serialize(SkipEmptyFieldsEncoder(jsonEncoder), value)
+    }
+}
+
+@Suppress("UNCHECKED_CAST") // This is ok because each serializer is selected based on the type of the event itself
+private fun Event.concreteSerializer(): SerializationStrategy<Event> = when (this) {
+    is TrackEvent -> TrackEvent.serializer()
+    is ScreenEvent -> ScreenEvent.serializer()
+    is GroupEvent -> GroupEvent.serializer()
+    is IdentifyEvent -> IdentifyEvent.serializer()
+    is AliasEvent -> AliasEvent.serializer()
+} as SerializationStrategy<Event>
+
+/**
+ * Encoder which only intercepts the top level structure of the event, nested values are written by [delegate] directly.
+ */
+private class SkipEmptyFieldsEncoder(private val delegate: JsonEncoder) : JsonEncoder by delegate {
+
+    override fun beginStructure(descriptor: SerialDescriptor): CompositeEncoder {
+        return SkipEmptyFieldsCompositeEncoder(delegate.beginStructure(descriptor))
+    }
+}
+
+@OptIn(ExperimentalSerializationApi::class)
+private class SkipEmptyFieldsCompositeEncoder(private val delegate: CompositeEncoder) : CompositeEncoder by delegate {
+
+    override fun encodeStringElement(descriptor: SerialDescriptor, index: Int, value: String) {
+        if (value.isEmpty() && descriptor.getElementName(index) == USER_ID) return
+        delegate.encodeStringElement(descriptor, index, value)
+    }
+
+    override fun <T> encodeSerializableElement(
+        descriptor: SerialDescriptor,
+        index: Int,
+        serializer: SerializationStrategy<T>,
+        value: T
+    ) {
+        if (value is JsonObject && value.isEmpty() && descriptor.getElementName(index) in OMITTED_WHEN_EMPTY_OBJECTS) return
+        delegate.encodeSerializableElement(descriptor, index, serializer, value)
+    }
+}
@@ -5,14 +5,11 @@ package com.rudderstack.sdk.kotlin.core.internals.utils
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.models.ExternalId
 import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
-import kotlinx.serialization.encodeToString
 import kotlinx.serialization.json.Json
 import kotlinx.serialization.json.JsonArray
 import kotlinx.serialization.json.JsonObject
-import kotlinx.serialization.json.JsonPrimitive
 import kotlinx.serialization.json.buildJsonObject
 import kotlinx.serialization.json.encodeToJsonElement
-import kotlinx.serialization.json.jsonObject
 
 /**
  * `LenientJson` is a predefined instance of the `Json` class configured with lenient settings to handle JSON serialization and deserialization.
@@ -43,17 +40,10 @@ val LenientJson = Json {
 }
 
 /**
- * Encodes the event to a JSON string, filtering out empty JSON objects.
+ * Encodes the event to a JSON string in a single pass, leaving out empty `properties`, `traits` and `userId`.
  */
 internal fun Event.encodeToString(): String {
-    val stringEvent = LenientJson.encodeToString(this)
-    val filteredEvent = LenientJson.parseToJsonElement(stringEvent)
-        .jsonObject.filterNot { (k, v) ->
-            (k == "properties" && v == emptyJsonObject) ||
-                (k == "traits" && v == emptyJsonObject) ||
-                (k == "userId" && v is JsonPrimitive && v.content == String.empty())
-        }
-    return LenientJson.encodeToString(filteredEvent)
+    return LenientJson.encodeToString(EventWithoutEmptyFieldsSerializer, this)
 }
 
 /**
@@ -1,21 +1,91 @@
 package com.rudderstack.sdk.kotlin.core.internals.utils
 
-import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
+import java.io.InputStream
+import java.io.OutputStream
 
-private const val SENT_AT_PATTERN = """"sentAt":"$DEFAULT_SENT_AT_TIMESTAMP""""
+private const val SENT_AT_KEY = """"sentAt":""""
+private const val SENT_AT_PATTERN = """$SENT_AT_KEY$DEFAULT_SENT_AT_TIMESTAMP""""
+private val SENT_AT_PATTERN_BYTES = SENT_AT_PATTERN.toByteArray()
+private val SENT_AT_KEY_BYTES = SENT_AT_KEY.toByteArray()
+private const val QUOTE_BYTE = '"'.code
+
+// borders[i] is the length of the longest proper prefix of the pattern which is also a suffix of pattern[0..i]
+private val SENT_AT_PATTERN_BORDERS = SENT_AT_PATTERN_BYTES.borders()
 
 internal object JsonSentAtUpdater {
 
-    internal fun updateSentAt(jsonString: String, logger: Logger): String {
-        val latestTimestamp = DateTimeUtils.now()
-        logger.verbose("JsonSentAtUpdater: Updating sentAt in JSON string to $latestTimestamp")
+    /**
+     * Copies the JSON read from [input] to [output], replacing the default sentAt timestamp with [sentAt].
+     *
+     * The JSON is processed in chunks of [bufferSize] bytes, so it is never held in memory as a whole.
+     * The [output] is flushed but not closed.
+     */
+    internal fun writeWithUpdatedSentAt(
+        input: InputStream,
+        output: OutputStream,
+        sentAt: String,
+        bufferSize: Int = DEFAULT_BUFFER_SIZE,
+    ) {
+        val replacement = sentAt.toByteArray()
+        val bufferedOutput = output.buffered(bufferSize)
+        copyWithSentAtSlots(input, bufferedOutput, bufferSize) { bufferedOutput.write(replacement) }
+        bufferedOutput.flush()
+    }
+
+    /**
+     * Copies the JSON read from [input] to [output], except for the default sentAt timestamps, in place of which
+     * [onSentAt] is called. [onSentAt] is called after everything preceding the timestamp has been written to [output].
+     *
+     * The JSON is processed in chunks of [bufferSize] bytes, so it is never held in memory as a whole.
+     */
+    internal fun copyWithSentAtSlots(
+        input: InputStream,
+        output: OutputStream,
+        bufferSize: Int = DEFAULT_BUFFER_SIZE,
+        onSentAt: () -> Unit,
+    ) {
+        val pattern = SENT_AT_PATTERN_BYTES
+        val buffer = ByteArray(bufferSize)
+        // The number of bytes of the pattern matched so far, which are held back until the match succeeds or fails
+        var matched = 0
 
-        val updatedJsonString = jsonString.replace(
-            SENT_AT_PATTERN,
-            """"sentAt":"$latestTimestamp""""
-        )
+        var read = input.read(buffer)
+        while (read >= 0) {
+            for (index in 0 until read) {
+                val byte = buffer[index]
+                while (matched > 0 && pattern[matched] != byte) {
+                    val border = SENT_AT_PATTERN_BORDERS[matched - 1]
+                    output.write(pattern, 0, matched - border)
+                    matched = border
+                }
+                if (pattern[matched] == byte) {
+                    matched++
+                    if (matched == pattern.size) {
+                        output.write(SENT_AT_KEY_BYTES)
+                        onSentAt()
+                        output.write(QUOTE_BYTE)
+                        matched = 0
+                    }
+                } else {
+                    output.write(byte.toInt())
+                }
+            }
+            read = input.read(buffer)
+        }
+        output.write(pattern, 0, matched)
+    }
+}
 
-        return updatedJsonString
+private fun ByteArray.borders(): IntArray {
+    val borders = IntArray(size)
+    var border = 0
+    for (index in 1 until size) {
+        while (border > 0 && this[index] != this[border]) {
+            border = borders[border - 1]
+        }
+        if (this[index] == this[border]) border++
+        borders[index] = border
     }
+    return borders
 }
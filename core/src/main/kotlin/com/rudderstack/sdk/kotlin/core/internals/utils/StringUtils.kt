@@ -61,22 +61,6 @@ internal fun String.toFileDirectory(directory: String): String {
     return "$directory$this"
 }
 
-/**
- * Parses a comma-separated string into a list of file paths.
- *
- * This extension function splits the string by commas, trims each resulting segment, and
- * returns a list of non-empty file paths. If the string is null or empty, an empty list is returned.
- *
- * @return A list of parsed file paths.
- */
-internal fun String?.parseFilePaths(): List<String> {
-    return if (this.isNullOrEmpty()) {
-        emptyList()
-    } else {
-        this.split(",").map { it.trim() }
-    }
-}
-
 /**
  * Provides an empty string.
  *
@@ -97,6 +81,34 @@ fun String.Companion.empty(): String = EMPTY_STRING
 @InternalRudderApi
 fun String.Companion.underscoreSeparator(): String = UNDERSCORE_SEPARATOR
 
+/**
+ * Returns the number of bytes this string occupies when encoded as UTF-8, without allocating the encoded bytes.
+ *
+ * Unpaired surrogates are counted as a single byte, matching the replacement character written by [String.toByteArray].
+ *
+ * @return The UTF-8 encoded size of the string in bytes.
+ */
+@InternalRudderApi
+fun String.utf8Size(): Int {
+    var size = 0
+    var index = 0
+    while (index < length) {
+        val char = this[index]
+        size += when {
+            char.code < 0x80 -> 1
+            char.code < 0x800 -> 2
+            !char.isSurrogate() -> 3
+            char.isHighSurrogate() && index + 1 < length && this[index + 1].isLowSurrogate() -> {
+                index++
+                4
+            }
+            else -> 1
+        }
+        index++
+    }
+    return size
+}
+
 /**
  * Validates and formats a base URL by ensuring it ends with a slash (`/`).
  *
@@ -0,0 +1,88 @@
+package com.rudderstack.sdk.kotlin.core.internals.utils
+
+private const val MILLIS_PER_DAY = 86_400_000L
+private const val MILLIS_PER_HOUR = 3_600_000
+private const val MILLIS_PER_MINUTE = 60_000
+private const val MILLIS_PER_SECOND = 1_000
+private const val TIMESTAMP_LENGTH = 24
+
+/**
+ * Formats epoch milliseconds as ISO 8601 UTC timestamps with millisecond precision, e.g. `2023-11-22T01:52:08.023Z`.
+ *
+ * It holds no mutable formatter, so it can be used from any number of threads without locking. The last formatted
+ * timestamp is cached, so the events made within the same millisecond share a single string.
+ *
+ * The fields are computed arithmetically rather than with `java.time`, which is only available from Android API 26.
+ */
+internal object TimestampFormatter {
+
+    /**
+     * The last formatted timestamp. It is immutable and replaced as a whole, so a volatile read is enough to get a
+     * consistent pair of millis and string.
+     */
+    @Volatile
+    private var cached = CachedTimestamp(timeInMillis = Long.MIN_VALUE, formatted = "")
+
+    /**
+     * Returns [timeInMillis] as an ISO 8601 UTC timestamp, reusing the last formatted string if it is for the same millisecond.
+     */
+    fun format(timeInMillis: Long): String {
+        val lastFormatted = cached
+        if (lastFormatted.timeInMillis == timeInMillis) {
+            return lastFormatted.formatted
+        }
+        return formatUncached(timeInMillis).also { cached = CachedTimestamp(timeInMillis, it) }
+    }
+
+    /**
+     * Returns [timeInMillis] as an ISO 8601 UTC timestamp, without looking up or updating the cache.
+     */
+    @Suppress("MagicNumber")
+    fun formatUncached(timeInMillis: Long): String {
+        val epochDay = timeInMillis.floorDiv(MILLIS_PER_DAY)
+        val millisOfDay = (timeInMillis - epochDay * MILLIS_PER_DAY).toInt()
+
+        // Converts the days since 1970-01-01 to a proleptic Gregorian date, with years starting on March 1st so that
+        // the leap day is the last day of the year. See http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+        val shiftedDay = epochDay + 719_468
+        val era = shiftedDay.floorDiv(146_097L)
+        val dayOfEra = shiftedDay - era * 146_097
+        val yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365
+        val dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100)
+        val shiftedMonth = (5 * dayOfYear + 2) / 153
+        val day = (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1).toInt()
+        val month = (if (shiftedMonth < 10) shiftedMonth + 3 else shiftedMonth - 9).toInt()
+        val year = (yearOfEra + era * 400 + if (month <= 2) 1 else 0).toInt()
+
+        val chars = CharArray(TIMESTAMP_LENGTH)
+        chars.putDigits(0, year, 4)
+        chars[4] = '-'
+        chars.putDigits(5, month, 2)
+        chars[7] = '-'
+        chars.putDigits(8, day, 2)
+        chars[10] = 'T'
+        chars.putDigits(11, millisOfDay / MILLIS_PER_HOUR, 2)
+        chars[13] = ':'
+        chars.putDigits(14, millisOfDay % MILLIS_PER_HOUR / MILLIS_PER_MINUTE, 2)
+        chars[16] = ':'
+        chars.putDigits(17, millisOfDay % MILLIS_PER_MINUTE / MILLIS_PER_SECOND, 2)
+        chars[19] = '.'
+        chars.putDigits(20, millisOfDay % MILLIS_PER_SECOND, 3)
+        chars[23] = 'Z'
+        return String(chars)
+    }
+
+    private class CachedTimestamp(val timeInMillis: Long, val formatted: String)
+}
+
+/**
+ * Writes the last [count] decimal digits of the non-negative [value] at [offset], padded with zeros.
+ */
+@Suppress("MagicNumber")
+private fun CharArray.putDigits(offset: Int, value: Int, count: Int) {
+    var remaining = value
+    for (index in offset + count - 1 downTo offset) {
+        this[index] = '0' + remaining % 10
+        remaining /= 10
+    }
+}
@@ -1,7 +1,9 @@
 package com.rudderstack.sdk.kotlin.core.plugins
 
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.utils.mergeWithHigherPriorityTo
 import kotlinx.serialization.json.JsonObject
@@ -15,7 +17,7 @@ private const val LIBRARY_VERSION_KEY = "version"
 /**
  * Plugin to attach library info to the event context payload
  */
-internal class LibraryInfoPlugin : Plugin {
+internal class LibraryInfoPlugin : ContextPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
 
@@ -41,12 +43,14 @@ internal class LibraryInfoPlugin : Plugin {
         }
     }
 
+    override fun contextFragment(): JsonObject = libraryContext
+
     override suspend fun intercept(event: Event): Event = attachLibraryInfo(event)
 
     private fun attachLibraryInfo(event: Event): Event {
-        analytics.logger.verbose(
+        analytics.logger.verbose {
             "LibraryInfoPlugin: Attaching library info to the event payload (messageId=${event.messageId})"
-        )
+        }
 
         event.context = event.context mergeWithHigherPriorityTo libraryContext
 
@@ -1,18 +1,18 @@
 package com.rudderstack.sdk.kotlin.core.plugins
 
 import com.rudderstack.sdk.kotlin.core.Analytics
-import com.rudderstack.sdk.kotlin.core.internals.models.AliasEvent
+import com.rudderstack.sdk.kotlin.core.internals.logger.verbose
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
-import com.rudderstack.sdk.kotlin.core.internals.models.GroupEvent
-import com.rudderstack.sdk.kotlin.core.internals.models.IdentifyEvent
-import com.rudderstack.sdk.kotlin.core.internals.models.ScreenEvent
-import com.rudderstack.sdk.kotlin.core.internals.models.TrackEvent
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ConcurrentPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.EventPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ReadOnlyPlugin
 import com.rudderstack.sdk.kotlin.core.internals.queue.EventQueue
+import kotlinx.coroutines.CompletableJob
 import org.jetbrains.annotations.VisibleForTesting
 
-internal class RudderStackDataplanePlugin : EventPlugin {
+// The events are only serialised, so they are enqueued without being copied, and the event queue is thread-safe
+internal class RudderStackDataplanePlugin : EventPlugin, ReadOnlyPlugin, ConcurrentPlugin {
 
     override val pluginType: Plugin.PluginType = Plugin.PluginType.Terminal
     override lateinit var analytics: Analytics
@@ -20,41 +20,28 @@ internal class RudderStackDataplanePlugin : EventPlugin {
     @VisibleForTesting
     internal var eventQueue: EventQueue? = null
 
-    override fun track(payload: TrackEvent) {
-        enqueue(payload)
-    }
-
-    override fun screen(payload: ScreenEvent) {
-        enqueue(payload)
-    }
-
-    override fun group(payload: GroupEvent) {
-        enqueue(payload)
-    }
-
-    override fun identify(payload: IdentifyEvent) {
-        enqueue(payload)
-    }
-
-    override fun alias(payload: AliasEvent) {
-        enqueue(payload)
+    // The event is enqueued by intercept rather than by the methods for each type, so that waiting for space in the
+    // event queue suspends the plugin chain instead of blocking its thread
+    override suspend fun intercept(event: Event): Event? {
+        enqueue(event)
+        return event
     }
 
     override fun setup(analytics: Analytics) {
-        super.setup(analytics)
+        super<EventPlugin>.setup(analytics)
         eventQueue = EventQueue(analytics).apply { start() }
     }
 
-    internal fun flush() {
-        eventQueue?.flush()
+    internal suspend fun flush(completion: CompletableJob? = null) {
+        eventQueue?.flush(completion) ?: completion?.cancel()
     }
 
     override fun teardown() {
         eventQueue?.stop()
     }
 
-    private fun enqueue(event: Event) {
-        analytics.logger.verbose("RudderStackDataplanePlugin: Enqueuing ${event.type} event (messageId=${event.messageId})")
+    private suspend fun enqueue(event: Event) {
+        analytics.logger.verbose { "RudderStackDataplanePlugin: Enqueuing ${event.type} event (messageId=${event.messageId})" }
         this.eventQueue?.put(event)
     }
 }
@@ -19,6 +19,7 @@ import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
 import com.rudderstack.sdk.kotlin.core.internals.storage.LibraryVersion
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
+import com.rudderstack.sdk.kotlin.core.internals.storage.StorageEditor
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
@@ -27,7 +28,9 @@ import com.rudderstack.sdk.kotlin.core.internals.utils.generateUUID
 import io.mockk.MockKAnnotations
 import io.mockk.MockKVerificationScope
 import io.mockk.clearMocks
+import io.mockk.coEvery
 import io.mockk.coVerify
+import io.mockk.coVerifyOrder
 import io.mockk.every
 import io.mockk.impl.annotations.MockK
 import io.mockk.mockkObject
@@ -35,6 +38,7 @@ import io.mockk.mockkStatic
 import io.mockk.spyk
 import io.mockk.verify
 import io.mockk.verifyOrder
+import kotlinx.coroutines.CompletableDeferred
 import kotlinx.coroutines.CompletableJob
 import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.SupervisorJob
@@ -43,6 +47,7 @@ import kotlinx.coroutines.test.TestScope
 import kotlinx.coroutines.test.advanceUntilIdle
 import kotlinx.coroutines.test.runTest
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Assertions.assertTrue
 import kotlinx.serialization.json.JsonObject
@@ -128,6 +133,7 @@ class AnalyticsTest {
         // Mocking persisted values and assigning default values
         every { mockStorage.readString(StorageKeys.ANONYMOUS_ID, defaultVal = any()) } returns ANONYMOUS_ID
         every { mockStorage.getLibraryVersion() } returns provideLibraryVersion()
+        mockStorage.applyEditsOneByOne()
 
         // Mock util method
         mockkStatic(::generateUUID)
@@ -278,7 +284,7 @@ class AnalyticsTest {
             assertEquals(mockStorage, analytics.storage)
 
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, matchJsonString(expectedJsonString))
+                mockStorage.writeEvent(matchJsonString(expectedJsonString), any())
             }
         }
 
@@ -298,7 +304,7 @@ class AnalyticsTest {
 
             assertEquals(mockStorage, analytics.storage)
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, matchJsonString(expectedJsonString))
+                mockStorage.writeEvent(matchJsonString(expectedJsonString), any())
             }
         }
 
@@ -317,7 +323,7 @@ class AnalyticsTest {
 
             assertEquals(mockStorage, analytics.storage)
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, matchJsonString(expectedJsonString))
+                mockStorage.writeEvent(matchJsonString(expectedJsonString), any())
             }
         }
 
@@ -336,7 +342,7 @@ class AnalyticsTest {
 
             assertEquals(mockStorage, analytics.storage)
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, matchJsonString(expectedJsonString))
+                mockStorage.writeEvent(matchJsonString(expectedJsonString), any())
             }
         }
 
@@ -355,7 +361,7 @@ class AnalyticsTest {
 
             assertEquals(mockStorage, analytics.storage)
             coVerify(exactly = 1) {
-                mockStorage.write(StorageKeys.EVENT, matchJsonString(expectedJsonString))
+                mockStorage.writeEvent(matchJsonString(expectedJsonString), any())
             }
         }
 
@@ -364,6 +370,22 @@ class AnalyticsTest {
             JSONAssert.assertEquals(expectedJsonString, actualJsonString, true)
         }
 
+    @Test
+    fun `given SDK is ready to process any new events, when events are made, then they are counted in the metrics`() =
+        runTest(testDispatcher) {
+            analytics.track(name = TRACK_EVENT_NAME)
+            analytics.screen(screenName = SCREEN_EVENT_NAME)
+            testDispatcher.scheduler.runCurrent()
+            disableSource()
+
+            val metrics = analytics.metrics()
+
+            assertEquals(2L, metrics.counters[MetricNames.EVENTS_ACCEPTED])
+            assertEquals(2L, metrics.counters[MetricNames.EVENTS_PERSISTED])
+            assertEquals(0L, metrics.counters[MetricNames.EVENTS_DROPPED_QUEUE_FULL])
+            assertEquals(0L, metrics.gauges[MetricNames.PROCESS_QUEUE_DEPTH])
+        }
+
     @ParameterizedTest
     @MethodSource("trackEventTestCases")
     fun `given SDK is ready to process any new events, when track events are made, then they are stored in storage`(
@@ -380,7 +402,7 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, any<String>())
+            mockStorage.writeEvent(any<String>(), any())
         }
     }
 
@@ -402,7 +424,7 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, any<String>())
+            mockStorage.writeEvent(any<String>(), any())
         }
     }
 
@@ -422,7 +444,7 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, any<String>())
+            mockStorage.writeEvent(any<String>(), any())
         }
     }
 
@@ -442,7 +464,7 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, any<String>())
+            mockStorage.writeEvent(any<String>(), any())
         }
     }
 
@@ -462,7 +484,7 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, any<String>())
+            mockStorage.writeEvent(any<String>(), any())
         }
     }
 
@@ -682,6 +704,7 @@ class AnalyticsTest {
             )
         )
         clearMocks(mockStorage)
+        mockStorage.applyEditsOneByOne()
 
         analytics.reset(resetOptions)
         
@@ -731,7 +754,7 @@ class AnalyticsTest {
             disableSource()
 
             coVerify(exactly = 5) {
-                mockStorage.write(StorageKeys.EVENT, any<String>())
+                mockStorage.writeEvent(any<String>(), any())
             }
         }
 
@@ -783,9 +806,9 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, withArg<String> { eventString ->
+            mockStorage.writeEvent(withArg<String> { eventString ->
                 assertTrue(eventString.contains(NEW_EVENT_NAME), "Event string should contain '$NEW_EVENT_NAME'")
-            })
+            }, any())
         }
     }
 
@@ -800,12 +823,35 @@ class AnalyticsTest {
         disableSource()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, withArg<String> { eventString ->
+            mockStorage.writeEvent(withArg<String> { eventString ->
                 assertTrue(eventString.contains(TRACK_EVENT_NAME))
-            })
+            }, any())
         }
     }
 
+    @Test
+    fun `given an event is still being processed, when flushWithCompletion is called, then the flush starts only after the event is stored`() =
+        runTest(testDispatcher) {
+            val processingGate = CompletableDeferred<Unit>()
+            analytics.add(provideGatedPlugin(processingGate))
+            analytics.track(TRACK_EVENT_NAME)
+            testDispatcher.scheduler.runCurrent()
+
+            val completion = analytics.flushWithCompletion()
+            testDispatcher.scheduler.runCurrent()
+
+            coVerify(exactly = 0) { mockStorage.writeEvent(any<String>(), any()) }
+            assertFalse(completion.isCompleted)
+
+            processingGate.complete(Unit)
+            testDispatcher.scheduler.runCurrent()
+
+            coVerifyOrder {
+                mockStorage.writeEvent(any<String>(), any())
+                mockStorage.rollover()
+            }
+        }
+
     private fun disableSource() {
         analytics.sourceConfigState.dispatch(
             SourceConfig.UpdateAction(
@@ -870,6 +916,25 @@ private fun provideLibraryVersion(): LibraryVersion {
     }
 }
 
+/**
+ * Makes the mocked storage apply the changes of every edit one by one, so that they can be verified as writes and removals.
+ */
+private fun Storage.applyEditsOneByOne() {
+    coEvery { edit(any(), any()) } coAnswers {
+        StorageEditor().apply(secondArg<StorageEditor.() -> Unit>()).applyTo(this@applyEditsOneByOne)
+    }
+}
+
+private fun provideGatedPlugin(gate: CompletableDeferred<Unit>) = object : Plugin {
+    override val pluginType: Plugin.PluginType = Plugin.PluginType.OnProcess
+    override lateinit var analytics: Analytics
+
+    override suspend fun intercept(event: Event): Event? {
+        gate.await()
+        return super.intercept(event)
+    }
+}
+
 private fun provideCustomPlugin() = object : Plugin {
     override val pluginType: Plugin.PluginType = Plugin.PluginType.OnProcess
     override lateinit var analytics: Analytics
@@ -3,6 +3,7 @@ package com.rudderstack.sdk.kotlin.core.internals.logger
 import io.mockk.spyk
 import io.mockk.verify
 import io.mockk.verifyOrder
+import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Test
 
 class AnalyticsLoggerTest {
@@ -152,4 +153,36 @@ class AnalyticsLoggerTest {
             logger.error("Error log", throwable)
         }
     }
+
+    @Test
+    fun `given log level is WARN, when the lambda-based logs are called, then only the WARN and ERROR messages are built`() {
+        val logger = spyk(KotlinLogger())
+        val analyticsLogger = AnalyticsLogger(logger = logger, logLevel = Logger.LogLevel.WARN)
+        val builtMessages = mutableListOf<String>()
+
+        analyticsLogger.verbose { "Verbose log".also { builtMessages.add(it) } }
+        analyticsLogger.debug { "Debug log".also { builtMessages.add(it) } }
+        analyticsLogger.info { "Info log".also { builtMessages.add(it) } }
+        analyticsLogger.warn { "Warn log".also { builtMessages.add(it) } }
+        analyticsLogger.error { "Error log".also { builtMessages.add(it) } }
+
+        assertEquals(listOf("Warn log", "Error log"), builtMessages)
+        verifyOrder {
+            logger.warn("Warn log")
+            logger.error("Error log", null)
+        }
+    }
+
+    @Test
+    fun `given a logger which is not an analytics logger, when the lambda-based logs are called, then the messages are passed to it`() {
+        val logger = spyk(KotlinLogger())
+
+        logger.verbose { "Verbose log" }
+        logger.error(RuntimeException("Test exception")) { "Error log" }
+
+        verify {
+            logger.verbose("Verbose log")
+            logger.error("Error log", any())
+        }
+    }
 }
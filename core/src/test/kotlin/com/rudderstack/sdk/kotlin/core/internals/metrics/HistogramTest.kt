@@ -0,0 +1,81 @@
+package com.rudderstack.sdk.kotlin.core.internals.metrics
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class HistogramTest {
+
+    private val histogram = Histogram(listOf(10L, 100L, 1_000L))
+
+    @Test
+    fun `given values across the buckets, when a snapshot is taken, then each value is counted in the bucket of its upper bound`() {
+        listOf(0L, 10L, 11L, 100L, 500L, 1_000L, 5_000L).forEach { histogram.record(it) }
+
+        val snapshot = histogram.snapshot()
+
+        assertEquals(listOf(10L, 100L, 1_000L, Long.MAX_VALUE), snapshot.bucketUpperBounds)
+        assertEquals(listOf(2L, 2L, 2L, 1L), snapshot.bucketCounts)
+        assertEquals(7L, snapshot.count)
+        assertEquals(6_621L, snapshot.sum)
+        assertEquals(5_000L, snapshot.max)
+    }
+
+    @Test
+    fun `given a negative value, when it is recorded, then it is counted as zero`() {
+        histogram.record(-5)
+
+        val snapshot = histogram.snapshot()
+
+        assertEquals(listOf(1L, 0L, 0L, 0L), snapshot.bucketCounts)
+        assertEquals(0L, snapshot.sum)
+    }
+
+    @Test
+    fun `given recorded values, when a percentile is requested, then the upper bound of its bucket is returned, capped at the max`() {
+        repeat(90) { histogram.record(5) }
+        repeat(9) { histogram.record(50) }
+        histogram.record(700)
+
+        val snapshot = histogram.snapshot()
+
+        assertEquals(10L, snapshot.percentile(50.0))
+        assertEquals(10L, snapshot.percentile(90.0))
+        assertEquals(100L, snapshot.percentile(99.0))
+        assertEquals(700L, snapshot.percentile(100.0))
+        assertEquals(16.0, snapshot.mean)
+    }
+
+    @Test
+    fun `given no recorded value, when a snapshot is taken, then its percentiles and mean are zero`() {
+        val snapshot = histogram.snapshot()
+
+        assertEquals(0L, snapshot.count)
+        assertEquals(0L, snapshot.percentile(99.0))
+        assertEquals(0.0, snapshot.mean)
+    }
+
+    @Test
+    fun `given bucket bounds which are not increasing, when the histogram is created, then an exception is thrown`() {
+        assertThrows<IllegalArgumentException> { Histogram(listOf(10L, 10L)) }
+    }
+
+    @Test
+    fun `given values recorded from many threads, when a snapshot is taken, then none of them is lost`() {
+        val executor = Executors.newFixedThreadPool(8)
+        repeat(8) { thread ->
+            executor.execute {
+                repeat(10_000) { histogram.record((thread * 10_000 + it).toLong() % 2_000) }
+            }
+        }
+        executor.shutdown()
+        executor.awaitTermination(10, TimeUnit.SECONDS)
+
+        val snapshot = histogram.snapshot()
+
+        assertEquals(80_000L, snapshot.count)
+        assertEquals(1_999L, snapshot.max)
+    }
+}
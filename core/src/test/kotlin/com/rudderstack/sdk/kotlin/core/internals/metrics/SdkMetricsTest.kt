@@ -0,0 +1,51 @@
+package com.rudderstack.sdk.kotlin.core.internals.metrics
+
+import com.rudderstack.sdk.kotlin.core.MetricNames
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Test
+
+class SdkMetricsTest {
+
+    private val sdkMetrics = SdkMetrics()
+
+    @Test
+    fun `given counters updated by the pipeline, when a snapshot is taken, then it contains their values`() {
+        repeat(3) { sdkMetrics.eventsAccepted.increment() }
+        sdkMetrics.eventsPersisted.add(2)
+        sdkMetrics.uploadRetries.increment()
+
+        val counters = sdkMetrics.snapshot().counters
+
+        assertEquals(3L, counters[MetricNames.EVENTS_ACCEPTED])
+        assertEquals(2L, counters[MetricNames.EVENTS_PERSISTED])
+        assertEquals(1L, counters[MetricNames.UPLOAD_RETRIES])
+        assertEquals(0L, counters[MetricNames.BATCHES_UPLOADED])
+    }
+
+    @Test
+    fun `given registered gauges and counters, when a snapshot is taken, then their suppliers are read at that time`() {
+        var depth = 5L
+        sdkMetrics.registerGauge(MetricNames.PROCESS_QUEUE_DEPTH) { depth }
+        sdkMetrics.registerCounter(MetricNames.BATCHES_EVICTED) { 7 }
+
+        val first = sdkMetrics.snapshot()
+        depth = 2
+        val second = sdkMetrics.snapshot()
+
+        assertEquals(5L, first.gauges[MetricNames.PROCESS_QUEUE_DEPTH])
+        assertEquals(2L, second.gauges[MetricNames.PROCESS_QUEUE_DEPTH])
+        assertEquals(7L, second.counters[MetricNames.BATCHES_EVICTED])
+    }
+
+    @Test
+    fun `given upload latencies, when a snapshot is taken, then it contains the upload histograms`() {
+        sdkMetrics.uploadLatencyInMillis.record(120)
+        sdkMetrics.uploadPayloadBytes.record(2_000)
+
+        val histograms = sdkMetrics.snapshot().histograms
+
+        assertEquals(1L, histograms.getValue(MetricNames.UPLOAD_LATENCY_IN_MILLIS).count)
+        assertEquals(120L, histograms.getValue(MetricNames.UPLOAD_LATENCY_IN_MILLIS).max)
+        assertEquals(2_000L, histograms.getValue(MetricNames.UPLOAD_PAYLOAD_BYTES).sum)
+    }
+}
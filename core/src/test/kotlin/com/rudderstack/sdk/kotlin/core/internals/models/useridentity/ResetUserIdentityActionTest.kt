@@ -1,18 +1,17 @@
 package com.rudderstack.sdk.kotlin.core.internals.models.useridentity
 
 import com.rudderstack.sdk.kotlin.core.ANONYMOUS_ID
-import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.provider.provideUserIdentityState
 import com.rudderstack.sdk.kotlin.core.internals.models.reset.ResetEntries
 import com.rudderstack.sdk.kotlin.core.internals.models.reset.ResetOptions
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
+import com.rudderstack.sdk.kotlin.core.internals.utils.MockMemoryStorage
 import com.rudderstack.sdk.kotlin.core.internals.utils.generateUUID
-import com.rudderstack.sdk.kotlin.core.mockAnalytics
 import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockkStatic
+import io.mockk.spyk
 import kotlinx.coroutines.test.StandardTestDispatcher
-import kotlinx.coroutines.test.TestScope
 import kotlinx.coroutines.test.runTest
 import kotlinx.serialization.json.buildJsonObject
 import kotlinx.serialization.json.put
@@ -26,8 +25,7 @@ private val TRAITS = buildJsonObject { put("key-1", "value-1") }
 class ResetUserIdentityActionTest {
 
     private val testDispatcher = StandardTestDispatcher()
-    private val testScope = TestScope(testDispatcher)
-    private val mockAnalytics: Analytics = mockAnalytics(testScope, testDispatcher)
+    private val storage = spyk(MockMemoryStorage())
 
     @BeforeEach
     fun setup() {
@@ -122,13 +120,13 @@ class ResetUserIdentityActionTest {
         runTest {
             val userIdentityState = provideUserIdentityState(anonymousId = NEW_ANONYMOUS_ID)
 
-            userIdentityState.resetUserIdentity(storage = mockAnalytics.storage, entries = ResetOptions().entries)
+            userIdentityState.resetUserIdentity(storage = storage, entries = ResetOptions().entries)
             testDispatcher.scheduler.advanceUntilIdle()
 
             coVerify {
-                mockAnalytics.storage.write(StorageKeys.ANONYMOUS_ID, NEW_ANONYMOUS_ID)
-                mockAnalytics.storage.remove(StorageKeys.USER_ID)
-                mockAnalytics.storage.remove(StorageKeys.TRAITS)
+                storage.write(StorageKeys.ANONYMOUS_ID, NEW_ANONYMOUS_ID)
+                storage.remove(StorageKeys.USER_ID)
+                storage.remove(StorageKeys.TRAITS)
             }
         }
 
@@ -138,11 +136,11 @@ class ResetUserIdentityActionTest {
             val userIdentityState = provideUserIdentityState(anonymousId = NEW_ANONYMOUS_ID)
             val resetOptions = ResetOptions(ResetEntries(anonymousId = true, userId = false, traits = false))
 
-            userIdentityState.resetUserIdentity(storage = mockAnalytics.storage, entries = resetOptions.entries)
+            userIdentityState.resetUserIdentity(storage = storage, entries = resetOptions.entries)
             testDispatcher.scheduler.advanceUntilIdle()
 
             coVerify {
-                mockAnalytics.storage.write(StorageKeys.ANONYMOUS_ID, NEW_ANONYMOUS_ID)
+                storage.write(StorageKeys.ANONYMOUS_ID, NEW_ANONYMOUS_ID)
             }
         }
 
@@ -152,11 +150,11 @@ class ResetUserIdentityActionTest {
             val userIdentityState = provideUserIdentityState(anonymousId = NEW_ANONYMOUS_ID)
             val resetOptions = ResetOptions(ResetEntries(anonymousId = false, userId = true, traits = false))
 
-            userIdentityState.resetUserIdentity(storage = mockAnalytics.storage, entries = resetOptions.entries)
+            userIdentityState.resetUserIdentity(storage = storage, entries = resetOptions.entries)
             testDispatcher.scheduler.advanceUntilIdle()
 
             coVerify {
-                mockAnalytics.storage.remove(StorageKeys.USER_ID)
+                storage.remove(StorageKeys.USER_ID)
             }
         }
 
@@ -166,11 +164,11 @@ class ResetUserIdentityActionTest {
             val userIdentityState = provideUserIdentityState(anonymousId = NEW_ANONYMOUS_ID)
             val resetOptions = ResetOptions(ResetEntries(anonymousId = false, userId = false, traits = true))
 
-            userIdentityState.resetUserIdentity(storage = mockAnalytics.storage, entries = resetOptions.entries)
+            userIdentityState.resetUserIdentity(storage = storage, entries = resetOptions.entries)
             testDispatcher.scheduler.advanceUntilIdle()
 
             coVerify {
-                mockAnalytics.storage.remove(StorageKeys.TRAITS)
+                storage.remove(StorageKeys.TRAITS)
             }
         }
 
@@ -1,17 +1,16 @@
 package com.rudderstack.sdk.kotlin.core.internals.models.useridentity
 
-import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
+import com.rudderstack.sdk.kotlin.core.internals.utils.MockMemoryStorage
 import com.rudderstack.sdk.kotlin.core.internals.utils.LenientJson
 import com.rudderstack.sdk.kotlin.core.internals.utils.empty
 import com.rudderstack.sdk.kotlin.core.internals.utils.mergeWithHigherPriorityTo
-import com.rudderstack.sdk.kotlin.core.mockAnalytics
 import io.mockk.coVerify
 import io.mockk.mockk
+import io.mockk.spyk
 import kotlinx.coroutines.test.StandardTestDispatcher
-import kotlinx.coroutines.test.TestScope
 import kotlinx.coroutines.test.runTest
 import kotlinx.serialization.encodeToString
 import kotlinx.serialization.json.buildJsonObject
@@ -28,8 +27,7 @@ private val TRAITS_1_OVERLAP = buildJsonObject { put("key-1", "value-2") }
 class SetUserIdAndTraitsActionTest {
 
     private val testDispatcher = StandardTestDispatcher()
-    private val testScope = TestScope(testDispatcher)
-    private val mockAnalytics: Analytics = mockAnalytics(testScope, testDispatcher)
+    private val storage = spyk(MockMemoryStorage())
     private val mockLogger: Logger = mockk(relaxed = true)
 
     @Test
@@ -88,11 +86,11 @@ class SetUserIdAndTraitsActionTest {
     fun `when values are stored, then it should be persisted in storage`() = runTest {
         val userIdentityState = provideUserIdentityStateAfterFirstIdentifyEventIsMade()
 
-        userIdentityState.storeUserIdAndTraits(mockAnalytics.storage)
+        userIdentityState.storeUserIdAndTraits(storage)
 
         coVerify {
-            mockAnalytics.storage.write(StorageKeys.USER_ID, USER_1)
-            mockAnalytics.storage.write(StorageKeys.TRAITS, LenientJson.encodeToString(TRAITS_1))
+            storage.write(StorageKeys.USER_ID, USER_1)
+            storage.write(StorageKeys.TRAITS, LenientJson.encodeToString(TRAITS_1))
         }
     }
 }
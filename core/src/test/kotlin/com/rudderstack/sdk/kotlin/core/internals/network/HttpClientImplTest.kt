@@ -14,12 +14,15 @@ import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
+import java.io.ByteArrayOutputStream
 import java.io.IOException
+import java.io.OutputStream
 import java.net.ConnectException
 import java.net.HttpURLConnection
 import java.net.MalformedURLException
 import java.net.SocketTimeoutException
 import java.net.UnknownHostException
+import java.util.zip.GZIPInputStream
 import javax.net.ssl.SSLException
 import javax.net.ssl.SSLHandshakeException
 
@@ -169,7 +172,7 @@ class HttpClientImplTest {
     fun `given connection is successful, when sendData is called, then return Success`() {
         every { mockConnection.responseCode } returns 200
 
-        val result = getHttpClient.sendData(REQUEST_BODY)
+        val result = getHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertSuccess(result)
     }
@@ -178,7 +181,7 @@ class HttpClientImplTest {
     fun `given connection is successful and response code is 2xx, when sendData is called, then return Success`() {
         every { mockConnection.responseCode } returns 299
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertSuccess(result)
     }
@@ -188,7 +191,7 @@ class HttpClientImplTest {
         val exception = IOException(ERROR_RESPONSE)
         every { mockConnection.connect() } throws exception
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(result, NetworkErrorStatus.ErrorRetry())
     }
@@ -197,7 +200,7 @@ class HttpClientImplTest {
     fun `given connection is unsuccessful and response code is 400, when sendData is called, then return Failure`() {
         every { mockConnection.responseCode } returns 400
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -209,7 +212,7 @@ class HttpClientImplTest {
     fun `given connection is unsuccessful and response code is 404, when sendData is called, then return Failure`() {
         every { mockConnection.responseCode } returns 404
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -221,7 +224,7 @@ class HttpClientImplTest {
     fun `given connection is unsuccessful and response code is 429, when sendData is called, then return retry able Failure`() {
         every { mockConnection.responseCode } returns 429
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -233,7 +236,7 @@ class HttpClientImplTest {
     fun `given connection is unsuccessful and response code is 4XX, when sendData is called, then return Failure`() {
         every { mockConnection.responseCode } returns 450
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -245,7 +248,7 @@ class HttpClientImplTest {
     fun `given connection is unsuccessful and response code is 5XX, when sendData is called, then return retry able Failure`() {
         every { mockConnection.responseCode } returns 500
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -260,7 +263,7 @@ class HttpClientImplTest {
                 connectionFactory = mockConnectionFactory,
                 baseUrl = WRONG_BASE_URL,
             )
-            postHttpClient.sendData(REQUEST_BODY)
+            postHttpClient.sendData(REQUEST_BODY.toRequestBody())
         }
     }
 
@@ -268,7 +271,7 @@ class HttpClientImplTest {
     fun `given invalid write key, when sendData is called, then return write key Failure`() {
         every { mockConnection.responseCode } returns 401
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -286,7 +289,7 @@ class HttpClientImplTest {
         // This is to simulate a network error.
         every { mockConnection.connect() } throws ConnectException()
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -299,7 +302,7 @@ class HttpClientImplTest {
         // This is to simulate a network error.
         every { mockConnection.connect() } throws IOException()
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -312,7 +315,7 @@ class HttpClientImplTest {
         // This is to simulate a network error.
         every { mockConnection.connect() } throws Exception()
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(
             result,
@@ -324,7 +327,7 @@ class HttpClientImplTest {
     fun `given socket timeout exception is thrown, when sendData is called, then return timeout error`() {
         every { mockConnection.connect() } throws SocketTimeoutException()
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(result, NetworkErrorStatus.ErrorTimeout)
     }
@@ -342,7 +345,7 @@ class HttpClientImplTest {
     fun `given SSL exception is thrown, when sendData is called, then return network unavailable error`() {
         every { mockConnection.connect() } throws SSLException("SSL connection failed")
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(result, NetworkErrorStatus.ErrorNetworkUnavailable)
     }
@@ -351,7 +354,7 @@ class HttpClientImplTest {
     fun `given SSL handshake exception is thrown, when sendData is called, then return network unavailable error`() {
         every { mockConnection.connect() } throws SSLHandshakeException("Handshake failed")
 
-        val result = postHttpClient.sendData(REQUEST_BODY)
+        val result = postHttpClient.sendData(REQUEST_BODY.toRequestBody())
 
         assertFailure(result, NetworkErrorStatus.ErrorNetworkUnavailable)
     }
@@ -365,10 +368,88 @@ class HttpClientImplTest {
         assertFailure(result, NetworkErrorStatus.ErrorNetworkUnavailable)
     }
 
+    @Test
+    fun `given server returns an error response, when sendData is called, then the connection is kept alive for reuse`() {
+        every { mockConnection.responseCode } returns 500
+
+        postHttpClient.sendData(REQUEST_BODY.toRequestBody())
+
+        verify { mockConnection.getErrorResponse() }
+        verify(exactly = 0) { mockConnection.disconnect() }
+    }
+
+    @Test
+    fun `given an exception is thrown while making a connection, when sendData is called, then the connection is disconnected`() {
+        every { mockConnection.connect() } throws IOException("Connection reset")
+
+        postHttpClient.sendData(REQUEST_BODY.toRequestBody())
+
+        verify { mockConnection.disconnect() }
+    }
+
+    @Test
+    fun `given additional headers, when sendData is called, then the connection is created with the base, post and additional headers`() {
+        every { mockConnection.responseCode } returns 200
+
+        postHttpClient.sendData(REQUEST_BODY.toRequestBody(), mapOf("AnonymousId" to "overridden-id", "Rsa-Retry-Attempt" to "1"))
+
+        verify {
+            mockConnectionFactory.createConnection(
+                any(),
+                mapOf(
+                    "Authorization" to "Basic auth-header",
+                    "AnonymousId" to "overridden-id",
+                    "Rsa-Retry-Attempt" to "1",
+                    "Content-Type" to "application/json",
+                )
+            )
+        }
+        verify { mockConnection.requestMethod = "POST" }
+    }
+
+    @Test
+    fun `given GZIP is enabled and the body is already encoded, when sendData is called, then the body is sent as it is`() {
+        val gzipHttpClient = provideHttpClientImplForPostRequest(connectionFactory = mockConnectionFactory, isGZIPEnabled = true)
+        val outputStream = ByteArrayOutputStream()
+        every { mockConnection.outputStream } returns outputStream
+        every { mockConnection.responseCode } returns 200
+        val encodedBody = object : RequestBody {
+            override val contentEncoding: String = "gzip"
+
+            override fun writeTo(outputStream: OutputStream) {
+                outputStream.write(REQUEST_BODY.toByteArray())
+            }
+        }
+
+        gzipHttpClient.sendData(encodedBody)
+
+        assertEquals(REQUEST_BODY, outputStream.toString())
+        verify {
+            mockConnectionFactory.createConnection(any(), match { it["Content-Encoding"] == "gzip" })
+        }
+    }
+
+    @Test
+    fun `given GZIP is enabled, when sendData is called, then the body is compressed with GZIP`() {
+        val gzipHttpClient = provideHttpClientImplForPostRequest(connectionFactory = mockConnectionFactory, isGZIPEnabled = true)
+        val outputStream = ByteArrayOutputStream()
+        every { mockConnection.outputStream } returns outputStream
+        every { mockConnection.responseCode } returns 200
+
+        gzipHttpClient.sendData(REQUEST_BODY.toRequestBody())
+
+        val decompressedBody = GZIPInputStream(outputStream.toByteArray().inputStream()).readBytes().decodeToString()
+        assertEquals(REQUEST_BODY, decompressedBody)
+        verify {
+            mockConnectionFactory.createConnection(any(), match { it["Content-Encoding"] == "gzip" })
+        }
+    }
+
     private fun assertSuccess(result: NetworkResult) {
         assertTrue(result is Result.Success)
         verify { mockConnection.connect() }
-        verify { mockConnection.disconnect() }
+        // the connection is not disconnected, so that it can be reused for the next request
+        verify(exactly = 0) { mockConnection.disconnect() }
     }
 
     private fun assertFailure(
@@ -377,7 +458,6 @@ class HttpClientImplTest {
     ) {
         assertTrue(result is Result.Failure)
         verify { mockConnection.connect() }
-        verify { mockConnection.disconnect() }
 
         result as Result.Failure // Safe cast after assertTrue
 
@@ -0,0 +1,124 @@
+package com.rudderstack.sdk.kotlin.core.internals.network
+
+import com.sun.net.httpserver.HttpServer
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.MethodSource
+import java.io.OutputStream
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.URL
+
+private const val SUCCESS_PATH = "/success"
+private const val ERROR_PATH = "/error"
+private const val REQUEST_BODY = "request-body"
+private const val HEADER_NAME = "Test-Header"
+private const val HEADER_VALUE = "test-value"
+private const val LARGE_BODY_SIZE = 1024 * 1024
+private const val CHUNK_SIZE = 8 * 1024
+
+class HttpTransportTest {
+
+    private lateinit var server: HttpServer
+    private val remotePorts = mutableListOf<Int>()
+
+    @BeforeEach
+    fun setUp() {
+        server = HttpServer.create(InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0).apply {
+            createContext(SUCCESS_PATH) { exchange ->
+                synchronized(remotePorts) { remotePorts.add(exchange.remoteAddress.port) }
+                val requestBody = exchange.requestBody.use { it.readBytes().decodeToString() }
+                val response = "${exchange.requestMethod} $requestBody ${exchange.requestHeaders.getFirst(HEADER_NAME)}"
+                    .toByteArray()
+                exchange.sendResponseHeaders(200, response.size.toLong())
+                exchange.responseBody.use { it.write(response) }
+            }
+            createContext(ERROR_PATH) { exchange ->
+                val response = "error".toByteArray()
+                exchange.sendResponseHeaders(500, response.size.toLong())
+                exchange.responseBody.use { it.write(response) }
+            }
+            start()
+        }
+    }
+
+    @AfterEach
+    fun tearDown() {
+        server.stop(0)
+    }
+
+    @ParameterizedTest
+    @MethodSource("transports")
+    fun `given a POST request with headers and body, when it is executed, then the server receives them`(transport: HttpTransport) {
+        val response = transport.execute(
+            HttpRequest(
+                url = urlOf(SUCCESS_PATH),
+                method = HttpMethod.POST,
+                headers = mapOf(HEADER_NAME to HEADER_VALUE),
+                body = REQUEST_BODY.toRequestBody(),
+            )
+        )
+
+        assertTrue(response.isSuccessful)
+        assertEquals("POST $REQUEST_BODY $HEADER_VALUE", response.body)
+    }
+
+    @ParameterizedTest
+    @MethodSource("transports")
+    fun `given a body larger than the buffers and of unknown length, when it is executed, then the server receives it whole`(
+        transport: HttpTransport
+    ) {
+        val largeBody = "a".repeat(LARGE_BODY_SIZE)
+        val streamedBody = object : RequestBody {
+            override fun writeTo(outputStream: OutputStream) {
+                largeBody.chunked(CHUNK_SIZE).forEach { outputStream.write(it.toByteArray()) }
+            }
+        }
+
+        val response = transport.execute(
+            HttpRequest(url = urlOf(SUCCESS_PATH), method = HttpMethod.POST, headers = emptyMap(), body = streamedBody)
+        )
+
+        assertTrue(response.isSuccessful)
+        assertEquals("POST $largeBody null", response.body)
+    }
+
+    @ParameterizedTest
+    @MethodSource("transports")
+    fun `given a request for which the server returns an error, when it is executed, then the error response is returned`(
+        transport: HttpTransport
+    ) {
+        val response = transport.execute(HttpRequest(url = urlOf(ERROR_PATH), method = HttpMethod.GET, headers = emptyMap()))
+
+        assertFalse(response.isSuccessful)
+        assertEquals(500, response.statusCode)
+        assertEquals("error", response.body)
+    }
+
+    @ParameterizedTest
+    @MethodSource("transports")
+    fun `given consecutive requests, when they are executed, then the same connection is reused`(transport: HttpTransport) {
+        repeat(3) {
+            transport.execute(
+                HttpRequest(url = urlOf(SUCCESS_PATH), method = HttpMethod.POST, headers = emptyMap(), body = REQUEST_BODY.toRequestBody())
+            )
+        }
+
+        assertEquals(1, remotePorts.distinct().size)
+    }
+
+    private fun urlOf(path: String) = URL("http://${server.address.hostString}:${server.address.port}$path")
+
+    companion object {
+
+        @JvmStatic
+        fun transports() = listOf(
+            HttpURLConnectionTransport(),
+            JavaNetHttpTransport(),
+        )
+    }
+}
@@ -3,8 +3,9 @@ package com.rudderstack.sdk.kotlin.core.internals.network.provider
 import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_GZIP_STATUS
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.network.HttpClientImpl
-import com.rudderstack.sdk.kotlin.core.internals.network.createPostConfig
 import com.rudderstack.sdk.kotlin.core.internals.network.HttpURLConnectionFactory
+import com.rudderstack.sdk.kotlin.core.internals.network.HttpURLConnectionTransport
+import com.rudderstack.sdk.kotlin.core.internals.network.createPostConfig
 import io.mockk.mockk
 import java.net.HttpURLConnection
 
@@ -27,7 +28,7 @@ internal fun provideHttpClientImplForGetRequest(
     authHeaderString = authHeaderString,
     query = query,
     customHeaders = customHeaders,
-    connectionFactory = connectionFactory,
+    transport = HttpURLConnectionTransport(connectionFactory),
     logger = mockLogger,
 )
 
@@ -48,7 +49,7 @@ internal fun provideHttpClientImplForPostRequest(
         anonymousIdHeaderString = anonymousIdHeaderString,
     ),
     customHeaders = customHeaders,
-    connectionFactory = connectionFactory,
+    transport = HttpURLConnectionTransport(connectionFactory),
     logger = mockLogger,
 )
 
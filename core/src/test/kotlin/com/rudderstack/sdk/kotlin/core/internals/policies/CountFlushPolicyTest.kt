@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.Test
 
+private const val EVENT_SIZE_IN_BYTES = 100
+
 class CountFlushPolicyTest {
 
     @Test
@@ -18,7 +20,7 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy()
 
         repeat(10) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertFalse(countFlushPolicy.shouldFlush())
@@ -29,7 +31,7 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy()
 
         repeat(DEFAULT_FLUSH_AT) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(countFlushPolicy.shouldFlush())
@@ -40,7 +42,7 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy(1)
 
         repeat(1) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(countFlushPolicy.shouldFlush())
@@ -51,7 +53,7 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy(10)
 
         repeat(10) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(countFlushPolicy.shouldFlush())
@@ -62,7 +64,7 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy(100)
 
         repeat(100) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(countFlushPolicy.shouldFlush())
@@ -73,7 +75,7 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy(-1)
 
         repeat(DEFAULT_FLUSH_AT) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(countFlushPolicy.shouldFlush())
@@ -84,25 +86,25 @@ class CountFlushPolicyTest {
         val countFlushPolicy = CountFlushPolicy(101)
 
         repeat(DEFAULT_FLUSH_AT) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(countFlushPolicy.shouldFlush())
     }
 
     @Test
-    fun `given this policy is enabled, when reset is called, then it should reset the count`() {
+    fun `given this policy is enabled, when the events are flushed, then it should reset the count`() {
         val countFlushPolicy = CountFlushPolicy()
 
         repeat(DEFAULT_FLUSH_AT) {
-            countFlushPolicy.updateState()
+            countFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
         }
 
         // It should flush now
         assertTrue(countFlushPolicy.shouldFlush())
 
-        // Reset the counter
-        countFlushPolicy.reset()
+        // Flushing the events resets the counter
+        countFlushPolicy.onFlushed()
 
         // Now the counter should be reset
         assertFalse(countFlushPolicy.shouldFlush())
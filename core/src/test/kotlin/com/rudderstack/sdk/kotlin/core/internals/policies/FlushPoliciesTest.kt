@@ -1,5 +1,6 @@
 package com.rudderstack.sdk.kotlin.core.internals.policies
 
+import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.advanceTimeBy
 import com.rudderstack.sdk.kotlin.core.internals.models.SourceConfig
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
@@ -10,11 +11,14 @@ import com.rudderstack.sdk.kotlin.core.mockAnalytics
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import io.mockk.every
 import io.mockk.mockk
+import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 
+private const val EVENT_SIZE_IN_BYTES = 100
+
 class FlushPoliciesTest {
 
     private val testDispatcher = StandardTestDispatcher()
@@ -56,7 +60,7 @@ class FlushPoliciesTest {
         assertFalse(flushPoliciesFacade.shouldFlush())
 
         repeat(DEFAULT_FLUSH_AT) {
-            flushPoliciesFacade.updateState()
+            flushPoliciesFacade.updateState(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(flushPoliciesFacade.shouldFlush())
@@ -93,7 +97,7 @@ class FlushPoliciesTest {
         assertFalse(flushPoliciesFacade.shouldFlush())
 
         repeat(DEFAULT_FLUSH_AT) {
-            flushPoliciesFacade.updateState()
+            flushPoliciesFacade.updateState(EVENT_SIZE_IN_BYTES)
         }
 
         assertTrue(flushPoliciesFacade.shouldFlush())
@@ -140,7 +144,7 @@ class FlushPoliciesTest {
 
 
         repeat(DEFAULT_FLUSH_AT) {
-            flushPoliciesFacade.updateState()
+            flushPoliciesFacade.updateState(EVENT_SIZE_IN_BYTES)
         }
 
         // CountFlushPolicy should flush after the default number of events have been tracked
@@ -150,7 +154,8 @@ class FlushPoliciesTest {
         flushPoliciesFacade.reset()
         assertFalse(flushPoliciesFacade.shouldFlush())
 
-        // FrequencyFlushPolicy should flush after the default interval
+        // FrequencyFlushPolicy should flush after the default interval, as an event is stored since the last flush
+        flushPoliciesFacade.updateState(EVENT_SIZE_IN_BYTES)
         testDispatcher.advanceTimeBy()
         coVerify(exactly = 1) {
             mockAnalytics.flush()
@@ -164,4 +169,50 @@ class FlushPoliciesTest {
             mockAnalytics.flush()
         }
     }
+
+    @Test
+    fun `given a custom policy, when the events are stored and flushed, then its hooks are called with the stored sizes`() {
+        val customFlushPolicy = CustomFlushPolicy(flushAtEvents = 2)
+        val flushPoliciesFacade = FlushPoliciesFacade(
+            flushPolicies = listOf(customFlushPolicy),
+            logger = mockLogger,
+        )
+
+        flushPoliciesFacade.schedule(mockAnalytics)
+        flushPoliciesFacade.updateState(10)
+        assertFalse(flushPoliciesFacade.shouldFlush())
+        flushPoliciesFacade.updateState(20)
+        assertTrue(flushPoliciesFacade.shouldFlush())
+        flushPoliciesFacade.reset()
+        flushPoliciesFacade.cancelSchedule()
+
+        assertEquals(listOf("schedule", "stored 10", "stored 20", "flushed", "cancel"), customFlushPolicy.calls)
+        assertFalse(flushPoliciesFacade.shouldFlush())
+    }
+}
+
+private class CustomFlushPolicy(private val flushAtEvents: Int) : FlushPolicy {
+
+    val calls = mutableListOf<String>()
+    private var storedEvents = 0
+
+    override fun schedule(analytics: Analytics) {
+        calls.add("schedule")
+    }
+
+    override fun cancelSchedule() {
+        calls.add("cancel")
+    }
+
+    override fun onEventStored(sizeInBytes: Int) {
+        storedEvents++
+        calls.add("stored $sizeInBytes")
+    }
+
+    override fun shouldFlush(): Boolean = storedEvents >= flushAtEvents
+
+    override fun onFlushed() {
+        storedEvents = 0
+        calls.add("flushed")
+    }
 }
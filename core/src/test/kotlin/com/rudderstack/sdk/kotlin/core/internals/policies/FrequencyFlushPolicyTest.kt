@@ -9,6 +9,8 @@ import org.junit.jupiter.api.Test
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.ValueSource
 
+private const val EVENT_SIZE_IN_BYTES = 100
+
 class FrequencyFlushPolicyTest {
 
     private val testDispatcher = StandardTestDispatcher()
@@ -155,4 +157,97 @@ class FrequencyFlushPolicyTest {
             mockAnalytics.flush()
         }
     }
+
+    @Test
+    fun `given no event is stored since the last flush, when the interval elapses, then it should not flush`() {
+        val frequencyFlushPolicy = FrequencyFlushPolicy()
+
+        frequencyFlushPolicy.schedule(mockAnalytics)
+        frequencyFlushPolicy.onFlushed()
+
+        repeat(3) { testDispatcher.advanceTimeBy() }
+        coVerify(exactly = 0) {
+            mockAnalytics.flush()
+        }
+    }
+
+    @Test
+    fun `given the policy is waiting for an event, when an event is stored, then it should flush after the interval`() {
+        val frequencyFlushPolicy = FrequencyFlushPolicy()
+        frequencyFlushPolicy.schedule(mockAnalytics)
+        frequencyFlushPolicy.onFlushed()
+        repeat(3) { testDispatcher.advanceTimeBy() }
+
+        frequencyFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
+
+        testDispatcher.advanceTimeBy(DEFAULT_FLUSH_INTERVAL_IN_MILLIS - 1)
+        coVerify(exactly = 0) {
+            mockAnalytics.flush()
+        }
+        testDispatcher.advanceTimeBy(1)
+        coVerify(exactly = 1) {
+            mockAnalytics.flush()
+        }
+    }
+
+    @Test
+    fun `given the events are flushed by another policy, when the interval elapses, then it should only flush the events stored since`() {
+        val frequencyFlushPolicy = FrequencyFlushPolicy()
+        frequencyFlushPolicy.schedule(mockAnalytics)
+
+        // An event is stored and flushed by another policy during the first interval
+        frequencyFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
+        frequencyFlushPolicy.onFlushed()
+        testDispatcher.advanceTimeBy()
+        coVerify(exactly = 0) {
+            mockAnalytics.flush()
+        }
+
+        frequencyFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
+        testDispatcher.advanceTimeBy()
+        coVerify(exactly = 1) {
+            mockAnalytics.flush()
+        }
+    }
+
+    @Test
+    fun `given an event is stored and flushed by another policy during an interval, when the next event is stored, then it should flush a full interval after it`() {
+        val frequencyFlushPolicy = FrequencyFlushPolicy()
+        frequencyFlushPolicy.schedule(mockAnalytics)
+        frequencyFlushPolicy.onFlushed()
+
+        // An event is stored and flushed by another policy while the scheduled flushes are not waiting for one
+        frequencyFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
+        frequencyFlushPolicy.onFlushed()
+        testDispatcher.advanceTimeBy()
+        testDispatcher.advanceTimeBy(DEFAULT_FLUSH_INTERVAL_IN_MILLIS / 2)
+
+        frequencyFlushPolicy.onEventStored(EVENT_SIZE_IN_BYTES)
+
+        testDispatcher.advanceTimeBy(DEFAULT_FLUSH_INTERVAL_IN_MILLIS - 1)
+        coVerify(exactly = 0) {
+            mockAnalytics.flush()
+        }
+        testDispatcher.advanceTimeBy(1)
+        coVerify(exactly = 1) {
+            mockAnalytics.flush()
+        }
+    }
+
+    @Test
+    fun `given a jitter is set, when the policy is scheduled, then it should flush within the interval and the jitter`() {
+        val jitter = 2_000L
+        val frequencyFlushPolicy = FrequencyFlushPolicy(DEFAULT_FLUSH_INTERVAL_IN_MILLIS, jitter)
+
+        frequencyFlushPolicy.schedule(mockAnalytics)
+
+        testDispatcher.advanceTimeBy(DEFAULT_FLUSH_INTERVAL_IN_MILLIS - 1)
+        coVerify(exactly = 0) {
+            mockAnalytics.flush()
+        }
+        testDispatcher.advanceTimeBy(jitter + 1)
+        coVerify(exactly = 1) {
+            mockAnalytics.flush()
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package com.rudderstack.sdk.kotlin.core.internals.policies
+
+import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_BATCH_SIZE
+import com.rudderstack.sdk.kotlin.core.internals.storage.MAX_PAYLOAD_SIZE
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+class SizeFlushPolicyTest {
+
+    @Test
+    fun `given no event has been stored, when shouldFlush is called, then it should return false`() {
+        val sizeFlushPolicy = SizeFlushPolicy()
+
+        assertFalse(sizeFlushPolicy.shouldFlush())
+    }
+
+    @Test
+    fun `given the stored events are just below the default size, when shouldFlush is called, then it should return false`() {
+        val sizeFlushPolicy = SizeFlushPolicy()
+
+        sizeFlushPolicy.onEventStored(DEFAULT_FLUSH_AT_BYTES - 1)
+
+        assertFalse(sizeFlushPolicy.shouldFlush())
+    }
+
+    @Test
+    fun `given the stored events reach the default size, when shouldFlush is called, then it should return true`() {
+        val sizeFlushPolicy = SizeFlushPolicy()
+
+        repeat(DEFAULT_FLUSH_AT_BYTES / MAX_PAYLOAD_SIZE) {
+            sizeFlushPolicy.onEventStored(MAX_PAYLOAD_SIZE)
+        }
+
+        assertTrue(sizeFlushPolicy.shouldFlush())
+    }
+
+    @Test
+    fun `given flushAtBytes is set to 1024, when 1024 bytes have been stored, then shouldFlush should return true`() {
+        val sizeFlushPolicy = SizeFlushPolicy(1024)
+
+        sizeFlushPolicy.onEventStored(1000)
+        assertFalse(sizeFlushPolicy.shouldFlush())
+
+        sizeFlushPolicy.onEventStored(24)
+        assertTrue(sizeFlushPolicy.shouldFlush())
+    }
+
+    @Test
+    fun `given flushAtBytes is above the maximum batch size, when the default size has been stored, then shouldFlush should return true`() {
+        val sizeFlushPolicy = SizeFlushPolicy(MAX_BATCH_SIZE + 1)
+
+        sizeFlushPolicy.onEventStored(DEFAULT_FLUSH_AT_BYTES)
+
+        assertTrue(sizeFlushPolicy.shouldFlush())
+    }
+
+    @Test
+    fun `given flushAtBytes is set to 0, when an event has been stored, then shouldFlush should return false`() {
+        val sizeFlushPolicy = SizeFlushPolicy(0)
+
+        sizeFlushPolicy.onEventStored(MAX_PAYLOAD_SIZE)
+
+        assertFalse(sizeFlushPolicy.shouldFlush())
+    }
+
+    @Test
+    fun `given this policy is enabled, when the events are flushed, then it should reset the stored size`() {
+        val sizeFlushPolicy = SizeFlushPolicy()
+        sizeFlushPolicy.onEventStored(DEFAULT_FLUSH_AT_BYTES)
+        assertTrue(sizeFlushPolicy.shouldFlush())
+
+        sizeFlushPolicy.onFlushed()
+
+        assertFalse(sizeFlushPolicy.shouldFlush())
+    }
+}
@@ -0,0 +1,172 @@
+package com.rudderstack.sdk.kotlin.core.internals.queue
+
+import com.rudderstack.sdk.kotlin.core.OverflowStrategy
+import com.rudderstack.sdk.kotlin.core.QueueConfiguration
+import kotlinx.coroutines.async
+import kotlinx.coroutines.test.runTest
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+private const val CAPACITY = 2
+
+class BoundedChannelTest {
+
+    @Test
+    fun `given an unbounded queue configuration, when many elements are offered, then none of them is dropped`() = runTest {
+        val channel = BoundedChannel<Int>(QueueConfiguration())
+
+        repeat(1000) { assertTrue(channel.offer(it, backgroundScope)) }
+
+        assertEquals(1000, channel.size)
+        assertEquals(0L, channel.droppedCount)
+    }
+
+    @Test
+    fun `given a full channel with DropNewest strategy, when an element is sent, then the new element is dropped`() = runTest {
+        val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.DropNewest))
+
+        channel.send(1)
+        channel.send(2)
+        val isSent = channel.send(3)
+        channel.close()
+
+        assertFalse(isSent)
+        assertEquals(1L, channel.droppedCount)
+        assertEquals(listOf(1, 2), channel.receiveAll())
+    }
+
+    @Test
+    fun `given a full channel with DropOldest strategy, when an element is sent, then the oldest element is dropped`() = runTest {
+        val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.DropOldest))
+
+        channel.send(1)
+        channel.send(2)
+        val isSent = channel.send(3)
+        channel.close()
+
+        assertTrue(isSent)
+        assertEquals(1L, channel.droppedCount)
+        assertEquals(listOf(2, 3), channel.receiveAll())
+    }
+
+    @Test
+    fun `given a full channel with a dropping strategy, when elements are dropped, then onDropped is called with each of them`() = runTest {
+        val droppedNewest = mutableListOf<Int>()
+        val dropNewestChannel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.DropNewest)) { droppedNewest += it }
+        val droppedOldest = mutableListOf<Int>()
+        val dropOldestChannel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.DropOldest)) { droppedOldest += it }
+
+        listOf(1, 2, 3).forEach {
+            dropNewestChannel.offer(it, backgroundScope)
+            dropOldestChannel.offer(it, backgroundScope)
+        }
+
+        assertEquals(listOf(3), droppedNewest)
+        assertEquals(listOf(1), droppedOldest)
+    }
+
+    @Test
+    fun `given a full channel with BlockWithTimeout strategy, when no space frees up within the timeout, then the offered element is dropped`() =
+        runTest {
+            val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.BlockWithTimeout(10)))
+
+            channel.offer(1, backgroundScope)
+            channel.offer(2, backgroundScope)
+            val isSent = channel.offer(3, backgroundScope)
+
+            assertFalse(isSent)
+            assertEquals(1L, channel.droppedCount)
+            assertEquals(CAPACITY, channel.size)
+        }
+
+    @Test
+    fun `given a full channel with Block strategy, when elements are offered, then they are handed off and queued in order once space frees up`() =
+        runTest {
+            val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.Block))
+            channel.offer(1, backgroundScope)
+            channel.offer(2, backgroundScope)
+
+            assertTrue(channel.offer(3, backgroundScope))
+            assertTrue(channel.offer(4, backgroundScope))
+            assertEquals(4, channel.size)
+
+            val received = mutableListOf<Int>()
+            val iterator = channel.iterator()
+            repeat(4) {
+                iterator.hasNext()
+                received += iterator.next()
+            }
+
+            assertEquals(listOf(1, 2, 3, 4), received)
+            assertEquals(0L, channel.droppedCount)
+        }
+
+    @Test
+    fun `given a full channel with BlockWithTimeout strategy, when an element is sent from a coroutine, then it suspends until the timeout and is dropped`() =
+        runTest {
+            val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.BlockWithTimeout(10)))
+
+            channel.send(1)
+            channel.send(2)
+            val isSent = channel.send(3)
+
+            assertFalse(isSent)
+            assertEquals(1L, channel.droppedCount)
+            assertEquals(CAPACITY, channel.size)
+        }
+
+    @Test
+    fun `given a full channel with Block strategy, when an element is sent from a coroutine, then it is queued once space frees up`() =
+        runTest {
+            val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.Block))
+            channel.send(1)
+            channel.send(2)
+
+            val pendingSend = async { channel.send(3) }
+            channel.iterator().run { hasNext(); next() }
+
+            assertTrue(pendingSend.await())
+            assertEquals(CAPACITY, channel.size)
+        }
+
+    @Test
+    fun `given a closed channel, when an element is offered, then it is neither queued nor counted as dropped`() = runTest {
+        val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.Block))
+        channel.close()
+
+        val isSent = channel.offer(1, backgroundScope)
+
+        assertFalse(isSent)
+        assertEquals(0, channel.size)
+        assertEquals(0L, channel.droppedCount)
+    }
+
+    @Test
+    fun `given elements in the channel, when they are received, then the size is decremented`() = runTest {
+        val channel = BoundedChannel<Int>(QueueConfiguration(CAPACITY, OverflowStrategy.Block))
+        channel.send(1)
+        channel.send(2)
+        channel.close()
+
+        channel.receiveAll()
+
+        assertEquals(0, channel.size)
+    }
+
+    @Test
+    fun `given a non-positive capacity, when queue configuration is created, then the queue is unbounded`() {
+        val queueConfiguration = QueueConfiguration(0, OverflowStrategy.DropNewest)
+
+        assertTrue(queueConfiguration.isUnbounded)
+    }
+}
+
+private suspend fun <T : Any> BoundedChannel<T>.receiveAll(): List<T> {
+    val elements = mutableListOf<T>()
+    for (element in this) {
+        elements.add(element)
+    }
+    return elements
+}
@@ -1,6 +1,7 @@
 package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.BatchPartitioning
 import com.rudderstack.sdk.kotlin.core.internals.logger.KotlinLogger
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
 import com.rudderstack.sdk.kotlin.core.internals.models.SourceConfig
@@ -8,6 +9,7 @@ import com.rudderstack.sdk.kotlin.core.internals.models.provider.provideEvent
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
 import com.rudderstack.sdk.kotlin.core.internals.policies.FlushPoliciesFacade
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
+import com.rudderstack.sdk.kotlin.core.internals.storage.DEFAULT_PARTITION_KEY
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToString
@@ -70,6 +72,7 @@ class EventQueueTest {
 
         coEvery { mockStorage.close() } just runs
         coEvery { mockStorage.write(StorageKeys.EVENT, any<String>()) } just runs
+        coEvery { mockStorage.writeEvent(any(), any()) } answers { firstArg<String>().toByteArray().size }
         every { mockAnalytics.sourceConfigState } returns State(SourceConfig.initialState())
         every { mockAnalytics.sourceConfigState } returns State(
             SourceConfig(
@@ -103,7 +106,7 @@ class EventQueueTest {
         advanceUntilIdle()
 
         coVerify(exactly = 1) {
-            mockStorage.write(StorageKeys.EVENT, message.encodeToString())
+            mockStorage.writeEvent(message.encodeToString(), message.anonymousId)
         }
     }
 
@@ -118,7 +121,7 @@ class EventQueueTest {
         advanceUntilIdle()
 
         coVerify(exactly = 0) {
-            mockStorage.write(StorageKeys.EVENT, message.encodeToString())
+            mockStorage.writeEvent(message.encodeToString(), any())
         }
     }
 
@@ -133,62 +136,72 @@ class EventQueueTest {
     }
 
     @Test
-    fun `given a stream of events containing different anonymous ids, when these events are made, then storage rolled over for each different anonymousId`() =
+    fun `given a stream of events containing different anonymous ids, when these events are made, then storage is not rolled over`() =
         runTest {
             val storage = mockAnalytics.storage
             val mockEvent1: Event = mockk(relaxed = true)
             val mockEvent2: Event = mockk(relaxed = true)
             every { mockEvent1.anonymousId } returns "anonymousId1"
-            every { mockEvent2.anonymousId } returns "anonymousId1"
-
-            val mockEvent3: Event = mockk(relaxed = true)
-            val mockEvent4: Event = mockk(relaxed = true)
-            every { mockEvent3.anonymousId } returns "anonymousId2"
-            every { mockEvent4.anonymousId } returns "anonymousId2"
+            every { mockEvent2.anonymousId } returns "anonymousId2"
 
             eventQueue.start()
 
             eventQueue.put(mockEvent1)
             eventQueue.put(mockEvent2)
-            eventQueue.put(mockEvent3)
-            eventQueue.put(mockEvent4)
+            eventQueue.put(mockEvent1)
 
             testDispatcher.scheduler.advanceUntilIdle()
 
-            coVerify(exactly = 2) {
+            coVerify(exactly = 0) {
                 storage.rollover()
             }
         }
 
     @Test
-    fun `given a stream of events containing different anonymous ids, when these events are made, then the last_event_anonymous_id is updated`() =
+    fun `given a stream of events containing different anonymous ids, when these events are made, then each event is written to the partition of its anonymousId`() =
         runTest {
             val storage = mockAnalytics.storage
             val mockEvent1: Event = mockk(relaxed = true)
             val mockEvent2: Event = mockk(relaxed = true)
-            every { mockEvent1.anonymousId } returns "anonymousId1"
-            every { mockEvent2.anonymousId } returns "anonymousId1"
-
             val mockEvent3: Event = mockk(relaxed = true)
-            val mockEvent4: Event = mockk(relaxed = true)
-            every { mockEvent3.anonymousId } returns "anonymousId2"
-            every { mockEvent4.anonymousId } returns "anonymousId2"
+            every { mockEvent1.anonymousId } returns "anonymousId1"
+            every { mockEvent2.anonymousId } returns "anonymousId2"
+            every { mockEvent3.anonymousId } returns "anonymousId1"
+            every { eventQueue.stringifyBaseEvent(any()) } returns "event"
 
             eventQueue.start()
 
             eventQueue.put(mockEvent1)
             eventQueue.put(mockEvent2)
+            eventQueue.put(mockEvent3)
             testDispatcher.scheduler.advanceUntilIdle()
+
+            coVerify(exactly = 2) {
+                storage.writeEvent("event", "anonymousId1")
+            }
             coVerify(exactly = 1) {
-                storage.write(StorageKeys.LAST_EVENT_ANONYMOUS_ID, "anonymousId1")
+                storage.writeEvent("event", "anonymousId2")
             }
+        }
 
-            eventQueue.put(mockEvent3)
-            eventQueue.put(mockEvent4)
+    @Test
+    fun `given mixed batch partitioning, when events of different anonymous ids are made, then they are all written to the same partition`() =
+        runTest {
+            every { mockAnalytics.configuration.batchPartitioning } returns BatchPartitioning.Mixed
+            val mockEvent1: Event = mockk(relaxed = true)
+            val mockEvent2: Event = mockk(relaxed = true)
+            every { mockEvent1.anonymousId } returns "anonymousId1"
+            every { mockEvent2.anonymousId } returns "anonymousId2"
+            every { eventQueue.stringifyBaseEvent(any()) } returns "event"
 
+            eventQueue.start()
+
+            eventQueue.put(mockEvent1)
+            eventQueue.put(mockEvent2)
             testDispatcher.scheduler.advanceUntilIdle()
-            coVerify(exactly = 1) {
-                storage.write(StorageKeys.LAST_EVENT_ANONYMOUS_ID, "anonymousId2")
+
+            coVerify(exactly = 2) {
+                mockStorage.writeEvent("event", DEFAULT_PARTITION_KEY)
             }
         }
 
@@ -203,7 +216,7 @@ class EventQueueTest {
     }
 
     @Test
-    fun `given default flush policies are enabled, when first event is made, then flush call should be triggered`() {
+    fun `given default flush policies are enabled, when first event is made, then flush call should be triggered`() = runTest {
         val mockEvent: Event = mockk(relaxed = true)
         val jsonString = """{"type":"track","event":"Test Event"}"""
         every { eventQueue.stringifyBaseEvent(mockEvent) } returns jsonString
@@ -229,7 +242,7 @@ class EventQueueTest {
     }
 
     @Test
-    fun `given default flush policies are enabled, when 30 events are made, then flush call should be triggered`() {
+    fun `given default flush policies are enabled, when 30 events are made, then flush call should be triggered`() = runTest {
         val mockEvent: Event = mockk(relaxed = true)
         val jsonString = """{"type":"track","event":"Test Event"}"""
         every { eventQueue.stringifyBaseEvent(mockEvent) } returns jsonString
@@ -283,7 +296,7 @@ class EventQueueTest {
     }
 
     @Test
-    fun `given default flush policies are enabled but source is disabled and platform type is mobile, when events are made, then the flush call is never triggered`() {
+    fun `given default flush policies are enabled but source is disabled and platform type is mobile, when events are made, then the flush call is never triggered`() = runTest {
         val mockEvent: Event = mockk(relaxed = true)
         val jsonString = """{"type":"track","event":"Test Event"}"""
         every { eventQueue.stringifyBaseEvent(mockEvent) } returns jsonString
@@ -344,7 +357,7 @@ class EventQueueTest {
     }
 
     @Test
-    fun `given default flush policies are enabled but source is disabled and platform type is server, when events are made, then the flush call is triggered`() {
+    fun `given default flush policies are enabled but source is disabled and platform type is server, when events are made, then the flush call is triggered`() = runTest {
         val mockEvent: Event = mockk(relaxed = true)
         val jsonString = """{"type":"track","event":"Test Event"}"""
         every { eventQueue.stringifyBaseEvent(mockEvent) } returns jsonString
@@ -378,7 +391,7 @@ class EventQueueTest {
     }
 
     @Test
-    fun `given default flush policies are enabled, when events are made, then the flush policies state should be updated`() {
+    fun `given default flush policies are enabled, when events are made, then the flush policies state should be updated`() = runTest {
         val storage = mockAnalytics.storage
         val times = 20
         val mockEvent: Event = mockk(relaxed = true)
@@ -394,13 +407,13 @@ class EventQueueTest {
         testDispatcher.scheduler.advanceUntilIdle()
 
         coVerify(exactly = times) {
-            storage.write(StorageKeys.EVENT, jsonString)
-            mockFlushPoliciesFacade.updateState()
+            storage.writeEvent(jsonString, any())
+            mockFlushPoliciesFacade.updateState(jsonString.length)
         }
     }
 
     @Test
-    fun `given default flush policies are enabled, when flush is called, then flush policies should be reset`() {
+    fun `given default flush policies are enabled, when flush is called, then flush policies should be reset`() = runTest {
         eventQueue.start()
         eventQueue.flush()
         testDispatcher.scheduler.advanceUntilIdle()
@@ -424,7 +437,7 @@ class EventQueueTest {
         }
 
     @Test
-    fun `given no policies are enabled, when explicit flush call is made, then flush call should happen`() {
+    fun `given no policies are enabled, when explicit flush call is made, then flush call should happen`() = runTest {
         val times = 100
         val mockEvent: Event = mockk(relaxed = true)
         val jsonString = """{"type":"track","event":"Test Event"}"""
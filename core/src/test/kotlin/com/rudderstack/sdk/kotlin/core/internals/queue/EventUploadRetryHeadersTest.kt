@@ -2,15 +2,17 @@ package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.SourceConfig
+import com.rudderstack.sdk.kotlin.core.internals.network.ANONYMOUS_ID_HEADER
 import com.rudderstack.sdk.kotlin.core.internals.network.HttpClient
 import com.rudderstack.sdk.kotlin.core.internals.network.NetworkErrorStatus
 import com.rudderstack.sdk.kotlin.core.internals.network.RetryAbleEventUploadError
 import com.rudderstack.sdk.kotlin.core.internals.policies.backoff.MaxAttemptsWithBackoff
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.Result
-import com.rudderstack.sdk.kotlin.core.internals.utils.empty
+import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToBase64
 import com.rudderstack.sdk.kotlin.core.mockAnalytics
 import io.mockk.MockKAnnotations
 import io.mockk.coEvery
@@ -38,6 +40,7 @@ private const val BATCH_PAYLOAD =
     """{"batch":[{"anonymousId":"test-id"}],"sentAt":"2024-01-01T00:00:00Z"}"""
 private const val FILE_PATH =
     "/data/user/0/com.rudderstack.android.sampleapp/app_rudder-android-store/test-key-0"
+private val ANONYMOUS_ID_HEADERS = mapOf(ANONYMOUS_ID_HEADER to "test-id".encodeToBase64())
 
 class EventUploadRetryHeadersTest {
 
@@ -73,15 +76,13 @@ class EventUploadRetryHeadersTest {
             )
         )
 
-        coEvery {
-            mockStorage.readString(StorageKeys.EVENT, String.empty())
-        } returns FILE_PATH
-        every { mockStorage.readBatchContent(FILE_PATH) } returns BATCH_PAYLOAD
+        every { mockStorage.readBatchRefs() } returns listOf(BatchRef(ref = FILE_PATH, id = 0))
+        every { mockStorage.readBatchStream(FILE_PATH) } answers { BATCH_PAYLOAD.byteInputStream() }
 
         eventUpload = EventUpload(
             analytics = mockAnalytics,
             httpClientFactory = mockHttpClient,
-            maxAttemptsWithBackoff = mockMaxAttemptsWithBackoff,
+            maxAttemptsWithBackoffProvider = { mockMaxAttemptsWithBackoff },
             retryHeadersProvider = mockRetryHeadersProvider,
         )
     }
@@ -93,8 +94,8 @@ class EventUploadRetryHeadersTest {
         processMessage()
 
         verify(exactly = 1) { mockRetryHeadersProvider.getHeaders(0, any()) }
-        verify(exactly = 1) { mockHttpClient.sendData(any(), emptyMap()) }
-        coVerify(exactly = 1) { mockRetryHeadersProvider.clear() }
+        verify(exactly = 1) { mockHttpClient.sendData(any(), ANONYMOUS_ID_HEADERS) }
+        coVerify(exactly = 1) { mockRetryHeadersProvider.clear(0) }
         coVerify(exactly = 0) { mockRetryHeadersProvider.recordFailure(any(), any(), any()) }
     }
 
@@ -111,7 +112,7 @@ class EventUploadRetryHeadersTest {
                 error = match { it is RetryAbleEventUploadError.ErrorRetry },
             )
         }
-        coVerify(exactly = 1) { mockRetryHeadersProvider.clear() }
+        coVerify(exactly = 1) { mockRetryHeadersProvider.clear(0) }
     }
 
     @Test
@@ -120,7 +121,7 @@ class EventUploadRetryHeadersTest {
 
         processMessage()
 
-        verify { mockHttpClient.sendData(body = any(), additionalHeaders = provideRetryHeadersWithReason()) }
+        verify { mockHttpClient.sendData(body = any(), additionalHeaders = provideRetryHeadersWithReason() + ANONYMOUS_ID_HEADERS) }
     }
 
     /**
@@ -159,7 +160,7 @@ class EventUploadRetryHeadersTest {
 
         processMessage()
 
-        coVerify(exactly = 1) { mockRetryHeadersProvider.clear() }
+        coVerify(exactly = 1) { mockRetryHeadersProvider.clear(0) }
     }
 
     @Test
@@ -193,15 +194,15 @@ class EventUploadRetryHeadersTest {
 
         verifyOrder {
             // Attempt 1: no headers, fails with ErrorRetry(500)
-            mockHttpClient.sendData(any(), emptyMap())
+            mockHttpClient.sendData(any(), ANONYMOUS_ID_HEADERS)
             // Attempt 2: reason reflects previous ErrorRetry(500)
-            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("server-500"))
+            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("server-500") + ANONYMOUS_ID_HEADERS)
             // Attempt 3: reason reflects previous ErrorNetworkUnavailable
-            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("client-network"))
+            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("client-network") + ANONYMOUS_ID_HEADERS)
             // Attempt 4: reason reflects previous ErrorTimeout
-            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("client-timeout"))
+            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("client-timeout") + ANONYMOUS_ID_HEADERS)
             // Attempt 5: reason reflects previous ErrorUnknown, succeeds
-            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("client-unknown"))
+            mockHttpClient.sendData(any(), provideRetryHeadersWithReason("client-unknown") + ANONYMOUS_ID_HEADERS)
         }
         coVerify(ordering = Ordering.ORDERED) {
             mockRetryHeadersProvider.recordFailure(
@@ -221,7 +222,7 @@ class EventUploadRetryHeadersTest {
                 timestampInMillis = any(),
                 error = match { it is RetryAbleEventUploadError.ErrorUnknown })
         }
-        coVerify { mockRetryHeadersProvider.clear() }
+        coVerify { mockRetryHeadersProvider.clear(0) }
     }
 
     private fun processMessage() {
@@ -2,19 +2,20 @@ package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.logger.KotlinLogger
-import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.SourceConfig
+import com.rudderstack.sdk.kotlin.core.internals.network.ANONYMOUS_ID_HEADER
 import com.rudderstack.sdk.kotlin.core.internals.network.HttpClient
 import com.rudderstack.sdk.kotlin.core.internals.network.NetworkErrorStatus
+import com.rudderstack.sdk.kotlin.core.internals.network.RequestBody
 import com.rudderstack.sdk.kotlin.core.internals.policies.backoff.MaxAttemptsWithBackoff
 import com.rudderstack.sdk.kotlin.core.internals.statemanagement.State
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
 import com.rudderstack.sdk.kotlin.core.internals.utils.DateTimeUtils
 import com.rudderstack.sdk.kotlin.core.internals.utils.JsonSentAtUpdater
 import com.rudderstack.sdk.kotlin.core.internals.utils.Result
 import com.rudderstack.sdk.kotlin.core.internals.utils.UseWithCaution
-import com.rudderstack.sdk.kotlin.core.internals.utils.empty
 import com.rudderstack.sdk.kotlin.core.internals.utils.encodeToBase64
 import com.rudderstack.sdk.kotlin.core.internals.utils.generateUUID
 import com.rudderstack.sdk.kotlin.core.internals.utils.handleInvalidWriteKey
@@ -22,6 +23,7 @@ import com.rudderstack.sdk.kotlin.core.mockAnalytics
 import com.rudderstack.sdk.kotlin.core.readFileTrimmed
 import com.rudderstack.sdk.kotlin.core.setupLogger
 import io.mockk.MockKAnnotations
+import io.mockk.MockKMatcherScope
 import io.mockk.clearMocks
 import io.mockk.coEvery
 import io.mockk.coVerify
@@ -40,11 +42,15 @@ import kotlinx.coroutines.test.TestScope
 import kotlinx.coroutines.test.runTest
 import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNotSame
+import org.junit.jupiter.api.Assertions.assertTrue
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.params.ParameterizedTest
 import org.junit.jupiter.params.provider.Arguments
 import org.junit.jupiter.params.provider.MethodSource
+import java.io.ByteArrayOutputStream
 
 private const val batchPayload = "test content"
 private const val batchPayload1 = "test content 1"
@@ -91,8 +97,6 @@ class EventUploadTest {
         "1970-01-01T00:00:05Z"
     )
 
-    private val mockLogger: Logger = mockk(relaxed = true)
-
     private val testDispatcher = StandardTestDispatcher()
     private val testScope = TestScope(testDispatcher)
     private val mockAnalytics: Analytics = mockAnalytics(testScope, testDispatcher)
@@ -125,7 +129,7 @@ class EventUploadTest {
             EventUpload(
                 analytics = mockAnalytics,
                 httpClientFactory = mockHttpClient,
-                maxAttemptsWithBackoff = mockMaxAttemptsWithBackoff,
+                maxAttemptsWithBackoffProvider = { mockMaxAttemptsWithBackoff },
                 retryHeadersProvider = mockRetryHeadersProvider,
             )
         )
@@ -144,7 +148,7 @@ class EventUploadTest {
             prepareMultipleBatch()
             // Mock batch content reading
             filePaths.forEach { path ->
-                every { mockStorage.readBatchContent(path) } returns unprocessedBatch
+                every { mockStorage.readBatchStream(path) } answers { unprocessedBatch.byteInputStream() }
             }
             // Mock the behavior for HttpClient
             every { mockHttpClient.sendData(any(), any()) } returns Result.Success("Ok")
@@ -156,47 +160,62 @@ class EventUploadTest {
                 verify(exactly = 1) { mockStorage.remove(path) }
             }
             verify(exactly = 2) {
-                mockHttpClient.sendData(processedBatch, any())
+                mockHttpClient.sendData(bodyOf(processedBatch), any())
             }
         }
 
     @Test
-    fun `given batches of events with different anonymousIds, when they are uploaded, then header is updated for each batch with different anonymousId`() {
+    fun `given batches of events with different anonymousIds, when they are uploaded, then each batch is sent with the header of its anonymousId`() {
         prepareMultipleBatch()
-        every { mockStorage.readBatchContent(filePaths[0]) } returns batchPayload1
-        every { mockStorage.readBatchContent(filePaths[1]) } returns batchPayload2
+        every { mockStorage.readBatchStream(filePaths[0]) } answers { batchPayload1.byteInputStream() }
+        every { mockStorage.readBatchStream(filePaths[1]) } answers { batchPayload2.byteInputStream() }
         every { eventUpload.getAnonymousIdFromBatch(batchPayload1) } returns anonymousId1
         every { eventUpload.getAnonymousIdFromBatch(batchPayload2) } returns anonymousId2
         // Mock the behavior for HttpClient
-        every { mockHttpClient.sendData(batchPayload1, any()) } returns Result.Success("Ok")
-        every { mockHttpClient.sendData(batchPayload2, any()) } returns Result.Success("Ok")
+        every { mockHttpClient.sendData(bodyOf(batchPayload1), any()) } returns Result.Success("Ok")
+        every { mockHttpClient.sendData(bodyOf(batchPayload2), any()) } returns Result.Success("Ok")
+
+        processMessage()
+
+        verify(exactly = 1) {
+            mockHttpClient.sendData(bodyOf(batchPayload1), match { it[ANONYMOUS_ID_HEADER] == anonymousId1.encodeToBase64() })
+            mockHttpClient.sendData(bodyOf(batchPayload2), match { it[ANONYMOUS_ID_HEADER] == anonymousId2.encodeToBase64() })
+        }
+    }
+
+    @Test
+    fun `given batches with a recorded partition key, when they are uploaded, then they are sent with the header of the partition key without reading it from the batch`() {
+        every { mockStorage.readBatchRefs() } returns listOf(
+            BatchRef(ref = filePaths[0], id = 0, partitionKey = anonymousId1),
+            BatchRef(ref = filePaths[1], id = 1, partitionKey = anonymousId2),
+        )
+        every { mockStorage.readBatchStream(filePaths[0]) } answers { batchPayload1.byteInputStream() }
+        every { mockStorage.readBatchStream(filePaths[1]) } answers { batchPayload2.byteInputStream() }
+        every { mockHttpClient.sendData(any(), any()) } returns Result.Success("Ok")
 
         processMessage()
 
-        coVerify(exactly = 1) {
-            mockHttpClient.updateAnonymousIdHeaderString(anonymousId1.encodeToBase64())
-            mockHttpClient.updateAnonymousIdHeaderString(anonymousId2.encodeToBase64())
+        verify(exactly = 1) {
+            mockHttpClient.sendData(bodyOf(batchPayload1), match { it[ANONYMOUS_ID_HEADER] == anonymousId1.encodeToBase64() })
+            mockHttpClient.sendData(bodyOf(batchPayload2), match { it[ANONYMOUS_ID_HEADER] == anonymousId2.encodeToBase64() })
         }
+        verify(exactly = 0) { eventUpload.getAnonymousIdFromBatch(any()) }
     }
 
     @ParameterizedTest
     @MethodSource("batchAnonymousIdTestProvider")
-    fun `given a batch with some anonymousId, when it is uploaded, then header is updated with correct anonymousId`(
+    fun `given a batch with some anonymousId, when it is uploaded, then it is sent with the header of the correct anonymousId`(
         batchPayload: String,
         anonymousIdFromBatch: String
     ) = runTest(testDispatcher) {
         val filePaths = listOf(
             "/data/user/0/com.rudderstack.android.sampleapp/app_rudder-android-store/<WRITE_KEY>-0"
         )
-        val fileUrlList = filePaths.joinToString(",")
-
-        coEvery {
-            mockStorage.readString(StorageKeys.EVENT, String.empty())
-        } returns fileUrlList
-        every { mockStorage.readBatchContent(filePaths[0]) } returns batchPayload
+        every { mockStorage.readBatchRefs() } returns filePaths.toBatchRefs()
+        every { mockStorage.readBatchStream(filePaths[0]) } answers { batchPayload.byteInputStream() }
 
         // Mock the behavior for HttpClient
-        every { mockHttpClient.sendData(batchPayload, any()) } returns Result.Success("Ok")
+        every { mockHttpClient.sendData(bodyOf(batchPayload), any()) } returns Result.Success("Ok")
 
         val randomUUID = "some_random_id"
         mockkStatic(::generateUUID)
@@ -205,8 +224,8 @@ class EventUploadTest {
         processMessage()
 
         val encodedAnonymousId = anonymousIdFromBatch.encodeToBase64()
-        coVerify(atLeast = 1) {
-            mockHttpClient.updateAnonymousIdHeaderString(encodedAnonymousId)
+        verify(atLeast = 1) {
+            mockHttpClient.sendData(bodyOf(batchPayload), match { it[ANONYMOUS_ID_HEADER] == encodedAnonymousId })
         }
     }
 
@@ -245,7 +264,7 @@ class EventUploadTest {
 
         // The batch should be sent with the updated `sentAt` timestamp
         updatedBatchList.forEach { payload ->
-            verify(exactly = 1) { mockHttpClient.sendData(payload, any()) }
+            verify(exactly = 1) { mockHttpClient.sendData(bodyOf(payload), any()) }
         }
         // Once the batch is sent successfully, the file should be removed from storage
         verify(exactly = 1) { mockStorage.remove(singleFilePath) }
@@ -272,7 +291,7 @@ class EventUploadTest {
         prepareMultipleBatch()
         val exception = Exception("File not found")
         filePaths.forEach { path ->
-            every { mockStorage.readBatchContent(path) } throws exception
+            every { mockStorage.readBatchStream(path) } throws exception
         }
 
         processMessage()
@@ -282,11 +301,26 @@ class EventUploadTest {
         }
     }
 
+    @Test
+    fun `given GZIP is enabled and the batch was compressed, when flush is called, then the compressed batch is uploaded`() {
+        val unprocessedBatch = readFileTrimmed(unprocessedBatchWithTwoEvents)
+        val compressedBody = mockk<RequestBody>(relaxed = true)
+        prepareSingleBatch(unprocessedBatch)
+        every { mockAnalytics.configuration.gzipEnabled } returns true
+        every { mockStorage.readCompressedBatchBody(singleFilePath, mockCurrentTime) } returns compressedBody
+        every { mockHttpClient.sendData(any(), any()) } returns Result.Success("Ok")
+
+        processMessage()
+
+        verify(exactly = 1) { mockHttpClient.sendData(compressedBody, any()) }
+        verify(exactly = 1) { mockStorage.remove(singleFilePath) }
+    }
+
     @Test
     fun `given server returns 400, when flush is called, then the batch is removed from the storage`() = runTest {
         val unprocessedBatch = readFileTrimmed(unprocessedBatchWithTwoEvents)
-        every { mockStorage.readString(StorageKeys.EVENT, String.empty()) } returns singleFilePath
-        every { mockStorage.readBatchContent(singleFilePath) } returns unprocessedBatch
+        every { mockStorage.readBatchRefs() } returns listOf(singleFilePath).toBatchRefs()
+        every { mockStorage.readBatchStream(singleFilePath) } answers { unprocessedBatch.byteInputStream() }
         every { mockHttpClient.sendData(any(), any()) } returns Result.Failure(
             error = NetworkErrorStatus.Error400,
         )
@@ -301,17 +335,17 @@ class EventUploadTest {
         prepareMultipleBatch()
         // Mock batch content reading
         filePaths.forEach { path ->
-            every { mockStorage.readBatchContent(path) } returns batchPayload
+            every { mockStorage.readBatchStream(path) } answers { batchPayload.byteInputStream() }
         }
         // Mock the behavior for HttpClient
-        every { mockHttpClient.sendData(batchPayload, any()) } returns Result.Failure(
+        every { mockHttpClient.sendData(bodyOf(batchPayload), any()) } returns Result.Failure(
             error = NetworkErrorStatus.Error404,
         )
 
         processMessage()
 
         // Verify network attempt is made and event is not removed from storage
-        verify(exactly = 1) { mockHttpClient.sendData(batchPayload, any()) }
+        verify(exactly = 1) { mockHttpClient.sendData(bodyOf(batchPayload), any()) }
         filePaths.forEach { path ->
             verify(exactly = 0) { mockStorage.remove(path) }
         }
@@ -323,14 +357,14 @@ class EventUploadTest {
         testDispatcher.scheduler.advanceUntilIdle()
 
         // Verify this time network attempt is not made again
-        verify(exactly = 0) { mockHttpClient.sendData(batchPayload, any()) }
+        verify(exactly = 0) { mockHttpClient.sendData(bodyOf(batchPayload), any()) }
     }
 
     @Test
     fun `given server returns 413, when flush is called, then the batch is removed from the storage`() = runTest {
         val unprocessedBatch = readFileTrimmed(unprocessedBatchWithTwoEvents)
-        every { mockStorage.readString(StorageKeys.EVENT, String.empty()) } returns singleFilePath
-        every { mockStorage.readBatchContent(singleFilePath) } returns unprocessedBatch
+        every { mockStorage.readBatchRefs() } returns listOf(singleFilePath).toBatchRefs()
+        every { mockStorage.readBatchStream(singleFilePath) } answers { unprocessedBatch.byteInputStream() }
         every { mockHttpClient.sendData(any(), any()) } returns Result.Failure(
             error = NetworkErrorStatus.Error413,
         )
@@ -344,8 +378,8 @@ class EventUploadTest {
     @Test
     fun `given server returns 401, when flush is called, then the invalid write key process is initiated`() = runTest {
         val unprocessedBatch = readFileTrimmed(unprocessedBatchWithTwoEvents)
-        every { mockStorage.readString(StorageKeys.EVENT, String.empty()) } returns singleFilePath
-        every { mockStorage.readBatchContent(singleFilePath) } returns unprocessedBatch
+        every { mockStorage.readBatchRefs() } returns listOf(singleFilePath).toBatchRefs()
+        every { mockStorage.readBatchStream(singleFilePath) } answers { unprocessedBatch.byteInputStream() }
         every { mockHttpClient.sendData(any(), any()) } returns Result.Failure(
             error = NetworkErrorStatus.Error401,
         )
@@ -358,20 +392,62 @@ class EventUploadTest {
         }
     }
 
-    private fun prepareMultipleBatch() {
-        val fileUrlList = filePaths.joinToString(",")
+    @Test
+    fun `given an upload pass is pending, when flush is called multiple times, then they are coalesced into a single upload pass`() {
+        prepareSingleBatch(batchPayload)
+        every { mockHttpClient.sendData(any(), any()) } returns Result.Success("Ok")
+        eventUpload.start()
+
+        val uploadPasses = List(5) { eventUpload.flush() }
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        assertEquals(1, uploadPasses.distinct().size)
+        verify(exactly = 1) { mockStorage.readBatchRefs() }
+        verify(exactly = 1) { mockHttpClient.sendData(bodyOf(batchPayload), any()) }
+    }
+
+    @Test
+    fun `given an upload pass is done, when flush is called again, then a new upload pass is performed`() {
+        prepareSingleBatch(batchPayload)
+        every { mockHttpClient.sendData(any(), any()) } returns Result.Success("Ok")
+        eventUpload.start()
+
+        val firstUploadPass = eventUpload.flush()
+        testDispatcher.scheduler.advanceUntilIdle()
+        val secondUploadPass = eventUpload.flush()
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        assertNotSame(firstUploadPass, secondUploadPass)
+        verify(exactly = 2) { mockStorage.readBatchRefs() }
+    }
+
+    @Test
+    fun `given flush is called, when the upload pass is done or the upload is cancelled, then the returned job is completed or cancelled`() {
+        prepareSingleBatch(batchPayload)
+        every { mockHttpClient.sendData(any(), any()) } returns Result.Success("Ok")
+        eventUpload.start()
+
+        val uploadPass = eventUpload.flush()
+        assertFalse(uploadPass.isCompleted)
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        assertTrue(uploadPass.isCompleted)
+        assertFalse(uploadPass.isCancelled)
+
+        val cancelledUploadPass = eventUpload.flush()
+        eventUpload.cancel()
 
+        assertTrue(cancelledUploadPass.isCancelled)
+    }
+
+    private fun prepareMultipleBatch() {
         // Mock storage read
-        coEvery {
-            mockStorage.readString(StorageKeys.EVENT, String.empty())
-        } returns fileUrlList
+        every { mockStorage.readBatchRefs() } returns filePaths.toBatchRefs()
     }
 
     private fun prepareSingleBatch(batchPayload: String) {
-        coEvery {
-            mockStorage.readString(StorageKeys.EVENT, String.empty())
-        } returns singleFilePath
-        every { mockStorage.readBatchContent(singleFilePath) } returns batchPayload
+        every { mockStorage.readBatchRefs() } returns listOf(singleFilePath).toBatchRefs()
+        every { mockStorage.readBatchStream(singleFilePath) } answers { batchPayload.byteInputStream() }
     }
 
     private fun simulateRetryAbleError(maxAttempt: Int = MAX_ATTEMPT) {
@@ -401,7 +477,9 @@ class EventUploadTest {
         every { DateTimeUtils.now() } returnsMany listOfTimeStamp
         return mutableListOf<String>().apply {
             repeat(totalAttempts) {
-                add(JsonSentAtUpdater.updateSentAt(unprocessedBatch, mockLogger))
+                val outputStream = ByteArrayOutputStream()
+                JsonSentAtUpdater.writeWithUpdatedSentAt(unprocessedBatch.byteInputStream(), outputStream, DateTimeUtils.now())
+                add(outputStream.toByteArray().decodeToString())
             }
         }
     }
@@ -429,3 +507,9 @@ class EventUploadTest {
         )
     }
 }
+
+private fun MockKMatcherScope.bodyOf(expected: String): RequestBody = match { it.readText() == expected }
+
+private fun RequestBody.readText(): String = ByteArrayOutputStream().also { writeTo(it) }.toByteArray().decodeToString()
+
+private fun List<String>.toBatchRefs(): List<BatchRef> = mapIndexed { index, path -> BatchRef(ref = path, id = index) }
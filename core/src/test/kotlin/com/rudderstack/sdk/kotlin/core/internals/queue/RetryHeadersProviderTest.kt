@@ -2,6 +2,7 @@ package com.rudderstack.sdk.kotlin.core.internals.queue
 
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.RetryMetadata
+import com.rudderstack.sdk.kotlin.core.internals.models.toJson
 import com.rudderstack.sdk.kotlin.core.internals.network.RetryAbleEventUploadError
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
@@ -159,6 +160,12 @@ class RetryHeadersProviderTest {
                     lastAttemptTimestampInMillis = 2000L,
                     reason = "client-timeout"
                 )
+                verifyMetadataWrittenToStorage(
+                    batchId = 0,
+                    attempt = 5,
+                    lastAttemptTimestampInMillis = 1000L,
+                    reason = "server-500"
+                )
             }
 
         @Test
@@ -214,11 +221,36 @@ class RetryHeadersProviderTest {
     inner class Clear {
 
         @Test
-        fun `when clear is called, then removes retry metadata from storage`() = runTest {
-            provider.clear()
+        fun `given metadata only for the batch, when clear is called, then removes retry metadata from storage`() = runTest {
+            every {
+                storage.readString(StorageKeys.RETRY_METADATA, any())
+            } returns provideRetryMetadataInStringFormat()
+
+            provider.clear(batchId = 0)
 
             coVerify { storage.remove(StorageKeys.RETRY_METADATA) }
         }
+
+        @Test
+        fun `given metadata for multiple batches, when clear is called for one batch, then keeps the metadata of the other batches`() =
+            runTest {
+                every {
+                    storage.readString(StorageKeys.RETRY_METADATA, any())
+                } returns listOf(
+                    RetryMetadata(batchId = 0, attempt = 2, lastAttemptTimestampInMillis = 1000L, reason = "server-500"),
+                    RetryMetadata(batchId = 1, attempt = 1, lastAttemptTimestampInMillis = 2000L, reason = "client-timeout"),
+                ).toJson()
+
+                provider.clear(batchId = 0)
+
+                coVerify(exactly = 0) { storage.remove(StorageKeys.RETRY_METADATA) }
+                verifyMetadataWrittenToStorage(
+                    batchId = 1,
+                    attempt = 1,
+                    lastAttemptTimestampInMillis = 2000L,
+                    reason = "client-timeout"
+                )
+            }
     }
 
     @Nested
@@ -278,9 +310,8 @@ class RetryHeadersProviderTest {
             storage.write(
                 StorageKeys.RETRY_METADATA,
                 match<String> { json ->
-                    val parsed = RetryMetadata.fromJson(json, mockLogger)
+                    val parsed = RetryMetadata.listFromJson(json, mockLogger).find { it.batchId == batchId }
                     parsed != null &&
-                            parsed.batchId == batchId &&
                             parsed.attempt == attempt &&
                             parsed.lastAttemptTimestampInMillis == lastAttemptTimestampInMillis &&
                             parsed.reason == reason
@@ -133,7 +133,16 @@ class BasicStorageTest {
 
             storage.write(EVENT, payload)
 
-            coVerify { mockEventsFile.storeEvent(payload) }
+            coVerify { mockEventsFile.storeEvent(payload, any(), payload.toByteArray()) }
+        }
+
+        @Test
+        fun `given a multi-byte event payload, when writeEvent is called, then the size of its UTF-8 encoded bytes is returned`() = runTest {
+            val payload = """{"event":"café"}"""
+
+            val payloadSize = storage.writeEvent(payload, DEFAULT_PARTITION_KEY)
+
+            assertEquals(payload.toByteArray().size, payloadSize)
         }
 
         @Test
@@ -141,7 +150,15 @@ class BasicStorageTest {
             val oversizedPayload = "x".repeat(MAX_PAYLOAD_SIZE + 1)
 
             assertThrows<PayloadTooLargeException> { storage.write(EVENT, oversizedPayload) }
-            coVerify(exactly = 0) { mockEventsFile.storeEvent(any()) }
+            coVerify(exactly = 0) { mockEventsFile.storeEvent(any(), any(), any()) }
+        }
+
+        @Test
+        fun `given a multi-byte payload whose UTF-8 size exceeds MAX_PAYLOAD_SIZE, when write is called with EVENT key, then PayloadTooLargeException is thrown`() = runTest {
+            val oversizedPayload = "é".repeat(MAX_PAYLOAD_SIZE / 2 + 1)
+
+            assertThrows<PayloadTooLargeException> { storage.write(EVENT, oversizedPayload) }
+            coVerify(exactly = 0) { mockEventsFile.storeEvent(any(), any(), any()) }
         }
     }
 
@@ -203,6 +220,16 @@ class BasicStorageTest {
     @Nested
     inner class FileOperationsTest {
 
+        @Test
+        fun `given eventBatchFile returns batch refs, when readBatchRefs is called, then the refs from eventBatchFile are returned`() {
+            val batchRefs = listOf(BatchRef(ref = "file1", id = 1))
+            every { mockEventsFile.readBatchRefs() } returns batchRefs
+
+            val actual = storage.readBatchRefs()
+
+            assertEquals(batchRefs, actual)
+        }
+
         @Test
         fun `given eventBatchFile returns file list, when readFileList is called, then the list from eventBatchFile is returned`() {
             val fileList = listOf("file1")
@@ -224,6 +251,17 @@ class BasicStorageTest {
             assertEquals(batchContent, actual)
         }
 
+        @Test
+        fun `given eventBatchFile returns a content stream, when readBatchStream is called, then the stream is returned`() {
+            val batchRef = "file1"
+            val batchStream = "batch-content".byteInputStream()
+            every { mockEventsFile.readContentStream(batchRef) } returns batchStream
+
+            val actual = storage.readBatchStream(batchRef)
+
+            assertEquals(batchStream, actual)
+        }
+
         @Test
         fun `given a batch file path with numeric name, when getBatchId is called, then the numeric id is returned`() {
             val batchFilePath = "/some/path/42"
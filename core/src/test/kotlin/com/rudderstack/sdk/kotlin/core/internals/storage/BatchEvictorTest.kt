@@ -0,0 +1,114 @@
+package com.rudderstack.sdk.kotlin.core.internals.storage
+
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.EvictionPolicy
+import com.rudderstack.sdk.kotlin.core.StorageQuota
+import com.rudderstack.sdk.kotlin.core.internals.models.EventType
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+
+private const val NOW = 1_000_000L
+
+class BatchEvictorTest {
+
+    @Test
+    fun `given no quota, when selectEvictions is called, then no batch is selected`() {
+        val evictor = BatchEvictor(StorageQuota()) { NOW }
+
+        val evicted = evictor.selectEvictions(provideBatches(count = 5))
+
+        assertTrue(evictor.isUnlimited)
+        assertTrue(evicted.isEmpty())
+        assertEquals(EvictionCounters(), evictor.evictionCounters)
+    }
+
+    @Test
+    fun `given too many batches and the drop oldest policy, when selectEvictions is called, then the oldest batches are selected`() {
+        val evictor = BatchEvictor(StorageQuota(maxBatches = 3)) { NOW }
+
+        val evicted = evictor.selectEvictions(provideBatches(count = 5))
+
+        assertEquals(listOf(0, 1), evicted.map { it.ref.id })
+        assertEquals(EvictionCounters(overQuotaBatches = 2, evictedBytes = 200), evictor.evictionCounters)
+    }
+
+    @Test
+    fun `given too many batches and the drop newest policy, when selectEvictions is called, then the newest batches are selected`() {
+        val evictor = BatchEvictor(StorageQuota(maxBatches = 3, evictionPolicy = EvictionPolicy.DropNewest)) { NOW }
+
+        val evicted = evictor.selectEvictions(provideBatches(count = 5))
+
+        assertEquals(listOf(4, 3), evicted.map { it.ref.id })
+    }
+
+    @Test
+    fun `given too many bytes, when selectEvictions is called, then batches are selected until the rest fit the quota`() {
+        val evictor = BatchEvictor(StorageQuota(maxBytes = 250)) { NOW }
+
+        val evicted = evictor.selectEvictions(provideBatches(count = 4))
+
+        assertEquals(listOf(0, 1), evicted.map { it.ref.id })
+        assertEquals(200L, evictor.evictionCounters.evictedBytes)
+    }
+
+    @Test
+    fun `given the priority aware policy, when selectEvictions is called, then the batches with priority events are selected last`() {
+        val evictor = BatchEvictor(StorageQuota(maxBatches = 1, evictionPolicy = EvictionPolicy.PriorityAware())) { NOW }
+        val batches = provideBatches(count = 4, priorityIds = setOf(0, 2))
+
+        val evicted = evictor.selectEvictions(batches)
+
+        assertEquals(listOf(1, 3, 0), evicted.map { it.ref.id })
+        assertEquals(1L, evictor.evictionCounters.priorityBatches)
+    }
+
+    @Test
+    fun `given batches older than the max age, when selectEvictions is called, then they are selected as expired`() {
+        val evictor = BatchEvictor(StorageQuota(maxAgeInMillis = 150)) { NOW }
+
+        val evicted = evictor.selectEvictions(provideBatches(count = 4))
+
+        assertEquals(listOf(0, 1), evicted.map { it.ref.id })
+        assertEquals(EvictionCounters(expiredBatches = 2, evictedBytes = 200), evictor.evictionCounters)
+        assertEquals(2L, evictor.evictionCounters.evictedBatches)
+    }
+
+    @Test
+    fun `given batches which are not evictable, when selectEvictions is called, then they count towards the quota but are kept`() {
+        val evictor = BatchEvictor(StorageQuota(maxBatches = 2, maxAgeInMillis = 150)) { NOW }
+
+        val evicted = evictor.selectEvictions(provideBatches(count = 5)) { it.ref.id !in setOf(0, 3) }
+
+        assertEquals(listOf(1, 2, 4), evicted.map { it.ref.id })
+        assertEquals(EvictionCounters(expiredBatches = 2, overQuotaBatches = 1, evictedBytes = 300), evictor.evictionCounters)
+    }
+
+    @Test
+    fun `given the priority aware policy, when isPriorityEvent is called, then only the priority event types match`() {
+        val evictor = BatchEvictor(StorageQuota(evictionPolicy = EvictionPolicy.PriorityAware(setOf(EventType.Identify))))
+
+        assertTrue(evictor.isPriorityEvent("""{"type":"identify","userId":"user-1"}"""))
+        assertFalse(evictor.isPriorityEvent("""{"type":"track","event":"identify"}"""))
+    }
+
+    @Test
+    fun `given the drop oldest policy, when isPriorityEvent is called, then false is returned`() {
+        val evictor = BatchEvictor(StorageQuota(maxBatches = 1))
+
+        assertFalse(evictor.isPriorityEvent("""{"type":"identify","userId":"user-1"}"""))
+    }
+}
+
+/**
+ * Provides batches of 100 bytes, the first one being the oldest, created 100 milliseconds apart up to [NOW].
+ */
+private fun provideBatches(count: Int, priorityIds: Set<Int> = emptySet()) = List(count) { id ->
+    CompletedBatch(
+        ref = BatchRef(ref = id.toString(), id = id),
+        size = 100,
+        createdAt = NOW - (count - 1 - id) * 100L,
+        hasPriorityEvents = id in priorityIds,
+    )
+}
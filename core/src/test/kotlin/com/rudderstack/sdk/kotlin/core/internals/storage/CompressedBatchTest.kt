@@ -0,0 +1,99 @@
+package com.rudderstack.sdk.kotlin.core.internals.storage
+
+import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertFalse
+import org.junit.jupiter.api.Assertions.assertNull
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.io.ByteArrayOutputStream
+import java.io.File
+import java.nio.file.Files
+import java.util.zip.CRC32
+import java.util.zip.GZIPInputStream
+
+private const val SENT_AT = "2024-01-01T00:00:00.000Z"
+
+class CompressedBatchTest {
+
+    private val directory = Files.createTempDirectory("compressed-batch").toFile()
+    private val rawFile = File(directory, "0.tmp")
+    private val compressedFile = File(directory, "0")
+
+    @AfterEach
+    fun tearDown() {
+        directory.deleteRecursively()
+    }
+
+    @Test
+    fun `given a compressed batch, when it is written as a request body, then it decompresses to the batch with the sentAt`() {
+        val batch = provideBatch(eventCount = 200)
+        rawFile.writeText(batch)
+
+        compressBatch(rawFile, compressedFile, sync = false)
+        val body = CompressedBatch.open(compressedFile).toRequestBody(SENT_AT)!!
+        val outputStream = ByteArrayOutputStream()
+        body.writeTo(outputStream)
+
+        val decompressed = GZIPInputStream(outputStream.toByteArray().inputStream()).readBytes().decodeToString()
+        assertEquals(batch.replace(DEFAULT_SENT_AT_TIMESTAMP, SENT_AT), decompressed)
+        assertEquals(outputStream.size().toLong(), body.contentLength)
+        assertTrue(outputStream.size() < batch.length)
+    }
+
+    @Test
+    fun `given a compressed batch, when its content stream is read, then it is the raw batch`() {
+        val batch = provideBatch(eventCount = 50)
+        rawFile.writeText(batch)
+
+        compressBatch(rawFile, compressedFile, sync = true)
+        val content = CompressedBatch.open(compressedFile).openContentStream().use { it.readBytes().decodeToString() }
+
+        assertTrue(compressedFile.isCompressedBatch())
+        assertEquals(batch, content)
+    }
+
+    @Test
+    fun `given a sentAt with a different length than the placeholder, when toRequestBody is called, then null is returned`() {
+        rawFile.writeText(provideBatch(eventCount = 1))
+        compressBatch(rawFile, compressedFile, sync = false)
+
+        assertNull(CompressedBatch.open(compressedFile).toRequestBody("1970-01-01T00:00:00Z"))
+    }
+
+    @Test
+    fun `given a batch containing the filler byte, when it is compressed, then an exception is thrown`() {
+        rawFile.writeText(provideBatch(eventCount = 1).replace("event-0", "event-\u0001"))
+
+        assertThrows<IllegalArgumentException> { compressBatch(rawFile, compressedFile, sync = false) }
+    }
+
+    @Test
+    fun `given a raw batch, when isCompressedBatch is called, then false is returned`() {
+        rawFile.writeText(provideBatch(eventCount = 1))
+
+        assertFalse(rawFile.isCompressedBatch())
+        assertFalse(File(directory, "missing").isCompressedBatch())
+    }
+
+    @Test
+    fun `given the CRC32 of two blocks, when they are combined, then the result is the CRC32 of both blocks`() {
+        val first = "first block".toByteArray()
+        val second = provideBatch(eventCount = 10).toByteArray()
+
+        val combined = crc32Combine(crc32Of(first), crc32Of(second), second.size.toLong())
+
+        assertEquals(crc32Of(first + second), combined)
+    }
+
+    private fun crc32Of(bytes: ByteArray) = CRC32().apply { update(bytes) }.value
+}
+
+private fun provideBatch(eventCount: Int): String {
+    val events = List(eventCount) { index ->
+        """{"event":"event-$index","anonymousId":"anonymous-id-${index % 3}","sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}"""
+    }
+    return """{"batch":[${events.joinToString(",")}],"sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}"""
+}
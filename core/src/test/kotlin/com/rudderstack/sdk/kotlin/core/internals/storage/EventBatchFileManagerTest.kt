@@ -1,22 +1,40 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage
 
+import com.rudderstack.sdk.kotlin.core.EvictionPolicy
+import com.rudderstack.sdk.kotlin.core.StorageDurability
+import com.rudderstack.sdk.kotlin.core.StorageQuota
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
 import com.rudderstack.sdk.kotlin.core.internals.platform.PlatformType
 import com.rudderstack.sdk.kotlin.core.internals.utils.appendWriteKey
 import io.mockk.mockk
+import io.mockk.spyk
+import io.mockk.verify
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.Assertions.assertFalse
 import org.junit.jupiter.api.Assertions.assertNotNull
+import org.junit.jupiter.api.Assertions.assertNull
 import org.junit.jupiter.api.Assertions.assertTrue
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.job
 import kotlinx.coroutines.runBlocking
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
 import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
+import java.io.ByteArrayOutputStream
 import java.io.File
+import java.util.zip.GZIPInputStream
 
 private const val TEST_WRITE_KEY = "writeKey"
+private const val SENT_AT = "2024-01-01T00:00:00.000Z"
 
+@OptIn(ExperimentalCoroutinesApi::class)
 class EventBatchFileManagerTest {
 
     private val writeKey = TEST_WRITE_KEY
@@ -73,6 +91,23 @@ class EventBatchFileManagerTest {
         assertFalse(file.exists())
     }
 
+    @Test
+    fun `given the batch file exists, when readContentStream is called, then the stream reads the file content`() {
+        val file = provideFile(directory, fileName)
+        file.writeText("content")
+
+        val content = eventBatchFileManager.readContentStream(file.absolutePath)?.use { it.readBytes().decodeToString() }
+
+        assertEquals("content", content)
+    }
+
+    @Test
+    fun `given the batch file does not exist, when readContentStream is called, then null is returned`() {
+        val stream = eventBatchFileManager.readContentStream(File(directory, "non-existent").absolutePath)
+
+        assertNull(stream)
+    }
+
     @Test
     fun `given the file exists, when the file size is less than MAX_BATCH_SIZE, then the previous file is used`() =
         runBlocking {
@@ -109,11 +144,18 @@ class EventBatchFileManagerTest {
     }
 
     @Test
-    fun `given the file exists, when read is called, then the file path is inside the list of file paths`() {
+    fun `given the file exists on initialisation, when read is called, then the file path is inside the list of file paths`() {
         val file = provideFile(directory, fileName)
         file.writeText("content")
+        val fileManager = EventBatchFileManager(
+            directory = directory,
+            writeKey = writeKey,
+            keyValueStorage = keyValueStorage,
+            platformType = PlatformType.Server,
+            logger = mockLogger,
+        )
 
-        val files = eventBatchFileManager.read()
+        val files = fileManager.read()
 
         assertEquals(1, files.size)
         assertTrue(files.first().contains(fileName))
@@ -167,14 +209,54 @@ class EventBatchFileManagerTest {
     }
 
     @Test
-    fun `given a batch file exists, when rollover is called, then filename includes subject`() = runBlocking {
+    fun `given a batch file exists, when rollover is called, then the next file indexes are reserved`() = runBlocking {
         eventBatchFileManager.storeEvent(provideMessagePayload())
 
         eventBatchFileManager.rollover()
 
-        assertEquals(1, keyValueStorage.getInt(FILE_INDEX + writeKey, -1))
+        assertEquals(64, keyValueStorage.getInt(FILE_INDEX + writeKey, -1))
     }
 
+    @Test
+    fun `given several batch files are opened, when their indexes are taken, then the file index is persisted only once`() =
+        runBlocking {
+            val spyKeyValueStorage = spyk(keyValueStorage)
+            val fileManager = EventBatchFileManager(
+                directory = directory,
+                writeKey = writeKey,
+                keyValueStorage = spyKeyValueStorage,
+                platformType = PlatformType.Server,
+                logger = mockLogger,
+            )
+
+            repeat(3) {
+                fileManager.storeEvent(provideMessagePayload(it.toString()))
+                fileManager.rollover()
+            }
+
+            verify(exactly = 1) { spyKeyValueStorage.save(FILE_INDEX + writeKey, any<Int>()) }
+            assertEquals(listOf(0, 1, 2), fileManager.readBatchRefs().map { it.id })
+        }
+
+    @Test
+    fun `given file indexes were reserved by a previous process, when a batch file is opened, then the reserved indexes are skipped`() =
+        runBlocking {
+            eventBatchFileManager.storeEvent(provideMessagePayload("1"))
+            eventBatchFileManager.rollover()
+
+            val fileManager = EventBatchFileManager(
+                directory = directory,
+                writeKey = writeKey,
+                keyValueStorage = keyValueStorage,
+                platformType = PlatformType.Server,
+                logger = mockLogger,
+            )
+            fileManager.storeEvent(provideMessagePayload("2"))
+            fileManager.rollover()
+
+            assertEquals(listOf(0, 64), fileManager.readBatchRefs().map { it.id })
+        }
+
 
     @Test
     fun `given an empty list, when read is executed then no messages are stored`() {
@@ -230,9 +312,8 @@ class EventBatchFileManagerTest {
         )
 
         file1.storeEvent(provideMessagePayload())
-        file2.storeEvent(provideMessagePayload())
-
         file1.rollover()
+        file2.storeEvent(provideMessagePayload())
         file2.rollover()
 
         assertEquals(listOf("${FILE_DIRECTORY.appendWriteKey(writeKey)}/0"), file1.read())
@@ -250,6 +331,98 @@ class EventBatchFileManagerTest {
         assertFalse(File(list[0]).exists())
     }
 
+    @Test
+    fun `given a batch file is removed, when readBatchRefs is called, then it is not listed anymore`() = runBlocking {
+        eventBatchFileManager.storeEvent(provideMessagePayload("1"))
+        eventBatchFileManager.rollover()
+        eventBatchFileManager.storeEvent(provideMessagePayload("2"))
+        eventBatchFileManager.rollover()
+
+        eventBatchFileManager.remove(File(directory, "0").absolutePath)
+
+        assertEquals(listOf(BatchRef(ref = File(directory, "1").absolutePath, id = 1)), eventBatchFileManager.readBatchRefs())
+    }
+
+    @Test
+    fun `given a batch file is created outside the file manager, when readBatchRefs is called, then it is not scanned from the directory`() =
+        runBlocking {
+            eventBatchFileManager.storeEvent(provideMessagePayload())
+            eventBatchFileManager.rollover()
+            provideFile(directory, "5").writeText("content")
+
+            assertEquals(listOf(BatchRef(ref = File(directory, "0").absolutePath, id = 0)), eventBatchFileManager.readBatchRefs())
+        }
+
+    @Test
+    fun `given events of different partitions are interleaved, when rollover is called, then each partition is finalised into its own batch file`() =
+        runBlocking {
+            eventBatchFileManager.storeEvent(provideMessagePayload("1"), "anonymousId1")
+            eventBatchFileManager.storeEvent(provideMessagePayload("2"), "anonymousId2")
+            eventBatchFileManager.storeEvent(provideMessagePayload("3"), "anonymousId1")
+
+            eventBatchFileManager.rollover()
+
+            val expectedFirstBatch =
+                """{"batch":[${provideMessagePayload("1")},${provideMessagePayload("3")}],"sentAt":"$epochTimestamp"}"""
+            val expectedSecondBatch = """{"batch":[${provideMessagePayload("2")}],"sentAt":"$epochTimestamp"}"""
+            assertEquals(2, eventBatchFileManager.read().size)
+            assertEquals(expectedFirstBatch, File(directory, "0").readText())
+            assertEquals(expectedSecondBatch, File(directory, "1").readText())
+        }
+
+    @Test
+    fun `given events of different partitions are stored, when rollover is called, then the partition of each batch is recorded in its reference`() =
+        runBlocking {
+            eventBatchFileManager.storeEvent(provideMessagePayload("1"), "anonymousId1")
+            eventBatchFileManager.storeEvent(provideMessagePayload("2"), "anonymousId2")
+            eventBatchFileManager.storeEvent(provideMessagePayload("3"))
+
+            eventBatchFileManager.rollover()
+
+            assertEquals(
+                listOf("anonymousId1", "anonymousId2", null),
+                eventBatchFileManager.readBatchRefs().map { it.partitionKey }
+            )
+        }
+
+    @Test
+    fun `given maximum open batches are reached, when an event of a new partition is stored, then the least recent batch is finalised`() =
+        runBlocking {
+            val fileManager = EventBatchFileManager(
+                directory = directory,
+                writeKey = writeKey,
+                keyValueStorage = keyValueStorage,
+                platformType = PlatformType.Server,
+                logger = mockLogger,
+                maxOpenBatches = 2,
+            )
+
+            fileManager.storeEvent(provideMessagePayload("1"), "anonymousId1")
+            fileManager.storeEvent(provideMessagePayload("2"), "anonymousId2")
+            fileManager.storeEvent(provideMessagePayload("3"), "anonymousId1")
+            fileManager.storeEvent(provideMessagePayload("4"), "anonymousId3")
+
+            assertTrue(File(directory, "1").exists())
+            assertTrue(File(directory, "0$TMP_SUFFIX").exists())
+            assertTrue(File(directory, "2$TMP_SUFFIX").exists())
+        }
+
+    @Test
+    fun `given a batch file was left open by a previous process, when the file manager is created, then the file is finalised`() {
+        File(directory, "3$TMP_SUFFIX").writeText("""{"batch":[${provideMessagePayload()}""")
+
+        val fileManager = EventBatchFileManager(
+            directory = directory,
+            writeKey = writeKey,
+            keyValueStorage = keyValueStorage,
+            platformType = PlatformType.Server,
+            logger = mockLogger,
+        )
+
+        assertEquals(listOf("${directory.absolutePath}/3"), fileManager.read())
+        assertEquals(4, keyValueStorage.getInt(FILE_INDEX + writeKey, -1))
+    }
+
     @Test
     fun `given multiple batch files exist and platformType is Server, when read is called, then files are returned sorted by numeric index`() {
         // Create files in non-sequential order to simulate file system not preserving order
@@ -307,10 +480,319 @@ class EventBatchFileManagerTest {
         assertTrue(files.any { it.endsWith("/5") })
         assertTrue(files.any { it.endsWith("/10") })
     }
+
+    @Test
+    fun `given group commit, when fewer events than maxEvents are stored, then they are not written to the file yet`() = runTest {
+        val fileManager = provideGroupCommitFileManager(StorageDurability.GroupCommit(maxEvents = 3), backgroundScope)
+
+        fileManager.storeEvent(provideMessagePayload("1"))
+        fileManager.storeEvent(provideMessagePayload("2"))
+
+        assertEquals(0, File(directory, "0$TMP_SUFFIX").length())
+    }
+
+    @Test
+    fun `given group commit, when maxEvents events are stored, then they are written to the file together`() = runTest {
+        val fileManager = provideGroupCommitFileManager(StorageDurability.GroupCommit(maxEvents = 3), backgroundScope)
+
+        fileManager.storeEvent(provideMessagePayload("1"))
+        fileManager.storeEvent(provideMessagePayload("2"))
+        fileManager.storeEvent(provideMessagePayload("3"))
+
+        val expectedContents = """{"batch":[${provideMessagePayload("1")},${provideMessagePayload("2")},${provideMessagePayload("3")}"""
+        assertEquals(expectedContents, File(directory, "0$TMP_SUFFIX").readText())
+    }
+
+    @Test
+    fun `given group commit, when maxBytes bytes are pending, then they are written to the file`() = runTest {
+        val payload = provideMessagePayload()
+        val fileManager = provideGroupCommitFileManager(
+            StorageDurability.GroupCommit(maxEvents = 100, maxBytes = payload.length * 2),
+            backgroundScope,
+        )
+
+        fileManager.storeEvent(payload)
+        assertEquals(0, File(directory, "0$TMP_SUFFIX").length())
+        fileManager.storeEvent(payload)
+
+        assertEquals("""{"batch":[$payload,$payload""", File(directory, "0$TMP_SUFFIX").readText())
+    }
+
+    @Test
+    fun `given group commit, when the time window expires, then the pending events are written to the file`() = runTest {
+        val fileManager = provideGroupCommitFileManager(
+            StorageDurability.GroupCommit(maxEvents = 100, maxDelayInMillis = 1_000),
+            backgroundScope,
+        )
+
+        fileManager.storeEvent(provideMessagePayload())
+        advanceTimeBy(999)
+        runCurrent()
+        assertEquals(0, File(directory, "0$TMP_SUFFIX").length())
+
+        advanceTimeBy(1)
+        runCurrent()
+        assertEquals("""{"batch":[${provideMessagePayload()}""", File(directory, "0$TMP_SUFFIX").readText())
+    }
+
+    @Test
+    fun `given group commit, when rollover is called, then the batch contains all the pending events`() = runTest {
+        val fileManager = provideGroupCommitFileManager(StorageDurability.GroupCommit(maxEvents = 100), backgroundScope)
+
+        fileManager.storeEvent(provideMessagePayload("1"))
+        fileManager.storeEvent(provideMessagePayload("2"))
+        fileManager.rollover()
+
+        val expectedContents =
+            """{"batch":[${provideMessagePayload("1")},${provideMessagePayload("2")}],"sentAt":"$epochTimestamp"}"""
+        assertEquals(expectedContents, File(directory, fileName).readText())
+    }
+
+    @Test
+    fun `given sync on rollover, when rollover is called, then the batch contains all the pending events`() = runTest {
+        val fileManager = provideGroupCommitFileManager(StorageDurability.SyncOnRollover(), backgroundScope)
+
+        fileManager.storeEvent(provideMessagePayload())
+        fileManager.rollover()
+
+        val expectedContents = """{"batch":[${provideMessagePayload()}],"sentAt":"$epochTimestamp"}"""
+        assertEquals(expectedContents, File(directory, fileName).readText())
+    }
+
+    @Test
+    fun `given group commit, when closeAndReset is called, then the pending events are written to the file`() = runTest {
+        val fileManager = provideGroupCommitFileManager(StorageDurability.GroupCommit(maxEvents = 100), backgroundScope)
+
+        fileManager.storeEvent(provideMessagePayload())
+        fileManager.closeAndReset()
+
+        assertEquals("""{"batch":[${provideMessagePayload()}""", File(directory, "0$TMP_SUFFIX").readText())
+    }
+
+    @Test
+    fun `given group commit with a pending time window, when closeAndReset is called, then no commit job is left in the commit scope`() =
+        runTest {
+            val commitScope = CoroutineScope(SupervisorJob())
+            val fileManager = provideGroupCommitFileManager(StorageDurability.GroupCommit(maxEvents = 100), commitScope)
+            fileManager.storeEvent(provideMessagePayload())
+
+            fileManager.closeAndReset()
+
+            assertTrue(commitScope.coroutineContext.job.children.none { it.children.any() })
+            commitScope.cancel()
+        }
+
+    @Test
+    fun `given compression on rollover, when rollover is called, then the batch is compressed and read back as its content`() =
+        runBlocking {
+            val fileManager = provideCompressingFileManager()
+
+            fileManager.storeEvent(provideMessagePayload("1"))
+            fileManager.storeEvent(provideMessagePayload("2"))
+            fileManager.rollover()
+
+            val file = File(directory, fileName)
+            val expectedContents =
+                """{"batch":[${provideMessagePayload("1")},${provideMessagePayload("2")}],"sentAt":"$epochTimestamp"}"""
+            assertTrue(file.isCompressedBatch())
+            assertEquals(listOf(file.absolutePath), fileManager.read())
+            assertEquals(expectedContents, fileManager.readContent(file.absolutePath))
+            assertFalse(File(directory, "0$TMP_SUFFIX").exists())
+        }
+
+    @Test
+    fun `given compression on rollover, when readCompressedBody is called, then the body is the GZIP encoded batch with the sentAt`() =
+        runBlocking {
+            val fileManager = provideCompressingFileManager()
+            fileManager.storeEvent(provideMessagePayload())
+            fileManager.rollover()
+
+            val body = fileManager.readCompressedBody(File(directory, fileName).absolutePath, SENT_AT)
+            val outputStream = ByteArrayOutputStream()
+            body?.writeTo(outputStream)
+
+            val expectedContents = """{"batch":[${provideMessagePayload()}],"sentAt":"$SENT_AT"}"""
+            assertEquals("gzip", body?.contentEncoding)
+            assertEquals(outputStream.size().toLong(), body?.contentLength)
+            assertEquals(expectedContents, GZIPInputStream(outputStream.toByteArray().inputStream()).readBytes().decodeToString())
+        }
+
+    @Test
+    fun `given no compression on rollover, when readCompressedBody is called, then null is returned`() = runBlocking {
+        eventBatchFileManager.storeEvent(provideMessagePayload())
+        eventBatchFileManager.rollover()
+
+        assertNull(eventBatchFileManager.readCompressedBody(File(directory, fileName).absolutePath, SENT_AT))
+    }
+
+    @Test
+    fun `given a batch was compressed before a crash, when the file manager is created, then the leftover files are deleted`() {
+        File(directory, "3").writeText("""{"batch":[${provideMessagePayload()}],"sentAt":"$epochTimestamp"}""")
+        File(directory, "3$TMP_SUFFIX").writeText("""{"batch":[${provideMessagePayload()}],"sentAt":"$epochTimestamp"}""")
+        File(directory, "4$COMPRESSED_TMP_SUFFIX").writeText("partial")
+
+        val fileManager = provideCompressingFileManager()
+
+        assertEquals(listOf("${directory.absolutePath}/3"), fileManager.read())
+        assertFalse(File(directory, "3$TMP_SUFFIX").exists())
+        assertFalse(File(directory, "4$COMPRESSED_TMP_SUFFIX").exists())
+    }
+
+    @Test
+    fun `given a quota of two batches, when a third batch is completed, then the oldest batch file is deleted`() = runBlocking {
+        val fileManager = provideFileManagerWithQuota(StorageQuota(maxBatches = 2))
+
+        repeat(3) {
+            fileManager.storeEvent(provideMessagePayload(id = "$it"))
+            fileManager.rollover()
+        }
+
+        assertEquals(listOf(1, 2), fileManager.readBatchRefs().map { it.id })
+        assertFalse(File(directory, "0").exists())
+        assertEquals(1L, fileManager.readEvictionCounters().overQuotaBatches)
+    }
+
+    @Test
+    fun `given a batch file older than the max age, when the file manager is created, then the batch file is deleted`() {
+        val expiredFile = File(directory, "0").apply {
+            parentFile.mkdirs()
+            writeText("""{"batch":[${provideMessagePayload()}],"sentAt":"$epochTimestamp"}""")
+            setLastModified(System.currentTimeMillis() - 10_000)
+        }
+        File(directory, "1").writeText("""{"batch":[${provideMessagePayload()}],"sentAt":"$epochTimestamp"}""")
+
+        val fileManager = provideFileManagerWithQuota(StorageQuota(maxAgeInMillis = 5_000))
+
+        assertEquals(listOf(1), fileManager.readBatchRefs().map { it.id })
+        assertFalse(expiredFile.exists())
+        assertEquals(1L, fileManager.readEvictionCounters().expiredBatches)
+    }
+
+    @Test
+    fun `given the priority aware policy, when the quota is exceeded, then the batch with an identify event is kept`() = runBlocking {
+        val fileManager = provideFileManagerWithQuota(
+            StorageQuota(maxBatches = 1, evictionPolicy = EvictionPolicy.PriorityAware())
+        )
+
+        fileManager.storeEvent("""{"type":"identify","userId":"user-1"}""")
+        fileManager.rollover()
+        fileManager.storeEvent("""{"type":"track","event":"Order Completed"}""")
+        fileManager.rollover()
+
+        assertEquals(listOf(0), fileManager.readBatchRefs().map { it.id })
+        assertFalse(File(directory, "1").exists())
+    }
+
+    @Test
+    fun `given the priority aware policy, when the file manager is created again, then the batch with an identify event is kept`() =
+        runBlocking {
+            val fileManager = provideFileManagerWithQuota(
+                StorageQuota(maxBatches = 2, evictionPolicy = EvictionPolicy.PriorityAware())
+            )
+            fileManager.storeEvent("""{"type":"identify","userId":"user-1"}""")
+            fileManager.rollover()
+            fileManager.storeEvent("""{"type":"track","event":"Order Completed"}""")
+            fileManager.rollover()
+
+            val restartedFileManager = provideFileManagerWithQuota(
+                StorageQuota(maxBatches = 1, evictionPolicy = EvictionPolicy.PriorityAware())
+            )
+
+            assertEquals(listOf(0), restartedFileManager.readBatchRefs().map { it.id })
+            assertFalse(File(directory, "1").exists())
+        }
+
+    @Test
+    fun `given a batch file modified after its first event, when the file manager is created again, then its age counts from its first event`() =
+        runBlocking {
+            val fileManager = provideFileManagerWithQuota(StorageQuota(maxAgeInMillis = 5_000))
+            fileManager.storeEvent(provideMessagePayload())
+            fileManager.rollover()
+            File(directory, "0").setLastModified(System.currentTimeMillis() - 10_000)
+
+            val restartedFileManager = provideFileManagerWithQuota(StorageQuota(maxAgeInMillis = 5_000))
+
+            assertEquals(listOf(0), restartedFileManager.readBatchRefs().map { it.id })
+            assertEquals(0L, restartedFileManager.readEvictionCounters().expiredBatches)
+        }
+
+    @Test
+    fun `given an unlimited quota, when events are stored and their batch file is removed, then no batch metadata is persisted`() =
+        runBlocking {
+            val spyKeyValueStorage = spyk(keyValueStorage)
+            val fileManager = EventBatchFileManager(
+                directory = directory,
+                writeKey = writeKey,
+                keyValueStorage = spyKeyValueStorage,
+                platformType = PlatformType.Server,
+                logger = mockLogger,
+            )
+
+            fileManager.storeEvent("""{"type":"identify","userId":"user-1"}""")
+            fileManager.rollover()
+            fileManager.remove(fileManager.readBatchRefs().single().ref)
+
+            verify(exactly = 0) {
+                spyKeyValueStorage.save(match<String> { it.startsWith(BATCH_METADATA) }, any<String>())
+                spyKeyValueStorage.clear(match { it.startsWith(BATCH_METADATA) })
+            }
+        }
+
+    @Test
+    fun `given a batch file handed to the uploader, when the quota is exceeded, then it is not evicted until it is removed`() =
+        runBlocking {
+            val fileManager = provideFileManagerWithQuota(StorageQuota(maxBatches = 1))
+            fileManager.storeEvent(provideMessagePayload(id = "0"))
+            fileManager.rollover()
+            val handedOutBatch = fileManager.readBatchRefs().single()
+
+            fileManager.storeEvent(provideMessagePayload(id = "1"))
+            fileManager.rollover()
+
+            assertTrue(File(handedOutBatch.ref).exists())
+            assertEquals(listOf(0), fileManager.read().map { File(it).name.toInt() })
+
+            fileManager.remove(handedOutBatch.ref)
+            fileManager.storeEvent(provideMessagePayload(id = "2"))
+            fileManager.rollover()
+
+            assertEquals(listOf(2), fileManager.readBatchRefs().map { it.id })
+        }
+
+    private fun provideCompressingFileManager() =
+        EventBatchFileManager(
+            directory = directory,
+            writeKey = writeKey,
+            keyValueStorage = keyValueStorage,
+            platformType = PlatformType.Server,
+            logger = mockLogger,
+            compressOnRollover = true,
+        )
+
+    private fun provideFileManagerWithQuota(quota: StorageQuota) =
+        EventBatchFileManager(
+            directory = directory,
+            writeKey = writeKey,
+            keyValueStorage = keyValueStorage,
+            platformType = PlatformType.Server,
+            logger = mockLogger,
+            quota = quota,
+        )
+
+    private fun provideGroupCommitFileManager(durability: StorageDurability, commitScope: CoroutineScope) =
+        EventBatchFileManager(
+            directory = directory,
+            writeKey = writeKey,
+            keyValueStorage = keyValueStorage,
+            platformType = PlatformType.Server,
+            logger = mockLogger,
+            durability = durability,
+            commitScope = commitScope,
+        )
 }
 
 
-private fun provideMessagePayload() = "{\"id\":\"123\",\"message\":\"test\"}"
+private fun provideMessagePayload(id: String = "123") = "{\"id\":\"$id\",\"message\":\"test\"}"
 
 private fun provideFile(directory: File, fileName: String) = File(directory, fileName)
 
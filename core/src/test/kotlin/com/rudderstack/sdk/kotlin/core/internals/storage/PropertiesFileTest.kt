@@ -3,11 +3,18 @@ package com.rudderstack.sdk.kotlin.core.internals.storage
 import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.utils.empty
 import io.mockk.mockk
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.runTest
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.BeforeEach
 import org.junit.jupiter.api.Test
 import java.io.File
 
+private const val WRITE_BEHIND_DELAY = 1_000L
+
+@OptIn(ExperimentalCoroutinesApi::class)
 class PropertiesFileTest {
 
     private val mockLogger: Logger = mockk(relaxed = true)
@@ -117,4 +124,86 @@ class PropertiesFileTest {
         assertEquals("value", propertiesFile.getString("otherKey", String.empty()))
     }
 
+    @Test
+    fun `given a value stored, when the file is reloaded, then no temporary file is left`() {
+        propertiesFile.save("key", "value")
+
+        val reloadedFile = PropertiesFile(directory, "123", mockLogger)
+        reloadedFile.load()
+
+        assertEquals("value", reloadedFile.getString("key", "default"))
+        assertEquals(listOf("rudder-123.properties"), directory.list()?.toList())
+    }
+
+    @Test
+    fun `given write-behind, when values are stored, then they are readable but not persisted before the delay expires`() = runTest {
+        val writeBehindFile = provideWriteBehindFile(backgroundScope)
+
+        writeBehindFile.save("key1", "value1")
+        writeBehindFile.save("key2", 2)
+
+        assertEquals("value1", writeBehindFile.getString("key1", "default"))
+        assertEquals(2, writeBehindFile.getInt("key2", 0))
+        assertEquals("default", reload().getString("key1", "default"))
+    }
+
+    @Test
+    fun `given write-behind, when the delay expires, then all the pending values are persisted together`() = runTest {
+        val writeBehindFile = provideWriteBehindFile(backgroundScope)
+
+        writeBehindFile.save("key1", "value1")
+        advanceTimeBy(WRITE_BEHIND_DELAY / 2)
+        writeBehindFile.save("key2", 2)
+        advanceTimeBy(WRITE_BEHIND_DELAY / 2 + 1)
+
+        val reloadedFile = reload()
+        assertEquals("value1", reloadedFile.getString("key1", "default"))
+        assertEquals(2, reloadedFile.getInt("key2", 0))
+    }
+
+    @Test
+    fun `given write-behind, when flush is called, then the pending values are persisted right away`() = runTest {
+        val writeBehindFile = provideWriteBehindFile(backgroundScope)
+
+        writeBehindFile.save("key", "value")
+        writeBehindFile.flush()
+
+        assertEquals("value", reload().getString("key", "default"))
+    }
+
+    @Test
+    fun `given write-behind, when close is called, then the pending values are persisted and later values right away`() = runTest {
+        val writeBehindFile = provideWriteBehindFile(backgroundScope)
+
+        writeBehindFile.save("key1", "value1")
+        writeBehindFile.close()
+        writeBehindFile.save("key2", "value2")
+
+        val reloadedFile = reload()
+        assertEquals("value1", reloadedFile.getString("key1", "default"))
+        assertEquals("value2", reloadedFile.getString("key2", "default"))
+    }
+
+    @Test
+    fun `given several changes, when edit is called, then they are persisted together`() {
+        propertiesFile.save("removed", "value")
+
+        propertiesFile.edit {
+            put("int", 1)
+            put("boolean", true)
+            put("long", 2L)
+            remove("removed")
+        }
+
+        val reloadedFile = reload()
+        assertEquals(1, reloadedFile.getInt("int", 0))
+        assertEquals(true, reloadedFile.getBoolean("boolean", false))
+        assertEquals(2L, reloadedFile.getLong("long", 0L))
+        assertEquals("default", reloadedFile.getString("removed", "default"))
+    }
+
+    private fun provideWriteBehindFile(persistScope: CoroutineScope) =
+        PropertiesFile(directory, "123", mockLogger, WRITE_BEHIND_DELAY, persistScope).also { it.load() }
+
+    private fun reload() = PropertiesFile(directory, "123", mockLogger).also { it.load() }
 }
@@ -1,6 +1,10 @@
 package com.rudderstack.sdk.kotlin.core.internals.storage.inmemory
 
+import com.rudderstack.sdk.kotlin.core.EvictionCounters
+import com.rudderstack.sdk.kotlin.core.StorageQuota
+import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
 import com.rudderstack.sdk.kotlin.core.internals.storage.TMP_SUFFIX
 import io.mockk.mockk
 import kotlinx.coroutines.runBlocking
@@ -19,13 +23,14 @@ private const val EVENT_PAYLOAD_3 = """{"id":"125","message":"test"}"""
 
 class InMemoryBatchManagerTest {
 
+    private val mockLogger = mockk<Logger>(relaxed = true)
     private lateinit var keyValueStorage: InMemoryPrefsStore
     private lateinit var inMemoryBatchManager: InMemoryBatchManager
 
     @BeforeEach
     fun setup() {
         keyValueStorage = InMemoryPrefsStore(mockk(relaxed = true))
-        inMemoryBatchManager = InMemoryBatchManager(TEST_WRITE_KEY, keyValueStorage)
+        inMemoryBatchManager = InMemoryBatchManager(TEST_WRITE_KEY, keyValueStorage, mockLogger)
     }
 
     @Test
@@ -206,6 +211,95 @@ class InMemoryBatchManagerTest {
         rolloverAndAssertBatchEquals(expectedContent)
     }
 
+    @Test
+    fun `given events of different partitions are interleaved, when rollover is called, then each partition has its own batch`() = runBlocking {
+        inMemoryBatchManager.storeEvent(EVENT_PAYLOAD_1, "anonymousId1")
+        inMemoryBatchManager.storeEvent(EVENT_PAYLOAD_2, "anonymousId2")
+        inMemoryBatchManager.storeEvent(EVENT_PAYLOAD_3, "anonymousId1")
+
+        inMemoryBatchManager.rollover()
+
+        val files = inMemoryBatchManager.read()
+        assertEquals(listOf("0", "1"), files)
+        assertEquals(
+            """{"batch":[$EVENT_PAYLOAD_1,$EVENT_PAYLOAD_3],"sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}""",
+            inMemoryBatchManager.readContent("0")
+        )
+        assertEquals(
+            """{"batch":[$EVENT_PAYLOAD_2],"sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}""",
+            inMemoryBatchManager.readContent("1")
+        )
+    }
+
+    @Test
+    fun `given maximum open batches are reached, when an event of a new partition is stored, then the least recent batch is finalised`() = runBlocking {
+        val batchManager = InMemoryBatchManager(TEST_WRITE_KEY, keyValueStorage, mockLogger, maxOpenBatches = 2)
+
+        batchManager.storeEvent(EVENT_PAYLOAD_1, "anonymousId1")
+        batchManager.storeEvent(EVENT_PAYLOAD_2, "anonymousId2")
+        batchManager.storeEvent(EVENT_PAYLOAD_3, "anonymousId1")
+        batchManager.storeEvent(EVENT_PAYLOAD_1, "anonymousId3")
+
+        assertEquals(listOf("1"), batchManager.read())
+    }
+
+    @Test
+    fun `given batches are completed out of order, when readBatchRefs is called, then they are sorted by batch index`() = runBlocking {
+        val batchManager = InMemoryBatchManager(TEST_WRITE_KEY, keyValueStorage, mockLogger, maxOpenBatches = 2)
+
+        batchManager.storeEvent(EVENT_PAYLOAD_1, "anonymousId1")
+        batchManager.storeEvent(EVENT_PAYLOAD_2, "anonymousId2")
+        batchManager.storeEvent(EVENT_PAYLOAD_3, "anonymousId1")
+        batchManager.storeEvent(EVENT_PAYLOAD_1, "anonymousId3")
+        batchManager.rollover()
+
+        assertEquals(
+            listOf(
+                BatchRef(ref = "0", id = 0, partitionKey = "anonymousId1"),
+                BatchRef(ref = "1", id = 1, partitionKey = "anonymousId2"),
+                BatchRef(ref = "2", id = 2, partitionKey = "anonymousId3"),
+            ),
+            batchManager.readBatchRefs()
+        )
+    }
+
+    @Test
+    fun `given a batch is removed, when readBatchRefs is called, then it is not listed anymore`() = runBlocking {
+        inMemoryBatchManager.storeEvent(EVENT_PAYLOAD_1)
+        inMemoryBatchManager.rollover()
+
+        inMemoryBatchManager.remove("0")
+
+        assertTrue(inMemoryBatchManager.readBatchRefs().isEmpty())
+    }
+
+    @Test
+    fun `given a quota of two batches, when a third batch is completed, then the oldest batch is evicted`() = runBlocking {
+        val batchManager = InMemoryBatchManager(
+            TEST_WRITE_KEY, keyValueStorage, mockLogger, quota = StorageQuota(maxBatches = 2)
+        )
+
+        listOf(EVENT_PAYLOAD_1, EVENT_PAYLOAD_2, EVENT_PAYLOAD_3).forEach {
+            batchManager.storeEvent(it)
+            batchManager.rollover()
+        }
+
+        assertEquals(listOf(BatchRef(ref = "1", id = 1), BatchRef(ref = "2", id = 2)), batchManager.readBatchRefs())
+        assertNull(batchManager.readContent("0"))
+        assertEquals(1L, batchManager.readEvictionCounters().overQuotaBatches)
+    }
+
+    @Test
+    fun `given no quota, when batches are completed, then no batch is evicted`() = runBlocking {
+        listOf(EVENT_PAYLOAD_1, EVENT_PAYLOAD_2, EVENT_PAYLOAD_3).forEach {
+            inMemoryBatchManager.storeEvent(it)
+            inMemoryBatchManager.rollover()
+        }
+
+        assertEquals(3, inMemoryBatchManager.readBatchRefs().size)
+        assertEquals(EvictionCounters(), inMemoryBatchManager.readEvictionCounters())
+    }
+
     private suspend fun rolloverAndAssertBatchContains(expected: String) {
         inMemoryBatchManager.rollover()
         val files = inMemoryBatchManager.read()
@@ -199,4 +199,22 @@ class InMemoryPrefsStoreTest {
         assertEquals("now_a_string", inMemoryPrefsStore.getString("key", "default"))
         assertEquals(0, inMemoryPrefsStore.getInt("key", 0))
     }
+
+    // Batched edits
+
+    @Test
+    fun `given several changes, when edit is called, then all of them are applied`() {
+        inMemoryPrefsStore.save("removed_key", "value")
+
+        inMemoryPrefsStore.edit {
+            put("int_key", 42)
+            put("string_key", "first")
+            put("string_key", "second")
+            remove("removed_key")
+        }
+
+        assertEquals(42, inMemoryPrefsStore.getInt("int_key", 0))
+        assertEquals("second", inMemoryPrefsStore.getString("string_key", "default"))
+        assertEquals("default", inMemoryPrefsStore.getString("removed_key", "default"))
+    }
 }
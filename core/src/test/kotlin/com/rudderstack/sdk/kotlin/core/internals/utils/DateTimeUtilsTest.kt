@@ -22,4 +22,9 @@ class DateTimeUtilsTest {
         val dateTimeNowString = DateTimeUtils.from(date)
         assertEquals("2023-11-22T01:52:08.023Z", dateTimeNowString)
     }
+
+    @Test
+    fun `time in millis is converted correctly`() {
+        assertEquals("2023-11-22T01:52:08.023Z", DateTimeUtils.from(1700617928023L))
+    }
 }
@@ -1,44 +1,50 @@
 package com.rudderstack.sdk.kotlin.core.internals.utils
 
-import com.rudderstack.sdk.kotlin.core.internals.logger.Logger
 import com.rudderstack.sdk.kotlin.core.internals.models.DEFAULT_SENT_AT_TIMESTAMP
-import io.mockk.every
-import io.mockk.mockk
-import io.mockk.mockkObject
 import org.junit.jupiter.api.Assertions.assertEquals
-import org.junit.jupiter.api.BeforeEach
-import org.junit.jupiter.api.Test
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+import java.io.ByteArrayOutputStream
 import java.util.Date
 
 class JsonSentAtUpdaterTest {
 
     private val mockCurrentTime = Date(0).toInstant().toString()
-    private val mockLogger: Logger = mockk(relaxed = true)
 
-    @BeforeEach
-    fun setup() {
-        mockkObject(DateTimeUtils)
-        every { DateTimeUtils.now() } returns mockCurrentTime
-    }
-
-    @Test
-    fun `given a json value with correct sentAt field, when updateSentAt called, then the sentAt field is updated`() {
-        provideValidJsons().forEach { (jsonString, expectedJsonString) ->
-            val updatedJsonString = JsonSentAtUpdater.updateSentAt(jsonString, mockLogger)
-
-            assertEquals(expectedJsonString, updatedJsonString)
+    @ParameterizedTest
+    @ValueSource(ints = [1, 3, 8, 1024])
+    fun `given a json value with correct sentAt field, when it is written with updated sentAt, then the sentAt field is updated`(
+        bufferSize: Int
+    ) {
+        (provideValidJsons() + (provideBatchJson() to provideUpdatedBatchJson())).forEach { (jsonString, expectedJsonString) ->
+            assertEquals(expectedJsonString, jsonString.writtenWithUpdatedSentAt(bufferSize))
         }
     }
 
-    @Test
-    fun `given a json value with incorrect sentAt field, when updateSentAt called, then the sentAt field is not updated`() {
+    @ParameterizedTest
+    @ValueSource(ints = [1, 3, 8, 1024])
+    fun `given a json value with incorrect sentAt field, when it is written with updated sentAt, then the sentAt field is not updated`(
+        bufferSize: Int
+    ) {
         provideInvalidJsons().forEach { jsonString ->
-            val updatedJsonString = JsonSentAtUpdater.updateSentAt(jsonString, mockLogger)
-
-            assertEquals(jsonString, updatedJsonString)
+            assertEquals(jsonString, jsonString.writtenWithUpdatedSentAt(bufferSize))
         }
     }
 
+    private fun String.writtenWithUpdatedSentAt(bufferSize: Int): String {
+        val outputStream = ByteArrayOutputStream()
+        JsonSentAtUpdater.writeWithUpdatedSentAt(byteInputStream(), outputStream, mockCurrentTime, bufferSize)
+        return outputStream.toByteArray().decodeToString()
+    }
+
+    private fun provideBatchJson(): String =
+        """{"batch":[{"event":"\"sentAt\":\"{{ RSA","sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"},""" +
+            """{"event":"\"sentAt\":\"","sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}],"sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}"""
+
+    private fun provideUpdatedBatchJson(): String =
+        """{"batch":[{"event":"\"sentAt\":\"{{ RSA","sentAt":"$mockCurrentTime"},""" +
+            """{"event":"\"sentAt\":\"","sentAt":"$mockCurrentTime"}],"sentAt":"$mockCurrentTime"}"""
+
     private fun provideValidJsons(): List<Pair<String, String>> = listOf(
         """{"type":"track","event":"Test Event","sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}""" to """{"type":"track","event":"Test Event","sentAt":"$mockCurrentTime"}""",
         """{"type":"track","event":"$DEFAULT_SENT_AT_TIMESTAMP","sentAt":"$DEFAULT_SENT_AT_TIMESTAMP"}""" to """{"type":"track","event":"$DEFAULT_SENT_AT_TIMESTAMP","sentAt":"$mockCurrentTime"}"""
@@ -1,8 +1,10 @@
 package com.rudderstack.sdk.kotlin.core.internals.utils
 
+import com.rudderstack.sdk.kotlin.core.internals.storage.BatchRef
 import com.rudderstack.sdk.kotlin.core.internals.storage.LibraryVersion
 import com.rudderstack.sdk.kotlin.core.internals.storage.Storage
 import com.rudderstack.sdk.kotlin.core.internals.storage.StorageKeys
+import java.io.InputStream
 
 internal class MockMemoryStorage : Storage {
 
@@ -35,6 +37,11 @@ internal class MockMemoryStorage : Storage {
         }
     }
 
+    override suspend fun writeEvent(value: String, partitionKey: String): Int {
+        messageBatchMap.add(value)
+        return value.toByteArray().size
+    }
+
     override suspend fun remove(key: StorageKeys) {
         propertiesMap.remove(key.key)
     }
@@ -76,10 +83,18 @@ internal class MockMemoryStorage : Storage {
         return messageBatchMap
     }
 
+    override fun readBatchRefs(): List<BatchRef> {
+        return messageBatchMap.map { BatchRef(ref = it, id = 0) }
+    }
+
     override fun readBatchContent(batchRef: String): String? {
         return if (messageBatchMap.contains(batchRef)) batchRef else null
     }
 
+    override fun readBatchStream(batchRef: String): InputStream? {
+        return readBatchContent(batchRef)?.byteInputStream()
+    }
+
     override fun getBatchId(batchRef: String): Int = 0
 
     override fun getLibraryVersion(): LibraryVersion {
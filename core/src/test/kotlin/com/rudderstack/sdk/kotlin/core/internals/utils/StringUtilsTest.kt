@@ -0,0 +1,14 @@
+package com.rudderstack.sdk.kotlin.core.internals.utils
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.params.ParameterizedTest
+import org.junit.jupiter.params.provider.ValueSource
+
+class StringUtilsTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = ["", "ascii only", "prix: 10€", "héllo wörld", "emoji 😀 text", "\uD83D", "mixed \uDE00 surrogate"])
+    fun `given a string, when utf8Size is called, then it returns the size of its UTF-8 encoded bytes`(value: String) {
+        assertEquals(value.toByteArray(Charsets.UTF_8).size, value.utf8Size())
+    }
+}
@@ -0,0 +1,66 @@
+package com.rudderstack.sdk.kotlin.core.internals.utils
+
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Test
+import java.text.SimpleDateFormat
+import java.util.Date
+import java.util.Locale
+import java.util.TimeZone
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import kotlin.random.Random
+
+class TimestampFormatterTest {
+
+    private val referenceFormatter = SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT).apply {
+        timeZone = TimeZone.getTimeZone("UTC")
+    }
+
+    @Test
+    fun `given notable dates, when they are formatted, then the ISO 8601 UTC timestamps are returned`() {
+        assertEquals("1970-01-01T00:00:00.000Z", TimestampFormatter.format(0L))
+        assertEquals("1969-12-31T23:59:59.999Z", TimestampFormatter.format(-1L))
+        assertEquals("2000-02-29T12:00:00.001Z", TimestampFormatter.format(951_825_600_001L))
+        assertEquals("2023-11-22T01:52:08.023Z", TimestampFormatter.format(1_700_617_928_023L))
+        assertEquals("2100-03-01T00:00:00.000Z", TimestampFormatter.format(4_107_542_400_000L))
+    }
+
+    @Test
+    fun `given random times, when they are formatted, then they match SimpleDateFormat`() {
+        val random = Random(seed = 42)
+        repeat(10_000) {
+            val timeInMillis = random.nextLong(from = 0L, until = 4_102_444_800_000L)
+
+            assertEquals(referenceFormatter.format(Date(timeInMillis)), TimestampFormatter.formatUncached(timeInMillis))
+        }
+    }
+
+    @Test
+    fun `given a time which was just formatted, when it is formatted again, then the same string is returned`() {
+        val first = TimestampFormatter.format(1_700_617_928_023L)
+
+        val second = TimestampFormatter.format(1_700_617_928_023L)
+
+        assertSame(first, second)
+    }
+
+    @Test
+    fun `given many threads, when they format different times concurrently, then every timestamp is correct`() {
+        val executor = Executors.newFixedThreadPool(8)
+        val results = (0 until 8).map { thread ->
+            executor.submit<List<Pair<Long, String>>> {
+                (0 until 1_000).map { index ->
+                    val timeInMillis = 1_700_617_928_000L + index % 3 + thread
+                    timeInMillis to TimestampFormatter.format(timeInMillis)
+                }
+            }
+        }
+
+        results.flatMap { it.get() }.forEach { (timeInMillis, formatted) ->
+            assertEquals(referenceFormatter.format(Date(timeInMillis)), formatted)
+        }
+        executor.shutdown()
+        executor.awaitTermination(1, TimeUnit.SECONDS)
+    }
+}
@@ -0,0 +1,129 @@
+package com.rudderstack.sdk.kotlin.core.plugins
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.models.TrackEvent
+import com.rudderstack.sdk.kotlin.core.internals.models.emptyJsonObject
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextPlugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ContextSnapshotPlugin
+import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
+import io.mockk.MockKAnnotations
+import io.mockk.impl.annotations.MockK
+import kotlinx.coroutines.test.runTest
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+import org.junit.jupiter.api.Assertions.assertEquals
+import org.junit.jupiter.api.Assertions.assertSame
+import org.junit.jupiter.api.Assertions.assertTrue
+import org.junit.jupiter.api.BeforeEach
+import org.junit.jupiter.api.Test
+
+private const val EVENT_NAME = "Sample Event"
+
+class ContextSnapshotPluginTest {
+
+    @MockK
+    private lateinit var mockAnalytics: Analytics
+
+    private val contextSnapshotPlugin = ContextSnapshotPlugin()
+
+    @BeforeEach
+    fun setup() {
+        MockKAnnotations.init(this, relaxed = true)
+    }
+
+    @Test
+    fun `given context plugins, when an event is intercepted, then the context is the same as if each plugin merged its fragment in turn`() =
+        runTest {
+            val plugins = listOf(
+                FakeContextPlugin(buildJsonObject { put("library", "library-1"); put("app", "app-1") }),
+                FakeContextPlugin(buildJsonObject { put("device", "device-1") }),
+                FakeContextPlugin(buildJsonObject { put("app", "app-2") }),
+            )
+            plugins.forEach { contextSnapshotPlugin.add(it) }
+            contextSnapshotPlugin.setup(mockAnalytics)
+            val expected = provideEvent().apply { context = buildJsonObject { put("traits", "traits-1"); put("device", "custom") } }
+            plugins.forEach { it.intercept(expected) }
+
+            val actual = contextSnapshotPlugin.intercept(
+                provideEvent().apply { context = buildJsonObject { put("traits", "traits-1"); put("device", "custom") } }
+            )
+
+            assertEquals(expected.context, actual.context)
+            assertEquals(listOf("traits", "device", "library", "app"), actual.context.keys.toList())
+        }
+
+    @Test
+    fun `given no fragment changed, when events are intercepted, then the snapshot is reused`() = runTest {
+        contextSnapshotPlugin.add(FakeContextPlugin(buildJsonObject { put("library", "library-1") }))
+        contextSnapshotPlugin.setup(mockAnalytics)
+
+        val first = contextSnapshotPlugin.snapshot()
+        val second = contextSnapshotPlugin.snapshot()
+
+        assertSame(first, second)
+    }
+
+    @Test
+    fun `given a fragment changed, when an event is intercepted, then the new fragment is attached to the context`() = runTest {
+        val networkPlugin = FakeContextPlugin(buildJsonObject { put("network", "wifi") })
+        contextSnapshotPlugin.add(FakeContextPlugin(buildJsonObject { put("library", "library-1") }))
+        contextSnapshotPlugin.add(networkPlugin)
+        contextSnapshotPlugin.setup(mockAnalytics)
+        contextSnapshotPlugin.intercept(provideEvent())
+
+        networkPlugin.fragment = buildJsonObject { put("network", "cellular") }
+        val actual = contextSnapshotPlugin.intercept(provideEvent())
+
+        assertEquals(
+            buildJsonObject { put("library", "library-1"); put("network", "cellular") },
+            actual.context
+        )
+    }
+
+    @Test
+    fun `given the plugin is set up, when a context plugin is added or removed, then it is set up or torn down`() {
+        val contextPlugin = FakeContextPlugin(buildJsonObject { put("library", "library-1") })
+        contextSnapshotPlugin.setup(mockAnalytics)
+
+        contextSnapshotPlugin.add(contextPlugin)
+        assertTrue(contextPlugin.isSetUp)
+        assertEquals(buildJsonObject { put("library", "library-1") }, contextSnapshotPlugin.snapshot())
+
+        contextSnapshotPlugin.remove(contextPlugin)
+        assertTrue(contextPlugin.isTornDown)
+        assertEquals(emptyJsonObject, contextSnapshotPlugin.snapshot())
+    }
+}
+
+private class FakeContextPlugin(var fragment: JsonObject) : ContextPlugin {
+
+    override val pluginType: Plugin.PluginType = Plugin.PluginType.PreProcess
+
+    override lateinit var analytics: Analytics
+
+    var isSetUp = false
+    var isTornDown = false
+
+    override fun setup(analytics: Analytics) {
+        super.setup(analytics)
+        isSetUp = true
+    }
+
+    override fun contextFragment(): JsonObject = fragment
+
+    override suspend fun intercept(event: Event): Event {
+        event.context = JsonObject(event.context + fragment)
+        return event
+    }
+
+    override fun teardown() {
+        isTornDown = true
+    }
+}
+
+private fun provideEvent(): Event = TrackEvent(
+    event = EVENT_NAME,
+    properties = emptyJsonObject,
+)
@@ -1,13 +1,20 @@
 package com.rudderstack.sdk.kotlin.core.plugins
 
+import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.internals.models.Event
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ConcurrentPlugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.Plugin
 import com.rudderstack.sdk.kotlin.core.internals.plugins.PluginInteractor
+import com.rudderstack.sdk.kotlin.core.internals.plugins.ReadOnlyPlugin
 import io.mockk.coEvery
 import io.mockk.coVerify
 import io.mockk.coVerifyOrder
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.joinAll
+import kotlinx.coroutines.launch
 import kotlinx.coroutines.test.runTest
 import org.junit.jupiter.api.Assertions.assertEquals
 import org.junit.jupiter.api.BeforeEach
@@ -79,6 +86,47 @@ class PluginInteractorTest {
         assertEquals(modifiedEvent, result)
     }
 
+    @Test
+    fun `given a read-only plugin followed by one which isn't, when execute called, then only the latter receives a copy`() = runTest {
+        val event: Event = mockk(relaxed = true)
+        val copiedEvent: Event = mockk(relaxed = true)
+        val readOnlyPlugin: ReadOnlyPlugin = mockk(relaxed = true)
+        val plugin: Plugin = mockk(relaxed = true)
+
+        every { event.copy<Event>() } returns copiedEvent
+        coEvery { readOnlyPlugin.intercept(event) } returns event
+        coEvery { plugin.intercept(copiedEvent) } returns copiedEvent
+
+        pluginList.add(readOnlyPlugin)
+        pluginList.add(plugin)
+
+        val result = pluginInteractor.execute(event)
+
+        coVerifyOrder {
+            readOnlyPlugin.intercept(event)
+            plugin.intercept(copiedEvent)
+        }
+        verify(exactly = 1) { event.copy<Event>() }
+        assertEquals(copiedEvent, result)
+    }
+
+    @Test
+    fun `given only read-only plugins, when execute called, then the event is never copied`() = runTest {
+        val event: Event = mockk(relaxed = true)
+        val plugin1: ReadOnlyPlugin = mockk(relaxed = true)
+        val plugin2: ReadOnlyPlugin = mockk(relaxed = true)
+
+        listOf(plugin1, plugin2).forEach {
+            coEvery { it.intercept(event) } returns event
+            pluginList.add(it)
+        }
+
+        val result = pluginInteractor.execute(event)
+
+        verify(exactly = 0) { event.copy<Event>() }
+        assertEquals(event, result)
+    }
+
     @Test
     fun `when applyClosure called, it should apply closure to all plugins`() {
         val plugin1: Plugin = mockk(relaxed = true)
@@ -138,4 +186,55 @@ class PluginInteractorTest {
 
         assert(result.isEmpty())
     }
+
+    @Test
+    fun `given concurrent execution, when execute called for several events at once, then a plugin which isn't concurrent intercepts one at a time`() =
+        runTest {
+            val plugin = ActiveInterceptionsPlugin()
+            pluginList.add(plugin)
+            pluginInteractor.isConcurrent = true
+
+            List(4) { launch { pluginInteractor.execute(provideEvent()) } }.joinAll()
+
+            assertEquals(1, plugin.maxActiveInterceptions)
+        }
+
+    @Test
+    fun `given concurrent execution, when execute called for several events at once, then a concurrent plugin intercepts them at the same time`() =
+        runTest {
+            val plugin = ActiveInterceptionsPlugin.Concurrent()
+            pluginList.add(plugin)
+            pluginInteractor.isConcurrent = true
+
+            List(4) { launch { pluginInteractor.execute(provideEvent()) } }.joinAll()
+
+            assertEquals(4, plugin.maxActiveInterceptions)
+        }
+}
+
+/**
+ * Counts how many events it intercepts at the same time, suspending in the middle of every interception.
+ */
+private open class ActiveInterceptionsPlugin : Plugin {
+
+    override val pluginType: Plugin.PluginType = Plugin.PluginType.OnProcess
+    override lateinit var analytics: Analytics
+
+    private var activeInterceptions = 0
+    var maxActiveInterceptions = 0
+        private set
+
+    override suspend fun intercept(event: Event): Event {
+        activeInterceptions++
+        maxActiveInterceptions = maxOf(maxActiveInterceptions, activeInterceptions)
+        delay(10)
+        activeInterceptions--
+        return event
+    }
+
+    class Concurrent : ActiveInterceptionsPlugin(), ConcurrentPlugin
+}
+
+private fun provideEvent(): Event = mockk<Event>(relaxed = true).also { event ->
+    every { event.copy<Event>() } returns event
 }
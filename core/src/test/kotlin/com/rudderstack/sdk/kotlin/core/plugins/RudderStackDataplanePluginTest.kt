@@ -9,7 +9,6 @@ import io.mockk.every
 import io.mockk.mockk
 import io.mockk.spyk
 import io.mockk.unmockkAll
-import io.mockk.verify
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.ExperimentalCoroutinesApi
 import kotlinx.coroutines.test.StandardTestDispatcher
@@ -54,19 +53,19 @@ class RudderStackDataplanePluginTest {
     }
 
     @Test
-    fun `given a track event, when track is called, then the event is enqueued correctly`() {
+    fun `given a track event, when it is intercepted, then the event is enqueued correctly`() = runTest {
         val trackMessage = mockk<TrackEvent>(relaxed = true)
 
-        plugin.track(trackMessage)
+        plugin.intercept(trackMessage)
 
-        verify { mockEventQueue.put(trackMessage) }
+        coVerify { mockEventQueue.put(trackMessage) }
     }
 
     @Test
-    fun `given a plugin, when flush is executed, then verify that the message queue's flush method is called`() {
+    fun `given a plugin, when flush is executed, then verify that the message queue's flush method is called`() = runTest {
         plugin.flush()
 
-        verify { mockEventQueue.flush() }
+        coVerify { mockEventQueue.flush() }
     }
 
     @Test
@@ -0,0 +1,38 @@
+package com.rudderstack.android.kotlin_jvm_app.loadtest
+
+import java.util.concurrent.atomic.AtomicLongArray
+
+private const val MAX_TRACKED_LATENCY_MILLIS = 600_000
+
+/**
+ * Records latencies with a resolution of one millisecond, in constant memory however many are recorded.
+ * Latencies above ten minutes are recorded as ten minutes.
+ */
+class LatencyHistogram {
+
+    private val counts = AtomicLongArray(MAX_TRACKED_LATENCY_MILLIS + 1)
+
+    /**
+     * Records a latency of [latencyMillis] milliseconds. Safe to call from any thread.
+     */
+    fun record(latencyMillis: Long) {
+        counts.incrementAndGet(latencyMillis.coerceIn(0, MAX_TRACKED_LATENCY_MILLIS.toLong()).toInt())
+    }
+
+    /**
+     * Returns the latency below which [percentile] percent of the recorded latencies are, or null if none was recorded.
+     */
+    fun percentile(percentile: Double): Long? {
+        val snapshot = LongArray(counts.length()) { counts[it] }
+        val total = snapshot.sum()
+        if (total == 0L) return null
+
+        val rank = Math.ceil(total * percentile / 100).toLong().coerceAtLeast(1)
+        var seen = 0L
+        snapshot.forEachIndexed { latencyMillis, count ->
+            seen += count
+            if (seen >= rank) return latencyMillis.toLong()
+        }
+        return MAX_TRACKED_LATENCY_MILLIS.toLong()
+    }
+}
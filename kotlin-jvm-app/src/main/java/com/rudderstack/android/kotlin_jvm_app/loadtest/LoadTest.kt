@@ -0,0 +1,168 @@
+package com.rudderstack.android.kotlin_jvm_app.loadtest
+
+import com.rudderstack.sdk.kotlin.core.Analytics
+import com.rudderstack.sdk.kotlin.core.Configuration
+import com.rudderstack.sdk.kotlin.core.StorageType
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+import java.lang.management.ManagementFactory
+import java.lang.management.MemoryType
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+import kotlin.concurrent.thread
+
+private const val NANOS_PER_SECOND = 1_000_000_000L
+private const val DRAIN_POLL_INTERVAL_MILLIS = 100L
+private const val BYTES_PER_MEGABYTE = 1024.0 * 1024.0
+
+/**
+ * Drives `track()` from several threads at a target rate against a [MockDataplane], once per configured storage type,
+ * and prints what a host running the SDK can sustain.
+ *
+ * @property config The settings of the run.
+ */
+class LoadTest(private val config: LoadTestConfig) {
+
+    /**
+     * Runs the load test against every configured storage type, one after the other, and prints a report for each.
+     */
+    fun run() {
+        println("Load test: $config")
+        config.storageTypes.forEach { storageType ->
+            val report = MockDataplane(config.dataplane).use { dataplane ->
+                dataplane.start()
+                runAgainst(dataplane, storageType)
+            }
+            println(report)
+        }
+    }
+
+    private fun runAgainst(dataplane: MockDataplane, storageType: StorageType): LoadTestReport {
+        resetPeakHeapUsage()
+        val analytics = Analytics(
+            configuration = Configuration(
+                // A fresh write key per run, so that no batch left over by a previous run is uploaded
+                writeKey = "load-test-${storageType.name.lowercase()}-${System.currentTimeMillis()}",
+                dataPlaneUrl = dataplane.url,
+                controlPlaneUrl = dataplane.url,
+                gzipEnabled = config.gzipEnabled,
+                storageType = storageType,
+            )
+        )
+
+        val startNanos = System.nanoTime()
+        val trackedEvents = generateLoad(analytics)
+        val loadNanos = System.nanoTime() - startNanos
+
+        val drained = awaitAcknowledged(analytics, dataplane, trackedEvents - analytics.droppedEventCount)
+        val totalNanos = System.nanoTime() - startNanos
+        val droppedEvents = analytics.droppedEventCount
+        analytics.shutdown()
+
+        return LoadTestReport(
+            storageType = storageType,
+            trackedEvents = trackedEvents,
+            droppedEvents = droppedEvents,
+            acceptedEvents = dataplane.acceptedEvents.get(),
+            rejectedEvents = dataplane.rejectedEvents.get(),
+            trackRate = trackedEvents * NANOS_PER_SECOND.toDouble() / loadNanos,
+            acceptedRate = dataplane.acceptedEvents.get() * NANOS_PER_SECOND.toDouble() / totalNanos,
+            p50LatencyMillis = dataplane.latencies.percentile(50.0),
+            p99LatencyMillis = dataplane.latencies.percentile(99.0),
+            peakHeapBytes = peakHeapUsage(),
+            bytesOnTheWire = dataplane.bytesReceived.get(),
+            responses = dataplane.responses,
+            isDrained = drained,
+        )
+    }
+
+    /**
+     * Calls `track()` from [LoadTestConfig.threads] threads, each making its share of the target rate, and returns the
+     * number of calls made. Every thread keeps to its own schedule, so that a slow call is caught up on afterwards.
+     */
+    private fun generateLoad(analytics: Analytics): Long {
+        val trackedEvents = AtomicLong()
+        val intervalNanos = NANOS_PER_SECOND * config.threads / config.targetRate
+        val endNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.durationSeconds.toLong())
+        val finished = CountDownLatch(config.threads)
+
+        repeat(config.threads) { threadIndex ->
+            thread(name = "load-test-$threadIndex") {
+                var nextNanos = System.nanoTime()
+                while (nextNanos < endNanos) {
+                    LockSupport.parkNanos(nextNanos - System.nanoTime())
+                    analytics.track(
+                        name = "Load Test Event",
+                        properties = buildJsonObject {
+                            put(ENQUEUED_AT_NANOS_PROPERTY, System.nanoTime())
+                            put("thread", threadIndex)
+                        },
+                    )
+                    trackedEvents.incrementAndGet()
+                    nextNanos += intervalNanos
+                }
+                finished.countDown()
+            }
+        }
+        finished.await()
+        return trackedEvents.get()
+    }
+
+    /**
+     * Waits until the dataplane has accepted or rejected [expectedEvents] events, flushing regularly so that the last
+     * batches are uploaded, or until the drain timeout expires. Returns `true` if every event was answered.
+     */
+    private fun awaitAcknowledged(analytics: Analytics, dataplane: MockDataplane, expectedEvents: Long): Boolean {
+        fun answeredEvents() = dataplane.acceptedEvents.get() + dataplane.rejectedEvents.get()
+
+        val deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.drainTimeoutSeconds.toLong())
+        while (answeredEvents() < expectedEvents && System.nanoTime() < deadlineNanos) {
+            analytics.flush()
+            Thread.sleep(DRAIN_POLL_INTERVAL_MILLIS)
+        }
+        return answeredEvents() >= expectedEvents
+    }
+
+    private fun resetPeakHeapUsage() {
+        System.gc()
+        heapPools().forEach { it.resetPeakUsage() }
+    }
+
+    private fun peakHeapUsage(): Long = heapPools().sumOf { it.peakUsage?.used ?: 0L }
+
+    private fun heapPools() = ManagementFactory.getMemoryPoolMXBeans().filter { it.type == MemoryType.HEAP }
+}
+
+/**
+ * The outcome of a load test run against one storage type.
+ */
+data class LoadTestReport(
+    val storageType: StorageType,
+    val trackedEvents: Long,
+    val droppedEvents: Long,
+    val acceptedEvents: Long,
+    val rejectedEvents: Long,
+    val trackRate: Double,
+    val acceptedRate: Double,
+    val p50LatencyMillis: Long?,
+    val p99LatencyMillis: Long?,
+    val peakHeapBytes: Long,
+    val bytesOnTheWire: Long,
+    val responses: Map<Int, Long>,
+    val isDrained: Boolean,
+) {
+
+    override fun toString(): String = """
+        |Storage: $storageType
+        |  track() calls:          $trackedEvents (${"%.0f".format(trackRate)} events/s)
+        |  dropped by the SDK:     $droppedEvents
+        |  accepted by dataplane:  $acceptedEvents (${"%.0f".format(acceptedRate)} events/s)${if (isDrained) "" else " - drain timed out"}
+        |  rejected with 413:      $rejectedEvents
+        |  enqueue-to-ack latency: p50=${p50LatencyMillis ?: "-"} ms, p99=${p99LatencyMillis ?: "-"} ms
+        |  heap high-water mark:   ${"%.1f".format(peakHeapBytes / BYTES_PER_MEGABYTE)} MB
+        |  bytes on the wire:      ${"%.1f".format(bytesOnTheWire / BYTES_PER_MEGABYTE)} MB
+        |  batch responses:        $responses
+    """.trimMargin()
+}
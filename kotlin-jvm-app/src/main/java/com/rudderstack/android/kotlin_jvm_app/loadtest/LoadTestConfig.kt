@@ -0,0 +1,99 @@
+package com.rudderstack.android.kotlin_jvm_app.loadtest
+
+import com.rudderstack.sdk.kotlin.core.StorageType
+
+/**
+ * The settings of a load test run, parsed from `key=value` command line arguments, e.g.
+ * `load-test threads=8 rate=5000 duration=60 storage=FILE latency=50 error5xx=0.01 gzip=true`.
+ *
+ * @property threads The number of threads calling `track()`.
+ * @property targetRate The total number of events per second made by all the threads together.
+ * @property durationSeconds How long events are made for.
+ * @property drainTimeoutSeconds How long to wait for the remaining events to be acknowledged once the run is over.
+ * @property storageTypes The storages to run the test against, one after the other.
+ * @property gzipEnabled Whether the SDK compresses the batches it uploads.
+ * @property dataplane The behaviour of the mock dataplane.
+ */
+data class LoadTestConfig(
+    val threads: Int = 4,
+    val targetRate: Int = 1_000,
+    val durationSeconds: Int = 30,
+    val drainTimeoutSeconds: Int = 60,
+    val storageTypes: List<StorageType> = listOf(StorageType.FILE, StorageType.IN_MEMORY),
+    val gzipEnabled: Boolean = true,
+    val dataplane: MockDataplaneConfig = MockDataplaneConfig(),
+) {
+
+    companion object {
+
+        /**
+         * Parses the `key=value` [args], using the default of every setting which isn't given.
+         *
+         * @throws IllegalArgumentException If an argument is unknown or its value is invalid.
+         */
+        fun parse(args: List<String>): LoadTestConfig {
+            val values = args.associate { arg ->
+                val (key, value) = arg.split("=", limit = 2).takeIf { it.size == 2 }
+                    ?: throw IllegalArgumentException("Expected key=value, got '$arg'")
+                key to value
+            }
+            val unknownKeys = values.keys - KEYS
+            require(unknownKeys.isEmpty()) { "Unknown load test settings: $unknownKeys. Known settings: $KEYS" }
+
+            val defaults = LoadTestConfig()
+            return LoadTestConfig(
+                threads = values["threads"]?.toInt() ?: defaults.threads,
+                targetRate = values["rate"]?.toInt() ?: defaults.targetRate,
+                durationSeconds = values["duration"]?.toInt() ?: defaults.durationSeconds,
+                drainTimeoutSeconds = values["drainTimeout"]?.toInt() ?: defaults.drainTimeoutSeconds,
+                storageTypes = values["storage"]?.let { parseStorageTypes(it) } ?: defaults.storageTypes,
+                gzipEnabled = values["gzip"]?.toBooleanStrict() ?: defaults.gzipEnabled,
+                dataplane = MockDataplaneConfig(
+                    latencyMillis = values["latency"]?.toLong() ?: defaults.dataplane.latencyMillis,
+                    error429Rate = values["error429"]?.toDouble() ?: defaults.dataplane.error429Rate,
+                    error5xxRate = values["error5xx"]?.toDouble() ?: defaults.dataplane.error5xxRate,
+                    error413Rate = values["error413"]?.toDouble() ?: defaults.dataplane.error413Rate,
+                ),
+            ).also { it.validate() }
+        }
+
+        private val KEYS = setOf(
+            "threads", "rate", "duration", "drainTimeout", "storage", "gzip", "latency", "error429", "error5xx", "error413"
+        )
+
+        private fun parseStorageTypes(value: String): List<StorageType> = when (value.uppercase()) {
+            "BOTH" -> listOf(StorageType.FILE, StorageType.IN_MEMORY)
+            else -> listOf(StorageType.valueOf(value.uppercase()))
+        }
+    }
+
+    private fun validate() {
+        require(threads > 0) { "threads must be positive" }
+        require(targetRate > 0) { "rate must be positive" }
+        require(durationSeconds > 0) { "duration must be positive" }
+        require(drainTimeoutSeconds >= 0) { "drainTimeout must not be negative" }
+        dataplane.validate()
+    }
+}
+
+/**
+ * The behaviour of the mock dataplane.
+ *
+ * @property latencyMillis How long every request takes to be answered.
+ * @property error429Rate The fraction of the batches rejected with 429 Too Many Requests.
+ * @property error5xxRate The fraction of the batches rejected with 503 Service Unavailable.
+ * @property error413Rate The fraction of the batches rejected with 413 Payload Too Large, which the SDK drops.
+ */
+data class MockDataplaneConfig(
+    val latencyMillis: Long = 0,
+    val error429Rate: Double = 0.0,
+    val error5xxRate: Double = 0.0,
+    val error413Rate: Double = 0.0,
+) {
+
+    internal fun validate() {
+        require(latencyMillis >= 0) { "latency must not be negative" }
+        require(listOf(error429Rate, error5xxRate, error413Rate).all { it in 0.0..1.0 }) { "error rates must be in [0, 1]" }
+        require(error429Rate + error5xxRate + error413Rate <= 1.0) { "the error rates must add up to at most 1" }
+    }
+}
@@ -0,0 +1,147 @@
+package com.rudderstack.android.kotlin_jvm_app.loadtest
+
+import com.sun.net.httpserver.HttpExchange
+import com.sun.net.httpserver.HttpServer
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.jsonArray
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.longOrNull
+import java.net.InetSocketAddress
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.ThreadLocalRandom
+import java.util.concurrent.atomic.AtomicLong
+import java.util.zip.GZIPInputStream
+
+/**
+ * The property of the load test events holding the [System.nanoTime] at which `track()` was called.
+ */
+internal const val ENQUEUED_AT_NANOS_PROPERTY = "loadTestEnqueuedAtNanos"
+
+private const val NANOS_PER_MILLI = 1_000_000L
+private const val SOURCE_CONFIG_RESPONSE =
+    """{"isHosted":true,"source":{"id":"load-test","name":"Load test","writeKey":"load-test","enabled":true,""" +
+        """"workspaceId":"load-test","updatedAt":"2024-01-01T00:00:00.000Z","destinations":[]}}"""
+
+/**
+ * An embedded stand-in for the `/v1/batch` and `/sourceConfig` endpoints of a dataplane, which answers with the
+ * configured latency and error rates, and measures what it receives.
+ *
+ * Gzipped batches are decompressed, so that the events they contain are counted. The enqueue-to-ack latency of every
+ * accepted event is taken from its [ENQUEUED_AT_NANOS_PROPERTY], as the SDK runs in the same process.
+ *
+ * @property config The latency and error rates of the responses.
+ */
+class MockDataplane(private val config: MockDataplaneConfig) : AutoCloseable {
+
+    private val server = HttpServer.create(InetSocketAddress("localhost", 0), 0).apply {
+        // The requests sleep for the configured latency, so each of them gets its own thread
+        executor = Executors.newCachedThreadPool()
+        createContext("/v1/batch", ::handleBatch)
+        createContext("/sourceConfig", ::handleSourceConfig)
+    }
+
+    /**
+     * The enqueue-to-ack latencies of the accepted events.
+     */
+    val latencies = LatencyHistogram()
+
+    /**
+     * The number of bytes of the request bodies received, as sent on the wire.
+     */
+    val bytesReceived = AtomicLong()
+
+    /**
+     * The number of events in the batches answered with 200.
+     */
+    val acceptedEvents = AtomicLong()
+
+    /**
+     * The number of events in the batches answered with 413, which the SDK drops.
+     */
+    val rejectedEvents = AtomicLong()
+
+    /**
+     * The number of batches answered with each status code.
+     */
+    val responses: Map<Int, Long>
+        get() = responseCounts.mapValues { it.value.get() }
+
+    private val responseCounts = listOf(200, 413, 429, 503).associateWith { AtomicLong() }
+
+    /**
+     * The URL to use as both the dataplane and the control plane URL of the SDK.
+     */
+    val url: String
+        get() = "http://localhost:${server.address.port}"
+
+    fun start() {
+        server.start()
+    }
+
+    override fun close() {
+        server.stop(0)
+        (server.executor as? ExecutorService)?.shutdownNow()
+    }
+
+    private fun handleBatch(exchange: HttpExchange) = exchange.respond {
+        val body = exchange.requestBody.readBytes()
+        bytesReceived.addAndGet(body.size.toLong())
+        simulateLatency()
+
+        val statusCode = pickStatusCode()
+        responseCounts.getValue(statusCode).incrementAndGet()
+        // The batches answered with 429 or 5xx are retried by the SDK, so their events are counted when they are accepted
+        if (statusCode == 200 || statusCode == 413) {
+            val isGzipped = exchange.requestHeaders.getFirst("Content-Encoding").equals("gzip", ignoreCase = true)
+            val events = readEvents(if (isGzipped) GZIPInputStream(body.inputStream()).readBytes() else body)
+            if (statusCode == 200) acknowledge(events) else rejectedEvents.addAndGet(events.size.toLong())
+        }
+        exchange.sendResponseHeaders(statusCode, -1)
+    }
+
+    private fun handleSourceConfig(exchange: HttpExchange) = exchange.respond {
+        simulateLatency()
+        val response = SOURCE_CONFIG_RESPONSE.toByteArray()
+        exchange.responseHeaders.add("Content-Type", "application/json")
+        exchange.sendResponseHeaders(200, response.size.toLong())
+        exchange.responseBody.write(response)
+    }
+
+    private fun readEvents(batch: ByteArray): List<JsonElement> {
+        return Json.parseToJsonElement(batch.decodeToString()).jsonObject["batch"]?.jsonArray.orEmpty()
+    }
+
+    private fun acknowledge(events: List<JsonElement>) {
+        val ackedAtNanos = System.nanoTime()
+        events.forEach { event ->
+            event.jsonObject["properties"]?.jsonObject?.get(ENQUEUED_AT_NANOS_PROPERTY)?.jsonPrimitive?.longOrNull
+                ?.let { enqueuedAtNanos -> latencies.record((ackedAtNanos - enqueuedAtNanos) / NANOS_PER_MILLI) }
+        }
+        acceptedEvents.addAndGet(events.size.toLong())
+    }
+
+    private fun pickStatusCode(): Int {
+        val draw = ThreadLocalRandom.current().nextDouble()
+        return when {
+            draw < config.error429Rate -> 429
+            draw < config.error429Rate + config.error5xxRate -> 503
+            draw < config.error429Rate + config.error5xxRate + config.error413Rate -> 413
+            else -> 200
+        }
+    }
+
+    private fun simulateLatency() {
+        if (config.latencyMillis > 0) Thread.sleep(config.latencyMillis)
+    }
+}
+
+private inline fun HttpExchange.respond(block: () -> Unit) {
+    try {
+        block()
+    } finally {
+        close()
+    }
+}
@@ -1,5 +1,7 @@
 package com.rudderstack.android.kotlin_jvm_app
 
+import com.rudderstack.android.kotlin_jvm_app.loadtest.LoadTest
+import com.rudderstack.android.kotlin_jvm_app.loadtest.LoadTestConfig
 import com.rudderstack.sdk.kotlin.core.Analytics
 import com.rudderstack.sdk.kotlin.core.Configuration
 import com.rudderstack.sdk.kotlin.core.Configuration.Companion.DEFAULT_GZIP_STATUS
@@ -13,7 +15,17 @@ import java.util.Date
 
 private lateinit var analytics: Analytics
 
-fun main() {
+/**
+ * Makes a few sample calls, or runs a load test against a local mock dataplane when the first argument is `load-test`,
+ * e.g. `load-test threads=8 rate=5000 duration=60 storage=FILE latency=50 error5xx=0.01`. See [LoadTestConfig] for the
+ * settings.
+ */
+fun main(args: Array<String>) {
+    if (args.firstOrNull() == "load-test") {
+        LoadTest(LoadTestConfig.parse(args.drop(1))).run()
+        return
+    }
+
     analytics = Analytics(
         configuration = Configuration(
             writeKey = "<WRITE KEY>",
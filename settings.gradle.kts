@@ -24,6 +24,7 @@ include(":app")
 include(":core")
 include(":android")
 include(":kotlin-jvm-app")
+include(":benchmarks")
 include(":integrations:adjust")
 include(":integrations:appsflyer")
 include(":integrations:firebase")